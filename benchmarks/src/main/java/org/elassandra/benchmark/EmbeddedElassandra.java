@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.benchmark;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.apache.cassandra.config.Config;
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.cql3.UntypedResultSet;
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.exceptions.ConfigurationException;
+import org.apache.cassandra.service.ElassandraDaemon;
+import org.elassandra.cluster.InternalCassandraClusterService;
+import org.elassandra.config.YamlTestConfigurationLoader;
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.io.PathUtils;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.node.Node;
+import org.elasticsearch.node.internal.InternalSettingsPreparer;
+import org.elasticsearch.plugins.Plugin;
+
+/**
+ * Single Elassandra node started in the benchmark JVM, like the ESSingleNodeTestCase node.
+ * Cassandra cannot be restarted in the same JVM, so the node is started once per JMH fork
+ * and the data is written in a fresh directory under java.io.tmpdir.
+ */
+public final class EmbeddedElassandra {
+    /** Number of vnodes of the embedded node, 8 by default */
+    public static final String NUM_TOKENS = "benchmarks.num_tokens";
+
+    private static Node node;
+
+    private EmbeddedElassandra() {
+    }
+
+    /**
+     * Start the embedded node if not yet started.
+     * @param numTokens number of vnodes, only used by the first call.
+     */
+    public static synchronized Node start(int numTokens) throws IOException {
+        if (node != null)
+            return node;
+
+        System.setProperty(NUM_TOKENS, Integer.toString(numTokens));
+        Path home = PathUtils.get(System.getProperty("java.io.tmpdir"), "elassandra-benchmarks");
+        Path conf = home.resolve("conf");
+        Files.createDirectories(conf);
+        setPropertyIfAbsent("cassandra.home", home.toString());
+        setPropertyIfAbsent("cassandra.logdir", home.toString());
+        setPropertyIfAbsent("cassandra.storagedir", home.toString());
+        setPropertyIfAbsent("cassandra.config.dir", conf.toString());
+        setPropertyIfAbsent("cassandra.config", resource("cassandra.yaml"));
+        setPropertyIfAbsent("cassandra-rackdc.properties", resource("cassandra-rackdc.properties"));
+        setPropertyIfAbsent("cassandra.config.loader", ConfigurationLoader.class.getName());
+        DatabaseDescriptor.createAllDirectories();
+
+        Settings settings = Settings.builder()
+                .put(ClusterName.SETTING, DatabaseDescriptor.getClusterName())
+                .put("path.home", System.getProperty("cassandra.home"))
+                .put("path.conf", System.getProperty("cassandra.config.dir"))
+                .put("path.data", DatabaseDescriptor.getAllDataFileLocations()[0])
+                .put("node.name", "benchmark")
+                .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+                .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+                .put("http.enabled", false)
+                .put(InternalSettingsPreparer.IGNORE_SYSTEM_PROPERTIES_SETTING, true)
+                .build();
+        ElassandraDaemon.instance.activate(false, settings, new Environment(settings), Collections.<Class<? extends Plugin>>emptyList());
+        node = ElassandraDaemon.instance.node();
+
+        ClusterHealthResponse health = client().admin().cluster().prepareHealth().setWaitForGreenStatus().setTimeout(TimeValue.timeValueMinutes(1)).get();
+        if (health.isTimedOut())
+            throw new IllegalStateException("Embedded node not started: " + health.getStatus());
+        return node;
+    }
+
+    public static Client client() {
+        return node.client();
+    }
+
+    public static InternalCassandraClusterService clusterService() {
+        return (InternalCassandraClusterService) node.clusterService();
+    }
+
+    /**
+     * Create the index with the provided mapping if it does not exist, and wait for it to be green.
+     */
+    public static void createIndex(String index, Settings settings, String type, XContentBuilder mapping) {
+        if (!clusterService().state().metaData().hasIndex(index)) {
+            client().admin().indices().prepareCreate(index).setSettings(settings).addMapping(type, mapping).get();
+        }
+        client().admin().cluster().prepareHealth(index).setWaitForGreenStatus().setTimeout(TimeValue.timeValueMinutes(1)).get();
+    }
+
+    public static UntypedResultSet process(String query, Object... values) throws Exception {
+        return clusterService().process(ConsistencyLevel.ONE, query, values);
+    }
+
+    private static void setPropertyIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null)
+            System.setProperty(key, value);
+    }
+
+    private static String resource(String name) {
+        URL url = EmbeddedElassandra.class.getClassLoader().getResource(name);
+        if (url == null)
+            throw new IllegalStateException("Missing benchmark resource " + name);
+        return url.toString();
+    }
+
+    /**
+     * Test configuration with the vnodes of the benchmark.
+     */
+    public static class ConfigurationLoader extends YamlTestConfigurationLoader {
+        @Override
+        public Config loadConfig(URL url) throws ConfigurationException {
+            Config config = super.loadConfig(url);
+            config.num_tokens = Integer.getInteger(NUM_TOKENS, 8);
+            return config;
+        }
+    }
+}
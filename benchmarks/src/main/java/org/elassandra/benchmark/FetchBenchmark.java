@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.benchmark;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.cql3.QueryProcessor;
+import org.apache.cassandra.cql3.UntypedResultSet;
+import org.elassandra.cluster.InternalCassandraClusterService;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Fetch of a document from Cassandra as done by GET and by the search fetch phase:
+ * build the CQL query, read the row locally and convert it to a source map.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FetchBenchmark {
+    static final String INDEX = "fetch";
+    static final String TYPE = "docs";
+    static final int DOCS = 1000;
+
+    private InternalCassandraClusterService clusterService;
+    private Map<String, ColumnDefinition> columnDefs;
+    private String[] columns;
+    private UntypedResultSet.Row row;
+    private int next = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        EmbeddedElassandra.start(8);
+        clusterService = EmbeddedElassandra.clusterService();
+        EmbeddedElassandra.createIndex(INDEX, Settings.EMPTY, TYPE, mapping());
+        for (int i = 0; i < DOCS; i++) {
+            QueryProcessor.executeInternal("INSERT INTO fetch.docs (\"_id\", name, value, price, created, tags) VALUES (?,?,?,?,?,?)",
+                    Integer.toString(i), "name-" + i, i, i * 1.5, new Date(1484438400000L + i), ImmutableList.of("tag-" + (i % 10), "tag-" + (i % 7)));
+        }
+        columnDefs = clusterService.indexServiceSafe(INDEX).mapperService().documentMapper(TYPE).getColumnDefinitions();
+        columns = columnDefs.keySet().toArray(new String[columnDefs.size()]);
+        row = QueryProcessor.executeInternal(buildFetchQuery(), "0").one();
+    }
+
+    static XContentBuilder mapping() throws Exception {
+        return XContentFactory.jsonBuilder()
+            .startObject()
+                .startObject("properties")
+                    .startObject("name").field("type", "string").field("index", "not_analyzed").field("cql_collection", "singleton").endObject()
+                    .startObject("value").field("type", "integer").field("cql_collection", "singleton").endObject()
+                    .startObject("price").field("type", "double").field("cql_collection", "singleton").endObject()
+                    .startObject("created").field("type", "date").field("cql_collection", "singleton").endObject()
+                    .startObject("tags").field("type", "string").field("index", "not_analyzed").field("cql_collection", "list").endObject()
+                .endObject()
+            .endObject();
+    }
+
+    @Benchmark
+    public String buildFetchQuery() throws Exception {
+        return clusterService.buildFetchQuery(INDEX, INDEX, TYPE, columns, false, columnDefs);
+    }
+
+    @Benchmark
+    public Map<String, Object> rowAsMap() throws Exception {
+        return clusterService.rowAsMap(INDEX, TYPE, row);
+    }
+
+    @Benchmark
+    public Map<String, Object> fetchRowAsMap() throws Exception {
+        String id = Integer.toString(next++ % DOCS);
+        UntypedResultSet rs = QueryProcessor.executeInternal(buildFetchQuery(), id);
+        return clusterService.rowAsMap(INDEX, TYPE, rs.one());
+    }
+}
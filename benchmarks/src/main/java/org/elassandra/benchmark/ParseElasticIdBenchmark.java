@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.elassandra.cluster.InternalCassandraClusterService;
+import org.elasticsearch.cluster.ClusterService.DocPrimaryKey;
+import org.elasticsearch.common.settings.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parse the _id of a document to its Cassandra primary key, for a single column and a composite primary key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseElasticIdBenchmark {
+    static final String INDEX = "ids";
+
+    private InternalCassandraClusterService clusterService;
+
+    @Setup
+    public void setup() throws Exception {
+        EmbeddedElassandra.start(8);
+        clusterService = EmbeddedElassandra.clusterService();
+        EmbeddedElassandra.createIndex(INDEX, Settings.EMPTY, "single", FetchBenchmark.mapping());
+        EmbeddedElassandra.process("CREATE TABLE IF NOT EXISTS ids.composite (a text, b int, c timestamp, d text, PRIMARY KEY ((a, b), c))");
+        EmbeddedElassandra.client().admin().indices().preparePutMapping(INDEX).setType("composite").setSource("{ \"composite\" : { \"discover\" : \".*\" }}").get();
+    }
+
+    @Benchmark
+    public DocPrimaryKey single() throws Exception {
+        return clusterService.parseElasticId(INDEX, "single", "AVm2JgG1ZK2bUp3Ia4oe");
+    }
+
+    @Benchmark
+    public DocPrimaryKey composite() throws Exception {
+        return clusterService.parseElasticId(INDEX, "composite", "[\"tenant-42\",12345,1484438400000]");
+    }
+
+    @Benchmark
+    public DocPrimaryKey partitionOnly() throws Exception {
+        return clusterService.parseElasticId(INDEX, "composite", "[\"tenant-42\",12345]");
+    }
+}
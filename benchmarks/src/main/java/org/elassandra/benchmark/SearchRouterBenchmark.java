@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.benchmark;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.elassandra.cluster.InternalCassandraClusterService;
+import org.elassandra.cluster.routing.AbstractSearchStrategy;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.common.settings.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Search router construction, done on each ring or shard state change, and per query route computation.
+ * The embedded node is started with the benchmarked number of vnodes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchRouterBenchmark {
+    static final String INDEX = "routing";
+
+    @Param({ "1", "16", "64", "256" })
+    public int vnodes;
+
+    @Param({ "PrimaryFirstSearchStrategy", "RandomSearchStrategy" })
+    public String strategy;
+
+    private AbstractSearchStrategy searchStrategy;
+    private Map<UUID, ShardRoutingState> shardStates;
+    private ClusterState clusterState;
+    private AbstractSearchStrategy.Router router;
+
+    @Setup
+    public void setup() throws Exception {
+        EmbeddedElassandra.start(vnodes);
+        EmbeddedElassandra.createIndex(INDEX, Settings.EMPTY, "docs", FetchBenchmark.mapping());
+        InternalCassandraClusterService clusterService = EmbeddedElassandra.clusterService();
+        searchStrategy = AbstractSearchStrategy.getSearchStrategyClass(strategy).newInstance();
+        shardStates = clusterService.getShardRoutingStates(INDEX);
+        clusterState = clusterService.state();
+        router = newRouter();
+    }
+
+    @Benchmark
+    public AbstractSearchStrategy.Router newRouter() {
+        return searchStrategy.newRouter(INDEX, INDEX, shardStates, clusterState);
+    }
+
+    @Benchmark
+    public AbstractSearchStrategy.Router.Route newRoute() {
+        return router.newRoute(null, null);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cassandra.cql3.QueryProcessor;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Local Cassandra writes indexed by the ElasticSecondaryIndex: inserts of new rows go through insertRow,
+ * overwrites of rows still in the memtable go through updateRow.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecondaryIndexBenchmark {
+    static final String INDEX = "indexing";
+    static final String TYPE = "docs";
+    static final int UPDATED_DOCS = 1000;
+
+    /** Indexed column types */
+    @Param({ "text", "numeric", "collection" })
+    public String columns;
+
+    private String insert;
+    private long nextId = UPDATED_DOCS;
+    private long nextUpdate = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        EmbeddedElassandra.start(8);
+        XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("properties");
+        switch (columns) {
+        case "text":
+            mapping.startObject("name").field("type", "string").field("index", "not_analyzed").field("cql_collection", "singleton").endObject();
+            mapping.startObject("description").field("type", "string").field("cql_collection", "singleton").endObject();
+            insert = "INSERT INTO indexing.docs (\"_id\", name, description) VALUES (?,?,?)";
+            break;
+        case "numeric":
+            mapping.startObject("count").field("type", "integer").field("cql_collection", "singleton").endObject();
+            mapping.startObject("total").field("type", "long").field("cql_collection", "singleton").endObject();
+            mapping.startObject("price").field("type", "double").field("cql_collection", "singleton").endObject();
+            mapping.startObject("created").field("type", "date").field("cql_collection", "singleton").endObject();
+            insert = "INSERT INTO indexing.docs (\"_id\", count, total, price, created) VALUES (?,?,?,?,?)";
+            break;
+        case "collection":
+            mapping.startObject("tags").field("type", "string").field("index", "not_analyzed").field("cql_collection", "list").endObject();
+            mapping.startObject("scores").field("type", "integer").field("cql_collection", "list").endObject();
+            insert = "INSERT INTO indexing.docs (\"_id\", tags, scores) VALUES (?,?,?)";
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported columns " + columns);
+        }
+        mapping.endObject().endObject();
+        EmbeddedElassandra.createIndex(INDEX, Settings.EMPTY, TYPE, mapping);
+        for (long i = 0; i < UPDATED_DOCS; i++)
+            write(i);
+    }
+
+    private void write(long i) {
+        String id = Long.toString(i);
+        switch (columns) {
+        case "text":
+            QueryProcessor.executeInternal(insert, id, "name-" + i, "The quick brown fox " + i + " jumps over the lazy dog");
+            break;
+        case "numeric":
+            QueryProcessor.executeInternal(insert, id, (int) i, i * 1000, i * 1.5, new Date(1484438400000L + i));
+            break;
+        default:
+            QueryProcessor.executeInternal(insert, id, ImmutableList.of("tag-" + (i % 10), "tag-" + (i % 7), "tag-" + (i % 3)), ImmutableList.of((int) i, (int) (i * 2)));
+            break;
+        }
+    }
+
+    @Benchmark
+    public void insertRow() {
+        write(nextId++);
+    }
+
+    @Benchmark
+    public void updateRow() {
+        write(nextUpdate++ % UPDATED_DOCS);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.db.marshal.DoubleType;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.ListType;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.cassandra.db.marshal.TimestampType;
+import org.apache.cassandra.db.marshal.UTF8Type;
+import org.apache.cassandra.db.marshal.UUIDType;
+import org.elassandra.cluster.InternalCassandraClusterService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversion of document field values to and from Cassandra column values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({ "text", "int", "bigint", "double", "timestamp", "uuid", "list<text>" })
+    public String cqlType;
+
+    private AbstractType<?> type;
+    private Object value;
+    private ByteBuffer serialized;
+
+    @Setup
+    public void setup() throws Exception {
+        switch (cqlType) {
+        case "text":
+            type = UTF8Type.instance;
+            value = "The quick brown fox jumps over the lazy dog";
+            break;
+        case "int":
+            type = Int32Type.instance;
+            value = 123456;
+            break;
+        case "bigint":
+            type = LongType.instance;
+            value = 1234567890123L;
+            break;
+        case "double":
+            type = DoubleType.instance;
+            value = 1234.5678;
+            break;
+        case "timestamp":
+            type = TimestampType.instance;
+            value = new Date(1484438400000L);
+            break;
+        case "uuid":
+            type = UUIDType.instance;
+            value = new UUID(0x1234567890abcdefL, 0xfedcba0987654321L);
+            break;
+        case "list<text>":
+            type = ListType.getInstance(UTF8Type.instance, true);
+            value = Arrays.asList("alpha", "beta", "gamma", "delta", "epsilon");
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported type " + cqlType);
+        }
+        serialized = serialize();
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() throws Exception {
+        return InternalCassandraClusterService.serializeType("bench", "docs", type, "field", value, null);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return InternalCassandraClusterService.deserialize(type, serialized.duplicate());
+    }
+}
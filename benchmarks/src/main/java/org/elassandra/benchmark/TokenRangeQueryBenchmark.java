@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cassandra.dht.Murmur3Partitioner.LongToken;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.apache.lucene.search.Query;
+import org.elassandra.cluster.InternalCassandraClusterService;
+import org.elassandra.cluster.routing.TokenRanges;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Build the _token filter of a shard search, a shard of a single node cluster owning one token range per vnode.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenRangeQueryBenchmark {
+
+    @Param({ "1", "16", "64", "256" })
+    public int vnodes;
+
+    private List<Range<Token>> rangeList;
+    private TokenRanges tokenRanges;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(vnodes);
+        long[] tokens = new long[vnodes];
+        for (int i = 0; i < vnodes; i++)
+            tokens[i] = random.nextLong();
+        Arrays.sort(tokens);
+
+        // ranges of the ring split at the vnode tokens, the wrap around range being split at the ring bounds like in the search router.
+        rangeList = new ArrayList<>(vnodes + 1);
+        rangeList.add(new Range<Token>(new LongToken(Long.MIN_VALUE), new LongToken(tokens[0])));
+        for (int i = 1; i < vnodes; i++)
+            rangeList.add(new Range<Token>(new LongToken(tokens[i - 1]), new LongToken(tokens[i])));
+        rangeList.add(new Range<Token>(new LongToken(tokens[vnodes - 1]), new LongToken(Long.MAX_VALUE)));
+        tokenRanges = TokenRanges.of(rangeList);
+    }
+
+    @Benchmark
+    public Query fromTokenRanges() {
+        return InternalCassandraClusterService.newTokenRangeQuery(tokenRanges);
+    }
+
+    @Benchmark
+    public Query fromRangeList() {
+        Collection<Range<Token>> ranges = rangeList;
+        return InternalCassandraClusterService.newTokenRangeQuery(ranges);
+    }
+}
@@ -424,6 +424,31 @@ public abstract class ModificationStatement implements CQLStatement
         return null;
     }
 
+    /**
+     * Execute a statement without conditions, notifying the callback when the consistency level is met
+     * instead of blocking the calling thread, see {@link StorageProxy#mutateAsync}.
+     */
+    public void executeAsync(QueryState queryState, QueryOptions options, StorageProxy.WriteCallback callback)
+    throws RequestExecutionException, RequestValidationException
+    {
+        if (options.getConsistency() == null)
+            throw new InvalidRequestException("Invalid empty consistency level");
+        if (hasConditions())
+            throw new InvalidRequestException("Conditional updates cannot be executed asynchronously");
+
+        ConsistencyLevel cl = options.getConsistency();
+        if (isCounter())
+            cl.validateCounterForWrite(cfm);
+        else
+            cl.validateForWrite(cfm.ksName);
+
+        Collection<? extends IMutation> mutations = getMutations(options, false, options.getTimestamp(queryState));
+        if (mutations.isEmpty())
+            callback.onSuccess();
+        else
+            StorageProxy.mutateAsync(mutations, cl, callback);
+    }
+
     public ResultMessage executeWithCondition(QueryState queryState, QueryOptions options)
     throws RequestExecutionException, RequestValidationException
     {
@@ -85,6 +85,47 @@ public class CommitLogReplayer
     private final ReplayFilter replayFilter;
     private final CommitLogArchiver archiver;
 
+    // Elassandra: commitlog position of the mutation replayed by the current thread, so that secondary indexes
+    // can skip mutations they already persisted.
+    private static final ThreadLocal<ReplayPosition> replayingPosition = new ThreadLocal<>();
+    private static final AtomicInteger activeReplayers = new AtomicInteger();
+
+    /**
+     * @return the commitlog position of the mutation replayed by the current thread, or null if not replaying.
+     */
+    public static ReplayPosition replayingPosition()
+    {
+        return replayingPosition.get();
+    }
+
+    /**
+     * Apply a mutation read from the commitlog at the provided position, and wait for it.
+     */
+    public static void applyReplayed(Mutation mutation, ReplayPosition position)
+    {
+        replayingPosition.set(position);
+        try
+        {
+            Uninterruptibles.getUninterruptibly(Keyspace.open(mutation.getKeyspaceName()).applyFromCommitLog(mutation));
+        }
+        catch (ExecutionException e)
+        {
+            throw Throwables.propagate(e.getCause());
+        }
+        finally
+        {
+            replayingPosition.remove();
+        }
+    }
+
+    /**
+     * @return true while replayed mutations are being applied, in no particular order.
+     */
+    public static boolean isReplaying()
+    {
+        return activeReplayers.get() > 0;
+    }
+
     CommitLogReplayer(CommitLog commitLog, ReplayPosition globalPosition, Map<UUID, IntervalSet<ReplayPosition>> cfPersisted, ReplayFilter replayFilter)
     {
         this.keyspacesRecovered = new NonBlockingHashSet<Keyspace>();
@@ -99,6 +140,7 @@ public class CommitLogReplayer
         this.globalPosition = globalPosition;
         this.replayFilter = replayFilter;
         this.archiver = commitLog.archiver;
+        activeReplayers.incrementAndGet();
     }
 
     public static CommitLogReplayer construct(CommitLog commitLog)
@@ -186,7 +228,14 @@ public class CommitLogReplayer
             logger.warn(String.format("Skipped %d mutations from unknown (probably removed) CF with id %s", entry.getValue().intValue(), entry.getKey()));
 
         // wait for all the writes to finish on the mutation stage
-        FBUtilities.waitOnFutures(futures);
+        try
+        {
+            FBUtilities.waitOnFutures(futures);
+        }
+        finally
+        {
+            activeReplayers.decrementAndGet();
+        }
         logger.trace("Finished waiting on mutations from recovery");
 
         // flush replayed keyspaces
@@ -642,14 +691,7 @@ public class CommitLogReplayer
                 {
                     assert !newMutation.isEmpty();
 
-                    try
-                    {
-                        Uninterruptibles.getUninterruptibly(Keyspace.open(newMutation.getKeyspaceName()).applyFromCommitLog(newMutation));
-                    }
-                    catch (ExecutionException e)
-                    {
-                        throw Throwables.propagate(e.getCause());
-                    }
+                    applyReplayed(newMutation, new ReplayPosition(desc.id, entryLocation));
 
                     keyspacesRecovered.add(keyspace);
                 }
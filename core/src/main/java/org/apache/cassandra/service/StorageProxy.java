@@ -23,6 +23,7 @@ import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.management.MBeanServer;
@@ -40,6 +41,7 @@ import org.slf4j.LoggerFactory;
 import org.apache.cassandra.batchlog.Batch;
 import org.apache.cassandra.batchlog.BatchlogManager;
 import org.apache.cassandra.batchlog.LegacyBatchlogMigrator;
+import org.apache.cassandra.concurrent.ScheduledExecutors;
 import org.apache.cassandra.concurrent.Stage;
 import org.apache.cassandra.concurrent.StageManager;
 import org.apache.cassandra.config.CFMetaData;
@@ -834,6 +836,157 @@ public class StorageProxy implements StorageProxyMBean
         }
     }
 
+    /**
+     * Notified of the outcome of an asynchronous write.
+     */
+    public interface WriteCallback
+    {
+        void onSuccess();
+
+        void onFailure(Throwable t);
+    }
+
+    /**
+     * Non-blocking version of {@link #mutateWithTriggers(Collection, ConsistencyLevel, boolean)} : the mutations
+     * are sent to the replicas and the callback is notified from the write response handlers when the consistency
+     * level is met for all the mutations, on the first failure, or after the write rpc timeout.
+     * Counters, triggers, materialized views and CL.ANY are applied synchronously before notifying the callback.
+     * The callback may run on the messaging or mutation stage threads and should not block.
+     *
+     * @param mutations the mutations to be applied across the replicas
+     * @param consistency_level the consistency level for the operation
+     * @param callback notified once of the write outcome
+     */
+    @SuppressWarnings("unchecked")
+    public static void mutateAsync(Collection<? extends IMutation> mutations, ConsistencyLevel consistency_level, WriteCallback callback)
+    throws UnavailableException, OverloadedException, InvalidRequestException
+    {
+        boolean blocking = consistency_level == ConsistencyLevel.ANY;
+        for (IMutation mutation : mutations)
+            blocking |= mutation instanceof CounterMutation;
+        Collection<Mutation> augmented = blocking ? null : TriggerExecutor.instance.execute(mutations);
+        boolean updatesView = Keyspace.open(mutations.iterator().next().getKeyspaceName())
+                              .viewManager
+                              .updatesAffectView(mutations, true);
+        if (blocking || augmented != null || updatesView)
+        {
+            try
+            {
+                if (augmented != null)
+                    mutateAtomically(augmented, consistency_level, updatesView);
+                else
+                    mutateWithTriggers(mutations, consistency_level, false);
+            }
+            catch (WriteTimeoutException | WriteFailureException e)
+            {
+                callback.onFailure(e);
+                return;
+            }
+            callback.onSuccess();
+            return;
+        }
+
+        Tracing.trace("Determining replicas for mutation");
+        final String localDataCenter = DatabaseDescriptor.getEndpointSnitch().getDatacenter(FBUtilities.getBroadcastAddress());
+        AsyncWrite write = new AsyncWrite(mutations.size(), callback);
+        try
+        {
+            WriteType wt = mutations.size() <= 1 ? WriteType.SIMPLE : WriteType.UNLOGGED_BATCH;
+            for (IMutation mutation : mutations)
+                write.handlers.add(performWrite(mutation, consistency_level, localDataCenter, standardWritePerformer, write.newSignal(), wt));
+        }
+        catch (UnavailableException | OverloadedException e)
+        {
+            writeMetrics.unavailables.mark();
+            writeMetrics.addNano(System.nanoTime() - write.startTime);
+            Tracing.trace(e instanceof UnavailableException ? "Unavailable" : "Overloaded");
+            throw e;
+        }
+        write.start();
+    }
+
+    /**
+     * Tracks the response handlers of an asynchronous write, and notifies the callback once when all the handlers
+     * have been signaled, or when the write rpc timeout elapsed.
+     */
+    private static class AsyncWrite implements Runnable
+    {
+        private final long startTime = System.nanoTime();
+        private final List<AbstractWriteResponseHandler<IMutation>> handlers;
+        private final WriteCallback callback;
+        // handlers not signaled yet, plus one until all the handlers are registered.
+        private final AtomicInteger pending;
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+        private volatile ScheduledFuture<?> timeout;
+
+        AsyncWrite(int size, WriteCallback callback)
+        {
+            this.handlers = new ArrayList<>(size);
+            this.callback = callback;
+            this.pending = new AtomicInteger(size + 1);
+        }
+
+        // a handler may be signaled more than once, on success then on failures.
+        Runnable newSignal()
+        {
+            final AtomicBoolean signaled = new AtomicBoolean(false);
+            return () -> {
+                if (signaled.compareAndSet(false, true) && pending.decrementAndGet() == 0)
+                    complete();
+            };
+        }
+
+        void start()
+        {
+            // the handlers started before scheduling, so they all have timed out when the task runs.
+            timeout = ScheduledExecutors.nonPeriodicTasks.schedule(this, DatabaseDescriptor.getWriteRpcTimeout(), TimeUnit.MILLISECONDS);
+            if (pending.decrementAndGet() == 0)
+                complete();
+        }
+
+        public void run()
+        {
+            complete();
+        }
+
+        private void complete()
+        {
+            if (!completed.compareAndSet(false, true))
+                return;
+
+            ScheduledFuture<?> timeout = this.timeout;
+            if (timeout != null)
+                timeout.cancel(false);
+
+            Throwable failure = null;
+            try
+            {
+                // signaled handlers do not block, others throw a WriteTimeoutException.
+                for (AbstractWriteResponseHandler<IMutation> handler : handlers)
+                    handler.get();
+            }
+            catch (WriteFailureException e)
+            {
+                writeMetrics.failures.mark();
+                failure = e;
+            }
+            catch (WriteTimeoutException e)
+            {
+                writeMetrics.timeouts.mark();
+                failure = e;
+            }
+            finally
+            {
+                writeMetrics.addNano(System.nanoTime() - startTime);
+            }
+
+            if (failure == null)
+                callback.onSuccess();
+            else
+                callback.onFailure(failure);
+        }
+    }
+
     /**
      * See mutate. Adds additional steps before and after writing a batch.
      * Before writing the batch (but after doing availability check against the FD for the row replicas):
@@ -56,6 +56,7 @@ import org.apache.cassandra.cql3.QueryProcessor;
 import org.apache.cassandra.cql3.UntypedResultSet;
 import org.apache.cassandra.cql3.UntypedResultSet.Row;
 import org.apache.cassandra.cql3.statements.IndexTarget;
+import org.apache.cassandra.cql3.statements.ModificationStatement;
 import org.apache.cassandra.cql3.statements.ParsedStatement;
 import org.apache.cassandra.db.ConsistencyLevel;
 import org.apache.cassandra.db.Keyspace;
@@ -63,6 +64,7 @@ import org.apache.cassandra.db.SystemKeyspace;
 import org.apache.cassandra.db.marshal.AbstractType;
 import org.apache.cassandra.db.marshal.BytesType;
 import org.apache.cassandra.db.marshal.CollectionType;
+import org.apache.cassandra.db.marshal.CompositeType;
 import org.apache.cassandra.db.marshal.ListType;
 import org.apache.cassandra.db.marshal.MapType;
 import org.apache.cassandra.db.marshal.SetType;
@@ -108,6 +110,7 @@ import org.apache.cassandra.service.ClientState;
 import org.apache.cassandra.service.ElassandraDaemon;
 import org.apache.cassandra.service.MigrationManager;
 import org.apache.cassandra.service.QueryState;
+import org.apache.cassandra.service.StorageProxy;
 import org.apache.cassandra.service.StorageService;
 import org.apache.cassandra.transport.Server;
 import org.apache.cassandra.transport.messages.ResultMessage;
@@ -127,6 +130,8 @@ import org.elassandra.ConcurrentMetaDataUpdateException;
 import org.elassandra.NoPersistedMetaDataException;
 import org.elassandra.cluster.routing.AbstractSearchStrategy;
 import org.elassandra.cluster.routing.PrimaryFirstSearchStrategy;
+import org.elassandra.cluster.routing.TokenRanges;
+import org.elassandra.index.ElasticSecondaryIndicesUpdater;
 import org.elassandra.index.ExtendedElasticSecondaryIndex;
 import org.elassandra.index.mapper.internal.NodeFieldMapper;
 import org.elassandra.index.mapper.internal.TokenFieldMapper;
@@ -139,6 +144,7 @@ import org.elasticsearch.action.ActionWriteResponse.ShardInfo;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingClusterStateUpdateRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexRequest.OpType;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
@@ -154,6 +160,7 @@ import org.elasticsearch.cluster.routing.OperationRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.service.InternalClusterService;
 import org.elasticsearch.common.Booleans;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.geo.GeoPoint;
@@ -247,6 +254,7 @@ public class InternalCassandraClusterService extends InternalClusterService {
     public static String SETTING_CLUSTER_DEFAULT_SEARCH_STRATEGY_CLASS = "cluster.default_search_strategy_class";
     public static String SETTING_CLUSTER_DEFAULT_INCLUDE_NODE_ID = "cluster.default_include_node_id";
     public static String SETTING_CLUSTER_DEFAULT_SYNCHRONOUS_REFRESH = "cluster.default_synchronous_refresh";
+    public static String SETTING_CLUSTER_DEFAULT_SYNCHRONOUS_REFRESH_DELAY = "cluster.default_synchronous_refresh_delay";
     public static String SETTING_CLUSTER_DEFAULT_DROP_ON_DELETE_INDEX = "cluster.default_drop_on_delete_index";
     public static String SETTING_CLUSTER_DEFAULT_SNAPSHOT_WITH_SSTABLE = "cluster.default_snapshot_with_sstable";
     
@@ -343,6 +351,9 @@ public class InternalCassandraClusterService extends InternalClusterService {
         selectMetadataQuery = String.format(Locale.ROOT, "SELECT metadata,version,owner FROM \"%s\".\"%s\" WHERE cluster_name = ?", elasticAdminKeyspaceName, ELASTIC_ADMIN_METADATA_TABLE);
         insertMetadataQuery = String.format(Locale.ROOT, "INSERT INTO \"%s\".\"%s\" (cluster_name,owner,version,metadata) VALUES (?,?,?,?) IF NOT EXISTS", elasticAdminKeyspaceName, ELASTIC_ADMIN_METADATA_TABLE);
         updateMetaDataQuery = String.format(Locale.ROOT, "UPDATE \"%s\".\"%s\" SET owner = ?, version = ?, metadata = ? WHERE cluster_name = ? IF version < ?", elasticAdminKeyspaceName, ELASTIC_ADMIN_METADATA_TABLE);
+        
+        // update the mapping info of the elastic secondary indices once the cluster state is applied.
+        addPost(new ElasticSecondaryIndicesUpdater(threadPool));
     }
     
     
@@ -1422,6 +1433,32 @@ public class InternalCassandraClusterService extends InternalClusterService {
     public UntypedResultSet fetchRowInternal(final String ksName, final String index, final String cfName, final String[] columns, final Object[] pkColumns, boolean forStaticDocument, Map<String,ColumnDefinition> columnDefs) throws ConfigurationException, IOException, IndexNotFoundException  {
         return QueryProcessor.executeInternal(buildFetchQuery(ksName, index, cfName, columns, forStaticDocument, columnDefs), pkColumns);
     }
+
+    @Override
+    public UntypedResultSet fetchTokenRangeInternal(final String ksName, final String index, final String type, final String[] columns, final Range<Token> range, int pageSize, Map<String,ColumnDefinition> columnDefs) throws ConfigurationException, IOException, IndexNotFoundException  {
+        assert !range.isWrapAround() : "wrapping range "+range;
+        boolean hasUpperBound = !range.right.isMinimum();
+        String query = buildTokenRangeQuery(ksName, index, type, columns, hasUpperBound, columnDefs);
+        if (hasUpperBound)
+            return QueryProcessor.executeInternalWithPaging(query, pageSize, range.left.getTokenValue(), range.right.getTokenValue());
+        return QueryProcessor.executeInternalWithPaging(query, pageSize, range.left.getTokenValue());
+    }
+    
+    /**
+     * Build the elasticsearch _id from the primary key columns of a CQL row.
+     */
+    @Override
+    public String elasticId(final String ksName, final String type, UntypedResultSet.Row row) throws IOException {
+        CFMetaData metadata = getCFMetaData(ksName, typeToCfName(type));
+        ArrayNode array = jsonMapper.createArrayNode();
+        for(ColumnDefinition cd: Iterables.concat(metadata.partitionKeyColumns(), metadata.clusteringColumns())) {
+            ByteBuffer bb = row.getBytes(cd.name.toString());
+            if (bb == null)
+                throw new IllegalStateException("Missing primary key column ["+cd.name+"] in row");
+            addToJsonArray(cd.type, cd.type.compose(bb), array);
+        }
+        return writeValueAsString(array);
+    }
   
     /**
      * Load percolator queries.
@@ -1477,6 +1514,42 @@ public class InternalCassandraClusterService extends InternalClusterService {
     
     public String buildFetchQuery(final String ksName, final String index, final String type, final String[] requiredColumns, boolean forStaticDocument, Map<String, ColumnDefinition> columnDefs) 
             throws IndexNotFoundException, IOException 
+    {
+        DocumentMapper.CqlFragments cqlFragment = indexService(index).mapperService().documentMapper(type).getCqlFragments();
+        StringBuilder query = buildSelectQuery(ksName, index, type, requiredColumns, forStaticDocument, columnDefs);
+        query.append(" WHERE ").append((forStaticDocument) ? cqlFragment.ptWhere : cqlFragment.pkWhere )
+             .append(" LIMIT 1");
+        return query.toString();
+    }
+    
+    /**
+     * Build a query selecting all rows of a non-wrapping token range, primary key columns first.
+     * Bound values are the range left token (exclusive) and, if hasUpperBound, the right token (inclusive).
+     */
+    public String buildTokenRangeQuery(final String ksName, final String index, final String type, final String[] requiredColumns, boolean hasUpperBound, Map<String, ColumnDefinition> columnDefs) 
+            throws IndexNotFoundException, IOException 
+    {
+        DocumentMapper.CqlFragments cqlFragment = indexService(index).mapperService().documentMapper(type).getCqlFragments();
+        CFMetaData metadata = getCFMetaData(ksName, typeToCfName(type));
+        List<String> columns = new ArrayList<String>(requiredColumns.length + metadata.primaryKeyColumns().size());
+        Map<String, ColumnDefinition> allColumnDefs = new HashMap<String, ColumnDefinition>(columnDefs);
+        for(ColumnDefinition cd : metadata.primaryKeyColumns()) {
+            columns.add(cd.name.toString());
+            allColumnDefs.put(cd.name.toString(), cd);
+        }
+        for(String c : requiredColumns)
+            if (!columns.contains(c))
+                columns.add(c);
+        
+        StringBuilder query = buildSelectQuery(ksName, index, type, columns.toArray(new String[columns.size()]), false, allColumnDefs);
+        query.append(" WHERE token(").append(cqlFragment.ptCols).append(") > ?");
+        if (hasUpperBound)
+            query.append(" AND token(").append(cqlFragment.ptCols).append(") <= ?");
+        return query.toString();
+    }
+    
+    private StringBuilder buildSelectQuery(final String ksName, final String index, final String type, final String[] requiredColumns, boolean forStaticDocument, Map<String, ColumnDefinition> columnDefs) 
+            throws IndexNotFoundException, IOException 
     {
         IndexService indexService = indexService(index);
         DocumentMapper docMapper = indexService.mapperService().documentMapper(type);
@@ -1540,10 +1613,8 @@ public class InternalCassandraClusterService extends InternalClusterService {
                 }
             }
         }
-        query.append(" FROM \"").append(ksName).append("\".\"").append(cfName)
-             .append("\" WHERE ").append((forStaticDocument) ? cqlFragment.ptWhere : cqlFragment.pkWhere )
-             .append(" LIMIT 1");
-        return query.toString();
+        query.append(" FROM \"").append(ksName).append("\".\"").append(cfName).append('"');
+        return query;
     }
     
     public static String buildDeleteQuery(final DocumentMapper docMapper, final String ksName, final String cfName, final String id) {
@@ -1803,7 +1874,21 @@ public class InternalCassandraClusterService extends InternalClusterService {
         upsertDocument(indicesService, request, indexMetaData, false);
     }
     
+    @Override
+    public void insertDocument(final IndicesService indicesService, final IndexRequest request, final IndexMetaData indexMetaData, final ActionListener<Void> listener) throws Exception {
+        upsertDocument(indicesService, request, indexMetaData, false, listener);
+    }
+    
     public void upsertDocument(final IndicesService indicesService, final IndexRequest request, final IndexMetaData indexMetaData, boolean updateOperation) throws Exception {
+        upsertDocument(indicesService, request, indexMetaData, updateOperation, null);
+    }
+    
+    /**
+     * Write the document to Cassandra, blocking until the write consistency level is met when listener is null.
+     * Otherwise, non-conditional writes notify the listener from the Cassandra write response handlers.
+     */
+    public void upsertDocument(final IndicesService indicesService, final IndexRequest request, final IndexMetaData indexMetaData, boolean updateOperation, 
+            @Nullable final ActionListener<Void> listener) throws Exception {
         final IndexService indexService = indicesService.indexServiceSafe(request.index());
         final IndexShard indexShard = indexService.shardSafe(0);
         
@@ -1820,21 +1905,25 @@ public class InternalCassandraClusterService extends InternalClusterService {
         final String keyspaceName = indexService.indexSettings().get(IndexMetaData.SETTING_KEYSPACE, request.index());
         final String cfName = typeToCfName(request.type());
 
-        final Engine.IndexingOperation operation = indexShard.prepareIndexOnPrimary(sourceToParse, request.version(), request.versionType(), request.canHaveDuplicates());
-        final Mapping update = operation.parsedDoc().dynamicMappingsUpdate();
+        // parse the JSON source once, the Lucene document is only built by the ElasticSecondaryIndex.
+        final Map<String, Object> sourceMap = request.sourceAsMap();
         final boolean dynamicMappingEnable = indexService.indexSettings().getAsBoolean("index.mapper.dynamic", true);
-        if (update != null && dynamicMappingEnable) {
-            if (logger.isDebugEnabled()) 
-                logger.debug("Document source={} require a blocking mapping update of [{}]", request.sourceAsMap(), indexService.index().name());
-            // blocking Elasticsearch mapping update (required to update cassandra schema before inserting a row, this is the cost of dynamic mapping)
-            blockingMappingUpdate(indexService, request.type(), update.toString());
+        DocumentMapper docMapper = indexShard.mapperService().documentMapper(request.type());
+        if (docMapper == null || request.parent() != null || hasUnmappedFields(docMapper, null, sourceMap)) {
+            // full document parsing to build the dynamic mapping update and to validate the parent.
+            final Engine.IndexingOperation operation = indexShard.prepareIndexOnPrimary(sourceToParse, request.version(), request.versionType(), request.canHaveDuplicates());
+            final Mapping update = operation.parsedDoc().dynamicMappingsUpdate();
+            if (update != null && dynamicMappingEnable) {
+                if (logger.isDebugEnabled()) 
+                    logger.debug("Document source={} require a blocking mapping update of [{}]", sourceMap, indexService.index().name());
+                // blocking Elasticsearch mapping update (required to update cassandra schema before inserting a row, this is the cost of dynamic mapping)
+                blockingMappingUpdate(indexService, request.type(), update.toString());
+            }
+            // get the docMapper after a potential mapping update
+            docMapper = indexShard.mapperService().documentMapperWithAutoCreate(request.type()).getDocumentMapper();
         }
-
-        // get the docMapper after a potential mapping update
-        final DocumentMapper docMapper = indexShard.mapperService().documentMapperWithAutoCreate(request.type()).getDocumentMapper();
         
         // insert document into cassandra keyspace=index, table = type
-        final Map<String, Object> sourceMap = request.sourceAsMap();
         final Map<String, ObjectMapper> objectMappers = docMapper.objectMappers();
         final DocumentFieldMappers fieldMappers = docMapper.mappers();
 
@@ -1965,9 +2054,16 @@ public class InternalCassandraClusterService extends InternalClusterService {
                     (request.ttl() != null) ? request.ttl().getSeconds() : null, // ttl
                     timestamp,
                     values, 0);
-            final boolean applied = processConditional(request.consistencyLevel().toCassandraConsistencyLevel(), (checkUniqueId) ? ConsistencyLevel.LOCAL_SERIAL : null, query, values);
-            if (!applied) 
-                throw new DocumentAlreadyExistsException(indexShard.shardId(), cfName, request.id());
+            if (checkUniqueId) {
+                // lightweight transaction, always blocking.
+                final boolean applied = processConditional(request.consistencyLevel().toCassandraConsistencyLevel(), ConsistencyLevel.LOCAL_SERIAL, query, values);
+                if (!applied) 
+                    throw new DocumentAlreadyExistsException(indexShard.shardId(), cfName, request.id());
+                if (listener != null)
+                    listener.onResponse(null);
+            } else {
+                write(request.consistencyLevel().toCassandraConsistencyLevel(), query, values, listener);
+            }
         } else {
             // set empty top-level fields to null to overwrite existing columns.
             for(FieldMapper m : fieldMappers) {
@@ -1985,8 +2081,154 @@ public class InternalCassandraClusterService extends InternalClusterService {
                     (request.ttl() != null) ? request.ttl().getSeconds() : null,
                     timestamp,
                     values, 0);
-            process(request.consistencyLevel().toCassandraConsistencyLevel(), null, query, values);
+            write(request.consistencyLevel().toCassandraConsistencyLevel(), query, values, listener);
+        }
+    }
+
+    /**
+     * Execute a non-conditional write, blocking if listener is null, otherwise the mutations are submitted 
+     * to the replicas and the listener is notified when the consistency level is met, on failure or on timeout.
+     */
+    private void write(final ConsistencyLevel cl, final String query, final ByteBuffer[] values, @Nullable final ActionListener<Void> listener) 
+            throws RequestExecutionException, RequestValidationException {
+        if (listener == null) {
+            process(cl, null, query, values);
+            return;
         }
+        if (logger.isDebugEnabled()) {
+            logger.debug("processing async CL={} query={}", cl, query);
+        }
+        ClientState clientState = ClientState.forInternalCalls();
+        ParsedStatement.Prepared prepared = QueryProcessor.getStatement(query, clientState);
+        prepared.statement.validate(clientState);
+        QueryOptions queryOptions = QueryOptions.forInternalCalls(cl, null, Arrays.asList(values));
+        ((ModificationStatement) prepared.statement).executeAsync(QueryState.forInternalCalls(), queryOptions, new StorageProxy.WriteCallback() {
+            @Override
+            public void onSuccess() {
+                listener.onResponse(null);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                logger.debug("Failed to process query={}", t, query);
+                listener.onFailure(t);
+            }
+        });
+    }
+
+    @Override
+    public boolean updateDocumentColumns(final IndicesService indicesService, final UpdateRequest request, final ConsistencyLevel cl, final ActionListener<Void> listener) throws Exception {
+        final IndexService indexService = indicesService.indexServiceSafe(request.concreteIndex());
+        final DocumentMapper docMapper = indexService.mapperService().documentMapper(request.type());
+        if (docMapper == null)
+            return false;
+        
+        // dynamic mapping updates require the full document parsing.
+        final Map<String, Object> sourceMap = request.doc().sourceAsMap();
+        if (sourceMap.isEmpty() || hasUnmappedFields(docMapper, null, sourceMap))
+            return false;
+        
+        final String keyspaceName = indexService.indexSettings().get(IndexMetaData.SETTING_KEYSPACE, request.index());
+        final String cfName = typeToCfName(request.type());
+        final CFMetaData metadata = getCFMetaData(keyspaceName, cfName);
+        // a stored _source would be out of date.
+        if (metadata.getColumnDefinition(ByteBufferUtil.bytes(SourceFieldMapper.NAME)) != null)
+            return false;
+        
+        final DocPrimaryKey docPk = parseElasticId(request.index(), cfName, request.id());
+        if (docPk.isStaticDocument || docPk.values.length != metadata.partitionKeyColumns().size() + metadata.clusteringColumns().size())
+            return false;
+        
+        final Map<String, ByteBuffer> map = new LinkedHashMap<String, ByteBuffer>();
+        for (Map.Entry<String, Object> entry : sourceMap.entrySet()) {
+            final String field = entry.getKey();
+            final Object fieldValue = entry.getValue();
+            final FieldMapper fieldMapper = docMapper.mappers().getMapper(field);
+            // object fields are deeply merged by Elasticsearch, while a CQL UDT column is overwritten.
+            if (fieldMapper == null || field.startsWith("_") || fieldValue instanceof Map)
+                return false;
+            final ColumnDefinition cd = metadata.getColumnDefinition(fieldMapper.cqlName());
+            if (cd == null || cd.isPrimaryKeyColumn())
+                return false;
+            
+            if (fieldValue == null) {
+                if (cd.type.isCollection() && ((CollectionType<?>)cd.type).kind != CollectionType.Kind.MAP) {
+                    map.put(field, CollectionSerializer.pack(Collections.emptyList(), 0, Server.VERSION_3));
+                } else {
+                    map.put(field, null);
+                }
+            } else {
+                if (fieldMapper.cqlCollection().equals(CqlCollection.SINGLETON) && (fieldValue instanceof Collection)) {
+                    throw new MapperParsingException("field " + fieldMapper.name() + " should be a single value");
+                }
+                map.put(field, serializeType(request.index(), cfName, cd.type, field, fieldValue, fieldMapper));
+            }
+        }
+        
+        final StringBuilder query = new StringBuilder();
+        query.append("UPDATE \"").append(keyspaceName).append("\".\"").append(cfName).append("\" SET ");
+        final ByteBuffer[] values = new ByteBuffer[map.size() + docPk.values.length];
+        int i = 0;
+        for (Map.Entry<String, ByteBuffer> entry : map.entrySet()) {
+            if (i > 0)
+                query.append(',');
+            query.append('"').append(entry.getKey()).append("\" = ?");
+            values[i++] = entry.getValue();
+        }
+        query.append(" WHERE ").append(docMapper.getCqlFragments().pkWhere);
+        for (int j = 0; j < docPk.values.length; j++) {
+            AbstractType type = metadata.getColumnDefinition(new ColumnIdentifier(docPk.names[j], true)).type;
+            values[i++] = type.decompose(docPk.values[j]);
+        }
+        
+        if (logger.isTraceEnabled()) 
+            logger.trace("Update columns index=[{}] table=[{}] id=[{}] doc={} consistency={}", request.index(), cfName, request.id(), sourceMap, cl);
+        write(cl, query.toString(), values, listener);
+        return true;
+    }
+
+    /**
+     * Walk the parsed source against the existing mappers, without building any Lucene field.
+     * @return true if some field of the source is not mapped, so the document may require a dynamic mapping update.
+     */
+    public static boolean hasUnmappedFields(DocumentMapper docMapper, String path, Map<String, Object> source) {
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            String field = (path == null) ? entry.getKey() : path + '.' + entry.getKey();
+            if (hasUnmappedFields(docMapper, field, entry.getValue()))
+                return true;
+        }
+        return false;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static boolean hasUnmappedFields(DocumentMapper docMapper, String field, Object value) {
+        if (value instanceof List) {
+            for (Object element : (List<Object>) value) {
+                if (hasUnmappedFields(docMapper, field, element))
+                    return true;
+            }
+            return false;
+        }
+        // field mappers accept objects like geo_point or completion values.
+        FieldMapper fieldMapper = docMapper.mappers().getMapper(field);
+        if (fieldMapper != null) {
+            // copy_to targets are dynamically mapped when missing.
+            if (value != null && fieldMapper.copyTo() != null) {
+                for (String target : fieldMapper.copyTo().copyToFields()) {
+                    if (docMapper.mappers().getMapper(target) == null)
+                        return true;
+                }
+            }
+            return false;
+        }
+        if (value instanceof Map) {
+            ObjectMapper objectMapper = docMapper.objectMappers().get(field);
+            if (objectMapper == null)
+                return true;
+            return objectMapper.isEnabled() && hasUnmappedFields(docMapper, field, (Map<String, Object>) value);
+        }
+        // null values don't update the mapping.
+        return value != null;
     }
 
     public String buildInsertQuery(final String ksName, final String cfName, Map<String, ByteBuffer> map, String id, final boolean ifNotExists, final Long ttl, 
@@ -2168,6 +2410,26 @@ public class InternalCassandraClusterService extends InternalClusterService {
         return false;
     }
 
+    @Override
+    public Token getToken(String index, String type, Object[] partitionKeyValues) throws IOException {
+        IndexMetaData indexMetaData = state().metaData().index(index);
+        if (indexMetaData == null)
+            throw new IndexNotFoundException(index);
+        CFMetaData metadata = getCFMetaData(indexMetaData.keyspace(), typeToCfName(type));
+        List<ColumnDefinition> partitionColumns = metadata.partitionKeyColumns();
+        if (partitionKeyValues.length < partitionColumns.size())
+            return null;
+        
+        ByteBuffer[] components = new ByteBuffer[partitionColumns.size()];
+        for(int i=0; i < components.length; i++) {
+            if (partitionKeyValues[i] == null)
+                return null;
+            components[i] = partitionColumns.get(i).type.fromString(partitionKeyValues[i].toString());
+        }
+        ByteBuffer key = (components.length == 1) ? components[0] : CompositeType.build(components);
+        return metadata.partitioner.getToken(key);
+    }
+
     public static ConsistencyLevel consistencyLevelFromString(String value) {
         switch(value.toUpperCase(Locale.ROOT)) {
         case "ANY": return ConsistencyLevel.ANY;
@@ -2474,25 +2736,26 @@ public class InternalCassandraClusterService extends InternalClusterService {
     }
     
     public static Query newTokenRangeQuery(Collection<Range<Token>> tokenRanges) {
+        // token ranges are usually built as TokenRanges by the search router, so this does not box tokens again.
+        TokenRanges ranges = TokenRanges.of(tokenRanges);
         Query tokenRangeQuery = null;
-        if (tokenRanges != null) {
-            switch(tokenRanges.size()) {
+        if (ranges != null) {
+            switch(ranges.size()) {
                 case 0:
                     break;
                 case 1:
-                    Range<Token> unique_range = tokenRanges.iterator().next();
-                    if (unique_range.left.equals(AbstractSearchStrategy.TOKEN_MIN) && unique_range.right.equals(AbstractSearchStrategy.TOKEN_MAX))
+                    if (ranges.isFullRange())
                         // full search range, so don't add any filter.
                         break;
                     
-                    NumericRangeQuery<Long> nrq2 = NumericRangeQuery.newLongRange(TokenFieldMapper.NAME, 16, (Long) unique_range.left.getTokenValue(), (Long) unique_range.right.getTokenValue(), false, true);
+                    NumericRangeQuery<Long> nrq2 = NumericRangeQuery.newLongRange(TokenFieldMapper.NAME, 16, ranges.left(0), ranges.right(0), false, true);
                     tokenRangeQuery = nrq2;
                     break;
                 default:
                     BooleanQuery.Builder bq2 = new BooleanQuery.Builder();
-                    for (Range<Token> range : tokenRanges) {
+                    for (int i = 0; i < ranges.size(); i++) {
                         // TODO: check the best precisionStep (6 by default), see https://lucene.apache.org/core/5_2_1/core/org/apache/lucene/search/NumericRangeQuery.html
-                        NumericRangeQuery<Long> nrq = NumericRangeQuery.newLongRange(TokenFieldMapper.NAME, 16, (Long) range.left.getTokenValue(), (Long) range.right.getTokenValue(), false, true);
+                        NumericRangeQuery<Long> nrq = NumericRangeQuery.newLongRange(TokenFieldMapper.NAME, 16, ranges.left(i), ranges.right(i), false, true);
                         bq2.add(nrq, Occur.SHOULD);
                     }
                     tokenRangeQuery = bq2.build();
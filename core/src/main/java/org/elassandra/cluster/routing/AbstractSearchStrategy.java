@@ -25,16 +25,20 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.config.Schema;
 import org.apache.cassandra.db.Keyspace;
 import org.apache.cassandra.dht.Murmur3Partitioner.LongToken;
 import org.apache.cassandra.dht.Range;
 import org.apache.cassandra.dht.Token;
 import org.apache.cassandra.exceptions.ConfigurationException;
+import org.apache.cassandra.locator.IEndpointSnitch;
 import org.apache.cassandra.service.StorageService;
 import org.apache.cassandra.utils.FBUtilities;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNode.DiscoveryNodeStatus;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.IndexRoutingTable;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
@@ -191,6 +195,32 @@ public abstract class AbstractSearchStrategy {
             return (srs==null) ? ShardRoutingState.UNASSIGNED : srs;
         }
         
+        /**
+         * @return the closest live node of the local datacenter hosting a replica of the token and a started shard,
+         * the local node when possible, or null.
+         */
+        public DiscoveryNode getReplicaNode(Token token, DiscoveryNodes nodes) {
+            if (!Keyspace.isInitialized() || !StorageService.instance.isJoined() || Schema.instance.getKSMetaData(ksName) == null)
+                return null;
+            List<InetAddress> endpoints = StorageService.instance.getLiveNaturalEndpoints(Keyspace.open(ksName), token);
+            InetAddress localAddress = FBUtilities.getBroadcastAddress();
+            if (endpoints.contains(localAddress) && ShardRoutingState.STARTED.equals(getShardRoutingState(localNode)))
+                return localNode;
+            
+            IEndpointSnitch snitch = DatabaseDescriptor.getEndpointSnitch();
+            String localDc = snitch.getDatacenter(localAddress);
+            snitch.sortByProximity(localAddress, endpoints);
+            for(InetAddress endpoint : endpoints) {
+                if (!localDc.equals(snitch.getDatacenter(endpoint)))
+                    continue;
+                UUID uuid = StorageService.instance.getHostId(endpoint);
+                DiscoveryNode node =  (uuid == null) ? nodes.findByInetAddress(endpoint) : nodes.get(uuid.toString());
+                if (node != null && ShardRoutingState.STARTED.equals(getShardRoutingState(node)))
+                    return node;
+            }
+            return null;
+        }
+        
         public Collection<Range<Token>> getTokenRanges(BitSet bs) {
             logger.trace("tokens={} bitset={}", tokens, bs);
             List<Range<Token>> l = new ArrayList<Range<Token>>();
@@ -202,7 +232,7 @@ public abstract class AbstractSearchStrategy {
                 i = right;
             }
             logger.trace("tokens={} bitset={} ranges={}", tokens, bs, l);
-            return  l;
+            return TokenRanges.of(l);
         }
         
         public abstract class Route {
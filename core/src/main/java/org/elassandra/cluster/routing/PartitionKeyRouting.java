@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.cluster.routing;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.config.Schema;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.service.StorageService;
+import org.apache.cassandra.utils.FBUtilities;
+import org.elassandra.cluster.InternalCassandraClusterService;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MappingMetaData;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.internal.IdFieldMapper;
+import org.elasticsearch.index.mapper.internal.RoutingFieldMapper;
+import org.elasticsearch.percolator.PercolatorService;
+
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+
+/**
+ * Compute the tokens a search is restricted to when its routing or its query selects some partition keys,
+ * so that the search is only sent to the nodes owning these tokens instead of covering the whole ring.
+ * Partition keys are selected by the _routing of the request, or by an ids query, term or terms queries on _id, _routing
+ * or on all the partition key columns, combined in bool must, filter or should clauses. The tokens are intersected
+ * with the token_ranges of the request and with the token ranges of each shard, so that shards only search their own
+ * tokens. Searches with aggregations or suggestions are not restricted, because global aggregations, suggestions or
+ * aggregations with empty buckets also depend on the documents not matching the query.
+ */
+public class PartitionKeyRouting {
+    private static final ESLogger logger = Loggers.getLogger(PartitionKeyRouting.class);
+
+    /** Above this number of tokens, the search is not restricted */
+    public static final int MAX_TOKENS = 1024;
+
+    // the first failure is logged at warn, next ones at debug.
+    private static final AtomicBoolean failureLogged = new AtomicBoolean(false);
+
+    private PartitionKeyRouting() {
+    }
+
+    /**
+     * @return the tokens per index, indices without token restriction are not in the map. Terms, should and
+     * token_ranges restrictions of the query are skipped along with the query when the search has aggregations
+     * or suggestions, only the routing of the request then restricts the tokens.
+     */
+    public static Map<String, Set<Token>> searchTokens(ClusterService clusterService, String[] concreteIndices,
+            Map<String, Set<String>> routingMap, SearchRequest request) {
+        Map<String, Set<String>> constraints = null;
+        if (request.templateSource() == null && request.template() == null) {
+            try {
+                constraints = keyConstraints(query(request));
+            } catch (Exception e) {
+                logFailure("Failed to parse search source for partition key routing", e);
+            }
+        }
+        if ((routingMap == null || routingMap.isEmpty()) && (constraints == null || constraints.isEmpty()))
+            return Collections.emptyMap();
+
+        Map<String, Set<Token>> indexTokens = new HashMap<>();
+        for (String index : concreteIndices) {
+            try {
+                Set<String> routings = (routingMap == null) ? null : routingMap.get(index);
+                Set<Token> tokens = null;
+                if (routings != null && !routings.isEmpty()) {
+                    tokens = tokens(clusterService, index, request.types(), routings);
+                }
+                if (constraints != null && !constraints.isEmpty()) {
+                    Set<Token> queryTokens = queryTokens(clusterService, index, request.types(), constraints);
+                    if (queryTokens != null) {
+                        if (tokens == null) {
+                            tokens = queryTokens;
+                        } else {
+                            tokens.retainAll(queryTokens);
+                        }
+                    }
+                }
+                if (tokens != null) {
+                    if (request.tokenRanges() != null)
+                        retainAll(tokens, TokenRanges.of(request.tokenRanges()));
+                    indexTokens.put(index, tokens);
+                }
+            } catch (Exception e) {
+                logFailure("Failed to compute partition key tokens of index [{}]", e, index);
+            }
+        }
+        return indexTokens;
+    }
+
+    private static void logFailure(String msg, Throwable t, Object... params) {
+        if (failureLogged.compareAndSet(false, true)) {
+            logger.warn(msg + ", search is not restricted to partition key tokens", t, params);
+        } else {
+            logger.debug(msg, t, params);
+        }
+    }
+
+    private static void retainAll(Set<Token> tokens, TokenRanges ranges) {
+        for (Iterator<Token> it = tokens.iterator(); it.hasNext(); ) {
+            if (!ranges.contains((Long) it.next().getTokenValue()))
+                it.remove();
+        }
+    }
+
+    /**
+     * @return the query of the search, from the extra source if any, or null if the search has aggregations or suggestions
+     * that also depend on the documents not matching the query. Sources are streamed and only the query is parsed to a map,
+     * parsing stops at the first aggregations or suggestions.
+     */
+    public static Object query(SearchRequest request) throws IOException {
+        Object query = null;
+        for (BytesReference source : new BytesReference[] { request.source(), request.extraSource() }) {
+            if (source != null && source.length() > 0) {
+                try (XContentParser parser = XContentFactory.xContent(source).createParser(source)) {
+                    if (parser.nextToken() != XContentParser.Token.START_OBJECT)
+                        continue;
+                    XContentParser.Token token;
+                    while ((token = parser.nextToken()) == XContentParser.Token.FIELD_NAME) {
+                        String field = parser.currentName();
+                        token = parser.nextToken();
+                        if ("aggregations".equals(field) || "aggs".equals(field) || "suggest".equals(field))
+                            return null;
+                        if ("query".equals(field) && token == XContentParser.Token.START_OBJECT) {
+                            query = parser.map();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Equality constraints of a query on fields, as field name to the set of allowed values. All the fields must match.
+     * Constraints of disjunctions are approximated by the union of the values of the fields constrained in all the clauses,
+     * so that the selected keys always include the keys matching the query.
+     * @return the constraints, empty if the query does not restrict fields to some values.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Set<String>> keyConstraints(Object query) {
+        if (!(query instanceof Map) || ((Map<String, Object>) query).size() != 1)
+            return Collections.emptyMap();
+        Map.Entry<String, Object> entry = ((Map<String, Object>) query).entrySet().iterator().next();
+        if (!(entry.getValue() instanceof Map))
+            return Collections.emptyMap();
+        Map<String, Object> body = (Map<String, Object>) entry.getValue();
+
+        switch (entry.getKey()) {
+        case "term": {
+            String field = null;
+            Object value = null;
+            for (Map.Entry<String, Object> e : body.entrySet()) {
+                if ("boost".equals(e.getKey()) || "_name".equals(e.getKey()))
+                    continue;
+                if (field != null)
+                    return Collections.emptyMap();
+                field = e.getKey();
+                value = (e.getValue() instanceof Map) ? ((Map<String, Object>) e.getValue()).get("value") : e.getValue();
+            }
+            if (field == null || value == null || value instanceof Map || value instanceof List)
+                return Collections.emptyMap();
+            return singleton(field, Collections.singleton(value.toString()));
+        }
+        case "terms": {
+            String field = null;
+            Object values = null;
+            for (Map.Entry<String, Object> e : body.entrySet()) {
+                if ("boost".equals(e.getKey()) || "_name".equals(e.getKey()) || "execution".equals(e.getKey()) || "_cache".equals(e.getKey()))
+                    continue;
+                if (field != null)
+                    return Collections.emptyMap();
+                field = e.getKey();
+                values = e.getValue();
+            }
+            // terms lookups are not resolved here.
+            if (field == null || !(values instanceof List) || ((List<Object>) values).isEmpty())
+                return Collections.emptyMap();
+            Set<String> terms = new HashSet<>();
+            for (Object value : (List<Object>) values) {
+                if (value == null || value instanceof Map || value instanceof List)
+                    return Collections.emptyMap();
+                terms.add(value.toString());
+            }
+            return singleton(field, terms);
+        }
+        case "ids": {
+            Object values = body.get("values");
+            if (!(values instanceof List) || ((List<Object>) values).isEmpty())
+                return Collections.emptyMap();
+            Set<String> ids = new HashSet<>();
+            for (Object id : (List<Object>) values)
+                ids.add(id.toString());
+            return singleton(IdFieldMapper.NAME, ids);
+        }
+        case "bool": {
+            Map<String, Set<String>> constraints = new HashMap<>();
+            for (String occur : new String[] { "must", "filter" }) {
+                Object clauses = body.get(occur);
+                if (clauses instanceof Map) {
+                    and(constraints, keyConstraints(clauses));
+                } else if (clauses instanceof List) {
+                    for (Object clause : (List<Object>) clauses)
+                        and(constraints, keyConstraints(clause));
+                }
+            }
+            // without must or filter clauses, at least one should clause must match.
+            Object should = body.get("should");
+            Object minimumShouldMatch = body.containsKey("minimum_should_match") ? body.get("minimum_should_match") : body.get("minimum_number_should_match");
+            if (!body.containsKey("must") && !body.containsKey("filter") && should != null && !"0".equals(String.valueOf(minimumShouldMatch))) {
+                Map<String, Set<String>> disjunction = null;
+                for (Object clause : (should instanceof List) ? (List<Object>) should : Collections.singletonList(should)) {
+                    Map<String, Set<String>> clauseConstraints = keyConstraints(clause);
+                    if (disjunction == null) {
+                        disjunction = new HashMap<>(clauseConstraints);
+                    } else {
+                        or(disjunction, clauseConstraints);
+                    }
+                }
+                if (disjunction != null)
+                    and(constraints, disjunction);
+            }
+            return constraints;
+        }
+        case "constant_score":
+            return keyConstraints(body.containsKey("filter") ? body.get("filter") : body.get("query"));
+        case "filtered": {
+            Map<String, Set<String>> constraints = new HashMap<>();
+            and(constraints, keyConstraints(body.get("query")));
+            and(constraints, keyConstraints(body.get("filter")));
+            return constraints;
+        }
+        default:
+            return Collections.emptyMap();
+        }
+    }
+
+    private static Map<String, Set<String>> singleton(String field, Set<String> values) {
+        Map<String, Set<String>> constraints = new HashMap<>();
+        constraints.put(field, new HashSet<>(values));
+        return constraints;
+    }
+
+    // conjunction of constraints, intersecting the values of the same field.
+    private static void and(Map<String, Set<String>> constraints, Map<String, Set<String>> other) {
+        for (Map.Entry<String, Set<String>> e : other.entrySet()) {
+            Set<String> values = constraints.get(e.getKey());
+            if (values == null) {
+                constraints.put(e.getKey(), new HashSet<>(e.getValue()));
+            } else {
+                values.retainAll(e.getValue());
+            }
+        }
+    }
+
+    // disjunction of constraints, keeping the fields constrained on both sides with the union of their values.
+    private static void or(Map<String, Set<String>> constraints, Map<String, Set<String>> other) {
+        for (Iterator<Map.Entry<String, Set<String>>> it = constraints.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Set<String>> e = it.next();
+            Set<String> values = other.get(e.getKey());
+            if (values == null) {
+                it.remove();
+            } else {
+                Set<String> union = new HashSet<>(e.getValue());
+                union.addAll(values);
+                e.setValue(union);
+            }
+        }
+    }
+
+    /**
+     * @return the tokens of the partition keys selected by the constraints, or null if not restricted.
+     */
+    private static Set<Token> queryTokens(ClusterService clusterService, String index, String[] types, Map<String, Set<String>> constraints) throws IOException {
+        if (constraints.containsKey(IdFieldMapper.NAME))
+            return tokens(clusterService, index, types, constraints.get(IdFieldMapper.NAME));
+        if (constraints.containsKey(RoutingFieldMapper.NAME))
+            return tokens(clusterService, index, types, constraints.get(RoutingFieldMapper.NAME));
+
+        IndexMetaData indexMetaData = clusterService.state().metaData().index(index);
+        IndexService indexService = clusterService.indexService(index);
+        if (indexMetaData == null || indexService == null)
+            return null;
+        Set<Token> tokens = new HashSet<>();
+        for (String type : types(indexMetaData, types)) {
+            CFMetaData metadata = Schema.instance.getCFMetaData(indexMetaData.keyspace(), InternalCassandraClusterService.typeToCfName(type));
+            if (metadata == null)
+                return null;
+            List<Object[]> keys = Collections.singletonList(new Object[0]);
+            for (ColumnDefinition cd : metadata.partitionKeyColumns()) {
+                String column = cd.name.toString();
+                Set<String> values = constraints.get(column);
+                // the term of an analyzed field may not be the column value.
+                MappedFieldType fieldType = indexService.mapperService().fullName(column);
+                if (values == null || fieldType == null || fieldType.tokenized() || keys.size() * values.size() > MAX_TOKENS)
+                    return null;
+                List<Object[]> product = new ArrayList<>(keys.size() * values.size());
+                for (Object[] key : keys) {
+                    for (String value : values) {
+                        Object[] k = new Object[key.length + 1];
+                        System.arraycopy(key, 0, k, 0, key.length);
+                        k[key.length] = value;
+                        product.add(k);
+                    }
+                }
+                keys = product;
+            }
+            for (Object[] key : keys) {
+                Token token = clusterService.getToken(index, type, key);
+                if (token == null)
+                    return null;
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @param keys _id or _routing values, a single value or a JSON array of the primary key values.
+     * @return the tokens of the keys in all the types, or null if some key does not include a partition key.
+     */
+    private static Set<Token> tokens(ClusterService clusterService, String index, String[] types, Collection<String> keys) throws IOException {
+        IndexMetaData indexMetaData = clusterService.state().metaData().index(index);
+        if (indexMetaData == null || keys.size() > MAX_TOKENS)
+            return null;
+        Set<Token> tokens = new HashSet<>();
+        for (String type : types(indexMetaData, types)) {
+            for (String key : keys) {
+                Token token = token(clusterService, index, type, key);
+                if (token == null)
+                    return null;
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @param key a _id or _routing value, a single value or a JSON array of the primary key values.
+     * @return the token of the key, or null if the key does not include the partition key.
+     */
+    public static Token token(ClusterService clusterService, String index, String type, String key) throws IOException {
+        Object[] values;
+        if (key.startsWith("[") && key.endsWith("]")) {
+            try (XContentParser parser = JsonXContent.jsonXContent.createParser(key)) {
+                values = parser.list().toArray();
+            }
+        } else {
+            values = new Object[] { key };
+        }
+        return clusterService.getToken(index, type, values);
+    }
+
+    /**
+     * @return true if this node is a replica of the partition key of the document, so that the document can be read locally.
+     */
+    public static boolean isLocalReplica(ClusterService clusterService, String index, String keyspace, String type, String id) {
+        if (type == null || "_all".equals(type) || !StorageService.instance.isJoined())
+            return false;
+        try {
+            Token token = token(clusterService, index, type, id);
+            return token != null && StorageService.instance.getNaturalEndpoints(keyspace, token).contains(FBUtilities.getBroadcastAddress());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static Collection<String> types(IndexMetaData indexMetaData, String[] types) {
+        if (types != null && types.length > 0)
+            return Arrays.asList(types);
+        List<String> mappingTypes = new ArrayList<>();
+        for (ObjectCursor<String> type : indexMetaData.getMappings().keys()) {
+            if (!MapperService.DEFAULT_MAPPING.equals(type.value) && !PercolatorService.TYPE_NAME.equals(type.value))
+                mappingTypes.add(type.value);
+        }
+        return mappingTypes;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.cluster.routing;
+
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.cassandra.dht.Murmur3Partitioner.LongToken;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+/**
+ * Compact and immutable collection of Murmur3 token ranges, stored as a sorted array of (left, right] bounds.
+ * Built once by the search router, it flows unchanged through shard requests down to the token range query,
+ * and {@link Range} objects are only created when iterating. Bounds are serialized as zigzag encoded deltas,
+ * so contiguous vnode ranges take a few bytes each.
+ */
+public final class TokenRanges extends AbstractCollection<Range<Token>> {
+    public static final TokenRanges EMPTY = new TokenRanges(new long[0]);
+
+    // left0, right0, left1, right1... sorted by left bound.
+    private final long[] bounds;
+
+    private TokenRanges(long[] bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * @return the provided ranges as TokenRanges, or null if null.
+     */
+    public static TokenRanges of(Collection<Range<Token>> ranges) {
+        if (ranges == null || ranges instanceof TokenRanges)
+            return (TokenRanges) ranges;
+        if (ranges.isEmpty())
+            return EMPTY;
+
+        long[][] pairs = new long[ranges.size()][];
+        int i = 0;
+        for (Range<Token> range : ranges)
+            pairs[i++] = new long[] { (Long) range.left.getTokenValue(), (Long) range.right.getTokenValue() };
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+        long[] bounds = new long[pairs.length * 2];
+        for (i = 0; i < pairs.length; i++) {
+            bounds[2 * i] = pairs[i][0];
+            bounds[2 * i + 1] = pairs[i][1];
+        }
+        return new TokenRanges(bounds);
+    }
+
+    /**
+     * @return the left exclusive bound of the range i.
+     */
+    public long left(int i) {
+        return bounds[2 * i];
+    }
+
+    /**
+     * @return the right inclusive bound of the range i.
+     */
+    public long right(int i) {
+        return bounds[2 * i + 1];
+    }
+
+    /**
+     * @return true if this is the whole ring, so that no token filtering is needed.
+     */
+    public boolean isFullRange() {
+        return bounds.length == 2 && bounds[0] == Long.MIN_VALUE && bounds[1] == Long.MAX_VALUE;
+    }
+
+    /**
+     * @return true if one of the ranges contains the token.
+     */
+    public boolean contains(long token) {
+        for (int i = 0; i < bounds.length; i += 2) {
+            long left = bounds[i], right = bounds[i + 1];
+            if (left < right ? (token > left && token <= right) : (token > left || token <= right))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Split the ranges at the provided ring tokens, so that each resulting range is included in a single vnode range.
+     * Ranges of a request are merged when contiguous, and their bounds change with the search routing, whereas vnode
+     * sub-ranges stay the same as long as the ring tokens don't change.
+     * @param ringTokens sorted ring tokens.
+     * @return the split ranges, or this if no range contains a ring token.
+     */
+    public TokenRanges split(long[] ringTokens) {
+        if (ringTokens.length == 0)
+            return this;
+        List<Range<Token>> ranges = new ArrayList<Range<Token>>(size() + ringTokens.length);
+        boolean split = false;
+        for (int i = 0; i < bounds.length; i += 2) {
+            long left = bounds[i], right = bounds[i + 1];
+            long previous = left;
+            if (left < right) {
+                for (int j = firstAbove(ringTokens, left); j < ringTokens.length && ringTokens[j] < right; j++) {
+                    ranges.add(new Range<Token>(new LongToken(previous), new LongToken(ringTokens[j])));
+                    previous = ringTokens[j];
+                }
+            } else {
+                // wrapping range, split up to the end of the ring, then from its start.
+                for (int j = firstAbove(ringTokens, left); j < ringTokens.length; j++) {
+                    ranges.add(new Range<Token>(new LongToken(previous), new LongToken(ringTokens[j])));
+                    previous = ringTokens[j];
+                }
+                for (int j = 0; j < ringTokens.length && ringTokens[j] < right; j++) {
+                    ranges.add(new Range<Token>(new LongToken(previous), new LongToken(ringTokens[j])));
+                    previous = ringTokens[j];
+                }
+            }
+            split |= previous != left;
+            ranges.add(new Range<Token>(new LongToken(previous), new LongToken(right)));
+        }
+        return split ? of(ranges) : this;
+    }
+
+    private static int firstAbove(long[] sortedTokens, long token) {
+        int i = Arrays.binarySearch(sortedTokens, token);
+        return (i >= 0) ? i + 1 : -i - 1;
+    }
+
+    @Override
+    public int size() {
+        return bounds.length / 2;
+    }
+
+    @Override
+    public Iterator<Range<Token>> iterator() {
+        return new Iterator<Range<Token>>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < bounds.length;
+            }
+
+            @Override
+            public Range<Token> next() {
+                if (i >= bounds.length)
+                    throw new NoSuchElementException();
+                Range<Token> range = new Range<Token>(new LongToken(bounds[i]), new LongToken(bounds[i + 1]));
+                i += 2;
+                return range;
+            }
+        };
+    }
+
+    public static TokenRanges readFrom(StreamInput in) throws IOException {
+        int size = in.readVInt();
+        if (size == 0)
+            return EMPTY;
+        long[] bounds = new long[size * 2];
+        long previous = in.readLong();
+        bounds[0] = previous;
+        for (int i = 1; i < bounds.length; i++) {
+            previous += unzigzag(readUnsignedVLong(in));
+            bounds[i] = previous;
+        }
+        return new TokenRanges(bounds);
+    }
+
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(size());
+        if (bounds.length == 0)
+            return;
+        out.writeLong(bounds[0]);
+        for (int i = 1; i < bounds.length; i++) {
+            // deltas may overflow, decoding wraps around the same way.
+            writeUnsignedVLong(out, zigzag(bounds[i] - bounds[i - 1]));
+        }
+    }
+
+    /**
+     * Read optional token ranges written by {@link #writeOptionalTo(TokenRanges, StreamOutput)}.
+     */
+    public static TokenRanges readOptionalFrom(StreamInput in) throws IOException {
+        if (in.getVersion().onOrAfter(Version.V_2_4_3))
+            return in.readBoolean() ? readFrom(in) : null;
+
+        // older nodes always write a generic array of left and right tokens.
+        Object[] tokens = (Object[]) in.readGenericValue();
+        List<Range<Token>> ranges = new ArrayList<Range<Token>>(tokens.length / 2);
+        for (int i = 0; i < tokens.length;)
+            ranges.add(new Range<Token>((Token) tokens[i++], (Token) tokens[i++]));
+        return of(ranges);
+    }
+
+    /**
+     * Write optional token ranges, with the delta encoding to nodes on or after 2.4.3, and as a generic array
+     * of tokens to older nodes. Older nodes always read ranges, and have no token filter for an empty array.
+     */
+    public static void writeOptionalTo(TokenRanges tokenRanges, StreamOutput out) throws IOException {
+        if (out.getVersion().onOrAfter(Version.V_2_4_3)) {
+            out.writeBoolean(tokenRanges != null);
+            if (tokenRanges != null)
+                tokenRanges.writeTo(out);
+            return;
+        }
+
+        Token[] tokens = new Token[(tokenRanges == null) ? 0 : tokenRanges.bounds.length];
+        for (int i = 0; i < tokens.length; i++)
+            tokens[i] = new LongToken(tokenRanges.bounds[i]);
+        out.writeGenericValue(tokens);
+    }
+
+    private static long zigzag(long l) {
+        return (l << 1) ^ (l >> 63);
+    }
+
+    private static long unzigzag(long l) {
+        return (l >>> 1) ^ -(l & 1);
+    }
+
+    private static void writeUnsignedVLong(StreamOutput out, long l) throws IOException {
+        while ((l & ~0x7FL) != 0) {
+            out.writeByte((byte) ((l & 0x7F) | 0x80));
+            l >>>= 7;
+        }
+        out.writeByte((byte) l);
+    }
+
+    private static long readUnsignedVLong(StreamInput in) throws IOException {
+        long l = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            l |= (b & 0x7FL) << shift;
+            if ((b & 0x80) == 0)
+                return l;
+        }
+        throw new IOException("Invalid token range delta");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TokenRanges && Arrays.equals(bounds, ((TokenRanges) o).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+}
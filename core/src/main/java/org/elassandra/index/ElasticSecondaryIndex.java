@@ -44,6 +44,8 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -71,6 +73,8 @@ import org.apache.cassandra.db.RangeTombstone;
 import org.apache.cassandra.db.ReadCommand;
 import org.apache.cassandra.db.Slice;
 import org.apache.cassandra.db.Slice.Bound;
+import org.apache.cassandra.db.commitlog.CommitLogReplayer;
+import org.apache.cassandra.db.commitlog.ReplayPosition;
 import org.apache.cassandra.db.filter.RowFilter;
 import org.apache.cassandra.db.marshal.AbstractType;
 import org.apache.cassandra.db.marshal.BytesType;
@@ -122,12 +126,11 @@ import org.codehaus.jackson.map.JsonMappingException;
 import org.codehaus.jackson.node.ArrayNode;
 import org.elassandra.cluster.InternalCassandraClusterService;
 import org.elassandra.index.mapper.internal.TokenFieldMapper;
+import org.elassandra.indices.cache.SourceCache;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.admin.indices.flush.FlushRequest;
-import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
-import org.elasticsearch.cluster.ClusterStateListener;
 import org.elasticsearch.cluster.block.ClusterBlockException;
 import org.elasticsearch.cluster.block.ClusterBlockLevel;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
@@ -144,6 +147,7 @@ import org.elasticsearch.common.lucene.all.AllEntries;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.network.NetworkAddress;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentParser;
@@ -152,6 +156,7 @@ import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.analysis.AnalysisService;
+import org.elasticsearch.index.engine.CommitStats;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.Engine.DeleteByQuery;
 import org.elasticsearch.index.engine.Engine.Operation;
@@ -186,8 +191,8 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.percolator.PercolatorService;
+import org.elasticsearch.threadpool.ThreadPool;
 
-import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
@@ -204,7 +209,7 @@ import com.google.common.collect.Sets;
  * @author vroyer
  *
  */
-public class ElasticSecondaryIndex implements Index, ClusterStateListener {
+public class ElasticSecondaryIndex implements Index {
     
     private final static SourceToParse EMPTY_SOURCE_TO_PARSE= SourceToParse.source((XContentParser)null);
     private final static Field DEFAULT_VERSION = new NumericDocValuesField(VersionFieldMapper.NAME, -1L);
@@ -218,6 +223,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
     final String index_name;             // keyspace_name.table_name
     final ESLogger logger;
     final ClusterService clusterService;
+    final SourceCache sourceCache;
     
     // updated when create/open/close/remove an ES index.
     protected ReadWriteLock mappingInfoLock = new ReentrantReadWriteLock();
@@ -228,14 +234,19 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
     protected Set<ColumnDefinition> indexedColumns = Sets.newConcurrentHashSet();
     protected AtomicBoolean initialized = new AtomicBoolean(false);
     
+    final ElasticSecondaryIndexMetrics metrics;
+    final GroupRefresh groupRefresh;
+    
     ElasticSecondaryIndex(ColumnFamilyStore baseCfs, IndexMetadata indexDef) {
         this.baseCfs = baseCfs;
         this.indexMetadata = indexDef;
         this.index_name = baseCfs.keyspace.getName()+"."+baseCfs.name;
+        this.metrics = new ElasticSecondaryIndexMetrics(baseCfs.keyspace.getName(), baseCfs.name);
         this.logger = Loggers.getLogger(this.getClass().getName()+"."+baseCfs.keyspace.getName()+"."+baseCfs.name);
+        this.groupRefresh = new GroupRefresh(logger, ElassandraDaemon.injector().getInstance(ThreadPool.class), metrics);
         // clusterService must be started before creating 2i.
         this.clusterService = ElassandraDaemon.injector().getInstance(ClusterService.class);
-        this.clusterService.addPost(this);
+        this.sourceCache = ElassandraDaemon.injector().getInstance(SourceCache.class);
     }
     
     public static ElasticSecondaryIndex newElasticSecondaryIndex(ColumnFamilyStore baseCfs, IndexMetadata indexDef) {
@@ -291,6 +302,15 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
         throw new RuntimeException(String.format(Locale.ROOT,"Unable to parse targets for index %s (%s)", indexDef.name, target));
     }
     
+    /**
+     * Acquire the mappingInfo read lock, recording the wait time.
+     */
+    void readLockMappingInfo() {
+        long start = System.nanoTime();
+        mappingInfoLock.readLock().lock();
+        metrics.mappingLockWait.addNano(System.nanoTime() - start);
+    }
+    
     // reusable per thread context
     private CloseableThreadLocal<Context> perThreadContext = new CloseableThreadLocal<Context>() {
         @Override
@@ -796,10 +816,12 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
             final String name;
             final String type;
             final boolean refresh;
+            final TimeValue refreshDelay;
             final boolean snapshot;
             final boolean includeNodeId;
             final IndexService indexService;
             Map<String,Object> mapping;
+            ReplayPosition committedReplayPosition;  // lazily read from the last lucene commit on commitlog replay.
             
             public IndexInfo(String name, IndexService indexService, MappingMetaData mappingMetaData, MetaData metadata) throws IOException {
                 this.name = name;
@@ -807,6 +829,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 this.mapping = mappingMetaData.sourceAsMap();
                 this.type = mappingMetaData.type();
                 this.refresh = indexService.indexSettings().getAsBoolean(IndexMetaData.SETTING_SYNCHRONOUS_REFRESH, metadata.settings().getAsBoolean(InternalCassandraClusterService.SETTING_CLUSTER_DEFAULT_SYNCHRONOUS_REFRESH, false));
+                this.refreshDelay = indexService.indexSettings().getAsTime(IndexMetaData.SETTING_SYNCHRONOUS_REFRESH_DELAY, metadata.settings().getAsTime(InternalCassandraClusterService.SETTING_CLUSTER_DEFAULT_SYNCHRONOUS_REFRESH_DELAY, TimeValue.timeValueMillis(0)));
                 this.snapshot = indexService.indexSettings().getAsBoolean(IndexMetaData.SETTING_SNAPSHOT_WITH_SSTABLE, metadata.settings().getAsBoolean(InternalCassandraClusterService.SETTING_CLUSTER_DEFAULT_SNAPSHOT_WITH_SSTABLE, false));
                 this.includeNodeId = indexService.indexSettings().getAsBoolean(IndexMetaData.SETTING_INCLUDE_NODE_ID, metadata.settings().getAsBoolean(InternalCassandraClusterService.SETTING_CLUSTER_DEFAULT_INCLUDE_NODE_ID, false));
             }
@@ -835,6 +858,21 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
             public boolean indexStaticOnly() {
                 return MappingInfo.this.index_static_only;
             }
+            
+            /**
+             * @return true if the mutation at this commitlog position is in the last lucene commit.
+             */
+            public boolean isCommitted(ReplayPosition position) {
+                if (committedReplayPosition == null) {
+                    final IndexShard indexShard = shard();
+                    if (indexShard == null)
+                        return false;
+                    CommitStats commitStats = indexShard.commitStats();
+                    committedReplayPosition = ReplayPositions.parse((commitStats == null) ? null : commitStats.getUserData().get(ReplayPositions.COMMIT_KEY));
+                    logger.debug("index [{}] committed up to {}", name, committedReplayPosition);
+                }
+                return position.compareTo(committedReplayPosition) <= 0;
+            }
         }
 
         class PartitionFunction {
@@ -877,6 +915,8 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
         final BitSet fieldsToRead;
         final BitSet staticColumns;
         final boolean[] indexedPkColumns;   // bit mask of indexed PK columns.
+        final PartitionColumns partitionColumns;  // static and regular columns of the table when building the mapping info.
+        final BitSet indexedColumns;        // bit mask of indexed static and regular columns, ordered as in partitionColumns.
         final long metadataVersion;
         final String nodeId;
         final String typeName = InternalCassandraClusterService.cfNameToType(ElasticSecondaryIndex.this.baseCfs.name);
@@ -892,6 +932,8 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 this.fieldsToRead = null;
                 this.staticColumns = null;
                 this.indexedPkColumns = null;
+                this.partitionColumns = null;
+                this.indexedColumns = null;
                 this.partitionFunctions = null;
                 return;
             }
@@ -987,6 +1029,8 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 this.fieldsToRead = null;
                 this.staticColumns = null;
                 this.indexedPkColumns = null;
+                this.partitionColumns = null;
+                this.indexedColumns = null;
                 this.partitionFunctions = null;
                 return;
             }
@@ -1019,6 +1063,8 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
             
             this.fieldsToRead = new BitSet(fields.length);
             this.staticColumns = (baseCfs.metadata.hasStaticColumns() || index_static_only) ? new BitSet(fields.length) : null;
+            this.partitionColumns = baseCfs.metadata.partitionColumns();
+            this.indexedColumns = new BitSet(partitionColumns.size());
             for(int i=0; i < fields.length; i++) {
                 ColumnIdentifier colId = new ColumnIdentifier(fields[i],true);
                 ColumnDefinition colDef = baseCfs.metadata.getColumnDefinition(colId);
@@ -1026,6 +1072,9 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 this.fieldsToRead.set(i, fieldsMap.get(fields[i]) && !colDef.isPrimaryKeyColumn());
                 if (staticColumns != null)
                     this.staticColumns.set(i,colDef.isStatic());
+                int idx = columnIndex(colDef);
+                if (idx >= 0)
+                    this.indexedColumns.set(idx);
             }
             
             if (partFuncs != null && partFuncs.size() > 0) {
@@ -1083,6 +1132,43 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
             return targetIndices;
         }
         
+        // position of a static or regular column in partitionColumns, statics first, or -1 for primary key or unknown columns.
+        private int columnIndex(ColumnDefinition cd) {
+            if (cd == null || cd.isPrimaryKeyColumn())
+                return -1;
+            if (cd.isStatic()) {
+                int idx = partitionColumns.statics.simpleIdx(cd);
+                return (idx < 0) ? -1 : idx;
+            }
+            int idx = partitionColumns.regulars.simpleIdx(cd);
+            return (idx < 0) ? -1 : partitionColumns.statics.size() + idx;
+        }
+        
+        /**
+         * @return true if one of the static or regular columns is indexed.
+         */
+        public boolean hasIndexedColumns(PartitionColumns columns) {
+            if (this.fields == null)
+                return false;
+            for(ColumnDefinition cd : columns) {
+                int idx = columnIndex(cd);
+                if (idx >= 0 && indexedColumns.get(idx))
+                    return true;
+            }
+            return false;
+        }
+        
+        /**
+         * @return true if the mutation at this commitlog position is in the last lucene commit of all indices.
+         */
+        public synchronized boolean isCommitted(ReplayPosition position) {
+            for(IndexInfo indexInfo : indices.values()) {
+                if (!indexInfo.isCommitted(position))
+                    return false;
+            }
+            return true;
+        }
+        
         public int indexOf(String field) {
             for(int i=0; i < this.fields.length; i++) {
                 if (this.fields[i].equals(field)) return i;
@@ -1107,9 +1193,13 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
             final Long token;
             final ArrayNode an;
             final Object[] pkCols = new Object[baseCfs.metadata.partitionKeyColumns().size()+baseCfs.metadata.clusteringColumns().size()];
-            final String partitionKey;
+            private String partitionKey;
             final int nowInSec;
             
+            // documents to evict from the GET source cache once the update is visible.
+            private Set<String> updatedIds = null;
+            private boolean updatedType = false;
+            
             public RowcumentIndexer(final DecoratedKey key,
                     final PartitionColumns columns,
                     final int nowInSec,
@@ -1136,7 +1226,39 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                     InternalCassandraClusterService.addToJsonArray(keyValidator, pkCols[i], an);
                     i++;
                 }
-                this.partitionKey = InternalCassandraClusterService.writeValueAsString(an);  // JSON string  of the partition key.
+            }
+            
+            void sourceUpdated(Rowcument rowcument) throws IOException {
+                if (!sourceCache.enabled())
+                    return;
+                if (rowcument.isStatic && !MappingInfo.this.index_static_only) {
+                    // static columns belong to all documents of the partition.
+                    updatedType = true;
+                } else {
+                    if (updatedIds == null)
+                        updatedIds = new HashSet<String>();
+                    updatedIds.add(rowcument.isStatic ? partitionKey() : rowcument.id);
+                }
+            }
+            
+            void partitionDeleted() throws IOException {
+                if (!sourceCache.enabled())
+                    return;
+                if (baseCfs.metadata.clusteringColumns().isEmpty() || MappingInfo.this.index_static_only) {
+                    // the partition is a single document identified by its partition key.
+                    if (updatedIds == null)
+                        updatedIds = new HashSet<String>();
+                    updatedIds.add(partitionKey());
+                } else {
+                    updatedType = true;
+                }
+            }
+            
+            // JSON string of the partition key, only built when needed.
+            String partitionKey() throws IOException {
+                if (this.partitionKey == null)
+                    this.partitionKey = InternalCassandraClusterService.writeValueAsString(an);
+                return this.partitionKey;
             }
                 
             public Query buildPartitionKeyQuery(DocumentMapper docMapper, ArrayList<Object> indexedPkColumnsValues) {
@@ -1242,7 +1364,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                         id = InternalCassandraClusterService.writeValueAsString(an2);
                     } else {
                         // partiton row update
-                        id = partitionKey;
+                        id = partitionKey();
                     }
                     readCellValues(row, true);
                 }
@@ -1500,7 +1622,9 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                                     logger.trace(" {}.{} id={} missing columns names={} isStatic={}",baseCfs.metadata.ksName, baseCfs.metadata.cfName, id, missingColumns, isStatic);
                                 }
                                 MappingInfo.IndexInfo indexInfo = MappingInfo.this.indices.values().iterator().next();
+                                long startRead = System.nanoTime();
                                 UntypedResultSet results = clusterService.fetchRowInternal(baseCfs.metadata.ksName, indexInfo.name, indexInfo.type, missingColumns, pk, isStatic, MappingInfo.this.columnsDefs);
+                                metrics.readBeforeWrite.addNano(System.nanoTime() - startRead);
                                 if (!results.isEmpty()) {
                                     Object[] missingValues = rowAsArray(results.one());
                                     for(int i=0; i < x; i++) {
@@ -1522,7 +1646,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 
                 public Context buildContext(IndexInfo indexInfo, boolean staticColumnsOnly) throws IOException {
                     Context context = ElasticSecondaryIndex.this.perThreadContext.get();
-                    Uid uid = new Uid(typeName,  (staticColumnsOnly) ? partitionKey : id);
+                    Uid uid = new Uid(typeName,  (staticColumnsOnly) ? partitionKey() : id);
                     
                     context.reset(indexInfo, uid);
                     
@@ -1537,7 +1661,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                     if (indexInfo.includeNodeId)
                         context.docMapper.nodeFieldMapper().createField(context, MappingInfo.this.nodeId);
                     
-                    context.docMapper.routingFieldMapper().createField(context, partitionKey);
+                    context.docMapper.routingFieldMapper().createField(context, partitionKey());
                     context.docMapper.allFieldMapper().createField(context, null);
                     context.version(DEFAULT_VERSION);
                     context.doc().add(DEFAULT_VERSION);
@@ -1633,7 +1757,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                             
                             Field uid = context.uid();
                             if (isStatic) {
-                                uid = new Field(UidFieldMapper.NAME, Uid.createUid(typeName, partitionKey), Defaults.FIELD_TYPE);
+                                uid = new Field(UidFieldMapper.NAME, Uid.createUid(typeName, partitionKey()), Defaults.FIELD_TYPE);
                                 for(Document doc : context.docs()) {
                                     if (doc instanceof Context.StaticDocument) {
                                         ((Context.StaticDocument)doc).applyFilter(isStatic);
@@ -1645,9 +1769,9 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                             final ParsedDocument parsedDoc = new ParsedDocument(
                                     uid, 
                                     context.version(), 
-                                    (isStatic) ? partitionKey : context.id(), 
+                                    (isStatic) ? partitionKey() : context.id(), 
                                     context.type(), 
-                                    partitionKey, // routing
+                                    partitionKey(), // routing
                                     System.currentTimeMillis(), // timstamp
                                     ttl,
                                     token.longValue(), 
@@ -1672,6 +1796,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                                 
                                 final boolean created = operation.execute(indexShard);
                                 final long version = operation.version();
+                                metrics.documentsIndexed.mark();
 
                                 if (logger.isDebugEnabled()) {
                                     logger.debug("document CF={}.{} index={} type={} id={} version={} created={} ttl={} refresh={} ", 
@@ -1719,8 +1844,10 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 String typeName = InternalCassandraClusterService.cfNameToType(ElasticSecondaryIndex.this.baseCfs.metadata.cfName);
                 NumericRangeQuery<Long> tokenRangeQuery = NumericRangeQuery.newLongRange(TokenFieldMapper.NAME, NumericUtils.PRECISION_STEP_DEFAULT, token_long, token_long, true, true);
                 
-                mappingInfoLock.readLock().lock();
+                long startTime = System.nanoTime();
+                readLockMappingInfo();
                 try {
+                    partitionDeleted();
                     // Delete documents where _token = token_long + _type = typeName
                     for (MappingInfo.IndexInfo indexInfo : mappingInfo.indices.values()) {
                         if (logger.isTraceEnabled())
@@ -1738,6 +1865,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                     logger.error("Unexpected error", t);
                 } finally {
                     mappingInfoLock.readLock().unlock();
+                    metrics.partitionDelete.addNano(System.nanoTime() - startTime);
                 }
             }
 
@@ -1753,7 +1881,9 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 Bound start = slice.start();
                 Bound end = slice.end();
                 
-                mappingInfoLock.readLock().lock();
+                // range tombstones only occur in partitions having clustered rows.
+                updatedType |= sourceCache.enabled();
+                readLockMappingInfo();
                 try {
                     for(MappingInfo.IndexInfo indexInfo : targetIndices(pkCols)) {
                         IndexShard indexShard = indexInfo.indexService.shard(0);
@@ -1800,9 +1930,13 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
              */
             @Override
             public void insertRow(Row row) {
-                mappingInfoLock.readLock().lock();
+                if (MappingInfo.this.index_static_only && !row.isStatic())
+                    return;
+                long startTime = System.nanoTime();
+                readLockMappingInfo();
                 try {
                     Rowcument rowcument = new Rowcument(row);
+                    sourceUpdated(rowcument);
                     if (!MappingInfo.this.index_static_only || rowcument.isStatic) {
                         if (rowcument.complete()); 
                             rowcument.index();
@@ -1811,6 +1945,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                     logger.error("Unexpected error", t);
                 } finally {
                     mappingInfoLock.readLock().unlock();
+                    metrics.insertRow.addNano(System.nanoTime() - startTime);
                 }
             }
 
@@ -1836,10 +1971,14 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
              */
             @Override
             public void updateRow(Row oldRowData, Row newRowData) {
-                mappingInfoLock.readLock().lock();
+                if (MappingInfo.this.index_static_only && !newRowData.isStatic())
+                    return;
+                long startTime = System.nanoTime();
+                readLockMappingInfo();
                 try {
                     Rowcument rowcument = new Rowcument(newRowData);
                     rowcument.readCellValues(oldRowData, false);
+                    sourceUpdated(rowcument);
                     
                     // delete static  row having all indexed static  columns are null => only pt columns not null
                     // delete regular row having all indexed regular columns are null => only pk columns not null
@@ -1854,6 +1993,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                     logger.error("Unexpected error", t);
                 } finally {
                     mappingInfoLock.readLock().unlock();
+                    metrics.updateRow.addNano(System.nanoTime() - startTime);
                 }
             }
 
@@ -1876,7 +2016,9 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
              */
             @Override
             public void removeRow(Row row) {
-                mappingInfoLock.readLock().lock();
+                if (MappingInfo.this.index_static_only && !row.isStatic())
+                    return;
+                readLockMappingInfo();
                 try {
                     Rowcument rowcument = new Rowcument(row);
                     if (!MappingInfo.this.index_static_only || rowcument.isStatic) {
@@ -1895,23 +2037,47 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
              */
             @Override
             public void finish() {
-                mappingInfoLock.readLock().lock();
+                List<CompletableFuture<Void>> refreshes = null;
+                readLockMappingInfo();
                 try {
+                    if (updatedType || updatedIds != null) {
+                        for (String index : mappingInfo.indices.keySet()) {
+                            if (updatedType) {
+                                sourceCache.invalidate(index, typeName);
+                            } else {
+                                for (String id : updatedIds)
+                                    sourceCache.invalidate(index, typeName, id);
+                            }
+                        }
+                    }
                     for (MappingInfo.IndexInfo indexInfo : targetIndices(pkCols)) {
                         IndexShard indexShard = indexInfo.indexService.shard(0);
                         if (indexShard != null) {
                             if (indexInfo.refresh) {
-                                try {
-                                    indexShard.refresh("refresh_flag_index");
-                                } catch (Throwable e) {
-                                    logger.error("error", e);
-                                }
+                                // coalesce with refreshes requested by concurrent writers.
+                                if (refreshes == null)
+                                    refreshes = new ArrayList<CompletableFuture<Void>>(1);
+                                refreshes.add(groupRefresh.refresh(indexInfo.name, indexShard, indexInfo.refreshDelay));
                             }
                         }
                     }
                 } finally {
                     mappingInfoLock.readLock().unlock();
                 }
+                
+                // wait for refreshes without holding the mapping lock.
+                if (refreshes != null) {
+                    for(CompletableFuture<Void> refresh : refreshes) {
+                        try {
+                            refresh.get();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (ExecutionException e) {
+                            logger.error("error", e.getCause());
+                        }
+                    }
+                }
             }
 
             private LivenessInfo getPrimaryKeyIndexLiveness(Row row) {
@@ -1932,6 +2098,85 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 return LivenessInfo.create(baseCfs.metadata, timestamp, ttl, nowInSec);
             }
         }
+        
+        /**
+         * Indexer of a write having no mapped static or regular column. Rows already in the memtable keep their document, 
+         * so the partition is only decoded and indexed when a row may be new to the index, to create its primary key document.
+         */
+        class NewRowIndexer implements Index.Indexer {
+            final DecoratedKey key;
+            final PartitionColumns columns;
+            final int nowInSec;
+            final OpOrder.Group opGroup;
+            final IndexTransaction.Type transactionType;
+            private RowcumentIndexer indexer;
+            
+            NewRowIndexer(final DecoratedKey key,
+                    final PartitionColumns columns,
+                    final int nowInSec,
+                    final OpOrder.Group opGroup,
+                    final IndexTransaction.Type transactionType) {
+                this.key = key;
+                this.columns = columns;
+                this.nowInSec = nowInSec;
+                this.opGroup = opGroup;
+                this.transactionType = transactionType;
+            }
+            
+            private RowcumentIndexer indexer() {
+                if (indexer == null) {
+                    try {
+                        indexer = new RowcumentIndexer(key, columns, nowInSec, opGroup, transactionType);
+                        indexer.begin();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return indexer;
+            }
+            
+            @Override
+            public void begin() {
+            }
+
+            @Override
+            public void partitionDelete(DeletionTime deletionTime) {
+                indexer().partitionDelete(deletionTime);
+            }
+
+            @Override
+            public void rangeTombstone(RangeTombstone tombstone) {
+                indexer().rangeTombstone(tombstone);
+            }
+
+            /**
+             * The row is not in the memtable, and may be missing from the index.
+             */
+            @Override
+            public void insertRow(Row row) {
+                indexer().insertRow(row);
+            }
+
+            /**
+             * A live row of the memtable is already indexed, and the unmapped columns don't change its document.
+             */
+            @Override
+            public void updateRow(Row oldRowData, Row newRowData) {
+                if (oldRowData == null || !oldRowData.hasLiveData(nowInSec))
+                    indexer().updateRow(oldRowData, newRowData);
+            }
+
+            @Override
+            public void removeRow(Row row) {
+                indexer().removeRow(row);
+            }
+
+            @Override
+            public void finish() {
+                if (indexer != null)
+                    indexer.finish();
+            }
+        }
     }
 
     
@@ -1966,34 +2211,25 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
         }
     }
     
-    // TODO: notify 2i only for udated indices (not all)
-    @Override
-    public void clusterChanged(ClusterChangedEvent event) {
-        boolean updateMapping = false;
-        if (event.blocksChanged()) {
-            updateMapping = true;
-        } else {
-            for (ObjectCursor<IndexMetaData> cursor : event.state().metaData().indices().values()) {
-                IndexMetaData indexMetaData = cursor.value;
-                if (indexMetaData.keyspace().equals(this.baseCfs.metadata.ksName) && 
-                    indexMetaData.mapping(InternalCassandraClusterService.cfNameToType(this.baseCfs.name)) != null &&
-                   (event.indexRoutingTableChanged(indexMetaData.getIndex()) || event.indexMetaDataChanged(indexMetaData))) {
-                    updateMapping = true;
-                    break;
-                }
-            }
-        }
-        if (updateMapping) {
-            mappingInfoLock.writeLock().lock();
-            try {
-                mappingInfo = new MappingInfo(event.state());
-                logger.debug("secondary index=[{}] metadata.version={} mappingInfo.indices={}",
-                        this.index_name, event.state().metaData().version(), mappingInfo.indices.keySet() );
-            } catch(Exception e) {
-                logger.error("Failed to update mapping index=[{}]", index_name);
-            } finally {
-                mappingInfoLock.writeLock().unlock();
+    /**
+     * Rebuild the mapping info from the cluster state, called by the {@link ElasticSecondaryIndicesUpdater} when 
+     * the cluster state changes the indices of this table.
+     */
+    public void updateMappingInfo(ClusterState state) {
+        mappingInfoLock.writeLock().lock();
+        try {
+            MappingInfo previous = mappingInfo;
+            mappingInfo = new MappingInfo(state);
+            groupRefresh.retain(mappingInfo.indices.keySet());
+            // cached sources may depend on the previous mapping, or belong to a removed index.
+            if (sourceCache.enabled() && previous != null) {
+                for (String index : previous.indices.keySet())
+                    sourceCache.invalidate(index, previous.typeName);
             }
+            logger.debug("secondary index=[{}] metadata.version={} mappingInfo.indices={}",
+                    this.index_name, state.metaData().version(), mappingInfo.indices.keySet() );
+        } finally {
+            mappingInfoLock.writeLock().unlock();
         }
     }
 
@@ -2101,8 +2337,8 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
 
     public Callable<?> getInvalidateTask() {
         return () -> {
-            this.clusterService.remove(this);
             elasticSecondayIndices.remove(index_name);
+            metrics.release();
             return null;
         };
     }
@@ -2111,6 +2347,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
         return () -> {
             if (isIndexing()) {
                 for(MappingInfo.IndexInfo indexInfo : mappingInfo.indices.values()) {
+                    sourceCache.invalidate(indexInfo.name, mappingInfo.typeName);
                     try {
                         IndexShard indexShard = indexInfo.indexService.shard(0);
                         if (indexShard != null) {
@@ -2196,6 +2433,17 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
     
     public Indexer indexerFor(DecoratedKey key, PartitionColumns columns, int nowInSec, Group opGroup, Type transactionType) {
         if (isIndexing()) {
+            // When only static columns are indexed, a write of regular columns only cannot change any document.
+            // Partition and range deletions come with no columns, so they still get an indexer.
+            if (transactionType == Type.UPDATE && this.mappingInfo.index_static_only && columns.statics.isEmpty() && !columns.regulars.isEmpty())
+                return null;
+            // Same thing when none of the written static or regular columns is mapped, except for rows new to the index.
+            if (transactionType == Type.UPDATE && !columns.isEmpty() && !this.mappingInfo.hasIndexedColumns(columns))
+                return this.mappingInfo.new NewRowIndexer(key, columns, nowInSec, opGroup, transactionType);
+            // Replayed mutations already indexed before a restart.
+            ReplayPosition replayPosition = CommitLogReplayer.replayingPosition();
+            if (replayPosition != null && this.mappingInfo.isCommitted(replayPosition))
+                return null;
             try {
                 return this.mappingInfo.new RowcumentIndexer(key, columns, nowInSec, opGroup, transactionType);
             } catch (IOException e) {
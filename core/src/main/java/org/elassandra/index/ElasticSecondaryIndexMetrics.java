@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.index;
+
+import static org.apache.cassandra.metrics.CassandraMetricsRegistry.Metrics;
+
+import org.apache.cassandra.metrics.DefaultNameFactory;
+import org.apache.cassandra.metrics.LatencyMetrics;
+import org.apache.cassandra.metrics.MetricNameFactory;
+
+import com.codahale.metrics.Meter;
+
+/**
+ * Write path metrics of an {@link ElasticSecondaryIndex}, registered in the Cassandra metrics registry
+ * (JMX type=ElasticSecondaryIndex,scope=keyspace.table) and reported in the secondary_index section of _nodes/stats.
+ */
+public class ElasticSecondaryIndexMetrics {
+    public static final String TYPE_NAME = "ElasticSecondaryIndex";
+
+    private final MetricNameFactory factory;
+
+    /** Time spent indexing inserted rows */
+    public final LatencyMetrics insertRow;
+    /** Time spent indexing updated rows */
+    public final LatencyMetrics updateRow;
+    /** Time spent deleting documents of deleted partitions */
+    public final LatencyMetrics partitionDelete;
+    /** Time spent reading missing columns before indexing */
+    public final LatencyMetrics readBeforeWrite;
+    /** Time spent waiting for the mapping read lock */
+    public final LatencyMetrics mappingLockWait;
+    /** Time spent refreshing indices having index.refresh=true */
+    public final LatencyMetrics refresh;
+    /** Indexed documents */
+    public final Meter documentsIndexed;
+
+    public ElasticSecondaryIndexMetrics(String ksName, String cfName) {
+        this.factory = new DefaultNameFactory(TYPE_NAME, ksName + "." + cfName);
+        this.insertRow = new LatencyMetrics(factory, "InsertRow");
+        this.updateRow = new LatencyMetrics(factory, "UpdateRow");
+        this.partitionDelete = new LatencyMetrics(factory, "PartitionDelete");
+        this.readBeforeWrite = new LatencyMetrics(factory, "ReadBeforeWrite");
+        this.mappingLockWait = new LatencyMetrics(factory, "MappingLockWait");
+        this.refresh = new LatencyMetrics(factory, "Refresh");
+        this.documentsIndexed = Metrics.meter(factory.createMetricName("DocumentsIndexed"));
+    }
+
+    /**
+     * Unregister metrics when the secondary index is dropped.
+     */
+    public void release() {
+        insertRow.release();
+        updateRow.release();
+        partitionDelete.release();
+        readBeforeWrite.release();
+        mappingLockWait.release();
+        refresh.release();
+        Metrics.remove(factory.createMetricName("DocumentsIndexed"));
+    }
+}
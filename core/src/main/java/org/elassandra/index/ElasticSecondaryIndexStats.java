@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cassandra.metrics.LatencyMetrics;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentBuilderString;
+
+/**
+ * Node level snapshot of the {@link ElasticSecondaryIndexMetrics} of all elastic secondary indices, one entry per table.
+ */
+public class ElasticSecondaryIndexStats implements Streamable, ToXContent {
+    private List<TableStats> tables = new ArrayList<>();
+
+    public ElasticSecondaryIndexStats() {
+    }
+
+    public static ElasticSecondaryIndexStats snapshot() {
+        ElasticSecondaryIndexStats stats = new ElasticSecondaryIndexStats();
+        for (ElasticSecondaryIndex esi : ElasticSecondaryIndex.elasticSecondayIndices.values()) {
+            stats.tables.add(new TableStats(esi.index_name, esi.metrics));
+        }
+        return stats;
+    }
+
+    public List<TableStats> getTables() {
+        return tables;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        int size = in.readVInt();
+        tables = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TableStats table = new TableStats();
+            table.readFrom(in);
+            tables.add(table);
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(tables.size());
+        for (TableStats table : tables) {
+            table.writeTo(out);
+        }
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.SECONDARY_INDEX);
+        for (TableStats table : tables) {
+            table.toXContent(builder, params);
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    public static class TableStats implements Streamable, ToXContent {
+        private String name;
+        private Latency insertRow;
+        private Latency updateRow;
+        private Latency partitionDelete;
+        private Latency readBeforeWrite;
+        private Latency mappingLockWait;
+        private Latency refresh;
+        private long documentsIndexed;
+        private double documentsIndexedRate;
+
+        TableStats() {
+        }
+
+        TableStats(String name, ElasticSecondaryIndexMetrics metrics) {
+            this.name = name;
+            this.insertRow = new Latency(metrics.insertRow);
+            this.updateRow = new Latency(metrics.updateRow);
+            this.partitionDelete = new Latency(metrics.partitionDelete);
+            this.readBeforeWrite = new Latency(metrics.readBeforeWrite);
+            this.mappingLockWait = new Latency(metrics.mappingLockWait);
+            this.refresh = new Latency(metrics.refresh);
+            this.documentsIndexed = metrics.documentsIndexed.getCount();
+            this.documentsIndexedRate = metrics.documentsIndexed.getOneMinuteRate();
+        }
+
+        /**
+         * keyspace.table
+         */
+        public String getName() {
+            return name;
+        }
+
+        public Latency getInsertRow() {
+            return insertRow;
+        }
+
+        public Latency getUpdateRow() {
+            return updateRow;
+        }
+
+        public Latency getPartitionDelete() {
+            return partitionDelete;
+        }
+
+        public Latency getReadBeforeWrite() {
+            return readBeforeWrite;
+        }
+
+        public Latency getMappingLockWait() {
+            return mappingLockWait;
+        }
+
+        public Latency getRefresh() {
+            return refresh;
+        }
+
+        public long getDocumentsIndexed() {
+            return documentsIndexed;
+        }
+
+        /**
+         * Indexed documents per second over the last minute.
+         */
+        public double getDocumentsIndexedRate() {
+            return documentsIndexedRate;
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            name = in.readString();
+            insertRow = Latency.readLatency(in);
+            updateRow = Latency.readLatency(in);
+            partitionDelete = Latency.readLatency(in);
+            readBeforeWrite = Latency.readLatency(in);
+            mappingLockWait = Latency.readLatency(in);
+            refresh = Latency.readLatency(in);
+            documentsIndexed = in.readVLong();
+            documentsIndexedRate = in.readDouble();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(name);
+            insertRow.writeTo(out);
+            updateRow.writeTo(out);
+            partitionDelete.writeTo(out);
+            readBeforeWrite.writeTo(out);
+            mappingLockWait.writeTo(out);
+            refresh.writeTo(out);
+            out.writeVLong(documentsIndexed);
+            out.writeDouble(documentsIndexedRate);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject(name);
+            insertRow.toXContent(builder, Fields.INSERT_ROW);
+            updateRow.toXContent(builder, Fields.UPDATE_ROW);
+            partitionDelete.toXContent(builder, Fields.PARTITION_DELETE);
+            readBeforeWrite.toXContent(builder, Fields.READ_BEFORE_WRITE);
+            mappingLockWait.toXContent(builder, Fields.MAPPING_LOCK_WAIT);
+            refresh.toXContent(builder, Fields.REFRESH);
+            builder.startObject(Fields.DOCUMENTS_INDEXED);
+            builder.field(Fields.COUNT, documentsIndexed);
+            builder.field(Fields.RATE, documentsIndexedRate);
+            builder.endObject();
+            builder.endObject();
+            return builder;
+        }
+    }
+
+    /**
+     * Count, total time and 99th percentile of a {@link LatencyMetrics}.
+     */
+    public static class Latency {
+        private long count;
+        private long totalMicros;
+        private double p99Micros;
+
+        Latency() {
+        }
+
+        Latency(LatencyMetrics metrics) {
+            this.count = metrics.latency.getCount();
+            this.totalMicros = metrics.totalLatency.getCount();
+            // timer snapshots are in nanoseconds
+            this.p99Micros = metrics.latency.getSnapshot().get99thPercentile() / 1000;
+        }
+
+        static Latency readLatency(StreamInput in) throws IOException {
+            Latency latency = new Latency();
+            latency.count = in.readVLong();
+            latency.totalMicros = in.readVLong();
+            latency.p99Micros = in.readDouble();
+            return latency;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public TimeValue getTime() {
+            return TimeValue.timeValueNanos(totalMicros * 1000);
+        }
+
+        void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(count);
+            out.writeVLong(totalMicros);
+            out.writeDouble(p99Micros);
+        }
+
+        void toXContent(XContentBuilder builder, XContentBuilderString name) throws IOException {
+            builder.startObject(name);
+            builder.field(Fields.COUNT, count);
+            builder.timeValueField(Fields.TIME_IN_MILLIS, Fields.TIME, getTime());
+            builder.field(Fields.P99_IN_MICROS, p99Micros);
+            builder.endObject();
+        }
+    }
+
+    static final class Fields {
+        static final XContentBuilderString SECONDARY_INDEX = new XContentBuilderString("secondary_index");
+        static final XContentBuilderString INSERT_ROW = new XContentBuilderString("insert_row");
+        static final XContentBuilderString UPDATE_ROW = new XContentBuilderString("update_row");
+        static final XContentBuilderString PARTITION_DELETE = new XContentBuilderString("partition_delete");
+        static final XContentBuilderString READ_BEFORE_WRITE = new XContentBuilderString("read_before_write");
+        static final XContentBuilderString MAPPING_LOCK_WAIT = new XContentBuilderString("mapping_lock_wait");
+        static final XContentBuilderString REFRESH = new XContentBuilderString("refresh");
+        static final XContentBuilderString DOCUMENTS_INDEXED = new XContentBuilderString("documents_indexed");
+        static final XContentBuilderString COUNT = new XContentBuilderString("count");
+        static final XContentBuilderString RATE = new XContentBuilderString("rate_per_second");
+        static final XContentBuilderString TIME = new XContentBuilderString("time");
+        static final XContentBuilderString TIME_IN_MILLIS = new XContentBuilderString("time_in_millis");
+        static final XContentBuilderString P99_IN_MICROS = new XContentBuilderString("p99_in_micros");
+    }
+}
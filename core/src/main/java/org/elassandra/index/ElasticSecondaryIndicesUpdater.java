@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.cassandra.service.ElassandraDaemon;
+import org.elassandra.cluster.InternalCassandraClusterService;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MappingMetaData;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+
+/**
+ * Single cluster state listener for all elastic secondary indices. Computes once per cluster state change 
+ * the set of tables having an updated mapping, and rebuilds the mapping info of the related secondary indices only,
+ * in parallel when several tables are involved. Other tables keep indexing without taking their mapping write lock.
+ * @author vroyer
+ *
+ */
+public class ElasticSecondaryIndicesUpdater implements ClusterStateListener {
+    private static final ESLogger logger = Loggers.getLogger(ElasticSecondaryIndicesUpdater.class);
+    
+    private final ThreadPool threadPool;
+    
+    public ElasticSecondaryIndicesUpdater(ThreadPool threadPool) {
+        this.threadPool = threadPool;
+    }
+    
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        List<ElasticSecondaryIndex> updated = affectedIndices(event);
+        if (updated.isEmpty())
+            return;
+        
+        final ClusterState state = event.state();
+        if (updated.size() == 1) {
+            update(updated.get(0), state);
+            return;
+        }
+        
+        // mappings must be visible once the cluster state is applied, so wait for all updates.
+        final CountDownLatch latch = new CountDownLatch(updated.size());
+        for(final ElasticSecondaryIndex esi : updated) {
+            try {
+                threadPool.executor(ThreadPool.Names.GENERIC).execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            update(esi, state);
+                        } finally {
+                            latch.countDown();
+                        }
+                    }
+                });
+            } catch(Exception e) {
+                // executor rejected or shutting down, update in the applier thread.
+                try {
+                    update(esi, state);
+                } finally {
+                    latch.countDown();
+                }
+            }
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while updating {} secondary indices", updated.size());
+        }
+        if (logger.isDebugEnabled())
+            logger.debug("Updated {} secondary indices for metadata.version={}", updated.size(), state.metaData().version());
+    }
+    
+    private void update(ElasticSecondaryIndex esi, ClusterState state) {
+        try {
+            esi.updateMappingInfo(state);
+        } catch(Exception e) {
+            logger.error("Failed to update mapping index=[{}]", e, esi.index_name);
+        }
+    }
+    
+    /**
+     * Secondary indices whose mapping info depends on the changes of this cluster state.
+     */
+    List<ElasticSecondaryIndex> affectedIndices(ClusterChangedEvent event) {
+        if (ElasticSecondaryIndex.elasticSecondayIndices.isEmpty())
+            return new ArrayList<ElasticSecondaryIndex>(0);
+        
+        // blocks and cluster settings apply to all indices.
+        if (event.blocksChanged() || !event.state().metaData().settings().equals(event.previousState().metaData().settings()))
+            return new ArrayList<ElasticSecondaryIndex>(ElasticSecondaryIndex.elasticSecondayIndices.values());
+        
+        Set<String> tables = new HashSet<String>();
+        if (event.metaDataChanged()) {
+            for(ObjectCursor<IndexMetaData> cursor : event.state().metaData().indices().values()) {
+                IndexMetaData indexMetaData = cursor.value;
+                if (event.indexMetaDataChanged(indexMetaData)) {
+                    addTables(tables, indexMetaData);
+                    addTables(tables, event.previousState().metaData().index(indexMetaData.getIndex()));
+                }
+            }
+            for(String index : event.indicesDeleted())
+                addTables(tables, event.previousState().metaData().index(index));
+        }
+        
+        List<ElasticSecondaryIndex> affected = new ArrayList<ElasticSecondaryIndex>();
+        for(ElasticSecondaryIndex esi : ElasticSecondaryIndex.elasticSecondayIndices.values()) {
+            if (tables.contains(esi.index_name) || missingIndex(esi, event.state()))
+                affected.add(esi);
+        }
+        return affected;
+    }
+    
+    private void addTables(Set<String> tables, IndexMetaData indexMetaData) {
+        if (indexMetaData == null)
+            return;
+        for(ObjectCursor<MappingMetaData> cursor : indexMetaData.getMappings().values()) {
+            if (!MapperService.DEFAULT_MAPPING.equals(cursor.value.type()))
+                tables.add(indexMetaData.keyspace()+"."+InternalCassandraClusterService.typeToCfName(cursor.value.type()));
+        }
+    }
+    
+    /**
+     * True when an open index mapped to this table is not yet in the mapping info because its index service 
+     * was not available when the mapping info was built, or when its index service has been re-created.
+     */
+    private boolean missingIndex(ElasticSecondaryIndex esi, ClusterState state) {
+        final ElasticSecondaryIndex.MappingInfo mappingInfo = esi.mappingInfo;
+        if (mappingInfo == null || state.blocks().hasGlobalBlock(ClusterBlockLevel.WRITE))
+            return false;   // not yet initialized (see initMapping()) or nothing to index.
+        IndicesService indicesService = ElassandraDaemon.injector().getInstance(IndicesService.class);
+        String ksName = esi.baseCfs.metadata.ksName;
+        String typeName = InternalCassandraClusterService.cfNameToType(esi.baseCfs.name);
+        for(ObjectCursor<IndexMetaData> cursor : state.metaData().indices().values()) {
+            IndexMetaData indexMetaData = cursor.value;
+            if (indexMetaData.getState() == IndexMetaData.State.OPEN && 
+                ksName.equals(indexMetaData.keyspace()) && 
+                indexMetaData.mapping(typeName) != null &&
+                state.blocks().indexBlockedException(ClusterBlockLevel.WRITE, indexMetaData.getIndex()) == null) {
+                IndexService indexService = indicesService.indexService(indexMetaData.getIndex());
+                if (indexService == null)
+                    continue;
+                ElasticSecondaryIndex.MappingInfo.IndexInfo indexInfo = mappingInfo.indices.get(indexMetaData.getIndex());
+                if (indexInfo != null) {
+                    if (indexInfo.indexService != indexService)
+                        return true;
+                    continue;
+                }
+                try {
+                    if (indexMetaData.mapping(typeName).sourceAsMap().get("properties") != null)
+                        return true;
+                } catch (IOException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.index;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.threadpool.ThreadPool;
+
+/**
+ * Coalesce the synchronous refreshes requested by concurrent writers, like a group commit.
+ * A writer requests a refresh once its documents are indexed and waits on the returned future.
+ * Per index, at most one refresh is running and one is pending : all requests received while a refresh
+ * is running or delayed are served by the next refresh, which always starts after the request,
+ * so writers still read their own writes.
+ */
+class GroupRefresh {
+    private final ESLogger logger;
+    private final ThreadPool threadPool;
+    private final ElasticSecondaryIndexMetrics metrics;
+    private final ConcurrentMap<String, IndexRefresh> indexRefreshes = new ConcurrentHashMap<>();
+
+    GroupRefresh(ESLogger logger, ThreadPool threadPool, ElasticSecondaryIndexMetrics metrics) {
+        this.logger = logger;
+        this.threadPool = threadPool;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Request a refresh of the index shard including all operations done before this call.
+     * @param delay how long to wait for more writers before refreshing.
+     */
+    CompletableFuture<Void> refresh(String index, IndexShard indexShard, TimeValue delay) {
+        return indexRefreshes.computeIfAbsent(index, k -> new IndexRefresh()).request(indexShard, delay);
+    }
+
+    /**
+     * Forget about indices not in the provided list.
+     */
+    void retain(Collection<String> indices) {
+        indexRefreshes.keySet().retainAll(indices);
+    }
+
+    class IndexRefresh implements Runnable {
+        private IndexShard indexShard;
+        private TimeValue delay;
+        private CompletableFuture<Void> pending;
+        private boolean running = false;
+
+        synchronized CompletableFuture<Void> request(IndexShard indexShard, TimeValue delay) {
+            this.indexShard = indexShard;
+            this.delay = delay;
+            if (pending == null) {
+                pending = new CompletableFuture<Void>();
+                if (!running)
+                    schedule();
+            }
+            return pending;
+        }
+
+        // called while holding the monitor
+        private void schedule() {
+            running = true;
+            if (delay.millis() > 0)
+                threadPool.schedule(delay, ThreadPool.Names.REFRESH, this);
+            else
+                threadPool.executor(ThreadPool.Names.REFRESH).execute(this);
+        }
+
+        @Override
+        public void run() {
+            final CompletableFuture<Void> future;
+            final IndexShard shard;
+            synchronized (this) {
+                future = pending;
+                shard = indexShard;
+                pending = null;
+            }
+            try {
+                long startTime = System.nanoTime();
+                shard.refresh("refresh_flag_index");
+                metrics.refresh.addNano(System.nanoTime() - startTime);
+                future.complete(null);
+            } catch (Throwable t) {
+                logger.error("Failed to refresh index [{}]", t, shard.shardId().index().name());
+                future.completeExceptionally(t);
+            } finally {
+                synchronized (this) {
+                    running = false;
+                    if (pending != null)
+                        schedule();
+                }
+            }
+        }
+    }
+}
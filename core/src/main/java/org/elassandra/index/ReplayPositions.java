@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.index;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.cassandra.db.Keyspace;
+import org.apache.cassandra.db.commitlog.CommitLog;
+import org.apache.cassandra.db.commitlog.CommitLogReplayer;
+import org.apache.cassandra.db.commitlog.ReplayPosition;
+import org.apache.cassandra.utils.concurrent.OpOrder;
+
+/**
+ * Cassandra commitlog positions recorded in the Lucene commit user data. All the mutations up to the recorded
+ * position are in the Lucene commit, so they are not indexed again when the commitlog is replayed on startup.
+ */
+public final class ReplayPositions {
+    /** Lucene commit user data key */
+    public static final String COMMIT_KEY = "cassandra_replay_position";
+
+    /** Max number of positions waiting for their barrier, older ones are dropped. */
+    static final int MAX_PENDING = 16;
+
+    // positions read before issuing a write barrier, oldest first.
+    private static final Deque<Pending> pending = new ArrayDeque<>();
+    private static ReplayPosition indexed = null;
+
+    private static class Pending {
+        final ReplayPosition position;
+        final OpOrder.Barrier barrier;
+
+        Pending(ReplayPosition position, OpOrder.Barrier barrier) {
+            this.position = position;
+            this.barrier = barrier;
+        }
+    }
+
+    private ReplayPositions() {
+    }
+
+    /**
+     * Commitlog position up to which all the mutations applied on this node are indexed, without blocking.
+     * Writes are appended to the commitlog after starting their operation group, so once a write barrier issued
+     * after reading a position is passed, all the mutations below that position are indexed. Each call records
+     * the current position with a new barrier, and returns the latest recorded position whose barrier is passed.
+     * Waiting for the barrier would deadlock when the Lucene flush is triggered by a memtable flush, while
+     * writers blocked on memtable allocation hold the barrier.
+     * @return the position, or null when no position is known yet, when not running Elassandra or while replaying 
+     * the commitlog, because replayed mutations are not applied in commitlog order.
+     */
+    public static synchronized ReplayPosition indexed() {
+        if (!ElasticSecondaryIndex.runsElassandra || CommitLogReplayer.isReplaying())
+            return null;
+        ReplayPosition position = CommitLog.instance.getContext();
+        OpOrder.Barrier barrier = Keyspace.writeOrder.newBarrier();
+        barrier.issue();
+        pending.addLast(new Pending(position, barrier));
+        while (!pending.isEmpty() && pending.peekFirst().barrier.allPriorOpsAreFinished())
+            indexed = pending.pollFirst().position;
+        while (pending.size() > MAX_PENDING)
+            pending.pollFirst();
+        return indexed;
+    }
+
+    public static String toString(ReplayPosition position) {
+        return position.segment + ":" + position.position;
+    }
+
+    /**
+     * @return the parsed position, or {@link ReplayPosition#NONE} if null or invalid.
+     */
+    public static ReplayPosition parse(String value) {
+        if (value != null) {
+            int i = value.indexOf(':');
+            if (i > 0) {
+                try {
+                    return new ReplayPosition(Long.parseLong(value.substring(0, i)), Integer.parseInt(value.substring(i + 1)));
+                } catch (NumberFormatException e) {
+                    // ignore invalid value, mutations will be indexed again.
+                }
+            }
+        }
+        return ReplayPosition.NONE;
+    }
+}
@@ -17,7 +17,9 @@ package org.elassandra.indices;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 
 import org.elassandra.cluster.routing.AbstractSearchStrategy;
 import org.elassandra.gateway.CassandraGatewayService;
@@ -38,6 +40,7 @@ import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexShardAlreadyExistsException;
 import org.elasticsearch.index.aliases.IndexAliasesService;
@@ -74,6 +77,11 @@ public class CassandraIndicesClusterStateService extends AbstractLifecycleCompon
     
     private final FailedEngineHandler failedEngineHandler = new FailedEngineHandler();
     
+    /** Maximum number of shards concurrently created and recovered when many indices are opened at once, like on startup. */
+    public static final String SETTING_SHARD_STARTUP_CONCURRENCY = "indices.cluster.shard_startup_concurrency";
+    
+    private final int shardStartupConcurrency;
+    
     @Inject
     public CassandraIndicesClusterStateService(Settings settings, IndicesService indicesService, 
             ClusterService clusterService, ThreadPool threadPool) {
@@ -81,6 +89,7 @@ public class CassandraIndicesClusterStateService extends AbstractLifecycleCompon
         this.indicesService = indicesService;
         this.clusterService = clusterService;
         this.threadPool = threadPool;
+        this.shardStartupConcurrency = settings.getAsInt(SETTING_SHARD_STARTUP_CONCURRENCY, EsExecutors.boundedNumberOfProcessors(settings));
     }
 
     @Override
@@ -203,7 +212,7 @@ public class CassandraIndicesClusterStateService extends AbstractLifecycleCompon
 
 
     private boolean applyNewIndices(final ClusterChangedEvent event) {
-        boolean newShards = false;
+        final List<IndexService> newShardIndices = new ArrayList<>();
         for (IndexMetaData indexMetaData : event.state().metaData()) {
             IndexService indexService = indicesService.indexService(indexMetaData.getIndex());
             if (indexService == null && indexMetaData.getState() == State.OPEN) {
@@ -219,53 +228,97 @@ public class CassandraIndicesClusterStateService extends AbstractLifecycleCompon
                 }
             } 
             if (indexService != null && indexService.shard(0) == null && indexMetaData.getState() == State.OPEN) {
-                try {
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("[{}][{}] creating shard", indexMetaData.getIndex(), 0);
-                    }
-                    ShardRouting shardRouting = new ShardRouting(indexMetaData.getIndex(), 0, clusterService.localNode().id(), true, 
-                            ShardRoutingState.INITIALIZING, 
-                            event.state().metaData().version(), 
-                            IndexRoutingTable.UNASSIGNED_INFO_INDEX_CREATED, 
-                            AbstractSearchStrategy.EMPTY_RANGE_TOKEN_LIST);
-                    IndexShard indexShard = indexService.createShard(shardRouting);
-                    indexShard.shardRouting(shardRouting);
-                    indexShard.addFailedEngineListener(failedEngineHandler);
-                    newShards = true;
-                    
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("[{}][{}] creating shard", shardRouting.index(), shardRouting.shardId().getId());
-                    }
-                    
-                    // try to recover if index was existing but has no shards.
-                    indexShard.recoverFromStore(shardRouting, new StoreRecoveryService.RecoveryListener() {
-                        @Override
-                        public void onRecoveryDone() {
-                            logger.debug("[{}][{}] recovery done, shard state={}", shardRouting.index(),0, indexShard.state());
-                            indexShard.moveToStart();
+                newShardIndices.add(indexService);
+            }
+        }
+        if (newShardIndices.isEmpty())
+            return false;
+        
+        final long metaDataVersion = event.state().metaData().version();
+        if (newShardIndices.size() == 1 || shardStartupConcurrency <= 1) {
+            for (IndexService indexService : newShardIndices)
+                createAndRecoverShard(indexService, metaDataVersion);
+            return true;
+        }
+        
+        // On startup, open and recover shards of many indices concurrently (store checks and engine opening),
+        // and publish their states in one gossip update rather than one update per shard.
+        final ConcurrentLinkedQueue<IndexService> queue = new ConcurrentLinkedQueue<>(newShardIndices);
+        final int workers = Math.min(shardStartupConcurrency, newShardIndices.size());
+        final CountDownLatch latch = new CountDownLatch(workers);
+        logger.debug("creating [{}] shards with [{}] concurrent workers", newShardIndices.size(), workers);
+        final List<String> indices = new ArrayList<>(newShardIndices.size());
+        for (IndexService indexService : newShardIndices)
+            indices.add(indexService.index().getName());
+        clusterService.deferShardStatesPublication(indices);
+        try {
+            for (int i = 0; i < workers; i++) {
+                threadPool.generic().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            IndexService indexService;
+                            while ((indexService = queue.poll()) != null)
+                                createAndRecoverShard(indexService, metaDataVersion);
+                        } finally {
+                            latch.countDown();
                         }
+                    }
+                });
+            }
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("interrupted while creating shards", e);
+        } finally {
+            clusterService.publishDeferredShardStates(indices);
+        }
+        return true;
+    }
 
-                        @Override
-                        public void onIgnoreRecovery(String reason) {
-                            logger.warn("[{}][{}] recovery ignored", shardRouting.index(),0);
-                        }
+    /**
+     * Create the shard of a new index and recover it from the local store. The store recovery runs on the calling thread, 
+     * so the shard is started, or its recovery failed or was ignored, when this returns.
+     */
+    private void createAndRecoverShard(final IndexService indexService, final long metaDataVersion) {
+        try {
+            if (logger.isDebugEnabled()) {
+                logger.debug("[{}][{}] creating shard", indexService.index().getName(), 0);
+            }
+            final ShardRouting shardRouting = new ShardRouting(indexService.index().getName(), 0, clusterService.localNode().id(), true, 
+                    ShardRoutingState.INITIALIZING, 
+                    metaDataVersion, 
+                    IndexRoutingTable.UNASSIGNED_INFO_INDEX_CREATED, 
+                    AbstractSearchStrategy.EMPTY_RANGE_TOKEN_LIST);
+            final IndexShard indexShard = indexService.createShard(shardRouting);
+            indexShard.shardRouting(shardRouting);
+            indexShard.addFailedEngineListener(failedEngineHandler);
+            
+            // try to recover if index was existing but has no shards.
+            indexShard.recoverFromStore(shardRouting, new StoreRecoveryService.RecoveryListener() {
+                @Override
+                public void onRecoveryDone() {
+                    logger.debug("[{}][{}] recovery done, shard state={}", shardRouting.index(),0, indexShard.state());
+                    indexShard.moveToStart();
+                }
 
-                        @Override
-                        public void onRecoveryFailed(IndexShardRecoveryException e) {
-                            logger.warn("[{}][{}] recovery failed", e, shardRouting.index(),0);
-                        }
-                    });
-                    
-                } catch (IndexShardAlreadyExistsException e) {
-                    // ignore this, the method call can happen several times
-                } catch (Throwable e) {
-                    logger.error("Unexpected error", e);
-                    failAndRemoveShard(indexService, true, "failed to create shard", e);
+                @Override
+                public void onIgnoreRecovery(String reason) {
+                    logger.warn("[{}][{}] recovery ignored", shardRouting.index(),0);
                 }
-            }
+
+                @Override
+                public void onRecoveryFailed(IndexShardRecoveryException e) {
+                    logger.warn("[{}][{}] recovery failed", e, shardRouting.index(),0);
+                }
+            });
             
+        } catch (IndexShardAlreadyExistsException e) {
+            // ignore this, the method call can happen several times
+        } catch (Throwable e) {
+            logger.error("Unexpected error", e);
+            failAndRemoveShard(indexService, true, "failed to create shard", e);
         }
-        return newShards;
     }
 
      
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.indices.breaker;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.cassandra.concurrent.ScheduledExecutors;
+import org.apache.cassandra.db.ColumnFamilyStore;
+import org.apache.cassandra.db.Memtable;
+import org.apache.cassandra.service.CacheService;
+import org.elassandra.index.ElasticSecondaryIndex;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+
+/**
+ * Accounts the heap used by Cassandra, the on-heap memtables (including the ones being flushed) and the key and 
+ * counter caches, so that this usage counts in the parent circuit breaker. It never trips by itself, Cassandra 
+ * bounds its memtables by flushing, see {@link #flushLargestMemtable()}. Row cache providers shipped with Cassandra 
+ * are off-heap and are not accounted.
+ */
+public class CassandraCircuitBreaker implements CircuitBreaker {
+    private static final ESLogger logger = Loggers.getLogger(CassandraCircuitBreaker.class);
+
+    private final double overhead;
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+    public CassandraCircuitBreaker(double overhead) {
+        this.overhead = overhead;
+    }
+
+    @Override
+    public void circuitBreak(String fieldName, long bytesNeeded) {
+        // Cassandra memory is not allocated through the breaker.
+    }
+
+    @Override
+    public double addEstimateBytesAndMaybeBreak(long bytes, String label) {
+        return getUsed();
+    }
+
+    @Override
+    public long addWithoutBreaking(long bytes) {
+        return getUsed();
+    }
+
+    @Override
+    public long getUsed() {
+        if (!ElasticSecondaryIndex.runsElassandra)
+            return 0;
+        return Memtable.MEMORY_POOL.onHeap.used() 
+                + CacheService.instance.keyCache.weightedSize() 
+                + CacheService.instance.counterCache.weightedSize();
+    }
+
+    @Override
+    public long getLimit() {
+        return -1;
+    }
+
+    @Override
+    public double getOverhead() {
+        return overhead;
+    }
+
+    @Override
+    public long getTrippedCount() {
+        return 0;
+    }
+
+    @Override
+    public String getName() {
+        return CircuitBreaker.CASSANDRA;
+    }
+
+    /**
+     * Asynchronously switch and flush the largest memtable to release heap when the Elasticsearch breakers are under pressure,
+     * unless memtables are not on-heap or some memtable is already being flushed.
+     */
+    public void flushLargestMemtable() {
+        if (!ElasticSecondaryIndex.runsElassandra 
+                || Memtable.MEMORY_POOL.onHeap.used() == 0 
+                || Memtable.MEMORY_POOL.onHeap.reclaimingRatio() > 0
+                || !flushing.compareAndSet(false, true))
+            return;
+        ScheduledExecutors.optionalTasks.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    logger.debug("Flushing the largest memtable to release heap, memtables on-heap={} bytes", Memtable.MEMORY_POOL.onHeap.used());
+                    new ColumnFamilyStore.FlushLargestColumnFamily().run();
+                } catch (Throwable t) {
+                    logger.warn("Failed to flush the largest memtable", t);
+                } finally {
+                    flushing.set(false);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.indices.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.cassandra.cache.SerializingCache;
+import org.apache.cassandra.io.ISerializer;
+import org.apache.cassandra.io.util.DataInputPlus;
+import org.apache.cassandra.io.util.DataOutputPlus;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+
+/**
+ * Off-heap LRU cache of the document sources returned by GET requests, keyed by (index, type, _id) and bounded by 
+ * {@link #INDICES_SOURCE_CACHE_SIZE} bytes of serialized sources. Entries are invalidated by the {@link org.elassandra.index.ElasticSecondaryIndex}
+ * once a write is visible in the base table, so the cache only stays coherent with the writes applied on this node:
+ * only sources of the documents this node is a replica of are cached, and entries expire after
+ * {@link #INDICES_SOURCE_CACHE_EXPIRE}, one minute by default. Disabled by default.
+ */
+public class SourceCache extends AbstractComponent implements Closeable {
+
+    public static final String INDICES_SOURCE_CACHE_SIZE = "indices.source.cache.size";
+    public static final String INDICES_SOURCE_CACHE_EXPIRE = "indices.source.cache.expire";
+
+    public static final TimeValue DEFAULT_EXPIRE = TimeValue.timeValueMinutes(1);
+
+    private static final int STAMPS = 1024;
+
+    @Nullable
+    private final SerializingCache<Key, Value> cache;
+    private final long expireInMillis;
+
+    // invalidation counters, a source fetched while its key was invalidated is not kept in the cache.
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMPS);
+
+    private final CounterMetric hitCount = new CounterMetric();
+    private final CounterMetric missCount = new CounterMetric();
+
+    @Inject
+    public SourceCache(Settings settings) {
+        super(settings);
+        long size = settings.getAsBytesSize(INDICES_SOURCE_CACHE_SIZE, new ByteSizeValue(0)).bytes();
+        TimeValue expire = settings.getAsTime(INDICES_SOURCE_CACHE_EXPIRE, DEFAULT_EXPIRE);
+        // writes not applied through this node, like streamed sstables, are only caught up by the expiry.
+        if (expire.millis() <= 0)
+            throw new IllegalArgumentException("[" + INDICES_SOURCE_CACHE_EXPIRE + "] must be a positive time value, got [" + expire + "]");
+        this.expireInMillis = expire.millis();
+        this.cache = (size > 0) ? SerializingCache.<Key, Value>create(size, VALUE_SERIALIZER) : null;
+        if (cache != null)
+            logger.debug("using source cache with size [{}], expire [{}]", new ByteSizeValue(size), expire);
+    }
+
+    public boolean enabled() {
+        return cache != null;
+    }
+
+    /**
+     * Returns the invalidation stamp of a key, to read before fetching the source that will be {@link #put(String, String, String, BytesReference, long)}.
+     */
+    public long stamp(String index, String type, String id) {
+        return stamps.get(stampIndex(new Key(index, type, id)));
+    }
+
+    @Nullable
+    public BytesReference get(String index, String type, String id) {
+        Key key = new Key(index, type, id);
+        Value value = cache.get(key);
+        if (value != null && System.currentTimeMillis() - value.time > expireInMillis) {
+            cache.remove(key);
+            value = null;
+        }
+        if (value == null) {
+            missCount.inc();
+            return null;
+        }
+        hitCount.inc();
+        return value.source;
+    }
+
+    public void put(String index, String type, String id, BytesReference source, long stamp) {
+        Key key = new Key(index, type, id);
+        cache.put(key, new Value(System.currentTimeMillis(), source));
+        // the key was invalidated while the source was fetched, this source may be stale.
+        if (stamps.get(stampIndex(key)) != stamp)
+            cache.remove(key);
+    }
+
+    public void invalidate(String index, String type, String id) {
+        if (cache == null)
+            return;
+        Key key = new Key(index, type, id);
+        stamps.incrementAndGet(stampIndex(key));
+        cache.remove(key);
+    }
+
+    /**
+     * Invalidate all cached sources of a type, or of all types when type is null.
+     */
+    public void invalidate(String index, @Nullable String type) {
+        if (cache == null)
+            return;
+        for (int i = 0; i < STAMPS; i++)
+            stamps.incrementAndGet(i);
+        for (Iterator<Key> it = cache.keyIterator(); it.hasNext(); ) {
+            Key key = it.next();
+            if (key.index.equals(index) && (type == null || key.type.equals(type)))
+                cache.remove(key);
+        }
+    }
+
+    public long hitCount() {
+        return hitCount.count();
+    }
+
+    public long missCount() {
+        return missCount.count();
+    }
+
+    public long sizeInBytes() {
+        return (cache == null) ? 0 : cache.weightedSize();
+    }
+
+    @Override
+    public void close() {
+        if (cache == null)
+            return;
+        // release the off-heap memory of all entries.
+        for (Iterator<Key> it = cache.keyIterator(); it.hasNext(); )
+            cache.remove(it.next());
+    }
+
+    private static int stampIndex(Key key) {
+        return (key.hashCode() & 0x7fffffff) % STAMPS;
+    }
+
+    static final class Key {
+        final String index;
+        final String type;
+        final String id;
+
+        Key(String index, String type, String id) {
+            this.index = index;
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            Key other = (Key) o;
+            return id.equals(other.id) && type.equals(other.type) && index.equals(other.index);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(index, type, id);
+        }
+    }
+
+    static final class Value {
+        final long time;
+        final BytesReference source;
+
+        Value(long time, BytesReference source) {
+            this.time = time;
+            this.source = source;
+        }
+    }
+
+    private static final ISerializer<Value> VALUE_SERIALIZER = new ISerializer<Value>() {
+        @Override
+        public void serialize(Value value, DataOutputPlus out) throws IOException {
+            BytesRef bytes = value.source.toBytesRef();
+            out.writeLong(value.time);
+            out.writeInt(bytes.length);
+            out.write(bytes.bytes, bytes.offset, bytes.length);
+        }
+
+        @Override
+        public Value deserialize(DataInputPlus in) throws IOException {
+            long time = in.readLong();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new Value(time, new BytesArray(bytes));
+        }
+
+        @Override
+        public long serializedSize(Value value) {
+            return 8 + 4 + value.source.length();
+        }
+    };
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.index.LeafReaderContext;
+import org.elassandra.index.mapper.internal.NodeFieldMapper;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.geo.GeoPoint;
+import org.elasticsearch.common.regex.Regex;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.fieldvisitor.AllFieldsVisitor;
+import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.core.NumberFieldMapper;
+import org.elasticsearch.index.mapper.core.StringFieldMapper;
+import org.elasticsearch.index.mapper.geo.BaseGeoPointFieldMapper;
+import org.elasticsearch.index.mapper.object.ObjectMapper;
+import org.elasticsearch.search.fetch.source.FetchSourceContext;
+import org.elasticsearch.search.internal.SearchContext;
+
+/**
+ * Rebuild the requested fields and the requested subset of the _source from Lucene doc values,
+ * to avoid a Cassandra read per hit in the fetch phase when index.fetch_from_doc_values is true.
+ * Only numeric, date, not analyzed string and geo_point fields having doc values are supported,
+ * otherwise documents are fetched from Cassandra. Doc values are sorted and deduplicated, so the order
+ * of multi-valued fields is not preserved. Multi-fields are not part of the _source, so they are skipped, 
+ * and fields of nested objects are fetched from Cassandra because their doc values belong to the nested documents.
+ */
+public class DocValuesSourceLoader {
+
+    private final SearchContext context;
+    private final Set<String> sourceFields;
+    private final Set<String> requestedFields;
+    private final Set<String> fields;
+
+    // per document type, the doc values field types of fields (multi-fields excluded), or null if some field cannot be loaded from doc values.
+    private final Map<String, Map<String, MappedFieldType>> fieldTypes = new HashMap<>();
+
+    private DocValuesSourceLoader(SearchContext context, Set<String> sourceFields, Set<String> requestedFields) {
+        this.context = context;
+        this.sourceFields = sourceFields;
+        this.requestedFields = requestedFields;
+        this.fields = new LinkedHashSet<>(sourceFields);
+        this.fields.addAll(requestedFields);
+    }
+
+    /**
+     * @return a loader, or null if the requested fields and source cannot be loaded from doc values.
+     */
+    public static DocValuesSourceLoader create(SearchContext context, Settings indexSettings, FieldsVisitor fieldsVisitor) {
+        if (!indexSettings.getAsBoolean(IndexMetaData.SETTING_FETCH_FROM_DOC_VALUES, false) || fieldsVisitor instanceof AllFieldsVisitor)
+            return null;
+
+        Set<String> sourceFields = new LinkedHashSet<>();
+        if (fieldsVisitor.loadSource()) {
+            // only an explicit list of included fields can be rebuilt, excludes are applied by the source sub-phase.
+            FetchSourceContext fetchSourceContext = context.fetchSourceContext();
+            if (fetchSourceContext == null || fetchSourceContext.includes() == null || fetchSourceContext.includes().length == 0)
+                return null;
+            for (String include : fetchSourceContext.includes()) {
+                if (Regex.isSimpleMatchPattern(include))
+                    return null;
+                sourceFields.add(include);
+            }
+        }
+        Set<String> requestedFields = new LinkedHashSet<>();
+        if (fieldsVisitor.requestedFields() != null) {
+            for (String field : fieldsVisitor.requestedFields()) {
+                if (NodeFieldMapper.NAME.equals(field))
+                    return null;
+                requestedFields.add(field);
+            }
+        }
+        if (sourceFields.isEmpty() && requestedFields.isEmpty())
+            return null;
+        return new DocValuesSourceLoader(context, sourceFields, requestedFields);
+    }
+
+    /**
+     * Load the requested fields and source of a document from doc values.
+     * @return false if the document type has requested fields without doc values, then the document must be fetched from Cassandra.
+     */
+    public boolean load(LeafReaderContext readerContext, int docId, FieldsVisitor fieldsVisitor) throws IOException {
+        Map<String, MappedFieldType> types = fieldTypes(fieldsVisitor.uid().type());
+        if (types == null)
+            return false;
+
+        Map<String, Object> source = sourceFields.isEmpty() ? null : new HashMap<String, Object>();
+        for (String field : fields) {
+            MappedFieldType fieldType = types.get(field);
+            if (fieldType == null)
+                continue;   // multi-field
+            ScriptDocValues docValues = context.fieldData().getForField(fieldType).load(readerContext).getScriptValues();
+            docValues.setNextDocId(docId);
+            List<?> values = docValues.getValues();
+            if (values.isEmpty())
+                continue;
+
+            List<Object> searchValues = new ArrayList<Object>(values.size());
+            for (Object value : values) {
+                if (value instanceof GeoPoint) {
+                    GeoPoint point = (GeoPoint) value;
+                    searchValues.add(point.lat() + "," + point.lon());
+                } else if (fieldType.numericType() == FieldType.NumericType.FLOAT && value instanceof Number) {
+                    // float doc values are read as doubles
+                    searchValues.add(((Number) value).floatValue());
+                } else {
+                    searchValues.add(value);
+                }
+            }
+            if (requestedFields.contains(field)) {
+                // converted by FieldsVisitor.postProcess()
+                fieldsVisitor.setValues(field, new ArrayList<Object>(searchValues));
+            }
+            if (source != null && sourceFields.contains(field)) {
+                for (int i = 0; i < searchValues.size(); i++)
+                    searchValues.set(i, fieldType.valueForSearch(searchValues.get(i)));
+                put(source, field, searchValues.size() == 1 ? searchValues.get(0) : searchValues);
+            }
+        }
+        if (source != null) {
+            XContentBuilder builder = XContentFactory.jsonBuilder().map(source);
+            fieldsVisitor.source(builder.bytes());
+        }
+        return true;
+    }
+
+    private Map<String, MappedFieldType> fieldTypes(String type) {
+        if (fieldTypes.containsKey(type))
+            return fieldTypes.get(type);
+
+        Map<String, MappedFieldType> types = new HashMap<>();
+        DocumentMapper docMapper = context.mapperService().documentMapper(type);
+        if (docMapper != null) {
+            for (String field : fields) {
+                FieldMapper fieldMapper = docMapper.mappers().getMapper(field);
+                if (fieldMapper == null || !hasDocValues(fieldMapper.fieldType())) {
+                    types = null;
+                    break;
+                }
+                Boolean objectPath = isObjectPath(docMapper, field);
+                if (objectPath == null) {
+                    types = null;
+                    break;
+                }
+                if (objectPath)
+                    types.put(field, fieldMapper.fieldType());
+            }
+        } else {
+            types = null;
+        }
+        fieldTypes.put(type, types);
+        return types;
+    }
+
+    /**
+     * @return true if all the parents of the field are objects, false for a multi-field, or null for a field of a nested object.
+     */
+    private static Boolean isObjectPath(DocumentMapper docMapper, String field) {
+        for (int i = field.indexOf('.'); i > 0; i = field.indexOf('.', i + 1)) {
+            ObjectMapper objectMapper = docMapper.objectMappers().get(field.substring(0, i));
+            if (objectMapper == null)
+                return false;
+            if (objectMapper.nested().isNested())
+                return null;
+        }
+        return true;
+    }
+
+    private static boolean hasDocValues(MappedFieldType fieldType) {
+        if (!fieldType.hasDocValues())
+            return false;
+        if (fieldType instanceof StringFieldMapper.StringFieldType)
+            return !fieldType.tokenized();
+        return fieldType instanceof NumberFieldMapper.NumberFieldType || fieldType instanceof BaseGeoPointFieldMapper.GeoPointFieldType;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void put(Map<String, Object> source, String path, Object value) {
+        int i = path.indexOf('.');
+        if (i < 0) {
+            source.put(path, value);
+        } else {
+            String name = path.substring(0, i);
+            Object child = source.get(name);
+            if (!(child instanceof Map)) {
+                child = new HashMap<String, Object>();
+                source.put(name, child);
+            }
+            put((Map<String, Object>) child, path.substring(i + 1), value);
+        }
+    }
+}
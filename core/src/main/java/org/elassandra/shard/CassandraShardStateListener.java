@@ -19,7 +19,10 @@ package org.elassandra.shard;
  * Post applied cluster state service to update gossip X1 shards state.
  */
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.elassandra.cluster.InternalCassandraClusterService;
@@ -49,14 +52,57 @@ public class CassandraShardStateListener extends IndicesLifecycle.Listener {
     private final ClusterService clusterService;
     private final DiscoveryService discoveryService;
     
+    // shard states of these indices are published in one gossip update by publishDeferred().
+    private final Set<String> deferredIndices = ConcurrentHashMap.newKeySet();
+    // deferred indices having a started shard not yet applied to the routing table.
+    private final Set<String> startedIndices = ConcurrentHashMap.newKeySet();
+    
     @Inject
     public CassandraShardStateListener(ClusterService clusterService, DiscoveryService discoveryService) {
         this.clusterService = clusterService;
         this.discoveryService = discoveryService;
     }
     
+    /**
+     * Defer the publication of created and started shards of these indices until {@link #publishDeferred(Collection)}.
+     */
+    public void defer(Collection<String> indices) {
+        deferredIndices.addAll(indices);
+    }
+    
+    /**
+     * Stop deferring these indices and publish in gossip X1 the state of all local shards,
+     * updating the routing table once if some of their shards have been started.
+     */
+    public void publishDeferred(Collection<String> indices) {
+        deferredIndices.removeAll(indices);
+        if (startedIndices.removeAll(indices)) {
+            clusterService.submitStateUpdateTask("shards-started-update-routing", new ClusterStateUpdateTask() {
+                @Override
+                public ClusterState execute(ClusterState currentState) {
+                    return ClusterState.builder(currentState).incrementVersion().build();
+                }
+
+                @Override
+                public void onFailure(String source, Throwable t) {
+                    logger.error("unexpected failure during [{}]", t, source);
+                }
+                
+                @Override
+                public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                    // the applied cluster state includes the routing table built from local shards.
+                    discoveryService.publishX1(clusterService.state());
+                }
+            });
+        } else {
+            discoveryService.publishX1(clusterService.state());
+        }
+    }
+    
     @Override
     public void beforeIndexShardCreated(ShardId shardId, Settings indexSettings) {
+        if (deferredIndices.contains(shardId.getIndex()))
+            return;
         try {
             discoveryService.putShardRoutingState(shardId.getIndex(), ShardRoutingState.INITIALIZING);
         } catch (IOException e) {
@@ -69,6 +115,10 @@ public class CassandraShardStateListener extends IndicesLifecycle.Listener {
      */
     @Override
     public void afterIndexShardStarted(IndexShard indexShard) {
+        if (deferredIndices.contains(indexShard.shardId().getIndex())) {
+            startedIndices.add(indexShard.shardId().getIndex());
+            return;
+        }
         try {
             discoveryService.putShardRoutingState(indexShard.shardId().getIndex(), ShardRoutingState.STARTED);
             clusterService.submitStateUpdateTask("shard-started-update-routing", new ClusterStateUpdateTask() {
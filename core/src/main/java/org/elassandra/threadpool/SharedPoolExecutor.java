@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2015 Vincent Royer (vroyer@vroyer.org).
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.threadpool;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cassandra.concurrent.LocalAwareExecutorService;
+import org.apache.cassandra.concurrent.SharedExecutorPool;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+
+/**
+ * Elasticsearch executor running its tasks on the Cassandra {@link SharedExecutorPool}, so that Cassandra stages and 
+ * Elasticsearch thread pools share the same work-stealing worker threads instead of oversubscribing the CPU.
+ * At most maxConcurrency tasks run concurrently (the weight of the workload in the shared pool), and tasks exceeding 
+ * the queue size are rejected like in a fixed Elasticsearch thread pool. Cassandra publishes the executor metrics 
+ * under the ThreadPools metrics with path elasticsearch.
+ */
+public class SharedPoolExecutor extends AbstractExecutorService {
+    public static final String JMX_PATH = "elasticsearch";
+
+    private final String name;
+    private final LocalAwareExecutorService executor;
+    private final int maxConcurrency;
+    private final int queueSize;
+
+    // submitted tasks not yet completed, running or queued.
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger largest = new AtomicInteger();
+    private final CounterMetric completed = new CounterMetric();
+    private final CounterMetric rejected = new CounterMetric();
+
+    /**
+     * @param queueSize the maximum number of tasks waiting for a worker, or -1 if unbounded.
+     */
+    public SharedPoolExecutor(String name, int maxConcurrency, int queueSize) {
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.queueSize = queueSize;
+        // queue bounded here, because the Cassandra executor blocks the producers when its queue is full.
+        this.executor = SharedExecutorPool.SHARED.newExecutor(maxConcurrency, Integer.MAX_VALUE, JMX_PATH, name);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        int count = pending.incrementAndGet();
+        if (queueSize >= 0 && count > maxConcurrency + queueSize 
+                && !(command instanceof AbstractRunnable && ((AbstractRunnable) command).isForceExecution())) {
+            pending.decrementAndGet();
+            reject(command, isShutdown());
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    int running = active.incrementAndGet();
+                    int max;
+                    while ((max = largest.get()) < running && !largest.compareAndSet(max, running));
+                    try {
+                        command.run();
+                    } finally {
+                        active.decrementAndGet();
+                        pending.decrementAndGet();
+                        completed.inc();
+                    }
+                }
+
+                @Override
+                public String toString() {
+                    return command.toString();
+                }
+            });
+        } catch (RuntimeException e) {
+            // shutdown
+            pending.decrementAndGet();
+            reject(command, true);
+        }
+    }
+
+    private void reject(Runnable command, boolean shutdown) {
+        rejected.inc();
+        EsRejectedExecutionException e = new EsRejectedExecutionException("rejected execution of " + command + " on shared pool executor [" + name + "]", shutdown);
+        if (command instanceof AbstractRunnable) {
+            // like EsThreadPoolExecutor, an abstract runnable handles its own rejection.
+            try {
+                ((AbstractRunnable) command).onRejection(e);
+            } finally {
+                ((AbstractRunnable) command).onAfter();
+            }
+        } else {
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getQueueSize() {
+        return Math.max(0, pending.get() - active.get());
+    }
+
+    public int getLargestActiveCount() {
+        return largest.get();
+    }
+
+    public long getCompletedTaskCount() {
+        return completed.count();
+    }
+
+    public long getRejectedCount() {
+        return rejected.count();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + name + ", max_concurrency=" + maxConcurrency + ", queue_size=" + queueSize 
+                + ", active=" + getActiveCount() + ", queued=" + getQueueSize() + "]";
+    }
+}
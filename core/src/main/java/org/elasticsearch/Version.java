@@ -312,8 +312,10 @@ public class Version {
     
     public static final int V_2_4_2_ID = 2040299;
     public static final Version V_2_4_2 = new Version(V_2_4_2_ID, false, org.apache.lucene.util.Version.LUCENE_5_5_2);
+    public static final int V_2_4_3_ID = 2040399;
+    public static final Version V_2_4_3 = new Version(V_2_4_3_ID, false, org.apache.lucene.util.Version.LUCENE_5_5_2);
 
-    public static final Version CURRENT = V_2_4_2;
+    public static final Version CURRENT = V_2_4_3;
 
     static {
         assert CURRENT.luceneVersion.equals(Lucene.VERSION) : "Version must be upgraded to [" + Lucene.VERSION + "] is still set to [" + CURRENT.luceneVersion + "]";
@@ -325,6 +327,8 @@ public class Version {
 
     public static Version fromId(int id) {
         switch (id) {
+            case V_2_4_3_ID:
+                return V_2_4_3;
             case V_2_4_2_ID:
                 return V_2_4_2;
             case V_2_4_1_ID:
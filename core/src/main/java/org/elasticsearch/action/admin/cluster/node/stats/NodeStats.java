@@ -19,6 +19,8 @@
 
 package org.elasticsearch.action.admin.cluster.node.stats;
 
+import org.elassandra.index.ElasticSecondaryIndexStats;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.support.nodes.BaseNodeResponse;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.Nullable;
@@ -77,6 +79,9 @@ public class NodeStats extends BaseNodeResponse implements ToXContent {
     @Nullable
     private ScriptStats scriptStats;
 
+    @Nullable
+    private ElasticSecondaryIndexStats secondaryIndex;
+
     NodeStats() {
     }
 
@@ -99,6 +104,16 @@ public class NodeStats extends BaseNodeResponse implements ToXContent {
         this.scriptStats = scriptStats;
     }
 
+    public NodeStats(DiscoveryNode node, long timestamp, @Nullable NodeIndicesStats indices,
+                     @Nullable OsStats os, @Nullable ProcessStats process, @Nullable JvmStats jvm, @Nullable ThreadPoolStats threadPool,
+                     @Nullable FsInfo fs, @Nullable TransportStats transport, @Nullable HttpStats http,
+                     @Nullable AllCircuitBreakerStats breaker,
+                     @Nullable ScriptStats scriptStats,
+                     @Nullable ElasticSecondaryIndexStats secondaryIndex) {
+        this(node, timestamp, indices, os, process, jvm, threadPool, fs, transport, http, breaker, scriptStats);
+        this.secondaryIndex = secondaryIndex;
+    }
+
     public long getTimestamp() {
         return this.timestamp;
     }
@@ -176,6 +191,14 @@ public class NodeStats extends BaseNodeResponse implements ToXContent {
         return this.scriptStats;
     }
 
+    /**
+     * Write path metrics of the elastic secondary indices.
+     */
+    @Nullable
+    public ElasticSecondaryIndexStats getSecondaryIndex() {
+        return this.secondaryIndex;
+    }
+
     public static NodeStats readNodeStats(StreamInput in) throws IOException {
         NodeStats nodeInfo = new NodeStats();
         nodeInfo.readFrom(in);
@@ -212,6 +235,9 @@ public class NodeStats extends BaseNodeResponse implements ToXContent {
         }
         breaker = AllCircuitBreakerStats.readOptionalAllCircuitBreakerStats(in);
         scriptStats = in.readOptionalStreamable(new ScriptStats());
+        if (in.getVersion().onOrAfter(Version.V_2_4_3)) {
+            secondaryIndex = in.readOptionalStreamable(new ElasticSecondaryIndexStats());
+        }
 
     }
 
@@ -269,6 +295,9 @@ public class NodeStats extends BaseNodeResponse implements ToXContent {
         }
         out.writeOptionalStreamable(breaker);
         out.writeOptionalStreamable(scriptStats);
+        if (out.getVersion().onOrAfter(Version.V_2_4_3)) {
+            out.writeOptionalStreamable(secondaryIndex);
+        }
     }
 
     @Override
@@ -319,6 +348,9 @@ public class NodeStats extends BaseNodeResponse implements ToXContent {
         if (getScriptStats() != null) {
             getScriptStats().toXContent(builder, params);
         }
+        if (getSecondaryIndex() != null) {
+            getSecondaryIndex().toXContent(builder, params);
+        }
 
         return builder;
     }
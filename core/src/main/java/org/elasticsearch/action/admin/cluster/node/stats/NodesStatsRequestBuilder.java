@@ -67,6 +67,14 @@ public class NodesStatsRequestBuilder extends NodesOperationRequestBuilder<Nodes
         return this;
     }
 
+    /**
+     * Should the elastic secondary index write path stats be returned.
+     */
+    public NodesStatsRequestBuilder setSecondaryIndex(boolean secondaryIndex) {
+        request.secondaryIndex(secondaryIndex);
+        return this;
+    }
+
     /**
      * Should the node indices stats be returned.
      */
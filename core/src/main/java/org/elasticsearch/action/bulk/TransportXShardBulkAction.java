@@ -20,6 +20,12 @@
 package org.elasticsearch.action.bulk;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.cassandra.exceptions.RequestExecutionException;
 import org.apache.cassandra.exceptions.RequestValidationException;
@@ -30,6 +36,7 @@ import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.action.update.UpdateHelper;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
@@ -39,7 +46,9 @@ import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.metadata.MappingMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.engine.DocumentAlreadyExistsException;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.shard.IndexShard;
@@ -52,6 +61,15 @@ import org.elasticsearch.transport.TransportService;
  */
 public class TransportXShardBulkAction extends TransportShardBulkAction {
 
+    // Cassandra writes in flight of the index items, per bulk shard request executing on primary.
+    private final ConcurrentMap<BulkShardRequest, PendingWrites> pendingWrites = ConcurrentCollections.newConcurrentMap();
+
+    private static class PendingWrites {
+        final Map<IndexRequest, PlainActionFuture<Void>> writes = new IdentityHashMap<>();
+        // position of the first bulk item not submitted yet.
+        int position = 0;
+    }
+
     @Inject
     public TransportXShardBulkAction(Settings settings, TransportService transportService, ClusterService clusterService,
                                     IndicesService indicesService, ThreadPool threadPool, 
@@ -64,22 +82,73 @@ public class TransportXShardBulkAction extends TransportShardBulkAction {
     }
 
     @Override
-    protected WriteResult shardIndexOperation(BulkShardRequest request, IndexRequest indexRequest, MetaData metaData, IndexShard indexShard, boolean processed) throws Throwable {
+    protected Tuple<BulkShardResponse, BulkShardRequest> shardOperationOnPrimary(MetaData metaData, BulkShardRequest request) {
+        pendingWrites.put(request, new PendingWrites());
+        try {
+            return super.shardOperationOnPrimary(metaData, request);
+        } finally {
+            pendingWrites.remove(request);
+        }
+    }
 
-        // validate, if routing is required, that we got routing
-        MappingMetaData mappingMd = metaData.index(request.index()).mappingOrDefault(indexRequest.type());
-        if (mappingMd != null && mappingMd.routing().required()) {
-            if (indexRequest.routing() == null) {
-                throw new RoutingMissingException(request.index(), indexRequest.type(), indexRequest.id());
+    /**
+     * Submit the Cassandra writes of the run of consecutive index items starting with the provided one, so that they
+     * are in flight concurrently and the bulk thread waits for the slowest one rather than for the sum of their latencies.
+     * The run stops before any delete or update item and before an id already in the run, so that writes of the same
+     * document are still applied in the bulk order: each item of the run is awaited before executing the next items.
+     */
+    private void submitWrites(BulkShardRequest request, PendingWrites pending, IndexRequest indexRequest, MetaData metaData) {
+        BulkItemRequest[] items = request.items();
+        int first = pending.position;
+        while (first < items.length && items[first].request() != indexRequest)
+            first++;
+        if (first == items.length)
+            return;
+
+        Set<String> ids = new HashSet<>();
+        int i = first;
+        for (; i < items.length && items[i].request() instanceof IndexRequest; i++) {
+            IndexRequest itemRequest = (IndexRequest) items[i].request();
+            if (itemRequest.id() != null && !ids.add(itemRequest.type() + "#" + itemRequest.id()))
+                break;
+            itemRequest.copyContextAndHeadersFrom(request);
+            PlainActionFuture<Void> write = PlainActionFuture.newFuture();
+            try {
+                checkRouting(request, itemRequest, metaData);
+                clusterService.insertDocument(indicesService, itemRequest, metaData.index(request.index()), write);
+            } catch (Throwable t) {
+                write.onFailure(t);
             }
+            pending.writes.put(itemRequest, write);
         }
+        pending.position = i;
+    }
 
-        if (!processed) {
-            indexRequest.process(metaData, mappingMd, allowIdGeneration, request.index());
+    @Override
+    protected WriteResult shardIndexOperation(BulkShardRequest request, IndexRequest indexRequest, MetaData metaData, IndexShard indexShard, boolean processed) throws Throwable {
+        PendingWrites pending = pendingWrites.get(request);
+        PlainActionFuture<Void> write = null;
+        if (pending != null) {
+            // index requests of update items are not bulk items, and are written synchronously.
+            if (processed && !pending.writes.containsKey(indexRequest))
+                submitWrites(request, pending, indexRequest, metaData);
+            write = pending.writes.remove(indexRequest);
+        }
+        if (write != null) {
+            // submitted by submitWrites, completed at the latest after the Cassandra write timeout.
+            try {
+                write.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        } else {
+            MappingMetaData mappingMd = checkRouting(request, indexRequest, metaData);
+            if (!processed) {
+                indexRequest.process(metaData, mappingMd, allowIdGeneration, request.index());
+            }
+            clusterService.insertDocument(indicesService, indexRequest, metaData.index(request.index()));
         }
-
         Long writetime = new Long(1);
-        clusterService.insertDocument(indicesService, indexRequest, metaData.index(request.index()));
 
         assert indexRequest.versionType().validateVersionForWrites(indexRequest.version());
 
@@ -89,6 +158,17 @@ public class TransportXShardBulkAction extends TransportShardBulkAction {
         //return executeIndexRequestOnPrimary(request, indexRequest, indexShard);
     }
 
+    // validate, if routing is required, that we got routing
+    private MappingMetaData checkRouting(BulkShardRequest request, IndexRequest indexRequest, MetaData metaData) {
+        MappingMetaData mappingMd = metaData.index(request.index()).mappingOrDefault(indexRequest.type());
+        if (mappingMd != null && mappingMd.routing().required()) {
+            if (indexRequest.routing() == null) {
+                throw new RoutingMissingException(request.index(), indexRequest.type(), indexRequest.id());
+            }
+        }
+        return mappingMd;
+    }
+
     protected UpdateResult shardUpdateOperation(MetaData metaData, BulkShardRequest bulkShardRequest, UpdateRequest updateRequest, IndexShard indexShard) {
         UpdateHelper.Result translate = updateHelper.prepare(updateRequest, indexShard);
         switch (translate.operation()) {
@@ -22,6 +22,7 @@ package org.elasticsearch.action.get;
 import com.carrotsearch.hppc.IntArrayList;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.support.single.shard.SingleShardRequest;
+import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
@@ -40,6 +41,9 @@ public class MultiGetShardRequest extends SingleShardRequest<MultiGetShardReques
     IntArrayList locations;
     List<MultiGetRequest.Item> items;
 
+    // replica node the items are sent to, only used on the coordinating node.
+    DiscoveryNode node;
+
     public MultiGetShardRequest() {
 
     }
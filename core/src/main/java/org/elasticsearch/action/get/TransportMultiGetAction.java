@@ -19,6 +19,9 @@
 
 package org.elasticsearch.action.get;
 
+import org.apache.cassandra.dht.Token;
+import org.elassandra.cluster.routing.AbstractSearchStrategy;
+import org.elassandra.cluster.routing.PartitionKeyRouting;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.support.ActionFilters;
@@ -27,6 +30,9 @@ import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.block.ClusterBlockLevel;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
@@ -60,7 +66,8 @@ public class TransportMultiGetAction extends HandledTransportAction<MultiGetRequ
         clusterState.blocks().globalBlockedRaiseException(ClusterBlockLevel.READ);
 
         final AtomicArray<MultiGetItemResponse> responses = new AtomicArray<>(request.items.size());
-        final Map<ShardId, MultiGetShardRequest> shardRequests = new HashMap<>();
+        // items grouped by index and replica node, so that each node reads the documents it owns in one request.
+        final Map<Tuple<String, String>, MultiGetShardRequest> shardRequests = new HashMap<>();
 
         for (int i = 0; i < request.items.size(); i++) {
             MultiGetRequest.Item item = request.items.get(i);
@@ -81,10 +88,13 @@ public class TransportMultiGetAction extends HandledTransportAction<MultiGetRequ
 
             ShardId shardId = clusterService.operationRouting()
                     .getShards(clusterState, concreteSingleIndex, item.type(), item.id(), item.routing(), null).shardId();
-            MultiGetShardRequest shardRequest = shardRequests.get(shardId);
+            DiscoveryNode node = replicaNode(clusterState, concreteSingleIndex, item);
+            Tuple<String, String> key = new Tuple<>(concreteSingleIndex, (node == null) ? null : node.id());
+            MultiGetShardRequest shardRequest = shardRequests.get(key);
             if (shardRequest == null) {
                 shardRequest = new MultiGetShardRequest(request, shardId.index().name(), shardId.id());
-                shardRequests.put(shardId, shardRequest);
+                shardRequest.node = node;
+                shardRequests.put(key, shardRequest);
             }
             shardRequest.add(i, item);
         }
@@ -129,6 +139,25 @@ public class TransportMultiGetAction extends HandledTransportAction<MultiGetRequ
         }
     }
 
+    /**
+     * @return the closest node hosting a replica of the document in the local datacenter, or null to read it from the local shard.
+     */
+    @Nullable
+    private DiscoveryNode replicaNode(ClusterState clusterState, String index, MultiGetRequest.Item item) {
+        if (item.type() == null || "_all".equals(item.type()))
+            return null;
+        AbstractSearchStrategy.Router router = clusterService.getRouter(clusterState.metaData().index(index), clusterState);
+        if (router == null)
+            return null;
+        try {
+            Token token = PartitionKeyRouting.token(clusterService, index, item.type(), item.id());
+            return (token == null) ? null : router.getReplicaNode(token, clusterState.nodes());
+        } catch (Exception e) {
+            logger.debug("failed to compute the token of [{}]/[{}]/[{}]", e, index, item.type(), item.id());
+            return null;
+        }
+    }
+
     private static MultiGetItemResponse newItemFailure(String index, String type, String id, Exception exception) {
         return new MultiGetItemResponse(null, new MultiGetResponse.Failure(index, type, id, exception));
     }
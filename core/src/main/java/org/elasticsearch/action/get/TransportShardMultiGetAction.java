@@ -19,14 +19,27 @@
 
 package org.elasticsearch.action.get;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.cassandra.concurrent.Stage;
+import org.apache.cassandra.concurrent.StageManager;
+import org.elassandra.cluster.routing.PartitionKeyRouting;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.TransportActions;
 import org.elasticsearch.action.support.single.shard.TransportSingleShardAction;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.routing.PlainShardIterator;
 import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.IndexService;
@@ -73,8 +86,18 @@ public class TransportShardMultiGetAction extends TransportSingleShardAction<Mul
 
     @Override
     protected ShardIterator shards(ClusterState state, InternalRequest request) {
-        return clusterService.operationRouting()
+        ShardIterator localShard = clusterService.operationRouting()
                 .getShards(state, request.request().index(), request.request().shardId(), request.request().preference());
+        DiscoveryNode node = request.request().node;
+        if (node == null || node.id().equals(state.nodes().localNodeId()))
+            return localShard;
+        
+        // send the items to the replica node, or read them from the local shard if it fails.
+        List<ShardRouting> shards = new ArrayList<>(2);
+        shards.add(new ShardRouting(request.concreteIndex(), 0, node.id(), true, ShardRoutingState.STARTED));
+        for (ShardRouting shardRouting : localShard.asUnordered())
+            shards.add(shardRouting);
+        return new PlainShardIterator(localShard.shardId(), shards);
     }
 
     @Override
@@ -85,30 +108,68 @@ public class TransportShardMultiGetAction extends TransportSingleShardAction<Mul
     }
 
     @Override
-    protected MultiGetShardResponse shardOperation(MultiGetShardRequest request, ShardId shardId) {
+    protected MultiGetShardResponse shardOperation(final MultiGetShardRequest request, final ShardId shardId) {
         IndexService indexService = indicesService.indexServiceSafe(shardId.getIndex());
-        IndexShard indexShard = indexService.shardSafe(shardId.id());
+        final IndexShard indexShard = indexService.shardSafe(shardId.id());
 
         if (request.refresh() && !request.realtime()) {
             indexShard.refresh("refresh_flag_mget");
         }
 
-        MultiGetShardResponse response = new MultiGetShardResponse();
+        // documents owned by this node are read locally and in parallel on the read stage, others through the coordinator.
+        final Object[] results = new Object[request.locations.size()];
+        final List<Future<?>> localReads = new ArrayList<>();
         for (int i = 0; i < request.locations.size(); i++) {
-            MultiGetRequest.Item item = request.items.get(i);
+            final int slot = i;
+            final MultiGetRequest.Item item = request.items.get(i);
+            if (isLocalReplica(indexService, item)) {
+                localReads.add(StageManager.getStage(Stage.READ).submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        results[slot] = get(request, shardId, indexShard, item, true);
+                    }
+                }));
+            } else {
+                results[i] = get(request, shardId, indexShard, item, false);
+            }
+        }
+        for (Future<?> localRead : localReads) {
             try {
-                GetResult getResult = indexShard.getService().get(item.type(), item.id(), item.fields(), request.realtime(), item.version(), item.versionType(), item.fetchSourceContext(), request.ignoreErrorsOnGeneratedFields());
-                response.add(request.locations.get(i), new GetResponse(getResult));
-            } catch (Throwable t) {
-                if (TransportActions.isShardNotAvailableException(t)) {
-                    throw (ElasticsearchException) t;
-                } else {
-                    logger.debug("{} failed to execute multi_get for [{}]/[{}]", t, shardId, item.type(), item.id());
-                    response.add(request.locations.get(i), new MultiGetResponse.Failure(request.index(), item.type(), item.id(), t));
-                }
+                localRead.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ElasticsearchException("interrupted while reading documents", e);
+            } catch (ExecutionException e) {
+                throw ExceptionsHelper.convertToElastic(e.getCause());
             }
         }
 
+        MultiGetShardResponse response = new MultiGetShardResponse();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] instanceof GetResponse) {
+                response.add(request.locations.get(i), (GetResponse) results[i]);
+            } else {
+                response.add(request.locations.get(i), (MultiGetResponse.Failure) results[i]);
+            }
+        }
         return response;
     }
+
+    private Object get(MultiGetShardRequest request, ShardId shardId, IndexShard indexShard, MultiGetRequest.Item item, boolean localRead) {
+        try {
+            GetResult getResult = indexShard.getService().get(item.type(), item.id(), item.fields(), request.realtime(), item.version(), item.versionType(), item.fetchSourceContext(), request.ignoreErrorsOnGeneratedFields(), localRead);
+            return new GetResponse(getResult);
+        } catch (Throwable t) {
+            if (TransportActions.isShardNotAvailableException(t)) {
+                throw (ElasticsearchException) t;
+            } else {
+                logger.debug("{} failed to execute multi_get for [{}]/[{}]", t, shardId, item.type(), item.id());
+                return new MultiGetResponse.Failure(request.index(), item.type(), item.id(), t);
+            }
+        }
+    }
+
+    private boolean isLocalReplica(IndexService indexService, MultiGetRequest.Item item) {
+        return PartitionKeyRouting.isLocalReplica(clusterService, indexService.index().name(), indexService.keyspace(), item.type(), item.id());
+    }
 }
@@ -23,6 +23,7 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.create.TransportCreateIndexAction;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.AutoCreateIndex;
+import org.elasticsearch.action.support.ThreadedActionListener;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.action.index.MappingUpdatedAction;
@@ -82,11 +83,22 @@ public class TransportXIndexAction extends TransportIndexAction {
             // request does not have a shardId yet, we need to pass the concrete index to resolve shardId
             resolveRequest(state.metaData(), concreteIndex, request);
             
-            clusterService.insertDocument(indicesService, request, state.metaData().index(concreteIndex));
-            request.versionType(request.versionType().versionTypeForReplicationAndRecovery());
-            IndexResponse response = new IndexResponse(concreteIndex, request.type(), request.id(), new Long(1), true);
-            response.setShardInfo(clusterService.shardInfo(concreteIndex, request.consistencyLevel().toCassandraConsistencyLevel()));
-            listener.onResponse(response);
+            // the Cassandra write path notifies the listener without blocking this thread until the consistency level is met,
+            // and the response is completed on the index thread pool rather than on the Cassandra stages.
+            clusterService.insertDocument(indicesService, request, state.metaData().index(concreteIndex), new ThreadedActionListener<>(logger, threadPool, ThreadPool.Names.INDEX, new ActionListener<Void>() {
+                @Override
+                public void onResponse(Void result) {
+                    request.versionType(request.versionType().versionTypeForReplicationAndRecovery());
+                    IndexResponse response = new IndexResponse(concreteIndex, request.type(), request.id(), new Long(1), true);
+                    response.setShardInfo(clusterService.shardInfo(concreteIndex, request.consistencyLevel().toCassandraConsistencyLevel()));
+                    listener.onResponse(response);
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    listener.onFailure(e);
+                }
+            }));
         } catch (Exception e) {
             listener.onFailure(e);
         }
@@ -20,11 +20,11 @@
 package org.elasticsearch.action.percolate;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
 
 import org.apache.cassandra.dht.Range;
 import org.apache.cassandra.dht.Token;
+import org.elassandra.cluster.routing.TokenRanges;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.action.support.broadcast.BroadcastShardRequest;
 import org.elasticsearch.cluster.routing.ShardRouting;
@@ -44,7 +44,7 @@ public class PercolateShardRequest extends BroadcastShardRequest {
     private int numberOfShards;
     private long startTime;
 
-    private Collection<Range<Token>> tokenRanges;
+    private TokenRanges tokenRanges;
     
     public PercolateShardRequest() {
     }
@@ -59,7 +59,7 @@ public class PercolateShardRequest extends BroadcastShardRequest {
         this.startTime = request.startTime;
         
         // Use the user provided token_range of the shardRouting one.
-        this.tokenRanges = (request.tokenRanges() != null) ? request.tokenRanges() : shard.tokenRanges();
+        this.tokenRanges = TokenRanges.of((request.tokenRanges() != null) ? request.tokenRanges() : shard.tokenRanges());
     }
 
     PercolateShardRequest(ShardId shardId, OriginalIndices originalIndices) {
@@ -73,7 +73,7 @@ public class PercolateShardRequest extends BroadcastShardRequest {
         this.docSource = request.docSource();
         this.onlyCount = request.onlyCount();
         this.startTime = request.startTime;
-        this.tokenRanges = request.tokenRanges();
+        this.tokenRanges = TokenRanges.of(request.tokenRanges());
     }
 
     public Collection<Range<Token>> tokenRanges() {
@@ -81,7 +81,7 @@ public class PercolateShardRequest extends BroadcastShardRequest {
     }
 
     public PercolateShardRequest tokenRanges(Collection<Range<Token>> tokenRanges) {
-        this.tokenRanges = tokenRanges;
+        this.tokenRanges = TokenRanges.of(tokenRanges);
         return this;
     }
     
@@ -143,13 +143,7 @@ public class PercolateShardRequest extends BroadcastShardRequest {
         numberOfShards = in.readVInt();
         startTime = in.readLong(); // no vlong, this can be negative!
         
-        // read tokenRanges
-        Object[] tokens = (Object[]) in.readGenericValue();
-        this.tokenRanges = new ArrayList<Range<Token>>(tokens.length / 2);
-        for (int i = 0; i < tokens.length;) {
-            Range<Token> range = new Range<Token>((Token) tokens[i++], (Token) tokens[i++]);
-            this.tokenRanges.add(range);
-        }
+        this.tokenRanges = TokenRanges.readOptionalFrom(in);
     }
 
     @Override
@@ -162,16 +156,7 @@ public class PercolateShardRequest extends BroadcastShardRequest {
         out.writeVInt(numberOfShards);
         out.writeLong(startTime);
         
-        // write tokenRanges
-        if (tokenRanges != null) {
-            Token[] tokens = new Token[tokenRanges.size() * 2];
-            int i = 0;
-            for (Range<Token> range : tokenRanges) {
-                tokens[i++] = range.left;
-                tokens[i++] = range.right;
-            }
-            out.writeGenericValue(tokens);
-        }
+        TokenRanges.writeOptionalTo(tokenRanges, out);
     }
 
 }
@@ -20,8 +20,10 @@
 package org.elasticsearch.action.search;
 
 import com.carrotsearch.hppc.IntArrayList;
+import org.apache.cassandra.dht.Token;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TopDocs;
+import org.elassandra.cluster.routing.PartitionKeyRouting;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.NoShardAvailableActionException;
 import org.elasticsearch.action.support.TransportActions;
@@ -104,7 +106,9 @@ abstract class AbstractSearchAsyncAction<FirstResult extends SearchPhaseResult>
 
         Map<String, Set<String>> routingMap = indexNameExpressionResolver.resolveSearchRouting(clusterState, request.routing(), request.indices());
 
-        shardsIts = clusterService.operationRouting().searchShards(clusterState, concreteIndices, routingMap, request.preference());
+        // key lookups are only sent to the nodes owning the keys.
+        Map<String, Set<Token>> tokens = PartitionKeyRouting.searchTokens(clusterService, concreteIndices, routingMap, request);
+        shardsIts = clusterService.operationRouting().searchShards(clusterState, concreteIndices, routingMap, request.preference(), null, tokens);
         expectedSuccessfulOps = shardsIts.size();
         // we need to add 1 for non active partition, since we count it in the total!
         expectedTotalOps = shardsIts.totalSizeWith1ForEmpty();
@@ -337,7 +341,7 @@ abstract class AbstractSearchAsyncAction<FirstResult extends SearchPhaseResult>
     protected abstract void sendExecuteFirstPhase(DiscoveryNode node, ShardSearchTransportRequest request, ActionListener<FirstResult> listener);
 
     protected final void processFirstPhaseResult(int shardIndex, FirstResult result) {
-        firstResults.set(shardIndex, result);
+        storeFirstPhaseResult(shardIndex, result);
 
         if (logger.isTraceEnabled()) {
             logger.trace("got first-phase result from {}", result != null ? result.shardTarget() : null);
@@ -352,6 +356,13 @@ abstract class AbstractSearchAsyncAction<FirstResult extends SearchPhaseResult>
         }
     }
 
+    /**
+     * Keeps the first phase result of a shard until the second phase.
+     */
+    protected void storeFirstPhaseResult(int shardIndex, FirstResult result) {
+        firstResults.set(shardIndex, result);
+    }
+
     final void innerMoveToSecondPhase() throws Exception {
         if (logger.isTraceEnabled()) {
             StringBuilder sb = new StringBuilder();
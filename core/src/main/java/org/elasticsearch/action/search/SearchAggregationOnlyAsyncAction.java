@@ -0,0 +1,74 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.search.action.SearchServiceTransportAction;
+import org.elasticsearch.search.controller.SearchPhaseController;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.internal.ShardSearchTransportRequest;
+import org.elasticsearch.search.query.QuerySearchResultProvider;
+import org.elasticsearch.threadpool.ThreadPool;
+
+/**
+ * Executes a search that returns no hits (size=0, no scroll) in a single query round trip. Shard results are not kept until
+ * all shards have responded but reduced as they arrive, so aggregations of many shards don't pile up on the coordinating node.
+ */
+class SearchAggregationOnlyAsyncAction extends AbstractSearchAsyncAction<QuerySearchResultProvider> {
+
+    private final SearchPhaseController.QueryPhaseResultConsumer resultConsumer;
+
+    SearchAggregationOnlyAsyncAction(ESLogger logger, SearchServiceTransportAction searchService, ClusterService clusterService,
+                                     IndexNameExpressionResolver indexNameExpressionResolver,
+                                     SearchPhaseController searchPhaseController, ThreadPool threadPool, SearchRequest request,
+                                     ActionListener<SearchResponse> listener) {
+        super(logger, searchService, clusterService, indexNameExpressionResolver, searchPhaseController, threadPool,
+                request, listener);
+        this.resultConsumer = searchPhaseController.newQueryPhaseResultConsumer(request);
+    }
+
+    @Override
+    protected String firstPhaseName() {
+        return "query";
+    }
+
+    @Override
+    protected void sendExecuteFirstPhase(DiscoveryNode node, ShardSearchTransportRequest request, ActionListener<QuerySearchResultProvider> listener) {
+        searchService.sendExecuteQuery(node, request, listener);
+    }
+
+    @Override
+    protected void storeFirstPhaseResult(int shardIndex, QuerySearchResultProvider result) {
+        // search contexts are freed by shards when there are no hits to fetch, so there is nothing to release later.
+        resultConsumer.consume(shardIndex, result.queryResult());
+    }
+
+    @Override
+    protected void moveToSecondPhase() throws Exception {
+        final InternalSearchResponse internalResponse = resultConsumer.reduce();
+        if (logger.isTraceEnabled()) {
+            logger.trace("reduced [{}] shard results with [{}] partial reduces", successfulOps.get(), resultConsumer.getNumReducePhases());
+        }
+        listener.onResponse(new SearchResponse(internalResponse, null, expectedSuccessfulOps, successfulOps.get(), buildTookInMillis(), buildShardFailures()));
+    }
+}
@@ -45,6 +45,8 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<QuerySea
 
     final AtomicArray<FetchSearchResult> fetchResults;
     final AtomicArray<IntArrayList> docIdsToLoad;
+    // null for scroll searches, which sort all the shard hits
+    private final SearchPhaseController.QueryPhaseResultConsumer resultConsumer;
 
     SearchQueryThenFetchAsyncAction(ESLogger logger, SearchServiceTransportAction searchService,
                                             ClusterService clusterService, IndexNameExpressionResolver indexNameExpressionResolver,
@@ -53,6 +55,7 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<QuerySea
         super(logger, searchService, clusterService, indexNameExpressionResolver, searchPhaseController, threadPool, request, listener);
         fetchResults = new AtomicArray<>(firstResults.length());
         docIdsToLoad = new AtomicArray<>(firstResults.length());
+        resultConsumer = request.scroll() == null ? searchPhaseController.newQueryPhaseResultConsumer(request) : null;
     }
 
     @Override
@@ -66,10 +69,22 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<QuerySea
         searchService.sendExecuteQuery(node, request, listener);
     }
 
+    @Override
+    protected void storeFirstPhaseResult(int shardIndex, QuerySearchResultProvider result) {
+        // keep the shard result for the fetch phase, its top docs and aggregations are reduced by the consumer
+        super.storeFirstPhaseResult(shardIndex, result);
+        if (resultConsumer != null) {
+            resultConsumer.consume(shardIndex, result.queryResult());
+        }
+    }
+
     @Override
     protected void moveToSecondPhase() throws Exception {
-        boolean useScroll = request.scroll() != null;
-        sortedShardList = searchPhaseController.sortDocs(useScroll, firstResults);
+        if (resultConsumer != null) {
+            sortedShardList = resultConsumer.sortedDocs();
+        } else {
+            sortedShardList = searchPhaseController.sortDocs(true, firstResults);
+        }
         searchPhaseController.fillDocIdsToLoad(docIdsToLoad, sortedShardList);
 
         if (docIdsToLoad.asList().isEmpty()) {
@@ -129,8 +144,12 @@ class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<QuerySea
         threadPool.executor(ThreadPool.Names.SEARCH).execute(new ActionRunnable<SearchResponse>(listener) {
             @Override
             public void doRun() throws IOException {
-                final InternalSearchResponse internalResponse = searchPhaseController.merge(sortedShardList, firstResults,
-                    fetchResults, request);
+                final InternalSearchResponse internalResponse;
+                if (resultConsumer != null) {
+                    internalResponse = resultConsumer.reduce(sortedShardList, fetchResults);
+                } else {
+                    internalResponse = searchPhaseController.merge(sortedShardList, firstResults, fetchResults, request);
+                }
                 String scrollId = null;
                 if (request.scroll() != null) {
                     scrollId = TransportSearchHelper.buildScrollId(request.searchType(), firstResults, null);
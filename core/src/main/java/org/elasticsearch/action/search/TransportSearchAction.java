@@ -25,8 +25,11 @@ import org.elasticsearch.action.support.HandledTransportAction;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.indices.IndexClosedException;
 import org.elasticsearch.search.action.SearchServiceTransportAction;
@@ -34,11 +37,13 @@ import org.elasticsearch.search.controller.SearchPhaseController;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 
 import static org.elasticsearch.action.search.SearchType.COUNT;
 import static org.elasticsearch.action.search.SearchType.QUERY_AND_FETCH;
+import static org.elasticsearch.action.search.SearchType.QUERY_THEN_FETCH;
 import static org.elasticsearch.action.search.SearchType.SCAN;
 
 /**
@@ -50,6 +55,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
     private final SearchPhaseController searchPhaseController;
     private final ClusterService clusterService;
     private final boolean optimizeSingleShard;
+    private final boolean optimizeAggregationOnly;
 
     @Inject
     public TransportSearchAction(Settings settings, ThreadPool threadPool, SearchPhaseController searchPhaseController,
@@ -61,10 +67,18 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         this.searchService = searchService;
         this.clusterService = clusterService;
         this.optimizeSingleShard = this.settings.getAsBoolean("action.search.optimize_single_shard", true);
+        this.optimizeAggregationOnly = this.settings.getAsBoolean("action.search.optimize_aggregation_only", true);
     }
 
     @Override
     protected void doExecute(SearchRequest searchRequest, ActionListener<SearchResponse> listener) {
+        // searches without hits only need the query phase, and shard results are reduced as they arrive
+        if (optimizeAggregationOnly && isAggregationOnly(searchRequest)) {
+            new SearchAggregationOnlyAsyncAction(logger, searchService, clusterService, indexNameExpressionResolver,
+                    searchPhaseController, threadPool, searchRequest, listener).start();
+            return;
+        }
+
         // optimize search type for cases where there is only one shard group to search on
         if (optimizeSingleShard && searchRequest.searchType() != SCAN && searchRequest.searchType() != COUNT) {
             try {
@@ -114,4 +128,49 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         }
         searchAsyncAction.start();
     }
+
+    /**
+     * @return true if the request explicitly asks for no hits (size=0) and is not a scroll, template or dfs search.
+     */
+    static boolean isAggregationOnly(SearchRequest searchRequest) {
+        if ((searchRequest.searchType() != QUERY_THEN_FETCH && searchRequest.searchType() != QUERY_AND_FETCH)
+                || searchRequest.scroll() != null || searchRequest.template() != null || searchRequest.templateSource() != null) {
+            return false;
+        }
+        try {
+            // the extra source overrides the source on shards
+            Integer size = sourceSize(searchRequest.extraSource());
+            if (size == null) {
+                size = sourceSize(searchRequest.source());
+            }
+            return size != null && size == 0;
+        } catch (Exception e) {
+            // let the shards report the parsing failure
+            return false;
+        }
+    }
+
+    private static Integer sourceSize(BytesReference source) throws IOException {
+        if (source == null || source.length() == 0) {
+            return null;
+        }
+        try (XContentParser parser = XContentHelper.createParser(source)) {
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                return null;
+            }
+            XContentParser.Token token;
+            String currentFieldName = null;
+            Integer size = null;
+            while ((token = parser.nextToken()) != null && token != XContentParser.Token.END_OBJECT) {
+                if (token == XContentParser.Token.FIELD_NAME) {
+                    currentFieldName = parser.currentName();
+                } else if (token == XContentParser.Token.START_OBJECT || token == XContentParser.Token.START_ARRAY) {
+                    parser.skipChildren();
+                } else if ("size".equals(currentFieldName)) {
+                    size = parser.intValue();
+                }
+            }
+            return size;
+        }
+    }
 }
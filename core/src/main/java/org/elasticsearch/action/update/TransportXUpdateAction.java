@@ -30,11 +30,13 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.TransportIndexAction;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.AutoCreateIndex;
+import org.elasticsearch.action.support.ThreadedActionListener;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
@@ -71,8 +73,27 @@ public class TransportXUpdateAction extends TransportUpdateAction {
         IndexService indexService = indicesService.indexServiceSafe(request.concreteIndex());
         IndexShard indexShard = indexService.shardSafe(request.shardId());
         UpdateResponse update;
-        WriteConsistencyLevel wcl = (request.consistencyLevel() == WriteConsistencyLevel.DEFAULT) ? WriteConsistencyLevel.ALL: request.consistencyLevel();
+        final WriteConsistencyLevel wcl = (request.consistencyLevel() == WriteConsistencyLevel.DEFAULT) ? WriteConsistencyLevel.ALL: request.consistencyLevel();
         try {
+            // the listener is notified by the Cassandra write path, and completed on the index thread pool.
+            if (isReadFree(request) && clusterService.updateDocumentColumns(indicesService, request, wcl.toCassandraConsistencyLevel(), 
+                    new ThreadedActionListener<>(logger, threadPool, ThreadPool.Names.INDEX, new ActionListener<Void>() {
+                    @Override
+                    public void onResponse(Void result) {
+                        // a blind write cannot tell whether the document existed, see isReadFree().
+                        UpdateResponse update = new UpdateResponse(request.index(), request.type(), request.id(), new Long(1), false);
+                        update.setShardInfo(clusterService.shardInfo(request.index(), wcl.toCassandraConsistencyLevel()));
+                        listener.onResponse(update);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable e) {
+                        listener.onFailure(e);
+                    }
+                }))) {
+                return;
+            }
+            
             final UpdateHelper.Result result = updateHelper.prepare(request, indexShard);
             switch (result.operation()) {
                 case UPSERT:
@@ -129,4 +150,18 @@ public class TransportXUpdateAction extends TransportUpdateAction {
         }
     }
     
+    /**
+     * A partial document upserted without script can be written as a blind CQL UPDATE of the touched columns, 
+     * because a missing document is then created from the partial document, as a CQL UPDATE does.
+     * Requests returning fields or checking a version need the current document.
+     * Without a read, the response of a read-free upsert cannot report whether the document was created,
+     * so it always has created=false.
+     */
+    static boolean isReadFree(UpdateRequest request) {
+        return request.script() == null 
+                && request.doc() != null 
+                && request.docAsUpsert() 
+                && (request.fields() == null || request.fields().length == 0)
+                && request.version() == Versions.MATCH_ANY;
+    }
 }
\ No newline at end of file
@@ -145,6 +145,7 @@ public class ClusterModule extends AbstractModule {
         registerClusterDynamicSetting(InternalCassandraClusterService.SETTING_CLUSTER_DEFAULT_SEARCH_STRATEGY_CLASS, Validator.EMPTY);
         registerClusterDynamicSetting(InternalCassandraClusterService.SETTING_CLUSTER_DEFAULT_INCLUDE_NODE_ID, Validator.BOOLEAN);
         registerClusterDynamicSetting(InternalCassandraClusterService.SETTING_CLUSTER_DEFAULT_SYNCHRONOUS_REFRESH, Validator.BOOLEAN);
+        registerClusterDynamicSetting(InternalCassandraClusterService.SETTING_CLUSTER_DEFAULT_SYNCHRONOUS_REFRESH_DELAY, Validator.TIME);
         registerClusterDynamicSetting(InternalCassandraClusterService.SETTING_CLUSTER_DEFAULT_DROP_ON_DELETE_INDEX, Validator.BOOLEAN);
         
         /*
@@ -210,6 +211,8 @@ public class ClusterModule extends AbstractModule {
         registerClusterDynamicSetting(HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_OVERHEAD_SETTING, Validator.NON_NEGATIVE_DOUBLE);
         registerClusterDynamicSetting(HierarchyCircuitBreakerService.IN_FLIGHT_REQUESTS_CIRCUIT_BREAKER_LIMIT_SETTING, Validator.MEMORY_SIZE);
         registerClusterDynamicSetting(HierarchyCircuitBreakerService.IN_FLIGHT_REQUESTS_CIRCUIT_BREAKER_OVERHEAD_SETTING, Validator.NON_NEGATIVE_DOUBLE);
+        registerClusterDynamicSetting(HierarchyCircuitBreakerService.CASSANDRA_CIRCUIT_BREAKER_OVERHEAD_SETTING, Validator.NON_NEGATIVE_DOUBLE);
+        registerClusterDynamicSetting(HierarchyCircuitBreakerService.CASSANDRA_CIRCUIT_BREAKER_FLUSH_LIMIT_SETTING, Validator.MEMORY_SIZE);
         registerClusterDynamicSetting(InternalClusterService.SETTING_CLUSTER_SERVICE_SLOW_TASK_LOGGING_THRESHOLD, Validator.TIME_NON_NEGATIVE);
         registerClusterDynamicSetting(SearchService.DEFAULT_SEARCH_TIMEOUT, Validator.TIMEOUT);
         //registerClusterDynamicSetting(ElectMasterService.DISCOVERY_ZEN_MINIMUM_MASTER_NODES, ElectMasterService.DISCOVERY_ZEN_MINIMUM_MASTER_NODES_VALIDATOR);
@@ -224,6 +227,7 @@ public class ClusterModule extends AbstractModule {
     private void registerBuiltinIndexSettings() {
         // elassandra index dynamic settings
         registerIndexDynamicSetting(IndexMetaData.SETTING_PARTITION_FUNCTION, Validator.EMPTY);
+        registerIndexDynamicSetting(IndexMetaData.SETTING_FETCH_FROM_DOC_VALUES, Validator.BOOLEAN);
         
         registerIndexDynamicSetting(IndexStore.INDEX_STORE_THROTTLE_MAX_BYTES_PER_SEC, Validator.BYTES_SIZE);
         registerIndexDynamicSetting(IndexStore.INDEX_STORE_THROTTLE_TYPE, Validator.EMPTY);
@@ -291,6 +295,7 @@ public class ClusterModule extends AbstractModule {
         registerIndexDynamicSetting(IndicesWarmer.INDEX_WARMER_ENABLED, Validator.EMPTY);
         registerIndexDynamicSetting(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED, Validator.BOOLEAN);
         registerIndexDynamicSetting(IndicesRequestCache.DEPRECATED_INDEX_CACHE_REQUEST_ENABLED, Validator.BOOLEAN);
+        registerIndexDynamicSetting(IndicesRequestCache.INDEX_CACHE_REQUEST_TOKEN_RANGES, Validator.BOOLEAN);
         registerIndexDynamicSetting(UnassignedInfo.INDEX_DELAYED_NODE_LEFT_TIMEOUT_SETTING, Validator.TIME);
         registerIndexDynamicSetting(DefaultSearchContext.MAX_RESULT_WINDOW, Validator.POSITIVE_INTEGER);
         registerIndexDynamicSetting(MapperService.INDEX_MAPPING_NESTED_FIELDS_LIMIT_SETTING, Validator.NON_NEGATIVE_INTEGER);
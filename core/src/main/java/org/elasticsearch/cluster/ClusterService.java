@@ -46,8 +46,10 @@ import org.codehaus.jackson.map.JsonMappingException;
 import org.elassandra.NoPersistedMetaDataException;
 import org.elassandra.cluster.routing.AbstractSearchStrategy;
 import org.elassandra.cluster.routing.PrimaryFirstSearchStrategy;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionWriteResponse.ShardInfo;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.cluster.block.ClusterBlock;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MappingMetaData;
@@ -131,6 +133,17 @@ public interface ClusterService extends LifecycleComponent<ClusterService> {
     public void removeShardStartedBarrier();
     public void blockUntilShardsStarted();
     
+    /**
+     * Defer the gossip publication of the local shard states of these indices until {@link #publishDeferredShardStates(Collection)}.
+     * Shards of other indices keep publishing their state immediately.
+     */
+    public void deferShardStatesPublication(Collection<String> indices);
+    
+    /**
+     * Publish in one gossip update the local shard states of these indices deferred since {@link #deferShardStatesPublication(Collection)}.
+     */
+    public void publishDeferredShardStates(Collection<String> indices);
+    
     
     /**
      * Adds a listener for updated cluster states.
@@ -338,6 +351,9 @@ public interface ClusterService extends LifecycleComponent<ClusterService> {
     public UntypedResultSet fetchRowInternal(final String ksName, final String index, final String cfName, final  DocPrimaryKey docPk, final String[] columns, Map<String,ColumnDefinition> columnDefs) throws ConfigurationException, IOException;
     public UntypedResultSet fetchRowInternal(final String ksName, final String index, final String cfName, final String[] columns, Object[] pkColumns, boolean forStaticDocument, Map<String,ColumnDefinition> columnDefs) throws ConfigurationException, IOException;
     
+    public UntypedResultSet fetchTokenRangeInternal(final String ksName, final String index, final String type, final String[] columns, final Range<Token> range, int pageSize, Map<String,ColumnDefinition> columnDefs) throws ConfigurationException, IOException;
+    public String elasticId(final String ksName, final String type, UntypedResultSet.Row row) throws IOException;
+    
     public Engine.GetResult fetchSourceInternal(String ksName, String index, String type, String id) throws IOException;
     
     public Map<BytesRef, Query> loadQueries(final IndexService indexService,  PercolatorQueriesRegistry percolator);
@@ -351,6 +367,18 @@ public interface ClusterService extends LifecycleComponent<ClusterService> {
 
     public void updateDocument(final IndicesService indicesService, final IndexRequest request, final IndexMetaData indexMetaData) throws Exception;
     public void insertDocument(final IndicesService indicesService, final IndexRequest request, final IndexMetaData indexMetaData) throws Exception;
+    
+    /**
+     * Insert a document without waiting for the Cassandra replicas, the listener is notified when the write consistency level is met.
+     * Dynamic mapping updates and conditional inserts checking the unique id still block the calling thread.
+     */
+    public void insertDocument(final IndicesService indicesService, final IndexRequest request, final IndexMetaData indexMetaData, final ActionListener<Void> listener) throws Exception;
+    
+    /**
+     * Write the partial document of an update request as a CQL UPDATE of the touched columns, without reading the document.
+     * @return false if the partial document cannot be written without reading and merging the document, the listener is then not notified.
+     */
+    public boolean updateDocumentColumns(final IndicesService indicesService, final UpdateRequest request, final ConsistencyLevel cl, final ActionListener<Void> listener) throws Exception;
 
     public BytesReference source(DocumentMapper docMapper, Map sourceAsMap, String index, Uid uid) throws JsonParseException, JsonMappingException, IOException;
     public BytesReference source(DocumentMapper docMapper, Map sourceAsMap, String index, String type, String id) throws JsonParseException, JsonMappingException, IOException;
@@ -363,9 +391,16 @@ public interface ClusterService extends LifecycleComponent<ClusterService> {
     
     /*
     public Token getToken(ByteBuffer rowKey, ColumnFamily cf);
-    public Token getToken(String index, String type, String routing) throws JsonParseException, JsonMappingException, IOException;
     */
     
+    /**
+     * Token of a partition key in the table of an index type.
+     * @param partitionKeyValues values of the partition key columns, in order. Extra values (clustering columns) are ignored.
+     * @return the token, or null if values are missing.
+     */
+    public Token getToken(String index, String type, Object[] partitionKeyValues) throws IOException;
+    
+    
     public boolean tokenRangesIntersec(Collection<Range<Token>> shardTokenRanges, Collection<Range<Token>> requestTokenRange);
     public boolean tokenRangesContains(Collection<Range<Token>> shardTokenRanges, Token token);
     
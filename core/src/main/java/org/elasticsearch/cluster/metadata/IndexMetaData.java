@@ -189,8 +189,10 @@ public class IndexMetaData implements Diffable<IndexMetaData>, FromXContentBuild
     public static final String SETTING_PARTITION_FUNCTION = "index.partition_function"; 
     public static final String SETTING_INCLUDE_NODE_ID = "index.include_node_id"; 
     public static final String SETTING_SYNCHRONOUS_REFRESH = "index.synchronous_refresh"; 
+    public static final String SETTING_SYNCHRONOUS_REFRESH_DELAY = "index.synchronous_refresh_delay"; 
     public static final String SETTING_DROP_ON_DELETE_INDEX = "index.drop_on_delete_index"; 
     public static final String SETTING_SNAPSHOT_WITH_SSTABLE = "index.snapshot_with_sstable"; 
+    public static final String SETTING_FETCH_FROM_DOC_VALUES = "index.fetch_from_doc_values"; 
     
 
     // hard-coded hash function as of 2.0
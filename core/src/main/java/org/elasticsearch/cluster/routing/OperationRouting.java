@@ -22,10 +22,15 @@ package org.elasticsearch.cluster.routing;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.cassandra.dht.Murmur3Partitioner.LongToken;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
 import org.apache.cassandra.exceptions.ConfigurationException;
+import org.elassandra.cluster.routing.TokenRanges;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
@@ -123,7 +128,16 @@ public class OperationRouting extends AbstractComponent {
     
     
     public GroupShardsIterator searchShards(ClusterState clusterState, String[] concreteIndices, @Nullable Map<String, Set<String>> routing, @Nullable String preference, TransportAddress src) {
-        final Set<IndexShardRoutingTable> shards = computeTargetedShards(clusterState, concreteIndices, routing, preference, src);
+        return searchShards(clusterState, concreteIndices, routing, preference, src, null);
+    }
+    
+    /**
+     * Search shards owning at least one of the provided tokens, restricted to search these tokens only.
+     * @param tokens per index tokens, indices not in the map are not restricted.
+     */
+    public GroupShardsIterator searchShards(ClusterState clusterState, String[] concreteIndices, @Nullable Map<String, Set<String>> routing, @Nullable String preference, TransportAddress src,
+            @Nullable Map<String, Set<Token>> tokens) {
+        final Set<IndexShardRoutingTable> shards = computeTargetedShards(clusterState, concreteIndices, routing, preference, src, tokens);
         final Set<ShardIterator> set = new HashSet<>(shards.size());
         for (IndexShardRoutingTable shard : shards) {
             ShardIterator iterator = preferenceActiveShardIterator(shard, clusterState.nodes().localNodeId(), clusterState.nodes(), preference);
@@ -139,6 +153,11 @@ public class OperationRouting extends AbstractComponent {
     private static final Map<String, Set<String>> EMPTY_ROUTING = Collections.emptyMap();
 
     public Set<IndexShardRoutingTable> computeTargetedShards(ClusterState clusterState, String[] concreteIndices, @Nullable Map<String, Set<String>> routing, @Nullable String preference, TransportAddress src) {
+        return computeTargetedShards(clusterState, concreteIndices, routing, preference, src, null);
+    }
+    
+    public Set<IndexShardRoutingTable> computeTargetedShards(ClusterState clusterState, String[] concreteIndices, @Nullable Map<String, Set<String>> routing, @Nullable String preference, TransportAddress src,
+            @Nullable Map<String, Set<Token>> tokens) {
         routing = routing == null ? EMPTY_ROUTING : routing; // just use an empty map
         final Set<IndexShardRoutingTable> set = new HashSet<>();
         // we use set here and not list since we might get duplicates
@@ -147,12 +166,40 @@ public class OperationRouting extends AbstractComponent {
             if (indexRouting == null)
                 throw new IndexNotFoundException(index);
             
+            Set<Token> indexTokens = (tokens == null) ? null : tokens.get(index);
             for (IndexShardRoutingTable indexShard : indexRouting) {
-                set.add(indexShard);
+                if (indexTokens == null || restrictToTokens(indexShard, indexTokens)) {
+                    set.add(indexShard);
+                }
             }
         }
         return set;
     }
+    
+    /**
+     * Restrict the token ranges of the (per query) shard routings to the provided tokens they own.
+     * @return false if the shard does not own any of the tokens.
+     */
+    private static boolean restrictToTokens(IndexShardRoutingTable indexShard, Set<Token> tokens) {
+        ShardRouting primary = indexShard.getPrimaryShardRouting();
+        TokenRanges shardRanges = (primary == null) ? null : TokenRanges.of(primary.tokenRanges());
+        if (shardRanges == null)
+            return true;
+        
+        List<Range<Token>> ranges = new ArrayList<>();
+        for (Token token : tokens) {
+            long t = (Long) token.getTokenValue();
+            if (shardRanges.contains(t))
+                ranges.add(new Range<Token>(new LongToken(t - 1), token));
+        }
+        if (ranges.isEmpty())
+            return false;
+        TokenRanges tokenRanges = TokenRanges.of(ranges);
+        for (ShardRouting shard : indexShard) {
+            shard.tokenRanges(tokenRanges);
+        }
+        return true;
+    }
 
     private ShardIterator preferenceActiveShardIterator(IndexShardRoutingTable indexShard, String localNodeId, DiscoveryNodes nodes, @Nullable String preference) {
         if (preference == null || preference.isEmpty()) {
@@ -66,8 +66,10 @@ import org.elassandra.indices.CassandraSecondaryIndicesListener;
 import org.elassandra.shard.CassandraShardStartedBarrier;
 import org.elassandra.shard.CassandraShardStateListener;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionWriteResponse.ShardInfo;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.cluster.AckedClusterStateTaskListener;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterName;
@@ -179,6 +181,7 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
     private volatile ClusterState clusterState;
     
     private volatile CassandraShardStartedBarrier shardStartedBarrier;
+    private CassandraShardStateListener shardStateListener;
     
     private final ClusterBlocks.Builder initialBlocks;
 
@@ -253,7 +256,8 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
         this.clusterState = ClusterState.builder(clusterState).nodes(nodeBuilder).blocks(initialBlocks).build();
         
         // add listener to publish shard state in Application.X1
-        this.indicesLifecycle.addListener(new CassandraShardStateListener(this, this.discoveryService));
+        this.shardStateListener = new CassandraShardStateListener(this, this.discoveryService);
+        this.indicesLifecycle.addListener(this.shardStateListener);
         
         // add post-applied because 2i shoukd be created/deleted after that cassandra indices have taken the new mapping.
         addLast(cassandraSecondaryIndicesService);
@@ -329,6 +333,16 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
         }
     }
     
+    @Override
+    public void deferShardStatesPublication(Collection<String> indices) {
+        this.shardStateListener.defer(indices);
+    }
+    
+    @Override
+    public void publishDeferredShardStates(Collection<String> indices) {
+        this.shardStateListener.publishDeferred(indices);
+    }
+    
     
     @Override
     public void remove(ClusterStateListener listener) {
@@ -1363,8 +1377,18 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
     @Override
     public UntypedResultSet fetchRowInternal(String ksName, String index, String cfName, String[] columns,
             Object[] pkColumns, boolean forStaticDocument, Map<String,ColumnDefinition> columnDefs) throws ConfigurationException, IOException {
-        // TODO Auto-generated method stub
-        return null;
+        throw new UnsupportedOperationException("fetchTokenRangeInternal is not supported by " + getClass().getSimpleName());
+    }
+
+    @Override
+    public UntypedResultSet fetchTokenRangeInternal(String ksName, String index, String type, String[] columns,
+            Range<Token> range, int pageSize, Map<String,ColumnDefinition> columnDefs) throws ConfigurationException, IOException {
+        throw new UnsupportedOperationException("fetchTokenRangeInternal is not supported by " + getClass().getSimpleName());
+    }
+
+    @Override
+    public String elasticId(String ksName, String type, UntypedResultSet.Row row) throws IOException {
+        throw new UnsupportedOperationException("elasticId is not supported by " + getClass().getSimpleName());
     }
 
     @Override
@@ -1420,6 +1444,17 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
         
     }
 
+    @Override
+    public void insertDocument(final IndicesService indicesService, final IndexRequest request, final IndexMetaData indexMetaData, final ActionListener<Void> listener) throws Exception {
+        // never leave the caller waiting on the listener.
+        listener.onFailure(new UnsupportedOperationException("insertDocument is not supported by " + getClass().getSimpleName()));
+    }
+
+    @Override
+    public boolean updateDocumentColumns(final IndicesService indicesService, final UpdateRequest request, final ConsistencyLevel cl, final ActionListener<Void> listener) throws Exception {
+        return false;
+    }
+
     @Override
     public void index(String[] indices, Collection<Range<Token>> tokenRanges) {
         // TODO Auto-generated method stub
@@ -1440,13 +1475,13 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
     }
 
 
+*/
+
     @Override
-    public Token getToken(String index, String type, String routing)
-            throws JsonParseException, JsonMappingException, IOException {
+    public Token getToken(String index, String type, Object[] partitionKeyValues) throws IOException {
         // TODO Auto-generated method stub
         return null;
     }
-*/
     
     @Override
     public boolean tokenRangesIntersec(Collection<Range<Token>> shardTokenRanges,
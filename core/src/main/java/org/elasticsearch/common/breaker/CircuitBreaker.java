@@ -32,6 +32,7 @@ public interface CircuitBreaker {
     String FIELDDATA = "fielddata";
     String REQUEST = "request";
     String IN_FLIGHT_REQUESTS = "in_flight_requests";
+    String CASSANDRA = "cassandra";
 
     enum Type {
         // A regular or child MemoryCircuitBreaker
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.engine;
 
+import org.apache.cassandra.db.commitlog.ReplayPosition;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
@@ -44,6 +45,7 @@ import org.apache.lucene.store.LockObtainFailedException;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
+import org.elassandra.index.ReplayPositions;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.cluster.routing.DjbHashFunction;
 import org.elasticsearch.common.Nullable;
@@ -710,6 +712,8 @@ public class InternalEngine extends Engine {
     public CommitId flush(boolean force, boolean waitIfOngoing) throws EngineException {
         ensureOpen();
         final byte[] newCommitId;
+        // commitlog position of the cassandra writes already indexed, does not wait for in-flight writes.
+        final ReplayPosition replayPosition = ReplayPositions.indexed();
         /*
          * Unfortunately the lock order is important here. We have to acquire the readlock first otherwise
          * if we are flushing at the end of the recovery while holding the write lock we can deadlock if:
@@ -735,7 +739,7 @@ public class InternalEngine extends Engine {
                     try {
                         translog.prepareCommit();
                         logger.trace("starting commit for flush; commitTranslog=true");
-                        commitIndexWriter(indexWriter, translog);
+                        commitIndexWriter(indexWriter, translog, null, replayPosition);
                         logger.trace("finished commit for flush");
                         // we need to refresh in order to clear older version values
                         refresh("version_table_flush");
@@ -1225,7 +1229,10 @@ public class InternalEngine extends Engine {
         }
     }
 
-    private void commitIndexWriter(IndexWriter writer, Translog translog, String syncId) throws IOException {
+    /**
+     * @param replayPosition cassandra commitlog position up to which all mutations are in this commit, or null to keep the last committed one.
+     */
+    private void commitIndexWriter(IndexWriter writer, Translog translog, String syncId, ReplayPosition replayPosition) throws IOException {
         try {
         /*
             Translog.TranslogGeneration translogGeneration = translog.getGeneration();
@@ -1238,6 +1245,12 @@ public class InternalEngine extends Engine {
             }
             indexWriter.setCommitData(commitData);
             */
+            if (replayPosition != null) {
+                logger.trace("committing writer with cassandra replay position [{}]", replayPosition);
+                Map<String, String> commitData = new HashMap<>(1);
+                commitData.put(ReplayPositions.COMMIT_KEY, ReplayPositions.toString(replayPosition));
+                writer.setCommitData(commitData);
+            }
             writer.commit();
         } catch (Throwable ex) {
             failEngine("lucene commit failed", ex);
@@ -1245,8 +1258,12 @@ public class InternalEngine extends Engine {
         }
     }
 
+    private void commitIndexWriter(IndexWriter writer, Translog translog, String syncId) throws IOException {
+        commitIndexWriter(writer, translog, syncId, null);
+    }
+
     private void commitIndexWriter(IndexWriter writer, Translog translog) throws IOException {
-        commitIndexWriter(writer, translog, null);
+        commitIndexWriter(writer, translog, null, null);
     }
 
     public void onSettingsChanged() {
@@ -45,6 +45,11 @@ public interface IndexFieldDataCache {
      */
     void clear(String fieldName);
 
+    /**
+     * Returns <code>true</code> if global ordinals were loaded for the last reader of the given shard.
+     */
+    boolean hasGlobalOrdinals(ShardId shardId);
+
     interface Listener {
 
         /**
@@ -78,5 +83,10 @@ public interface IndexFieldDataCache {
         @Override
         public void clear(String fieldName) {
         }
+
+        @Override
+        public boolean hasGlobalOrdinals(ShardId shardId) {
+            return false;
+        }
     }
 }
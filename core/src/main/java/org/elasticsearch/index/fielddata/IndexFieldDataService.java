@@ -213,6 +213,14 @@ public class IndexFieldDataService extends AbstractIndexComponent {
         ExceptionsHelper.maybeThrowRuntimeAndSuppress(exceptions);
     }
 
+    /**
+     * Returns <code>true</code> if global ordinals of the given field were loaded for the last reader of the shard.
+     */
+    public synchronized boolean hasGlobalOrdinals(ShardId shardId, String indexName) {
+        final IndexFieldDataCache cache = fieldDataCaches.get(indexName);
+        return cache != null && cache.hasGlobalOrdinals(shardId);
+    }
+
     @SuppressWarnings("unchecked")
     public <IFD extends IndexFieldData<?>> IFD getForField(MappedFieldType fieldType) {
         final Names fieldNames = fieldType.names();
@@ -21,6 +21,7 @@ package org.elasticsearch.index.fielddata;
 
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.elasticsearch.common.Nullable;
 
 
 
@@ -42,4 +43,10 @@ public interface IndexOrdinalsFieldData extends IndexFieldData.Global<AtomicOrdi
     @Override
     IndexOrdinalsFieldData localGlobalDirect(DirectoryReader indexReader) throws Exception;
 
+    /**
+     * Load a global view of the ordinals for the given {@link IndexReader}, reusing the <code>previous</code>
+     * global ordinals loaded for the same shard when possible.
+     */
+    IndexOrdinalsFieldData localGlobalDirect(DirectoryReader indexReader, @Nullable IndexOrdinalsFieldData previous) throws Exception;
+
 }
@@ -0,0 +1,239 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiDocValues.OrdinalMap;
+import org.apache.lucene.index.RandomAccessOrds;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.common.Nullable;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the segment ordinals of an {@link IndexReader} to global ordinals.
+ *
+ * The mapping is either a single {@link OrdinalMap} built over all the segments of the reader, or the {@link OrdinalMap}
+ * of a previous reader (the base) completed by a delta {@link OrdinalMap} that merges the terms of the base with the
+ * segments added since then. A delta only costs the number of global terms of the base plus the terms of the new
+ * segments, so frequently refreshed indices don't have to re-merge the terms dictionaries of all their segments.
+ */
+final class GlobalOrdinalMap {
+
+    private final OrdinalMap base;
+    // the core cache keys of the base segments, weakly referenced to not keep closed segments around
+    private final WeakReference<?>[] baseCoreKeys;
+    private final int[] baseToLeaf;
+    private final int[] leafToBase;
+
+    // segment 0 of the delta holds the terms of the base, the next ones are the segments that are not in the base
+    @Nullable
+    private final OrdinalMap delta;
+    private final int[] deltaToLeaf;
+    private final int[] leafToDelta;
+
+    private GlobalOrdinalMap(OrdinalMap base, WeakReference<?>[] baseCoreKeys, int[] baseToLeaf, int[] leafToBase,
+                             @Nullable OrdinalMap delta, int[] deltaToLeaf, int[] leafToDelta) {
+        this.base = base;
+        this.baseCoreKeys = baseCoreKeys;
+        this.baseToLeaf = baseToLeaf;
+        this.leafToBase = leafToBase;
+        this.delta = delta;
+        this.deltaToLeaf = deltaToLeaf;
+        this.leafToDelta = leafToDelta;
+    }
+
+    /**
+     * Builds the global ordinals of all the segments of the provided reader.
+     */
+    static GlobalOrdinalMap build(IndexReader indexReader, RandomAccessOrds[] subs) throws IOException {
+        final List<LeafReaderContext> leaves = indexReader.leaves();
+        final WeakReference<?>[] coreKeys = new WeakReference<?>[leaves.size()];
+        final int[] identity = new int[leaves.size()];
+        for (int i = 0; i < leaves.size(); i++) {
+            coreKeys[i] = new WeakReference<>(leaves.get(i).reader().getCoreCacheKey());
+            identity[i] = i;
+        }
+        final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
+        return new GlobalOrdinalMap(ordinalMap, coreKeys, identity, identity, null, null, null);
+    }
+
+    /**
+     * Builds the global ordinals of the provided reader from the base of this map, or returns <code>null</code> if a
+     * segment of the base is not part of the reader anymore or if the terms of the segments added since the base was
+     * built exceed <code>maxRatio</code> of its terms.
+     */
+    @Nullable
+    GlobalOrdinalMap update(IndexReader indexReader, RandomAccessOrds[] subs, float maxRatio) throws IOException {
+        final List<LeafReaderContext> leaves = indexReader.leaves();
+        final Map<Object, Integer> leafOrds = new IdentityHashMap<>(leaves.size());
+        for (int i = 0; i < leaves.size(); i++) {
+            leafOrds.put(leaves.get(i).reader().getCoreCacheKey(), i);
+        }
+        final int[] newBaseToLeaf = new int[baseCoreKeys.length];
+        final int[] newLeafToBase = new int[leaves.size()];
+        Arrays.fill(newLeafToBase, -1);
+        for (int i = 0; i < baseCoreKeys.length; i++) {
+            final Object coreKey = baseCoreKeys[i].get();
+            final Integer leaf = coreKey == null ? null : leafOrds.get(coreKey);
+            if (leaf == null) {
+                // merged away or fully deleted, terms of the base can't be resolved anymore
+                return null;
+            }
+            newBaseToLeaf[i] = leaf;
+            newLeafToBase[leaf] = i;
+        }
+
+        final int numAdded = leaves.size() - baseCoreKeys.length;
+        if (numAdded == 0) {
+            return new GlobalOrdinalMap(base, baseCoreKeys, newBaseToLeaf, newLeafToBase, null, null, null);
+        }
+        final SortedSetDocValues[] values = new SortedSetDocValues[numAdded + 1];
+        final int[] newDeltaToLeaf = new int[numAdded + 1];
+        final int[] newLeafToDelta = new int[leaves.size()];
+        Arrays.fill(newLeafToDelta, -1);
+        values[0] = new BaseTerms(base, newBaseToLeaf, subs);
+        newDeltaToLeaf[0] = -1;
+        long addedTerms = 0;
+        for (int leaf = 0, segment = 1; leaf < leaves.size(); leaf++) {
+            if (newLeafToBase[leaf] == -1) {
+                values[segment] = subs[leaf];
+                newDeltaToLeaf[segment] = leaf;
+                newLeafToDelta[leaf] = segment;
+                addedTerms += subs[leaf].getValueCount();
+                segment++;
+            }
+        }
+        if (addedTerms > maxRatio * base.getValueCount()) {
+            return null;
+        }
+        final OrdinalMap newDelta = OrdinalMap.build(null, values, PackedInts.DEFAULT);
+        return new GlobalOrdinalMap(base, baseCoreKeys, newBaseToLeaf, newLeafToBase, newDelta, newDeltaToLeaf, newLeafToDelta);
+    }
+
+    /**
+     * Returns <code>true</code> if this map reuses the ordinal map of a previous reader.
+     */
+    boolean isIncremental() {
+        return delta != null;
+    }
+
+    long getValueCount() {
+        return delta == null ? base.getValueCount() : delta.getValueCount();
+    }
+
+    /**
+     * Returns the mapping of the ordinals of the given leaf to global ordinals.
+     */
+    LongValues getGlobalOrds(int leaf) {
+        final int baseSegment = leafToBase[leaf];
+        if (delta == null) {
+            return base.getGlobalOrds(baseSegment);
+        }
+        if (baseSegment == -1) {
+            return delta.getGlobalOrds(leafToDelta[leaf]);
+        }
+        final LongValues baseOrds = base.getGlobalOrds(baseSegment);
+        final LongValues deltaOrds = delta.getGlobalOrds(0);
+        return new LongValues() {
+            @Override
+            public long get(long segmentOrd) {
+                return deltaOrds.get(baseOrds.get(segmentOrd));
+            }
+        };
+    }
+
+    /**
+     * Returns the leaf that holds the term of the given global ordinal.
+     */
+    int getFirstSegmentNumber(long globalOrd) {
+        if (delta == null) {
+            return baseToLeaf[base.getFirstSegmentNumber(globalOrd)];
+        }
+        final int segment = delta.getFirstSegmentNumber(globalOrd);
+        if (segment == 0) {
+            return baseToLeaf[base.getFirstSegmentNumber(delta.getFirstSegmentOrd(globalOrd))];
+        }
+        return deltaToLeaf[segment];
+    }
+
+    /**
+     * Returns the ordinal of the term of the given global ordinal in the leaf returned by {@link #getFirstSegmentNumber(long)}.
+     */
+    long getFirstSegmentOrd(long globalOrd) {
+        if (delta == null) {
+            return base.getFirstSegmentOrd(globalOrd);
+        }
+        final long segmentOrd = delta.getFirstSegmentOrd(globalOrd);
+        if (delta.getFirstSegmentNumber(globalOrd) == 0) {
+            return base.getFirstSegmentOrd(segmentOrd);
+        }
+        return segmentOrd;
+    }
+
+    long ramBytesUsed() {
+        return base.ramBytesUsed() + (delta == null ? 0 : delta.ramBytesUsed());
+    }
+
+    /**
+     * Exposes the global terms of the base as a segment of the delta.
+     */
+    private static final class BaseTerms extends SortedSetDocValues {
+
+        private final OrdinalMap base;
+        private final int[] baseToLeaf;
+        private final RandomAccessOrds[] subs;
+
+        BaseTerms(OrdinalMap base, int[] baseToLeaf, RandomAccessOrds[] subs) {
+            this.base = base;
+            this.baseToLeaf = baseToLeaf;
+            this.subs = subs;
+        }
+
+        @Override
+        public long getValueCount() {
+            return base.getValueCount();
+        }
+
+        @Override
+        public BytesRef lookupOrd(long ord) {
+            return subs[baseToLeaf[base.getFirstSegmentNumber(ord)]].lookupOrd(base.getFirstSegmentOrd(ord));
+        }
+
+        @Override
+        public long nextOrd() {
+            throw new UnsupportedOperationException("terms of the base are not attached to documents");
+        }
+
+        @Override
+        public void setDocument(int docID) {
+            throw new UnsupportedOperationException("terms of the base are not attached to documents");
+        }
+    }
+}
@@ -21,10 +21,9 @@ package org.elasticsearch.index.fielddata.ordinals;
 
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.MultiDocValues.OrdinalMap;
 import org.apache.lucene.index.RandomAccessOrds;
 import org.apache.lucene.util.Accountable;
-import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.settings.Settings;
@@ -45,10 +44,30 @@ import java.util.Collections;
 public enum GlobalOrdinalsBuilder {
     ;
 
+    /**
+     * Maximum ratio of the terms of the segments added since the last full build to the terms of that build for global
+     * ordinals to be updated incrementally from the previous reader, <code>0</code> to always rebuild them.
+     */
+    public static final String INCREMENTAL_MAX_RATIO = "index.global_ordinals.incremental.max_ratio";
+    public static final float DEFAULT_INCREMENTAL_MAX_RATIO = 0.1f;
+
+    public static boolean isIncremental(Settings settings) {
+        return settings.getAsFloat(INCREMENTAL_MAX_RATIO, DEFAULT_INCREMENTAL_MAX_RATIO) > 0;
+    }
+
     /**
      * Build global ordinals for the provided {@link IndexReader}.
      */
     public static IndexOrdinalsFieldData build(final IndexReader indexReader, IndexOrdinalsFieldData indexFieldData, Settings settings, CircuitBreakerService breakerService, ESLogger logger) throws IOException {
+        return build(indexReader, indexFieldData, null, settings, breakerService, logger);
+    }
+
+    /**
+     * Build global ordinals for the provided {@link IndexReader}, updating the ordinal map of the <code>previous</code> global
+     * ordinals of the same shard when the reader only added small segments to it.
+     */
+    public static IndexOrdinalsFieldData build(final IndexReader indexReader, IndexOrdinalsFieldData indexFieldData, @Nullable IndexOrdinalsFieldData previous,
+                                               Settings settings, CircuitBreakerService breakerService, ESLogger logger) throws IOException {
         assert indexReader.leaves().size() > 1;
         long startTimeNS = System.nanoTime();
 
@@ -58,15 +77,24 @@ public enum GlobalOrdinalsBuilder {
             atomicFD[i] = indexFieldData.load(indexReader.leaves().get(i));
             subs[i] = atomicFD[i].getOrdinalsValues();
         }
-        final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
+        GlobalOrdinalMap ordinalMap = null;
+        final float maxRatio = settings.getAsFloat(INCREMENTAL_MAX_RATIO, DEFAULT_INCREMENTAL_MAX_RATIO);
+        if (maxRatio > 0 && previous instanceof InternalGlobalOrdinalsIndexFieldData) {
+            ordinalMap = ((InternalGlobalOrdinalsIndexFieldData) previous).getOrdinalMap().update(indexReader, subs, maxRatio);
+        }
+        if (ordinalMap == null) {
+            ordinalMap = GlobalOrdinalMap.build(indexReader, subs);
+        }
+        // the whole map is accounted, including a reused base, as the previous global ordinals release it when evicted
         final long memorySizeInBytes = ordinalMap.ramBytesUsed();
         breakerService.getBreaker(CircuitBreaker.FIELDDATA).addWithoutBreaking(memorySizeInBytes);
 
         if (logger.isDebugEnabled()) {
             logger.debug(
-                    "Global-ordinals[{}][{}] took {} ms",
+                    "Global-ordinals[{}][{}] {} took {} ms",
                     indexFieldData.getFieldNames().fullName(),
                     ordinalMap.getValueCount(),
+                    ordinalMap.isIncremental() ? "updated" : "built",
                     TimeValue.nsecToMSec(System.nanoTime() - startTimeNS)
             );
         }
@@ -103,7 +131,7 @@ public enum GlobalOrdinalsBuilder {
             };
             subs[i] = atomicFD[i].getOrdinalsValues();
         }
-        final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
+        final GlobalOrdinalMap ordinalMap = GlobalOrdinalMap.build(indexReader, subs);
         return new InternalGlobalOrdinalsIndexFieldData(index, settings, indexFieldData.getFieldNames(),
                 indexFieldData.getFieldDataType(), atomicFD, ordinalMap, 0
         );
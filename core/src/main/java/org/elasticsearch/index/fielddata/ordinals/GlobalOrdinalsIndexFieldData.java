@@ -67,6 +67,11 @@ public abstract class GlobalOrdinalsIndexFieldData extends AbstractIndexComponen
         return this;
     }
 
+    @Override
+    public IndexOrdinalsFieldData localGlobalDirect(DirectoryReader indexReader, @Nullable IndexOrdinalsFieldData previous) throws Exception {
+        return this;
+    }
+
     @Override
     public MappedFieldType.Names getFieldNames() {
         return fieldNames;
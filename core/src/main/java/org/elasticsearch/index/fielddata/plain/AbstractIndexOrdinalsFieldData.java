@@ -95,7 +95,12 @@ public abstract class AbstractIndexOrdinalsFieldData extends AbstractIndexFieldD
 
     @Override
     public IndexOrdinalsFieldData localGlobalDirect(DirectoryReader indexReader) throws Exception {
-        return GlobalOrdinalsBuilder.build(indexReader, this, indexSettings(), breakerService, logger);
+        return localGlobalDirect(indexReader, null);
+    }
+
+    @Override
+    public IndexOrdinalsFieldData localGlobalDirect(DirectoryReader indexReader, @Nullable IndexOrdinalsFieldData previous) throws Exception {
+        return GlobalOrdinalsBuilder.build(indexReader, this, previous, indexSettings(), breakerService, logger);
     }
 
     @Override
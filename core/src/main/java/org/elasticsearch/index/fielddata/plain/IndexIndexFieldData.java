@@ -22,6 +22,7 @@ package org.elasticsearch.index.fielddata.plain;
 import org.apache.lucene.index.*;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.fielddata.AtomicOrdinalsFieldData;
@@ -128,4 +129,9 @@ public class IndexIndexFieldData extends AbstractIndexOrdinalsFieldData {
         return loadGlobal(indexReader);
     }
 
+    @Override
+    public IndexOrdinalsFieldData localGlobalDirect(DirectoryReader indexReader, @Nullable IndexOrdinalsFieldData previous) throws Exception {
+        return loadGlobal(indexReader);
+    }
+
 }
@@ -23,6 +23,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.IndexReader;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.fielddata.*;
@@ -100,6 +101,11 @@ public class SortedSetDVOrdinalsIndexFieldData extends DocValuesIndexFieldData i
 
     @Override
     public IndexOrdinalsFieldData localGlobalDirect(DirectoryReader indexReader) throws Exception {
-        return GlobalOrdinalsBuilder.build(indexReader, this, indexSettings, breakerService, logger);
+        return localGlobalDirect(indexReader, null);
+    }
+
+    @Override
+    public IndexOrdinalsFieldData localGlobalDirect(DirectoryReader indexReader, @Nullable IndexOrdinalsFieldData previous) throws Exception {
+        return GlobalOrdinalsBuilder.build(indexReader, this, previous, indexSettings, breakerService, logger);
     }
 }
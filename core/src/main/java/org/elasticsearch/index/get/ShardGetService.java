@@ -36,6 +36,8 @@ import org.apache.cassandra.db.ConsistencyLevel;
 import org.apache.cassandra.exceptions.RequestExecutionException;
 import org.apache.cassandra.exceptions.RequestValidationException;
 import org.elassandra.cluster.InternalCassandraClusterService;
+import org.elassandra.cluster.routing.PartitionKeyRouting;
+import org.elassandra.indices.cache.SourceCache;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterService.DocPrimaryKey;
@@ -77,14 +79,17 @@ public final class ShardGetService extends AbstractIndexShardComponent {
     private final CounterMetric currentMetric = new CounterMetric();
     private final IndexShard indexShard;
     private final ClusterService clusterService;
+    private final SourceCache sourceCache;
     
     public ShardGetService(IndexShard indexShard,
                            MapperService mapperService,
-                           ClusterService clusterService) {
+                           ClusterService clusterService,
+                           SourceCache sourceCache) {
         super(indexShard.shardId(), indexShard.indexSettings());
         this.mapperService = mapperService;
         this.indexShard = indexShard;
         this.clusterService = clusterService;
+        this.sourceCache = sourceCache;
     }
 
     public GetStats stats() {
@@ -93,10 +98,17 @@ public final class ShardGetService extends AbstractIndexShardComponent {
 
 
     public GetResult get(String type, String id, String[] gFields, boolean realtime, long version, VersionType versionType, FetchSourceContext fetchSourceContext, boolean ignoreErrorsOnGeneratedFields) {
+        return get(type, id, gFields, realtime, version, versionType, fetchSourceContext, ignoreErrorsOnGeneratedFields, false);
+    }
+
+    /**
+     * @param localRead read the document from the local node only, when it is a replica of the document.
+     */
+    public GetResult get(String type, String id, String[] gFields, boolean realtime, long version, VersionType versionType, FetchSourceContext fetchSourceContext, boolean ignoreErrorsOnGeneratedFields, boolean localRead) {
         currentMetric.inc();
         try {
             long now = System.nanoTime();
-            GetResult getResult = innerGet(type, id, gFields, realtime, version, versionType, fetchSourceContext, ignoreErrorsOnGeneratedFields);
+            GetResult getResult = innerGet(type, id, gFields, realtime, version, versionType, fetchSourceContext, ignoreErrorsOnGeneratedFields, localRead);
 
             if (getResult.isExists()) {
                 existsMetric.inc(System.nanoTime() - now);
@@ -160,7 +172,7 @@ public final class ShardGetService extends AbstractIndexShardComponent {
         return FetchSourceContext.DO_NOT_FETCH_SOURCE;
     }
 
-    private GetResult innerGet(String type, String id, String[] gFields, boolean realtime, long version, VersionType versionType, FetchSourceContext fetchSourceContext, boolean ignoreErrorsOnGeneratedFields) {
+    private GetResult innerGet(String type, String id, String[] gFields, boolean realtime, long version, VersionType versionType, FetchSourceContext fetchSourceContext, boolean ignoreErrorsOnGeneratedFields, boolean localRead) {
         fetchSourceContext = normalizeFetchSourceContent(fetchSourceContext, gFields);
 
         //Engine.GetResult get = null;
@@ -301,19 +313,40 @@ public final class ShardGetService extends AbstractIndexShardComponent {
         SourceFieldMapper sourceFieldMapper = docMapper.sourceMapper();
         
         // In elassandra, Engine does not store the source any more, but fetch it from cassandra.
-        try {
-            String ksName = mapperService.keyspace();
-            UntypedResultSet result = clusterService.fetchRow(ksName, shardId.index().name(), type, id, columns.toArray(new String[columns.size()]), 
-                    docMapper.getColumnDefinitions());
-            if (result.isEmpty()) {
-                return new GetResult(shardId.index().name(), type, id, -1, false, null, null);
-            }
-            sourceAsMap = clusterService.rowAsMap(shardId.index().name(), type, result.one());
-            if (fetchSourceContext.fetchSource()) {
-                sourceToBeReturned = clusterService.source(docMapper, sourceAsMap, shardId.index().name(), type, id);
+        // Sources of documents without _ttl are cached when requested without fields. The cache is only invalidated
+        // by the writes applied on this node, so only sources of the documents this node is a replica of are cached,
+        // and they are read locally.
+        final String index = shardId.index().name();
+        boolean cacheSource = sourceCache.enabled() && fetchSourceContext.fetchSource() 
+                && (gFields == null || gFields.length == 0) && !docMapper.TTLFieldMapper().enabled();
+        if (cacheSource && !localRead) {
+            localRead = PartitionKeyRouting.isLocalReplica(clusterService, index, mapperService.keyspace(), type, id);
+            cacheSource = localRead;
+        }
+        if (cacheSource) {
+            sourceToBeReturned = sourceCache.get(index, type, id);
+        }
+        if (sourceToBeReturned == null) {
+            final long stamp = cacheSource ? sourceCache.stamp(index, type, id) : 0;
+            try {
+                String ksName = mapperService.keyspace();
+                String[] columnNames = columns.toArray(new String[columns.size()]);
+                UntypedResultSet result = localRead 
+                        ? clusterService.fetchRowInternal(ksName, index, type, id, columnNames, docMapper.getColumnDefinitions())
+                        : clusterService.fetchRow(ksName, index, type, id, columnNames, docMapper.getColumnDefinitions());
+                if (result.isEmpty()) {
+                    return new GetResult(index, type, id, -1, false, null, null);
+                }
+                sourceAsMap = clusterService.rowAsMap(index, type, result.one());
+                if (fetchSourceContext.fetchSource()) {
+                    sourceToBeReturned = clusterService.source(docMapper, sourceAsMap, index, type, id);
+                    if (cacheSource) {
+                        sourceCache.put(index, type, id, sourceToBeReturned, stamp);
+                    }
+                }
+            } catch (RequestExecutionException | RequestValidationException | IOException e1) {
+                throw new ElasticsearchException("Cannot fetch source type [" + type + "] and id [" + id + "]", e1);
             }
-        } catch (RequestExecutionException | RequestValidationException | IOException e1) {
-            throw new ElasticsearchException("Cannot fetch source type [" + type + "] and id [" + id + "]", e1);
         }
         
         if (gFields != null && gFields.length > 0) {
@@ -331,6 +364,10 @@ public final class ShardGetService extends AbstractIndexShardComponent {
             if (fetchSourceContext.transformSource() || sourceFieldFiltering || sourceFetchFiltering) {
                 // TODO: The source might parsed and available in the sourceLookup but that one uses unordered maps so different. Do we care?
                 XContentType sourceContentType = XContentType.JSON;
+                if (sourceAsMap == null) {
+                    // source returned by the cache
+                    sourceAsMap = XContentHelper.convertToMap(sourceToBeReturned, true).v2();
+                }
                 if (fetchSourceContext.transformSource()) {
                     sourceAsMap = docMapper.transformSourceAsMap(sourceAsMap);
                 }
@@ -0,0 +1,244 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.percolator;
+
+import org.apache.lucene.index.Fields;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.spans.SpanFirstQuery;
+import org.apache.lucene.search.spans.SpanNearQuery;
+import org.apache.lucene.search.spans.SpanOrQuery;
+import org.apache.lucene.search.spans.SpanQuery;
+import org.apache.lucene.search.spans.SpanTermQuery;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Index of the terms extracted from the registered percolator queries, used to only evaluate a percolated document
+ * against the queries that may match it.
+ * <p>
+ * A query is indexed under a set of terms such that any document matching the query contains at least one of them.
+ * Queries no such set can be extracted from are candidates for every document.
+ */
+public final class ExtractedTermsIndex {
+
+    // field -> term -> ids of the queries indexed under that term
+    private final ConcurrentMap<String, ConcurrentMap<BytesRef, Set<BytesRef>>> fields = ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<BytesRef, Set<Term>> queryTerms = ConcurrentCollections.newConcurrentMap();
+    private final Set<BytesRef> unextractable = ConcurrentCollections.newConcurrentSet();
+
+    public synchronized void add(BytesRef id, Query query) {
+        remove(id);
+        final Set<Term> terms = extractTerms(query);
+        if (terms == null) {
+            unextractable.add(id);
+            return;
+        }
+        queryTerms.put(id, terms);
+        for (Term term : terms) {
+            ConcurrentMap<BytesRef, Set<BytesRef>> fieldTerms = fields.get(term.field());
+            if (fieldTerms == null) {
+                fieldTerms = ConcurrentCollections.newConcurrentMap();
+                fields.put(term.field(), fieldTerms);
+            }
+            Set<BytesRef> ids = fieldTerms.get(term.bytes());
+            if (ids == null) {
+                ids = ConcurrentCollections.newConcurrentSet();
+                fieldTerms.put(term.bytes(), ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    public synchronized void remove(BytesRef id) {
+        unextractable.remove(id);
+        final Set<Term> terms = queryTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (Term term : terms) {
+            final ConcurrentMap<BytesRef, Set<BytesRef>> fieldTerms = fields.get(term.field());
+            final Set<BytesRef> ids = fieldTerms.get(term.bytes());
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                fieldTerms.remove(term.bytes());
+                if (fieldTerms.isEmpty()) {
+                    fields.remove(term.field());
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        fields.clear();
+        queryTerms.clear();
+        unextractable.clear();
+    }
+
+    /**
+     * Returns the number of queries that are evaluated against every document.
+     */
+    public int unextractableCount() {
+        return unextractable.size();
+    }
+
+    /**
+     * Returns the ids of the queries that may match the documents of the provided reader.
+     */
+    public Set<BytesRef> candidates(IndexReader reader) throws IOException {
+        final Set<BytesRef> candidates = new HashSet<>(unextractable);
+        for (LeafReaderContext context : reader.leaves()) {
+            final Fields readerFields = context.reader().fields();
+            for (String field : readerFields) {
+                final ConcurrentMap<BytesRef, Set<BytesRef>> fieldTerms = fields.get(field);
+                final Terms terms = fieldTerms == null ? null : readerFields.terms(field);
+                if (terms == null) {
+                    continue;
+                }
+                final TermsEnum termsEnum = terms.iterator();
+                for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+                    final Set<BytesRef> ids = fieldTerms.get(term);
+                    if (ids != null) {
+                        candidates.addAll(ids);
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Extracts a set of terms such that any document matching the query contains at least one of them,
+     * or returns <code>null</code> if the query is not supported.
+     */
+    @Nullable
+    static Set<Term> extractTerms(Query query) {
+        if (query instanceof TermQuery) {
+            return Collections.singleton(((TermQuery) query).getTerm());
+        } else if (query instanceof SpanTermQuery) {
+            return Collections.singleton(((SpanTermQuery) query).getTerm());
+        } else if (query instanceof BoostQuery) {
+            return extractTerms(((BoostQuery) query).getQuery());
+        } else if (query instanceof ConstantScoreQuery) {
+            return extractTerms(((ConstantScoreQuery) query).getQuery());
+        } else if (query instanceof SpanFirstQuery) {
+            return extractTerms(((SpanFirstQuery) query).getMatch());
+        } else if (query instanceof PhraseQuery) {
+            // all the terms are required, one of them is enough
+            final List<Set<Term>> required = new ArrayList<>();
+            for (Term term : ((PhraseQuery) query).getTerms()) {
+                required.add(Collections.singleton(term));
+            }
+            return selectRequired(required);
+        } else if (query instanceof SpanNearQuery) {
+            final List<Set<Term>> required = new ArrayList<>();
+            for (SpanQuery clause : ((SpanNearQuery) query).getClauses()) {
+                final Set<Term> terms = extractTerms(clause);
+                if (terms != null) {
+                    required.add(terms);
+                }
+            }
+            return selectRequired(required);
+        } else if (query instanceof SpanOrQuery) {
+            return union(((SpanOrQuery) query).getClauses());
+        } else if (query instanceof DisjunctionMaxQuery) {
+            return union(((DisjunctionMaxQuery) query).getDisjuncts());
+        } else if (query instanceof BooleanQuery) {
+            final List<Query> optional = new ArrayList<>();
+            final List<Set<Term>> required = new ArrayList<>();
+            boolean hasRequired = false;
+            for (BooleanClause clause : ((BooleanQuery) query).clauses()) {
+                if (clause.getOccur() == BooleanClause.Occur.MUST || clause.getOccur() == BooleanClause.Occur.FILTER) {
+                    hasRequired = true;
+                    final Set<Term> terms = extractTerms(clause.getQuery());
+                    if (terms != null) {
+                        required.add(terms);
+                    }
+                } else if (clause.getOccur() == BooleanClause.Occur.SHOULD) {
+                    optional.add(clause.getQuery());
+                }
+            }
+            if (hasRequired) {
+                return selectRequired(required);
+            }
+            // an empty boolean query matches no document
+            return union(optional);
+        }
+        return null;
+    }
+
+    private static Set<Term> union(Iterable<? extends Query> queries) {
+        final Set<Term> union = new HashSet<>();
+        for (Query query : queries) {
+            final Set<Term> terms = extractTerms(query);
+            if (terms == null) {
+                return null;
+            }
+            union.addAll(terms);
+        }
+        return union;
+    }
+
+    private static Set<Term> union(Query[] queries) {
+        final List<Query> list = new ArrayList<>(queries.length);
+        Collections.addAll(list, queries);
+        return union(list);
+    }
+
+    /**
+     * Picks one of the term sets of the required clauses, the one whose shortest term is the longest as long terms
+     * are usually the rarest.
+     */
+    private static Set<Term> selectRequired(List<Set<Term>> required) {
+        Set<Term> best = null;
+        int bestLength = -1;
+        for (Set<Term> terms : required) {
+            int shortest = Integer.MAX_VALUE;
+            for (Term term : terms) {
+                shortest = Math.min(shortest, term.bytes().length);
+            }
+            if (shortest > bestLength) {
+                best = terms;
+                bestLength = shortest;
+            }
+        }
+        return best;
+    }
+}
@@ -77,6 +77,7 @@ public class PercolatorQueriesRegistry extends AbstractIndexShardComponent imple
     private final ShardPercolateService shardPercolateService;
 
     private final ConcurrentMap<BytesRef, Query> percolateQueries = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
+    private final ExtractedTermsIndex extractedTermsIndex = new ExtractedTermsIndex();
     private final ShardLifecycleListener shardLifecycleListener = new ShardLifecycleListener();
     private final RealTimePercolatorOperationListener realTimePercolatorOperationListener = new RealTimePercolatorOperationListener();
     private final PercolateTypeListener percolateTypeListener = new PercolateTypeListener();
@@ -103,6 +104,13 @@ public class PercolatorQueriesRegistry extends AbstractIndexShardComponent imple
         return percolateQueries;
     }
 
+    /**
+     * Returns the terms index of the registered queries, to only evaluate the queries that may match a document.
+     */
+    public ExtractedTermsIndex extractedTermsIndex() {
+        return extractedTermsIndex;
+    }
+
     @Override
     public void close() {
         mapperService.removeTypeListener(percolateTypeListener);
@@ -113,6 +121,7 @@ public class PercolatorQueriesRegistry extends AbstractIndexShardComponent imple
 
     public void clear() {
         percolateQueries.clear();
+        extractedTermsIndex.clear();
     }
 
     void enableRealTimePercolator() {
@@ -131,12 +140,14 @@ public class PercolatorQueriesRegistry extends AbstractIndexShardComponent imple
         Query newquery = parsePercolatorDocument(idAsString, source);
         BytesRef id = new BytesRef(idAsString);
         Query previousQuery = percolateQueries.put(id, newquery);
+        extractedTermsIndex.add(id, newquery);
         shardPercolateService.addedQuery(id, previousQuery, newquery);
     }
 
     public void removePercolateQuery(String idAsString) {
         BytesRef id = new BytesRef(idAsString);
         Query query = percolateQueries.remove(id);
+        extractedTermsIndex.remove(id);
         if (query != null) {
             shardPercolateService.removedQuery(id, query);
         }
@@ -265,6 +276,7 @@ public class PercolatorQueriesRegistry extends AbstractIndexShardComponent imple
                 Map<BytesRef, Query> queries = queryCollector.queries();
                 for (Map.Entry<BytesRef, Query> entry : queries.entrySet()) {
                     Query previousQuery = percolateQueries.put(entry.getKey(), entry.getValue());
+                    extractedTermsIndex.add(entry.getKey(), entry.getValue());
                     shardPercolateService.addedQuery(entry.getKey(), previousQuery, entry.getValue());
                 }
                 return queries.size();
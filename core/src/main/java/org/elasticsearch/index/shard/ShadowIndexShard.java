@@ -18,6 +18,7 @@
  */
 package org.elasticsearch.index.shard;
 
+import org.elassandra.indices.cache.SourceCache;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.Nullable;
@@ -70,13 +71,13 @@ public final class ShadowIndexShard extends IndexShard {
                             SnapshotDeletionPolicy deletionPolicy, SimilarityService similarityService,
                             EngineFactory factory, ClusterService clusterService,
                             ShardPath path, BigArrays bigArrays, IndexSearcherWrappingService wrappingService,
-                            IndexingMemoryController indexingMemoryController) throws IOException {
+                            IndexingMemoryController indexingMemoryController, SourceCache sourceCache) throws IOException {
         super(shardId, indexSettingsService, indicesLifecycle, store, storeRecoveryService,
               threadPool, mapperService, queryParserService, indexCache, indexAliasesService,
               indicesQueryCache, shardPercolateService, codecService,
               termVectorsService, indexFieldDataService, indexService,
               warmer, deletionPolicy, similarityService,
-              factory, clusterService, path, bigArrays, wrappingService, indexingMemoryController);
+              factory, clusterService, path, bigArrays, wrappingService, indexingMemoryController, sourceCache);
     }
 
     /**
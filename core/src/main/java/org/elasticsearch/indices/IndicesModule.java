@@ -25,6 +25,7 @@ import java.util.Map;
 import org.apache.lucene.analysis.hunspell.Dictionary;
 import org.elassandra.index.mapper.internal.NodeFieldMapper;
 import org.elassandra.index.mapper.internal.TokenFieldMapper;
+import org.elassandra.indices.cache.SourceCache;
 import org.elasticsearch.action.update.UpdateHelper;
 import org.elasticsearch.cluster.metadata.MetaDataIndexUpgradeService;
 import org.elasticsearch.common.geo.ShapesAvailability;
@@ -304,6 +305,7 @@ public class IndicesModule extends AbstractModule {
         bind(IndicesQueryCache.class).asEagerSingleton();
         bind(IndicesRequestCache.class).asEagerSingleton();
         bind(IndicesFieldDataCache.class).asEagerSingleton();
+        bind(SourceCache.class).asEagerSingleton();
         bind(TransportNodesListShardStoreMetaData.class).asEagerSingleton();
         //bind(IndicesTTLService.class).asEagerSingleton();
         bind(IndicesWarmer.class).asEagerSingleton();
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.indices.breaker;
 
+import org.elassandra.indices.breaker.CassandraCircuitBreaker;
 import org.elasticsearch.common.breaker.ChildMemoryCircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
@@ -69,10 +70,19 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
     public static final String IN_FLIGHT_REQUESTS_CIRCUIT_BREAKER_TYPE_SETTING = "network.breaker.inflight_requests.type";
     public static final String DEFAULT_IN_FLIGHT_REQUESTS_BREAKER_LIMIT = "100%";
 
+    // heap used by Cassandra memtables and caches, accounted in the parent breaker.
+    public static final String CASSANDRA_CIRCUIT_BREAKER_TYPE_SETTING = "indices.breaker.cassandra.type";
+    public static final String CASSANDRA_CIRCUIT_BREAKER_OVERHEAD_SETTING = "indices.breaker.cassandra.overhead";
+    // above this total usage, Cassandra flushes its largest memtable.
+    public static final String CASSANDRA_CIRCUIT_BREAKER_FLUSH_LIMIT_SETTING = "indices.breaker.cassandra.flush_limit";
+    public static final String DEFAULT_CASSANDRA_BREAKER_FLUSH_LIMIT = "60%";
+
     private volatile BreakerSettings parentSettings;
     private volatile BreakerSettings fielddataSettings;
     private volatile BreakerSettings inFlightRequestsSettings;
     private volatile BreakerSettings requestSettings;
+    private volatile CassandraCircuitBreaker cassandraBreaker;
+    private volatile long cassandraFlushLimit;
 
     // Tripped count for when redistribution was attempted but wasn't successful
     private final AtomicLong parentTripCount = new AtomicLong(0);
@@ -127,6 +137,14 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
         registerBreaker(this.fielddataSettings);
         registerBreaker(this.inFlightRequestsSettings);
 
+        this.cassandraFlushLimit = settings.getAsMemory(CASSANDRA_CIRCUIT_BREAKER_FLUSH_LIMIT_SETTING, DEFAULT_CASSANDRA_BREAKER_FLUSH_LIMIT).bytes();
+        if (CircuitBreaker.Type.parseValue(settings.get(CASSANDRA_CIRCUIT_BREAKER_TYPE_SETTING, DEFAULT_BREAKER_TYPE)) == CircuitBreaker.Type.NOOP) {
+            breakers.put(CircuitBreaker.CASSANDRA, new NoopCircuitBreaker(CircuitBreaker.CASSANDRA));
+        } else {
+            this.cassandraBreaker = new CassandraCircuitBreaker(settings.getAsDouble(CASSANDRA_CIRCUIT_BREAKER_OVERHEAD_SETTING, 1.0));
+            breakers.put(CircuitBreaker.CASSANDRA, this.cassandraBreaker);
+        }
+
         nodeSettingsService.addListener(new ApplySettings());
     }
 
@@ -177,6 +195,22 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
                 logger.info("Updated breaker settings in-flight requests: {}", newInFlightRequestSettings);
             }
 
+            // Cassandra settings
+            Double newCassandraOverhead = settings.getAsDouble(CASSANDRA_CIRCUIT_BREAKER_OVERHEAD_SETTING, null);
+            CassandraCircuitBreaker oldCassandraBreaker = HierarchyCircuitBreakerService.this.cassandraBreaker;
+            if (newCassandraOverhead != null && oldCassandraBreaker != null && newCassandraOverhead != oldCassandraBreaker.getOverhead()) {
+                validateSettings(new BreakerSettings[]{new BreakerSettings(CircuitBreaker.CASSANDRA, -1, newCassandraOverhead, CircuitBreaker.Type.MEMORY)});
+                CassandraCircuitBreaker newCassandraBreaker = new CassandraCircuitBreaker(newCassandraOverhead);
+                breakers.put(CircuitBreaker.CASSANDRA, newCassandraBreaker);
+                HierarchyCircuitBreakerService.this.cassandraBreaker = newCassandraBreaker;
+                logger.info("Updated breaker settings cassandra: overhead={}", newCassandraOverhead);
+            }
+            ByteSizeValue newCassandraFlushLimit = settings.getAsMemory(CASSANDRA_CIRCUIT_BREAKER_FLUSH_LIMIT_SETTING, null);
+            if (newCassandraFlushLimit != null && newCassandraFlushLimit.bytes() != HierarchyCircuitBreakerService.this.cassandraFlushLimit) {
+                HierarchyCircuitBreakerService.this.cassandraFlushLimit = newCassandraFlushLimit.bytes();
+                logger.info("Updated breaker settings cassandra: flush_limit={}", newCassandraFlushLimit);
+            }
+
             // Parent settings
             long oldParentMax = HierarchyCircuitBreakerService.this.parentSettings.getLimit();
             ByteSizeValue newParentMax = settings.getAsMemory(TOTAL_CIRCUIT_BREAKER_LIMIT_SETTING, null);
@@ -233,7 +267,8 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
     }
 
     /**
-     * Checks whether the parent breaker has been tripped
+     * Checks whether the parent breaker has been tripped, including the heap used by Cassandra,
+     * and asks Cassandra to flush its largest memtable above the cassandra flush limit.
      */
     public void checkParentLimit(String label) throws CircuitBreakingException {
         long totalUsed = 0;
@@ -241,6 +276,11 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
             totalUsed += (breaker.getUsed() * breaker.getOverhead());
         }
 
+        CassandraCircuitBreaker cassandraBreaker = this.cassandraBreaker;
+        if (cassandraBreaker != null && totalUsed > this.cassandraFlushLimit) {
+            cassandraBreaker.flushLargestMemtable();
+        }
+
         long parentLimit = this.parentSettings.getLimit();
         if (totalUsed > parentLimit) {
             this.parentTripCount.incrementAndGet();
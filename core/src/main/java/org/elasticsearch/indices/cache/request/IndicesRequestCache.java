@@ -27,10 +27,16 @@ import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.cache.Weigher;
 
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.service.StorageService;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elassandra.cluster.routing.TokenRanges;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
@@ -46,16 +52,23 @@ import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.SearchContextAggregations;
+import org.elasticsearch.search.aggregations.pipeline.SiblingPipelineAggregator;
+import org.elasticsearch.search.internal.DefaultSearchContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.query.QueryPhase;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
@@ -85,6 +98,11 @@ public class IndicesRequestCache extends AbstractComponent implements RemovalLis
     public static final String INDEX_CACHE_REQUEST_ENABLED = "index.requests.cache.enable";
     @Deprecated
     public static final String DEPRECATED_INDEX_CACHE_REQUEST_ENABLED = "index.cache.query.enable";
+    /**
+     * Cache aggregation results per token range of the request, and compose them at query time, so that
+     * a routing change only computes the token ranges not yet cached on this shard. Dynamic like the above.
+     */
+    public static final String INDEX_CACHE_REQUEST_TOKEN_RANGES = "index.requests.cache.token_ranges";
     public static final String INDICES_CACHE_REQUEST_CLEAN_INTERVAL = "indices.requests.cache.clean_interval";
 
     public static final String INDICES_CACHE_QUERY_SIZE = "indices.requests.cache.size";
@@ -258,8 +276,26 @@ public class IndicesRequestCache extends AbstractComponent implements RemovalLis
      */
     public void loadIntoContext(final ShardSearchRequest request, final SearchContext context, final QueryPhase queryPhase) throws Exception {
         assert canCache(request, context);
+        if (canCachePerTokenRange(request, context)) {
+            // vnode ranges are only computed when enabled, since they need the ring tokens.
+            final TokenRanges vnodeRanges = vnodeRanges(request);
+            if (vnodeRanges.size() > 1) {
+                loadPerTokenRangeIntoContext(request, vnodeRanges, (DefaultSearchContext) context, queryPhase);
+                return;
+            }
+        }
         Key key = buildKey(request, context);
         Loader loader = new Loader(queryPhase, context, key);
+        Value value = load(key, loader, context);
+        if (!loader.isLoaded()) {
+            // restore the cached query result into the context
+            final QuerySearchResult result = context.queryResult();
+            result.readFromWithId(context.id(), value.reference.streamInput());
+            result.shardTarget(context.shardTarget());
+        }
+    }
+
+    private Value load(Key key, Loader loader, SearchContext context) throws Exception {
         Value value = cache.get(key, loader);
         if (loader.isLoaded()) {
             key.shard.requestCache().onMiss();
@@ -273,17 +309,101 @@ public class IndicesRequestCache extends AbstractComponent implements RemovalLis
             }
         } else {
             key.shard.requestCache().onHit();
-            // restore the cached query result into the context
-            final QuerySearchResult result = context.queryResult();
-            result.readFromWithId(context.id(), value.reference.streamInput());
-            result.shardTarget(context.shardTarget());
         }
+        return value;
+    }
+
+    /**
+     * @return the requested token ranges split at the ring tokens.
+     * Merged ranges change with the search routing, so cache keys are built on vnode sub-ranges instead.
+     */
+    private static TokenRanges vnodeRanges(ShardSearchRequest request) {
+        List<Token> tokens = StorageService.instance.getTokenMetadata().sortedTokens();
+        long[] ringTokens = new long[tokens.size()];
+        for (int i = 0; i < ringTokens.length; i++) {
+            ringTokens[i] = (Long) tokens.get(i).getTokenValue();
+        }
+        return TokenRanges.of(request.tokenRanges()).split(ringTokens);
+    }
+
+    /**
+     * Can the aggregation results be computed and cached per token range, then composed with a partial reduce ?
+     */
+    private boolean canCachePerTokenRange(ShardSearchRequest request, SearchContext context) {
+        IndexMetaData index = clusterService.state().getMetaData().index(request.index());
+        if (index == null || !index.getSettings().getAsBoolean(INDEX_CACHE_REQUEST_TOKEN_RANGES, Boolean.FALSE)) {
+            return false;
+        }
+        if (!(context instanceof DefaultSearchContext) || request.tokenRanges() == null) {
+            return false;
+        }
+        // token_range aggregations depend on the requested token ranges, hits and suggestions cannot be composed.
+        if (context.aggregations() == null || context.aggregations().factories().hasTokenRangeAggregation()
+                || !context.aggregations().factories().supportsPartialReduce()) {
+            return false;
+        }
+        return context.suggest() == null && context.getProfilers() == null && context.searchProcessor() == null;
+    }
+
+    /**
+     * Load or compute the query result of each vnode range of the request, and compose them into the
+     * {@link SearchContext#queryResult() context's query result} with a non-final reduce of aggregations.
+     */
+    private void loadPerTokenRangeIntoContext(final ShardSearchRequest request, final TokenRanges vnodeRanges,
+            final DefaultSearchContext context, final QueryPhase queryPhase) throws Exception {
+        final long readerVersion = ((DirectoryReader) context.searcher().getIndexReader()).getVersion();
+        final SearchContextAggregations aggregations = context.aggregations();
+        final List<InternalAggregations> aggregationsList = new ArrayList<>(vnodeRanges.size());
+        List<SiblingPipelineAggregator> pipelineAggregators = null;
+        long totalHits = 0;
+        float maxScore = Float.NEGATIVE_INFINITY;
+        boolean timedOut = false;
+        Boolean terminatedEarly = null;
+        try {
+            for (Range<Token> range : vnodeRanges) {
+                Key key = new Key(context.indexShard(), readerVersion, request.cacheKey(range));
+                Value value = load(key, new TokenRangeLoader(queryPhase, context, key, range, aggregations), context);
+
+                QuerySearchResult result = new QuerySearchResult();
+                result.readFromWithId(context.id(), value.reference.streamInput());
+                totalHits += result.topDocs().totalHits;
+                if (!Float.isNaN(result.topDocs().getMaxScore())) {
+                    maxScore = Math.max(maxScore, result.topDocs().getMaxScore());
+                }
+                timedOut |= result.searchTimedOut();
+                if (result.terminatedEarly() != null) {
+                    terminatedEarly = (terminatedEarly == null ? false : terminatedEarly) || result.terminatedEarly();
+                }
+                if (result.aggregations() != null) {
+                    aggregationsList.add((InternalAggregations) result.aggregations());
+                }
+                if (pipelineAggregators == null) {
+                    pipelineAggregators = result.pipelineAggregators();
+                }
+            }
+        } finally {
+            context.restrictTokenRanges(request.tokenRanges());
+        }
+
+        final QuerySearchResult result = context.queryResult();
+        result.topDocs(new TopDocs(totalHits, new ScoreDoc[0], Float.isInfinite(maxScore) ? Float.NaN : maxScore));
+        // the final reduce happens on the coordinating node
+        result.aggregations(InternalAggregations.reduce(aggregationsList,
+                new ReduceContext(context.bigArrays(), context.scriptService(), context, false)));
+        result.pipelineAggregators(pipelineAggregators);
+        result.searchTimedOut(timedOut);
+        if (terminatedEarly != null) {
+            result.terminatedEarly(terminatedEarly);
+        }
+        result.shardTarget(context.shardTarget());
+        // aggregations are disabled once executed, so that they don't run on next pages in case of scrolling
+        context.aggregations(null);
     }
 
     private static class Loader implements Callable<Value> {
 
-        private final QueryPhase queryPhase;
-        private final SearchContext context;
+        protected final QueryPhase queryPhase;
+        protected final SearchContext context;
         private final IndicesRequestCache.Key key;
         private boolean loaded;
 
@@ -297,9 +417,13 @@ public class IndicesRequestCache extends AbstractComponent implements RemovalLis
             return this.loaded;
         }
 
+        protected void execute() throws Exception {
+            queryPhase.execute(context);
+        }
+
         @Override
         public Value call() throws Exception {
-            queryPhase.execute(context);
+            execute();
 
             /* BytesStreamOutput allows to pass the expected size but by default uses
              * BigArrays.PAGE_SIZE_IN_BYTES which is 16k. A common cached result ie.
@@ -322,6 +446,30 @@ public class IndicesRequestCache extends AbstractComponent implements RemovalLis
         }
     }
 
+    /**
+     * Execute the query phase on a single token range, restoring the aggregations disabled by the previous execution.
+     */
+    private static class TokenRangeLoader extends Loader {
+
+        private final Range<Token> range;
+        private final SearchContextAggregations aggregations;
+
+        TokenRangeLoader(QueryPhase queryPhase, DefaultSearchContext context, IndicesRequestCache.Key key,
+                Range<Token> range, SearchContextAggregations aggregations) {
+            super(queryPhase, context, key);
+            this.range = range;
+            this.aggregations = aggregations;
+        }
+
+        @Override
+        protected void execute() throws Exception {
+            ((DefaultSearchContext) context).restrictTokenRanges(Collections.singletonList(range));
+            context.aggregations(new SearchContextAggregations(aggregations.factories()));
+            context.queryResult().aggregations(null);
+            queryPhase.execute(context);
+        }
+    }
+
     public static class Value implements Accountable {
         final BytesReference reference;
         final long ramBytesUsed;
@@ -33,11 +33,13 @@ import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.fielddata.AtomicFieldData;
 import org.elasticsearch.index.fielddata.FieldDataType;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardUtils;
@@ -45,7 +47,9 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  */
@@ -138,6 +142,8 @@ public class IndicesFieldDataCache extends AbstractComponent implements RemovalL
         final FieldDataType fieldDataType;
         private final Cache<Key, Accountable> cache;
         private final Listener[] listeners;
+        // last global ordinals loaded per shard, global ordinals of the next reader are updated from them
+        private final ConcurrentMap<ShardId, LastGlobalOrdinals> lastGlobalOrdinals = ConcurrentCollections.newConcurrentMap();
 
         IndexFieldCache(ESLogger logger,final Cache<Key, Accountable> cache, Index index, MappedFieldType.Names fieldNames, FieldDataType fieldDataType, Listener... listeners) {
             this.logger = logger;
@@ -187,7 +193,15 @@ public class IndicesFieldDataCache extends AbstractComponent implements RemovalL
                     for (Listener listener : listeners) {
                         key.listeners.add(listener);
                     }
-                    final Accountable ifd = (Accountable) indexFieldData.localGlobalDirect(indexReader);
+                    final Accountable ifd;
+                    if (shardId != null && indexFieldData instanceof IndexOrdinalsFieldData) {
+                        final LastGlobalOrdinals last = lastGlobalOrdinals.get(shardId);
+                        final IndexOrdinalsFieldData global = ((IndexOrdinalsFieldData) indexFieldData).localGlobalDirect(indexReader, last == null ? null : last.fieldData);
+                        lastGlobalOrdinals.put(shardId, new LastGlobalOrdinals(indexReader.getCoreCacheKey(), global));
+                        ifd = (Accountable) global;
+                    } else {
+                        ifd = (Accountable) indexFieldData.localGlobalDirect(indexReader);
+                    }
                     for (Listener listener : key.listeners) {
                         try {
                             listener.onCache(shardId, fieldNames, fieldDataType, ifd);
@@ -208,14 +222,26 @@ public class IndicesFieldDataCache extends AbstractComponent implements RemovalL
             // don't call cache.cleanUp here as it would have bad performance implications
         }
 
+        @Override
+        public boolean hasGlobalOrdinals(ShardId shardId) {
+            return lastGlobalOrdinals.containsKey(shardId);
+        }
+
         @Override
         public void onClose(IndexReader reader) {
+            for (Map.Entry<ShardId, LastGlobalOrdinals> entry : lastGlobalOrdinals.entrySet()) {
+                if (entry.getValue().readerKey == reader.getCoreCacheKey()) {
+                    // no newer reader loaded global ordinals, the shard is closed or the field is not used anymore
+                    lastGlobalOrdinals.remove(entry.getKey(), entry.getValue());
+                }
+            }
             cache.invalidate(new Key(this, reader.getCoreCacheKey(), null));
             // don't call cache.cleanUp here as it would have bad performance implications
         }
 
         @Override
         public void clear() {
+            lastGlobalOrdinals.clear();
             for (Key key : cache.asMap().keySet()) {
                 if (key.indexCache.index.equals(index)) {
                     cache.invalidate(key);
@@ -237,6 +263,9 @@ public class IndicesFieldDataCache extends AbstractComponent implements RemovalL
 
         @Override
         public void clear(String fieldName) {
+            if (fieldNames.fullName().equals(fieldName)) {
+                lastGlobalOrdinals.clear();
+            }
             for (Key key : cache.asMap().keySet()) {
                 if (key.indexCache.index.equals(index)) {
                     if (key.indexCache.fieldNames.fullName().equals(fieldName)) {
@@ -251,6 +280,16 @@ public class IndicesFieldDataCache extends AbstractComponent implements RemovalL
         }
     }
 
+    private static class LastGlobalOrdinals {
+        final Object readerKey;
+        final IndexOrdinalsFieldData fieldData;
+
+        LastGlobalOrdinals(Object readerKey, IndexOrdinalsFieldData fieldData) {
+            this.readerKey = readerKey;
+            this.fieldData = fieldData;
+        }
+    }
+
     public static class Key {
         public final IndexFieldCache indexCache;
         public final Object readerKey;
@@ -39,6 +39,7 @@ import org.elassandra.discovery.CassandraDiscoveryModule;
 import org.elassandra.gateway.CassandraGatewayModule;
 import org.elassandra.gateway.CassandraGatewayService;
 import org.elassandra.indices.CassandraIndicesClusterStateService;
+import org.elassandra.indices.cache.SourceCache;
 import org.elasticsearch.Build;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionModule;
@@ -424,6 +425,7 @@ public class Node implements Releasable {
         // close filter/fielddata caches after indices
         injector.getInstance(IndicesQueryCache.class).close();
         injector.getInstance(IndicesFieldDataCache.class).close();
+        injector.getInstance(SourceCache.class).close();
         injector.getInstance(IndicesStore.class).close();
         //stopWatch.stop().start("routing");
         //injector.getInstance(RoutingService.class).close();
@@ -18,6 +18,7 @@
  */
 package org.elasticsearch.percolator;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -108,6 +109,7 @@ public class PercolateContext extends SearchContext {
     private final BigArrays bigArrays;
     private final ScriptService scriptService;
     private final ConcurrentMap<BytesRef, Query> percolateQueries;
+    private Map<BytesRef, Query> candidateQueries;
     private final int numberOfShards;
     private final Query aliasFilter;
     private final long originNanoTime = System.nanoTime();
@@ -145,6 +147,7 @@ public class PercolateContext extends SearchContext {
         this.fieldDataService = indexService.fieldData();
         this.searchShardTarget = searchShardTarget;
         this.percolateQueries = indexShard.percolateRegistry().percolateQueries();
+        this.candidateQueries = percolateQueries;
         this.types = new String[]{request.documentType()};
         this.pageCacheRecycler = pageCacheRecycler;
         this.bigArrays = bigArrays.withCircuitBreaking();
@@ -166,6 +169,21 @@ public class PercolateContext extends SearchContext {
         this.docSearcher = docSearcher;
 
         IndexReader indexReader = docSearcher.reader();
+        try {
+            // only the queries whose extracted terms are in the document may match it
+            final Set<BytesRef> ids = indexShard.percolateRegistry().extractedTermsIndex().candidates(indexReader);
+            if (ids.size() < percolateQueries.size()) {
+                candidateQueries = new HashMap<>(ids.size());
+                for (BytesRef id : ids) {
+                    final Query query = percolateQueries.get(id);
+                    if (query != null) {
+                        candidateQueries.put(id, query);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new PercolateException(indexShard.shardId(), "failed to select the candidate queries", e);
+        }
         LeafReaderContext atomicReaderContext = indexReader.leaves().get(0);
         LeafSearchLookup leafLookup = lookup().getLeafSearchLookup(atomicReaderContext);
         leafLookup.setDocument(0);
@@ -194,6 +212,13 @@ public class PercolateContext extends SearchContext {
         return percolateQueries;
     }
 
+    /**
+     * Returns the registered queries that may match the percolated document.
+     */
+    public Map<BytesRef, Query> candidateQueries() {
+        return candidateQueries;
+    }
+
     public Query percolateQuery() {
         return percolateQuery;
     }
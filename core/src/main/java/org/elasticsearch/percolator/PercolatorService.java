@@ -461,7 +461,7 @@ public class PercolatorService extends AbstractComponent {
         @Override
         public PercolateShardResponse doPercolate(PercolateShardRequest request, PercolateContext context, boolean isNested) {
             long count = 0;
-            for (Map.Entry<BytesRef, Query> entry : context.percolateQueries().entrySet()) {
+            for (Map.Entry<BytesRef, Query> entry : context.candidateQueries().entrySet()) {
                 try {
                     Query existsQuery = entry.getValue();
                     if (isNested) {
@@ -558,7 +558,7 @@ public class PercolatorService extends AbstractComponent {
             List<Map<String, HighlightField>> hls = new ArrayList<>();
 
             Query tokenRangeQuery = InternalCassandraClusterService.newTokenRangeQuery(request.tokenRanges());
-            for (Map.Entry<BytesRef, Query> entry : context.percolateQueries().entrySet()) {
+            for (Map.Entry<BytesRef, Query> entry : context.candidateQueries().entrySet()) {
                 if (context.highlight() != null) {
                     context.parsedQuery(new ParsedQuery(entry.getValue()));
                     context.hitContext().cache().clear();
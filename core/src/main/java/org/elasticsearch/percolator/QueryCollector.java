@@ -44,7 +44,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  */
@@ -52,7 +51,7 @@ abstract class QueryCollector extends SimpleCollector {
 
     final IndexFieldData<?> uidFieldData;
     final IndexSearcher searcher;
-    final ConcurrentMap<BytesRef, Query> queries;
+    final Map<BytesRef, Query> queries;
     final ESLogger logger;
     boolean isNestedDoc = false;
 
@@ -65,7 +64,7 @@ abstract class QueryCollector extends SimpleCollector {
 
     QueryCollector(ESLogger logger, PercolateContext context, boolean isNestedDoc) throws IOException {
         this.logger = logger;
-        this.queries = context.percolateQueries();
+        this.queries = context.candidateQueries();
         this.searcher = context.docSearcher();
         final MappedFieldType uidMapper = context.mapperService().smartNameFieldType(UidFieldMapper.NAME);
         this.uidFieldData = context.fieldData().getForField(uidMapper);
@@ -57,6 +57,7 @@ import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.fielddata.FieldDataType;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsBuilder;
 import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.FieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
@@ -1081,6 +1082,9 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
         @Override
         public TerminationHandle warmTopReader(final IndexShard indexShard, IndexMetaData indexMetaData, final WarmerContext context, ThreadPool threadPool) {
             final MapperService mapperService = indexShard.mapperService();
+            final IndexFieldDataService indexFieldDataService = indexShard.indexFieldDataService();
+            // global ordinals already loaded for the previous reader are cheaply updated for the new one
+            final boolean incremental = GlobalOrdinalsBuilder.isIncremental(indexMetaData.getSettings());
             final Map<String, MappedFieldType> warmUpGlobalOrdinals = new HashMap<>();
             for (DocumentMapper docMapper : mapperService.docMappers(false)) {
                 for (FieldMapper fieldMapper : docMapper.mappers()) {
@@ -1102,7 +1106,8 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
                     if (fieldDataType == null) {
                         continue;
                     }
-                    if (fieldDataType.getLoading() != Loading.EAGER_GLOBAL_ORDINALS) {
+                    if (fieldDataType.getLoading() != Loading.EAGER_GLOBAL_ORDINALS
+                            && (incremental == false || indexFieldDataService.hasGlobalOrdinals(indexShard.shardId(), indexName) == false)) {
                         continue;
                     }
                     if (warmUpGlobalOrdinals.containsKey(indexName)) {
@@ -1111,7 +1116,6 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
                     warmUpGlobalOrdinals.put(indexName, fieldMapper.fieldType());
                 }
             }
-            final IndexFieldDataService indexFieldDataService = indexShard.indexFieldDataService();
             final Executor executor = threadPool.executor(executor());
             final CountDownLatch latch = new CountDownLatch(warmUpGlobalOrdinals.size());
             for (final MappedFieldType fieldType : warmUpGlobalOrdinals.values()) {
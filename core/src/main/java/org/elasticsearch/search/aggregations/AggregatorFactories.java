@@ -66,6 +66,19 @@ public class AggregatorFactories {
         return factories.length > 0 && (factories[0] instanceof org.elassandra.shard.aggregations.bucket.token.RangeAggregator.Factory);
     }
     
+    /**
+     * Returns true if these aggregations computed on disjoint subsets of the shard documents (like token ranges) can be
+     * merged into the shard result with a non-final reduce, see {@link InternalAggregation.ReduceContext#isFinalReduce()}.
+     */
+    public boolean supportsPartialReduce() {
+        for (AggregatorFactory factory : factories) {
+            if (!factory.supportsPartialReduce()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Create all aggregators so that they can be consumed with multiple
      * buckets.
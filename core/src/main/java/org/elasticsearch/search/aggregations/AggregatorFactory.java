@@ -28,8 +28,11 @@ import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.internal.SearchContext.Lifetime;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * A factory that knows how to create an {@link Aggregator} of a specific type.
@@ -70,6 +73,28 @@ public abstract class AggregatorFactory {
         return name;
     }
 
+    // aggregation types whose results on disjoint subsets of the documents can be merged by a partial reduce without losing accuracy.
+    private static final Set<String> PARTIALLY_REDUCIBLE_TYPES = new HashSet<>(Arrays.asList(
+            "avg", "cardinality", "extended_stats", "max", "min", "stats", "sum", "value_count", "percentiles", "percentile_ranks",
+            "filter", "filters", "missing", "nested", "reverse_nested",
+            "range", "date_range", "geo_distance", "ip_range", "histogram", "date_histogram"));
+
+    /**
+     * Returns true if the results of an aggregation type, named as its {@link InternalAggregation.Type}, computed on disjoint
+     * subsets of the documents can be merged with a non-final reduce.
+     */
+    public static boolean isPartiallyReducible(String type) {
+        return PARTIALLY_REDUCIBLE_TYPES.contains(type);
+    }
+
+    /**
+     * Returns true if this aggregation and its sub-aggregations computed on disjoint subsets of the shard documents can be
+     * merged with a non-final reduce, see {@link InternalAggregation.ReduceContext#isFinalReduce()}.
+     */
+    public boolean supportsPartialReduce() {
+        return isPartiallyReducible(type) && factories.supportsPartialReduce();
+    }
+
     /**
      * Validates the state of this factory (makes sure the factory is properly configured)
      */
@@ -361,7 +361,7 @@ public class InternalHistogram<B extends InternalHistogram.Bucket> extends Inter
                 if (top.current.key != key) {
                     // the key changes, reduce what we already buffered and reset the buffer for current buckets
                     final B reduced = currentBuckets.get(0).reduce(currentBuckets, reduceContext);
-                    if (reduced.getDocCount() >= minDocCount) {
+                    if (reduced.getDocCount() >= minDocCount || reduceContext.isFinalReduce() == false) {
                         reducedBuckets.add(reduced);
                     }
                     currentBuckets.clear();
@@ -382,7 +382,7 @@ public class InternalHistogram<B extends InternalHistogram.Bucket> extends Inter
 
             if (currentBuckets.isEmpty() == false) {
                 final B reduced = currentBuckets.get(0).reduce(currentBuckets, reduceContext);
-                if (reduced.getDocCount() >= minDocCount) {
+                if (reduced.getDocCount() >= minDocCount || reduceContext.isFinalReduce() == false) {
                     reducedBuckets.add(reduced);
                 }
             }
@@ -461,6 +461,12 @@ public class InternalHistogram<B extends InternalHistogram.Bucket> extends Inter
     public InternalAggregation doReduce(List<InternalAggregation> aggregations, ReduceContext reduceContext) {
         List<B> reducedBuckets = reduceBuckets(aggregations, reduceContext);
 
+        if (reduceContext.isFinalReduce() == false) {
+            // partial results are reduced again, keep all the buckets sorted by key
+            return getFactory().create(getName(), reducedBuckets, order, minDocCount, emptyBucketInfo, formatter, keyed, pipelineAggregators(),
+                    getMetaData());
+        }
+
         // adding empty buckets if needed
         if (minDocCount == 0) {
             addEmptyBuckets(reducedBuckets, reduceContext);
@@ -23,6 +23,7 @@ import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.ObjectObjectHashMap;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.CollectionStatistics;
+import org.apache.lucene.search.FieldComparator;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
@@ -30,6 +31,7 @@ import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermStatistics;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.util.PriorityQueue;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.common.HasContextAndHeaders;
 import org.elasticsearch.common.collect.HppcMaps;
@@ -40,9 +42,13 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.AggregatorFactory;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.bucket.InternalSingleBucketAggregation;
+import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
 import org.elasticsearch.search.aggregations.pipeline.SiblingPipelineAggregator;
 import org.elasticsearch.search.dfs.AggregatedDfs;
@@ -87,8 +93,13 @@ public class SearchPhaseController extends AbstractComponent {
     public static final ScoreDoc[] EMPTY_DOCS = new ScoreDoc[0];
     public static final String SEARCH_CONTROLLER_OPTIMIZE_SINGLE_SHARD_KEY = "search.controller.optimize_single_shard";
 
+    /** Number of shard results buffered before partially reducing their top docs and aggregations */
+    public static final String SEARCH_CONTROLLER_REDUCE_BATCH_SIZE_KEY = "search.controller.reduce_batch_size";
+    public static final int DEFAULT_REDUCE_BATCH_SIZE = 16;
+
     private final BigArrays bigArrays;
     private final boolean optimizeSingleShard;
+    private final int reduceBatchSize;
 
     private ScriptService scriptService;
 
@@ -98,6 +109,10 @@ public class SearchPhaseController extends AbstractComponent {
         this.bigArrays = bigArrays;
         this.scriptService = scriptService;
         this.optimizeSingleShard = settings.getAsBoolean(SEARCH_CONTROLLER_OPTIMIZE_SINGLE_SHARD_KEY, true);
+        this.reduceBatchSize = settings.getAsInt(SEARCH_CONTROLLER_REDUCE_BATCH_SIZE_KEY, DEFAULT_REDUCE_BATCH_SIZE);
+        if (reduceBatchSize < 2) {
+            throw new IllegalArgumentException(SEARCH_CONTROLLER_REDUCE_BATCH_SIZE_KEY + " must be >= 2 but was: " + reduceBatchSize);
+        }
     }
 
     public boolean optimizeSingleShard() {
@@ -303,24 +318,17 @@ public class SearchPhaseController extends AbstractComponent {
             AtomicArray<? extends FetchSearchResultProvider> fetchResultsArr, HasContextAndHeaders headersContext) {
 
         List<? extends AtomicArray.Entry<? extends QuerySearchResultProvider>> queryResults = queryResultsArr.asList();
-        List<? extends AtomicArray.Entry<? extends FetchSearchResultProvider>> fetchResults = fetchResultsArr.asList();
 
         if (queryResults.isEmpty()) {
             return InternalSearchResponse.empty();
         }
 
+        final long startTime = System.nanoTime();
         QuerySearchResult firstResult = queryResults.get(0).value.queryResult();
 
-        boolean sorted = false;
-        int sortScoreIndex = -1;
+        SortField[] sortFields = null;
         if (firstResult.topDocs() instanceof TopFieldDocs) {
-            sorted = true;
-            TopFieldDocs fieldDocs = (TopFieldDocs) firstResult.queryResult().topDocs();
-            for (int i = 0; i < fieldDocs.fields.length; i++) {
-                if (fieldDocs.fields[i].getType() == SortField.Type.SCORE) {
-                    sortScoreIndex = i;
-                }
-            }
+            sortFields = ((TopFieldDocs) firstResult.queryResult().topDocs()).fields;
         }
 
         // count the total (we use the query result provider here, since we might not get any hits (we scrolled past them))
@@ -349,12 +357,81 @@ public class SearchPhaseController extends AbstractComponent {
             maxScore = Float.NaN;
         }
 
+        // merge hits
+        List<InternalSearchHit> hits = mergeHits(sortedDocs, fetchResultsArr, sortFields);
+
+        // merge suggest results
+        Suggest suggest = null;
+        if (!queryResults.isEmpty()) {
+            final Map<String, List<Suggest.Suggestion>> groupedSuggestions = new HashMap<>();
+            boolean hasSuggestions = false;
+            for (AtomicArray.Entry<? extends QuerySearchResultProvider> entry : queryResults) {
+                Suggest shardResult = entry.value.queryResult().queryResult().suggest();
+
+                if (shardResult == null) {
+                    continue;
+                }
+                hasSuggestions = true;
+                Suggest.group(groupedSuggestions, shardResult);
+            }
+
+            suggest = hasSuggestions ? new Suggest(Suggest.Fields.SUGGEST, Suggest.reduce(groupedSuggestions)) : null;
+        }
+
+        // merge addAggregation
+        InternalAggregations aggregations = null;
+        if (!queryResults.isEmpty()) {
+            if (firstResult.aggregations() != null && firstResult.aggregations().asList() != null) {
+                List<InternalAggregations> aggregationsList = new ArrayList<>(queryResults.size());
+                for (AtomicArray.Entry<? extends QuerySearchResultProvider> entry : queryResults) {
+                    aggregationsList.add((InternalAggregations) entry.value.queryResult().aggregations());
+                }
+                aggregations = InternalAggregations.reduce(aggregationsList, new ReduceContext(bigArrays, scriptService, headersContext));
+            }
+        }
+
+        if (aggregations != null) {
+            aggregations = reduceSiblingPipelines(aggregations, firstResult.pipelineAggregators(), headersContext);
+        }
+
+        //Collect profile results
+        InternalProfileShardResults shardResults = null;
+        if (!queryResults.isEmpty() && firstResult.profileResults() != null) {
+            Map<String, List<ProfileShardResult>> profileResults = new HashMap<>(queryResults.size());
+            for (AtomicArray.Entry<? extends QuerySearchResultProvider> entry : queryResults) {
+                String key = entry.value.queryResult().shardTarget().toString();
+                profileResults.put(key, entry.value.queryResult().profileResults());
+            }
+            shardResults = new InternalProfileShardResults(profileResults, System.nanoTime() - startTime);
+        }
+
+        InternalSearchHits searchHits = new InternalSearchHits(hits.toArray(new InternalSearchHit[hits.size()]), totalHits, maxScore);
+
+        return new InternalSearchResponse(searchHits, aggregations, suggest, shardResults, timedOut, terminatedEarly);
+    }
+
+    /**
+     * Merges the fetched hits in the order of the sorted docs.
+     * @param sortFields the sort of the query phase top docs, or null when sorted by score
+     */
+    private static List<InternalSearchHit> mergeHits(ScoreDoc[] sortedDocs, AtomicArray<? extends FetchSearchResultProvider> fetchResultsArr,
+            SortField[] sortFields) {
+        List<? extends AtomicArray.Entry<? extends FetchSearchResultProvider>> fetchResults = fetchResultsArr.asList();
+        boolean sorted = sortFields != null;
+        int sortScoreIndex = -1;
+        if (sorted) {
+            for (int i = 0; i < sortFields.length; i++) {
+                if (sortFields[i].getType() == SortField.Type.SCORE) {
+                    sortScoreIndex = i;
+                }
+            }
+        }
+
         // clean the fetch counter
         for (AtomicArray.Entry<? extends FetchSearchResultProvider> entry : fetchResults) {
             entry.value.fetchResult().initCounter();
         }
 
-        // merge hits
         List<InternalSearchHit> hits = new ArrayList<>();
         if (!fetchResults.isEmpty()) {
             for (ScoreDoc shardDoc : sortedDocs) {
@@ -382,63 +459,277 @@ public class SearchPhaseController extends AbstractComponent {
             }
         }
 
-        // merge suggest results
-        Suggest suggest = null;
-        if (!queryResults.isEmpty()) {
-            final Map<String, List<Suggest.Suggestion>> groupedSuggestions = new HashMap<>();
-            boolean hasSuggestions = false;
-            for (AtomicArray.Entry<? extends QuerySearchResultProvider> entry : queryResults) {
-                Suggest shardResult = entry.value.queryResult().queryResult().suggest();
+        return hits;
+    }
 
-                if (shardResult == null) {
-                    continue;
+    private InternalAggregations reduceSiblingPipelines(InternalAggregations aggregations, List<SiblingPipelineAggregator> pipelineAggregators,
+            HasContextAndHeaders headersContext) {
+        if (pipelineAggregators == null) {
+            return aggregations;
+        }
+        List<InternalAggregation> newAggs = new ArrayList<>(eagerTransform(aggregations.asList(), PipelineAggregator.AGGREGATION_TRANFORM_FUNCTION));
+        for (SiblingPipelineAggregator pipelineAggregator : pipelineAggregators) {
+            InternalAggregation newAgg = pipelineAggregator.doReduce(new InternalAggregations(newAggs), new ReduceContext(
+                    bigArrays, scriptService, headersContext));
+            newAggs.add(newAgg);
+        }
+        return new InternalAggregations(newAggs);
+    }
+
+    /**
+     * Returns a consumer of the query results of a search, reducing their top docs and aggregations as they arrive.
+     */
+    public QueryPhaseResultConsumer newQueryPhaseResultConsumer(HasContextAndHeaders headersContext) {
+        return new QueryPhaseResultConsumer(headersContext, reduceBatchSize);
+    }
+
+    /**
+     * Consumes the query results of a search and reduces them incrementally, by batches of shard results, so that the
+     * coordinating node keeps at most one partially reduced result plus a batch of shard results rather than all the shard
+     * results. Top docs of a batch are merged into the top from+size docs, keeping their shard index for the fetch phase.
+     * Aggregations are partially reduced only when all the aggregations of a shard result support it (numeric metrics, single bucket,
+     * range, filters and histogram aggregations). Once a shard result contains other aggregations, like terms whose
+     * partial reduce would prune buckets, the remaining results are kept for the final reduce.
+     * Not suitable for scroll searches, which need all the shard hits of the first page.
+     */
+    public class QueryPhaseResultConsumer {
+        private final HasContextAndHeaders headersContext;
+        private final int batchSize;
+
+        private long totalHits = 0;
+        private float maxScore = Float.NEGATIVE_INFINITY;
+        private boolean timedOut = false;
+        private Boolean terminatedEarly = null;
+        private int from = 0;
+        private int size = 0;
+        private SortField[] sortFields = null;
+        private final List<ScoreDoc[]> topDocs = new ArrayList<>();
+        private List<SiblingPipelineAggregator> pipelineAggregators = null;
+        private final List<InternalAggregations> aggregations = new ArrayList<>();
+        private boolean partialReduce = true;
+        private int numReducePhases = 0;
+        private long reduceTimeInNanos = 0;
+        private Map<String, List<Suggest.Suggestion>> groupedSuggestions = null;
+        private Map<String, List<ProfileShardResult>> profileResults = null;
+
+        QueryPhaseResultConsumer(HasContextAndHeaders headersContext, int batchSize) {
+            this.headersContext = headersContext;
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Consumes the query result of a shard, then drops its top docs, aggregations, suggestions and profile results
+         * so that they can be garbage collected while waiting for other shards.
+         * @param shardIndex the position of the shard result, set on its docs
+         */
+        public synchronized void consume(int shardIndex, QuerySearchResult result) {
+            final long startTime = System.nanoTime();
+            if (result.searchTimedOut()) {
+                timedOut = true;
+            }
+            if (result.terminatedEarly() != null) {
+                if (terminatedEarly == null) {
+                    terminatedEarly = result.terminatedEarly();
+                } else if (result.terminatedEarly()) {
+                    terminatedEarly = true;
                 }
-                hasSuggestions = true;
-                Suggest.group(groupedSuggestions, shardResult);
             }
+            final TopDocs shardTopDocs = result.topDocs();
+            totalHits += shardTopDocs.totalHits;
+            if (!Float.isNaN(shardTopDocs.getMaxScore())) {
+                maxScore = Math.max(maxScore, shardTopDocs.getMaxScore());
+            }
+            from = result.from();
+            size = result.size();
+            if (shardTopDocs instanceof TopFieldDocs) {
+                sortFields = ((TopFieldDocs) shardTopDocs).fields;
+            }
+            if (shardTopDocs.scoreDocs.length > 0) {
+                for (ScoreDoc scoreDoc : shardTopDocs.scoreDocs) {
+                    scoreDoc.shardIndex = shardIndex;
+                }
+                topDocs.add(shardTopDocs.scoreDocs);
+                if (topDocs.size() >= batchSize) {
+                    ScoreDoc[] merged = mergeTopDocs(topDocs, sortFields, from + size);
+                    topDocs.clear();
+                    topDocs.add(merged);
+                }
+            }
+            if (result.suggest() != null) {
+                if (groupedSuggestions == null) {
+                    groupedSuggestions = new HashMap<>();
+                }
+                Suggest.group(groupedSuggestions, result.suggest());
+            }
+            if (result.profileResults() != null) {
+                if (profileResults == null) {
+                    profileResults = new HashMap<>();
+                }
+                profileResults.put(result.shardTarget().toString(), result.profileResults());
+            }
+            InternalAggregations shardAggregations = (InternalAggregations) result.aggregations();
+            if (shardAggregations != null && shardAggregations.asList() != null) {
+                if (pipelineAggregators == null) {
+                    pipelineAggregators = result.pipelineAggregators();
+                }
+                partialReduce = partialReduce && supportsPartialReduce(shardAggregations.asList());
+                aggregations.add(shardAggregations);
+                if (partialReduce && aggregations.size() >= batchSize) {
+                    InternalAggregations reduced = InternalAggregations.reduce(aggregations,
+                            new ReduceContext(bigArrays, scriptService, headersContext, false));
+                    aggregations.clear();
+                    aggregations.add(reduced);
+                    numReducePhases++;
+                }
+            }
+            result.topDocs(new TopDocs(shardTopDocs.totalHits, EMPTY_DOCS, shardTopDocs.getMaxScore()));
+            result.aggregations(null);
+            result.suggest(null);
+            result.profileResults(null);
+            reduceTimeInNanos += System.nanoTime() - startTime;
+        }
 
-            suggest = hasSuggestions ? new Suggest(Suggest.Fields.SUGGEST, Suggest.reduce(groupedSuggestions)) : null;
+        /**
+         * Number of partial reduces done so far.
+         */
+        public synchronized int getNumReducePhases() {
+            return numReducePhases;
         }
 
-        // merge addAggregation
-        InternalAggregations aggregations = null;
-        if (!queryResults.isEmpty()) {
-            if (firstResult.aggregations() != null && firstResult.aggregations().asList() != null) {
-                List<InternalAggregations> aggregationsList = new ArrayList<>(queryResults.size());
-                for (AtomicArray.Entry<? extends QuerySearchResultProvider> entry : queryResults) {
-                    aggregationsList.add((InternalAggregations) entry.value.queryResult().aggregations());
+        /**
+         * @return the docs to fetch, from the top docs of all the consumed shard results
+         */
+        public synchronized ScoreDoc[] sortedDocs() {
+            final long startTime = System.nanoTime();
+            try {
+                if (topDocs.isEmpty()) {
+                    return EMPTY_DOCS;
                 }
-                aggregations = InternalAggregations.reduce(aggregationsList, new ReduceContext(bigArrays, scriptService, headersContext));
+                ScoreDoc[] merged = topDocs.size() == 1 ? topDocs.get(0) : mergeTopDocs(topDocs, sortFields, from + size);
+                topDocs.clear();
+                topDocs.add(merged);
+                if (merged.length <= from) {
+                    return EMPTY_DOCS;
+                }
+                return Arrays.copyOfRange(merged, from, Math.min(merged.length, from + size));
+            } finally {
+                reduceTimeInNanos += System.nanoTime() - startTime;
             }
         }
 
-        //Collect profile results
-        InternalProfileShardResults shardResults = null;
-        if (!queryResults.isEmpty() && firstResult.profileResults() != null) {
-            Map<String, List<ProfileShardResult>> profileResults = new HashMap<>(queryResults.size());
-            for (AtomicArray.Entry<? extends QuerySearchResultProvider> entry : queryResults) {
-                String key = entry.value.queryResult().shardTarget().toString();
-                profileResults.put(key, entry.value.queryResult().profileResults());
+        /**
+         * Reduces the consumed results of a search without hits.
+         */
+        public InternalSearchResponse reduce() {
+            return reduce(EMPTY_DOCS, new AtomicArray<FetchSearchResultProvider>(0));
+        }
+
+        /**
+         * Reduces the consumed results, merging the fetched hits in the order of the {@link #sortedDocs() sorted docs}.
+         */
+        public synchronized InternalSearchResponse reduce(ScoreDoc[] sortedDocs, AtomicArray<? extends FetchSearchResultProvider> fetchResults) {
+            final long startTime = System.nanoTime();
+            List<InternalSearchHit> hits = mergeHits(sortedDocs, fetchResults, sortFields);
+            InternalAggregations reduced = null;
+            if (aggregations.isEmpty() == false) {
+                reduced = InternalAggregations.reduce(aggregations, new ReduceContext(bigArrays, scriptService, headersContext));
+                reduced = reduceSiblingPipelines(reduced, pipelineAggregators, headersContext);
             }
-            shardResults = new InternalProfileShardResults(profileResults);
+            Suggest suggest = groupedSuggestions == null ? null : new Suggest(Suggest.Fields.SUGGEST, Suggest.reduce(groupedSuggestions));
+            reduceTimeInNanos += System.nanoTime() - startTime;
+            InternalProfileShardResults shardResults = profileResults == null ? null : new InternalProfileShardResults(profileResults, reduceTimeInNanos);
+            InternalSearchHits searchHits = new InternalSearchHits(hits.toArray(new InternalSearchHit[hits.size()]), totalHits,
+                    Float.isInfinite(maxScore) ? Float.NaN : maxScore);
+            return new InternalSearchResponse(searchHits, reduced, suggest, shardResults, timedOut, terminatedEarly);
         }
+    }
 
-        if (aggregations != null) {
-            List<SiblingPipelineAggregator> pipelineAggregators = firstResult.pipelineAggregators();
-            if (pipelineAggregators != null) {
-                List<InternalAggregation> newAggs = new ArrayList<>(eagerTransform(aggregations.asList(), PipelineAggregator.AGGREGATION_TRANFORM_FUNCTION));
-                for (SiblingPipelineAggregator pipelineAggregator : pipelineAggregators) {
-                    InternalAggregation newAgg = pipelineAggregator.doReduce(new InternalAggregations(newAggs), new ReduceContext(
-                            bigArrays, scriptService, headersContext));
-                    newAggs.add(newAgg);
+    /**
+     * Merges sorted lists of docs into the top n docs, like {@link TopDocs#merge} but keeping the shard index of the docs,
+     * so that lists of already merged docs can be merged again.
+     * @param sortFields the sort of the docs, or null when sorted by score
+     */
+    @SuppressWarnings("unchecked")
+    static ScoreDoc[] mergeTopDocs(List<ScoreDoc[]> docs, SortField[] sortFields, int n) {
+        final Comparator<ScoreDoc> comparator;
+        if (sortFields == null) {
+            comparator = new Comparator<ScoreDoc>() {
+                @Override
+                public int compare(ScoreDoc a, ScoreDoc b) {
+                    int cmp = Float.compare(b.score, a.score);
+                    return cmp != 0 ? cmp : Integer.compare(a.shardIndex, b.shardIndex);
                 }
-                aggregations = new InternalAggregations(newAggs);
+            };
+        } else {
+            final FieldComparator<Object>[] comparators = new FieldComparator[sortFields.length];
+            final int[] reverseMul = new int[sortFields.length];
+            for (int i = 0; i < sortFields.length; i++) {
+                try {
+                    comparators[i] = (FieldComparator<Object>) sortFields[i].getComparator(1, i);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to create comparator for sort field [" + sortFields[i] + "]", e);
+                }
+                reverseMul[i] = sortFields[i].getReverse() ? -1 : 1;
             }
+            comparator = new Comparator<ScoreDoc>() {
+                @Override
+                public int compare(ScoreDoc a, ScoreDoc b) {
+                    for (int i = 0; i < comparators.length; i++) {
+                        int cmp = reverseMul[i] * comparators[i].compareValues(((FieldDoc) a).fields[i], ((FieldDoc) b).fields[i]);
+                        if (cmp != 0) {
+                            return cmp;
+                        }
+                    }
+                    return Integer.compare(a.shardIndex, b.shardIndex);
+                }
+            };
         }
 
-        InternalSearchHits searchHits = new InternalSearchHits(hits.toArray(new InternalSearchHit[hits.size()]), totalHits, maxScore);
+        // docs of a shard are all in the same list, so comparing the heads of the lists never compares docs of the same shard
+        PriorityQueue<int[]> queue = new PriorityQueue<int[]>(docs.size()) {
+            @Override
+            protected boolean lessThan(int[] a, int[] b) {
+                return comparator.compare(docs.get(a[0])[a[1]], docs.get(b[0])[b[1]]) < 0;
+            }
+        };
+        int total = 0;
+        for (int i = 0; i < docs.size(); i++) {
+            if (docs.get(i).length > 0) {
+                queue.add(new int[] { i, 0 });
+                total += docs.get(i).length;
+            }
+        }
+        ScoreDoc[] merged = new ScoreDoc[Math.min(n, total)];
+        for (int i = 0; i < merged.length; i++) {
+            int[] top = queue.top();
+            merged[i] = docs.get(top[0])[top[1]];
+            if (++top[1] < docs.get(top[0]).length) {
+                queue.updateTop();
+            } else {
+                queue.pop();
+            }
+        }
+        return merged;
+    }
 
-        return new InternalSearchResponse(searchHits, aggregations, suggest, shardResults, timedOut, terminatedEarly);
+    private static boolean supportsPartialReduce(List<? extends Aggregation> aggregations) {
+        for (Aggregation aggregation : aggregations) {
+            if (AggregatorFactory.isPartiallyReducible(((InternalAggregation) aggregation).type().name()) == false) {
+                return false;
+            }
+            if (aggregation instanceof InternalSingleBucketAggregation) {
+                if (supportsPartialReduce(((InternalSingleBucketAggregation) aggregation).getAggregations().asList()) == false) {
+                    return false;
+                }
+            } else if (aggregation instanceof MultiBucketsAggregation) {
+                for (MultiBucketsAggregation.Bucket bucket : ((MultiBucketsAggregation) aggregation).getBuckets()) {
+                    if (supportsPartialReduce(bucket.getAggregations().asList()) == false) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
     }
 
 }
@@ -41,6 +41,7 @@ import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.BitSet;
 import org.elassandra.cluster.InternalCassandraClusterService;
+import org.elassandra.search.DocValuesSourceLoader;
 import org.elassandra.index.mapper.internal.NodeFieldMapper;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.cluster.ClusterService;
@@ -169,6 +170,9 @@ public class FetchPhase implements SearchPhase {
             }
         }
 
+        IndexMetaData indexMetaData = clusterService.state().metaData().index(context.request().index());
+        DocValuesSourceLoader docValuesLoader = (indexMetaData == null) ? null : DocValuesSourceLoader.create(context, indexMetaData.getSettings(), fieldsVisitor);
+
         InternalSearchHit[] hits = new InternalSearchHit[context.docIdsToLoadSize()];
         FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
         for (int index = 0; index < context.docIdsToLoadSize(); index++) {
@@ -183,7 +187,7 @@ public class FetchPhase implements SearchPhase {
                 if (rootDocId != -1) {
                     searchHit = createNestedSearchHit(context, docId, subDocId, rootDocId, extractFieldNames, loadAllStored, fieldNames, fieldNamePatterns, subReaderContext);
                 } else {
-                    searchHit = createSearchHit(context, fieldsVisitor, docId, subDocId, extractFieldNames, subReaderContext);
+                    searchHit = createSearchHit(context, fieldsVisitor, docValuesLoader, docId, subDocId, extractFieldNames, subReaderContext);
                 }
             } catch (IOException e) {
                 throw ExceptionsHelper.convertToElastic(e);
@@ -217,8 +221,8 @@ public class FetchPhase implements SearchPhase {
         return -1;
     }
 
-    private InternalSearchHit createSearchHit(SearchContext context, FieldsVisitor fieldsVisitor, int docId, int subDocId, List<String> extractFieldNames, LeafReaderContext subReaderContext) {
-        loadStoredFields(context, subReaderContext, fieldsVisitor, subDocId);
+    private InternalSearchHit createSearchHit(SearchContext context, FieldsVisitor fieldsVisitor, DocValuesSourceLoader docValuesLoader, int docId, int subDocId, List<String> extractFieldNames, LeafReaderContext subReaderContext) {
+        loadStoredFields(context, subReaderContext, fieldsVisitor, docValuesLoader, subDocId);
         fieldsVisitor.postProcess(context.mapperService());
 
         Map<String, SearchHitField> searchFields = null;
@@ -416,9 +420,16 @@ public class FetchPhase implements SearchPhase {
     }
 
     private void loadStoredFields(SearchContext searchContext, LeafReaderContext readerContext, FieldsVisitor fieldVisitor, int docId) {
+        loadStoredFields(searchContext, readerContext, fieldVisitor, null, docId);
+    }
+
+    private void loadStoredFields(SearchContext searchContext, LeafReaderContext readerContext, FieldsVisitor fieldVisitor, DocValuesSourceLoader docValuesLoader, int docId) {
         fieldVisitor.reset();
         try {
             readerContext.reader().document(docId, fieldVisitor);
+            // rebuild requested fields and source from doc values when possible, otherwise fetch from cassandra.
+            if (docValuesLoader != null && docValuesLoader.load(readerContext, docId, fieldVisitor))
+                return;
         } catch (IOException e) {
             throw new FetchPhaseExecutionException(searchContext, "Failed to fetch doc id [" + docId + "]", e);
         }
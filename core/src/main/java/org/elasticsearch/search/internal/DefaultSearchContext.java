@@ -21,11 +21,14 @@ package org.elasticsearch.search.internal;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Collector;
@@ -145,6 +148,7 @@ public class DefaultSearchContext extends SearchContext {
      * The query to actually execute.
      */
     private Query query;
+    private Query queryWithoutTokenRanges;
     private ParsedQuery postFilter;
     private Query aliasFilter;
     private int[] docIdsToLoad;
@@ -251,6 +255,7 @@ public class DefaultSearchContext extends SearchContext {
             this.searchProcessor.preProcess(this);
         }
 
+        this.queryWithoutTokenRanges = this.query;
         Query tokenRangeQuery = null;
         if ( (this.request.tokenRanges() != null) && 
              (this.aggregations == null ||  this.aggregations.factories() == null || !this.aggregations.factories().hasTokenRangeAggregation()) ) {
@@ -284,6 +289,31 @@ public class DefaultSearchContext extends SearchContext {
         }
     }
 
+    /**
+     * Restrict the query to the provided token ranges instead of the request token ranges,
+     * to compute the results of a subset of the requested token ranges.
+     */
+    public void restrictTokenRanges(Collection<Range<Token>> tokenRanges) {
+        Query tokenRangeQuery = InternalCassandraClusterService.newTokenRangeQuery(tokenRanges);
+        Query searchFilter = searchFilter(types());
+        Query q = queryWithoutTokenRanges;
+        if (tokenRangeQuery != null || searchFilter != null) {
+            BooleanQuery.Builder filtered = new BooleanQuery.Builder().add(queryWithoutTokenRanges, Occur.MUST);
+            if (searchFilter != null) {
+                filtered.add(searchFilter, Occur.FILTER);
+            }
+            if (tokenRangeQuery != null) {
+                filtered.add(tokenRangeQuery, Occur.FILTER);
+            }
+            q = filtered.build();
+        }
+        try {
+            this.query = searcher().rewrite(q);
+        } catch (IOException e) {
+            throw new QueryPhaseExecutionException(this, "Failed to rewrite main query", e);
+        }
+    }
+
     private ParsedQuery buildFilteredQuery() {
         Query searchFilter = searchFilter(types());
         if (searchFilter == null) {
@@ -22,11 +22,12 @@ package org.elasticsearch.search.internal;
 import static org.elasticsearch.search.Scroll.readScroll;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 import org.apache.cassandra.dht.Range;
 import org.apache.cassandra.dht.Token;
+import org.elassandra.cluster.routing.TokenRanges;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.cluster.routing.ShardRouting;
@@ -78,7 +79,7 @@ public class ShardSearchLocalRequest extends ContextAndHeaderHolder implements S
 
     private boolean profile;
     
-    private Collection<Range<Token>> tokenRanges = null;
+    private TokenRanges tokenRanges = null;
 
     ShardSearchLocalRequest() {
     }
@@ -96,7 +97,7 @@ public class ShardSearchLocalRequest extends ContextAndHeaderHolder implements S
         copyContextAndHeadersFrom(searchRequest);
         
      // Use the user provided token_range of the shardRouting one.
-        this.tokenRanges = (searchRequest.tokenRanges() != null) ? searchRequest.tokenRanges() : shardRouting.tokenRanges();
+        this.tokenRanges = TokenRanges.of((searchRequest.tokenRanges() != null) ? searchRequest.tokenRanges() : shardRouting.tokenRanges());
     }
 
     public ShardSearchLocalRequest(String[] types, long nowInMillis) {
@@ -120,7 +121,7 @@ public class ShardSearchLocalRequest extends ContextAndHeaderHolder implements S
         this.requestCache = requestCache;
         
         // Use the user provided token_range of the shardRouting one.
-        this.tokenRanges = shardRouting.tokenRanges();
+        this.tokenRanges = TokenRanges.of(shardRouting.tokenRanges());
     }
 
     @Override
@@ -226,16 +227,14 @@ public class ShardSearchLocalRequest extends ContextAndHeaderHolder implements S
         }
         requestCache = in.readOptionalBoolean();
         
-        // read tokenRanges
-        Object[] tokens = (Object[]) in.readGenericValue();
-        this.tokenRanges = new ArrayList<Range<Token>>(tokens.length / 2);
-        for (int i = 0; i < tokens.length;) {
-            Range<Token> range = new Range<Token>((Token) tokens[i++], (Token) tokens[i++]);
-            this.tokenRanges.add(range);
-        }
+        this.tokenRanges = TokenRanges.readOptionalFrom(in);
     }
 
     protected void innerWriteTo(StreamOutput out, boolean asKey) throws IOException {
+        innerWriteTo(out, asKey, this.tokenRanges);
+    }
+
+    private void innerWriteTo(StreamOutput out, boolean asKey, TokenRanges tokenRanges) throws IOException {
         out.writeString(index);
         out.writeVInt(shardId);
         out.writeByte(searchType.id());
@@ -264,16 +263,7 @@ public class ShardSearchLocalRequest extends ContextAndHeaderHolder implements S
         }
         out.writeOptionalBoolean(requestCache);
         
-        // write tokenRanges
-        if (tokenRanges != null) {
-            Token[] tokens = new Token[tokenRanges.size() * 2];
-            int i = 0;
-            for (Range<Token> range : tokenRanges) {
-                tokens[i++] = range.left;
-                tokens[i++] = range.right;
-            }
-            out.writeGenericValue(tokens);
-        }
+        TokenRanges.writeOptionalTo(tokenRanges, out);
     }
 
     @Override
@@ -284,6 +274,13 @@ public class ShardSearchLocalRequest extends ContextAndHeaderHolder implements S
         // we could potentially keep it without copying, but then pay the price of extra unused bytes up to a page
         return out.bytes().copyBytesArray();
     }
+
+    @Override
+    public BytesReference cacheKey(Range<Token> tokenRange) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        this.innerWriteTo(out, true, TokenRanges.of(Collections.singletonList(tokenRange)));
+        return out.bytes().copyBytesArray();
+    }
     
 
     @Override
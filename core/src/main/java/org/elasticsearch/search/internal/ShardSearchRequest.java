@@ -80,6 +80,11 @@ public interface ShardSearchRequest extends HasContextAndHeaders {
      * Returns the cache key for this shard search request, based on its content
      */
     BytesReference cacheKey() throws IOException;
+
+    /**
+     * Returns the cache key for this shard search request restricted to one of its token ranges
+     */
+    BytesReference cacheKey(Range<Token> tokenRange) throws IOException;
     
     /**
      * Returns the token range for this request
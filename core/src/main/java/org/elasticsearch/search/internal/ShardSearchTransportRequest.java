@@ -164,6 +164,11 @@ public class ShardSearchTransportRequest extends TransportRequest implements Sha
         return shardSearchLocalRequest.cacheKey();
     }
 
+    @Override
+    public BytesReference cacheKey(Range<Token> tokenRange) throws IOException {
+        return shardSearchLocalRequest.cacheKey(tokenRange);
+    }
+
     @Override
     public void setProfile(boolean profile) {
         shardSearchLocalRequest.setProfile(profile);
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.search.profile;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -36,6 +37,14 @@ public final class InternalProfileShardResults implements Writeable<InternalProf
 
     private Map<String, List<ProfileShardResult>> shardResults;
 
+    /** Time spent by the coordinating node to reduce the shard results, or -1 if unknown */
+    private long reduceTimeInNanos = -1;
+
+    public InternalProfileShardResults(Map<String, List<ProfileShardResult>> shardResults, long reduceTimeInNanos) {
+        this(shardResults);
+        this.reduceTimeInNanos = reduceTimeInNanos;
+    }
+
     public InternalProfileShardResults(Map<String, List<ProfileShardResult>> shardResults) {
         for (Map.Entry<String, List<ProfileShardResult>> entry : shardResults.entrySet()) {
             List<ProfileShardResult> value = entry.getValue();
@@ -63,12 +72,22 @@ public final class InternalProfileShardResults implements Writeable<InternalProf
             shardResults.put(key, Collections.unmodifiableList(shardResult));
         }
         shardResults = Collections.unmodifiableMap(shardResults);
+        if (in.getVersion().onOrAfter(Version.V_2_4_3)) {
+            reduceTimeInNanos = in.readLong();
+        }
     }
 
     public Map<String, List<ProfileShardResult>> getShardResults() {
         return this.shardResults;
     }
 
+    /**
+     * @return the time spent reducing the shard results on the coordinating node, or -1 if unknown
+     */
+    public long getReduceTimeInNanos() {
+        return this.reduceTimeInNanos;
+    }
+
     @Override
     public InternalProfileShardResults readFrom(StreamInput in) throws IOException {
         return new InternalProfileShardResults(in);
@@ -85,6 +104,9 @@ public final class InternalProfileShardResults implements Writeable<InternalProf
                 result.writeTo(out);
             }
         }
+        if (out.getVersion().onOrAfter(Version.V_2_4_3)) {
+            out.writeLong(reduceTimeInNanos);
+        }
     }
 
     @Override
@@ -101,7 +123,11 @@ public final class InternalProfileShardResults implements Writeable<InternalProf
             builder.endArray().endObject();
         }
 
-        builder.endArray().endObject();
+        builder.endArray();
+        if (reduceTimeInNanos >= 0) {
+            builder.field("reduce_time", String.format(Locale.US, "%.10gms", (double) (reduceTimeInNanos / 1000000.0)));
+        }
+        builder.endObject();
         return builder;
     }
 }
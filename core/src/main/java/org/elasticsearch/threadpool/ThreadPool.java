@@ -22,6 +22,7 @@ package org.elasticsearch.threadpool;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.lucene.util.Counter;
+import org.elassandra.threadpool.SharedPoolExecutor;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.settings.Validator;
 import org.elasticsearch.common.Nullable;
@@ -325,6 +326,14 @@ public class ThreadPool extends AbstractComponent {
                 if (rejectedExecutionHandler instanceof XRejectedExecutionHandler) {
                     rejected = ((XRejectedExecutionHandler) rejectedExecutionHandler).rejected();
                 }
+            } else if (holder.executor() instanceof SharedPoolExecutor) {
+                SharedPoolExecutor sharedPoolExecutor = (SharedPoolExecutor) holder.executor();
+                threads = sharedPoolExecutor.getActiveCount();
+                queue = sharedPoolExecutor.getQueueSize();
+                active = sharedPoolExecutor.getActiveCount();
+                largest = sharedPoolExecutor.getLargestActiveCount();
+                completed = sharedPoolExecutor.getCompletedTaskCount();
+                rejected = sharedPoolExecutor.getRejectedCount();
             }
             stats.add(new ThreadPoolStats.Stats(name, threads, queue, active, rejected, largest, completed));
         }
@@ -389,8 +398,8 @@ public class ThreadPool extends AbstractComponent {
         estimatedTimeThread.interrupt();
         scheduler.shutdown();
         for (ExecutorHolder executor : executors.values()) {
-            if (executor.executor() instanceof ThreadPoolExecutor) {
-                ((ThreadPoolExecutor) executor.executor()).shutdown();
+            if (executor.executor() instanceof ExecutorService) {
+                ((ExecutorService) executor.executor()).shutdown();
             }
         }
     }
@@ -400,24 +409,24 @@ public class ThreadPool extends AbstractComponent {
         estimatedTimeThread.interrupt();
         scheduler.shutdownNow();
         for (ExecutorHolder executor : executors.values()) {
-            if (executor.executor() instanceof ThreadPoolExecutor) {
-                ((ThreadPoolExecutor) executor.executor()).shutdownNow();
+            if (executor.executor() instanceof ExecutorService) {
+                ((ExecutorService) executor.executor()).shutdownNow();
             }
         }
         while (!retiredExecutors.isEmpty()) {
-            ((ThreadPoolExecutor) retiredExecutors.remove().executor()).shutdownNow();
+            ((ExecutorService) retiredExecutors.remove().executor()).shutdownNow();
         }
     }
 
     public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
         boolean result = scheduler.awaitTermination(timeout, unit);
         for (ExecutorHolder executor : executors.values()) {
-            if (executor.executor() instanceof ThreadPoolExecutor) {
-                result &= ((ThreadPoolExecutor) executor.executor()).awaitTermination(timeout, unit);
+            if (executor.executor() instanceof ExecutorService) {
+                result &= ((ExecutorService) executor.executor()).awaitTermination(timeout, unit);
             }
         }
         while (!retiredExecutors.isEmpty()) {
-            ThreadPoolExecutor executor = (ThreadPoolExecutor) retiredExecutors.remove().executor();
+            ExecutorService executor = (ExecutorService) retiredExecutors.remove().executor();
             result &= executor.awaitTermination(timeout, unit);
         }
         estimatedTimeThread.join(unit.toMillis(timeout));
@@ -479,6 +488,11 @@ public class ThreadPool extends AbstractComponent {
             SizeValue defaultQueueSize = getAsSizeOrUnbounded(defaultSettings, "queue", getAsSizeOrUnbounded(defaultSettings, "queue_size", null));
 
             if (previousExecutorHolder != null) {
+                if (previousExecutorHolder.executor() instanceof SharedPoolExecutor) {
+                    // the concurrency of a Cassandra shared pool executor cannot be updated.
+                    logger.warn("thread_pool [{}] runs on the cassandra shared pool and cannot be updated", name);
+                    return previousExecutorHolder;
+                }
                 if (ThreadPoolType.FIXED == previousInfo.getThreadPoolType()) {
                     SizeValue updatedQueueSize = getAsSizeOrUnbounded(settings, "capacity", getAsSizeOrUnbounded(settings, "queue", getAsSizeOrUnbounded(settings, "queue_size", previousInfo.getQueueSize())));
                     if (Objects.equals(previousInfo.getQueueSize(), updatedQueueSize)) {
@@ -506,8 +520,15 @@ public class ThreadPool extends AbstractComponent {
 
             int size = applyHardSizeLimit(name, settings.getAsInt("size", defaultSize));
             SizeValue queueSize = getAsSizeOrUnbounded(settings, "capacity", getAsSizeOrUnbounded(settings, "queue", getAsSizeOrUnbounded(settings, "queue_size", defaultQueueSize)));
-            logger.debug("creating thread_pool [{}], type [{}], size [{}], queue_size [{}]", name, type, size, queueSize);
-            Executor executor = EsExecutors.newFixed(name, size, queueSize == null ? -1 : (int) queueSize.singles(), threadFactory);
+            Executor executor;
+            if (settings.getAsBoolean("shared", defaultSettings.getAsBoolean("shared", false))) {
+                // no dedicated threads, size is the maximum number of tasks concurrently running on the cassandra shared pool.
+                logger.debug("creating thread_pool [{}], type [{}], size [{}], queue_size [{}] on the cassandra shared pool", name, type, size, queueSize);
+                executor = new SharedPoolExecutor(name, size, queueSize == null ? -1 : (int) queueSize.singles());
+            } else {
+                logger.debug("creating thread_pool [{}], type [{}], size [{}], queue_size [{}]", name, type, size, queueSize);
+                executor = EsExecutors.newFixed(name, size, queueSize == null ? -1 : (int) queueSize.singles(), threadFactory);
+            }
             return new ExecutorHolder(executor, new Info(name, threadPoolType, size, size, null, queueSize));
         } else if (ThreadPoolType.SCALING == threadPoolType) {
             TimeValue defaultKeepAlive = defaultSettings.getAsTime("keep_alive", timeValueMinutes(5));
@@ -771,7 +792,7 @@ public class ThreadPool extends AbstractComponent {
         public final Info info;
 
         ExecutorHolder(Executor executor, Info info) {
-            assert executor instanceof EsThreadPoolExecutor || executor == MoreExecutors.directExecutor();
+            assert executor instanceof EsThreadPoolExecutor || executor instanceof SharedPoolExecutor || executor == MoreExecutors.directExecutor();
             this.executor = executor;
             this.info = info;
         }
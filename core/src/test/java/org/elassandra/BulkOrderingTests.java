@@ -0,0 +1,78 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class BulkOrderingTests extends ESSingleNodeTestCase {
+
+    private void createTestIndex() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .addMapping("t1", "{\"t1\":{\"properties\":{\"name\":{\"type\":\"string\",\"index\":\"not_analyzed\",\"cql_collection\":\"singleton\"}}}}")
+                .get());
+        ensureGreen("test");
+    }
+
+    private String name(String id) {
+        GetResponse rsp = client().prepareGet("test", "t1", id).get();
+        return rsp.isExists() ? (String) rsp.getSource().get("name") : null;
+    }
+
+    @Test
+    public void testAsyncIndex() throws Exception {
+        createTestIndex();
+        List<ListenableActionFuture<IndexResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(client().prepareIndex("test", "t1", Integer.toString(i)).setSource("{\"name\":\"n" + i + "\"}").execute());
+        }
+        for (ListenableActionFuture<IndexResponse> future : futures) {
+            future.actionGet();
+        }
+        for (int i = 0; i < 50; i++) {
+            assertThat(name(Integer.toString(i)), equalTo("n" + i));
+        }
+    }
+
+    @Test
+    public void testBulkOrdering() throws Exception {
+        createTestIndex();
+        BulkRequestBuilder bulk = client().prepareBulk();
+        // a run of distinct ids written concurrently.
+        for (int i = 0; i < 10; i++) {
+            bulk.add(client().prepareIndex("test", "t1", "run" + i).setSource("{\"name\":\"r" + i + "\"}"));
+        }
+        // delete after index of the same id.
+        bulk.add(client().prepareIndex("test", "t1", "1").setSource("{\"name\":\"a\"}"));
+        bulk.add(client().prepareDelete("test", "t1", "1"));
+        // index twice the same id.
+        bulk.add(client().prepareIndex("test", "t1", "2").setSource("{\"name\":\"a\"}"));
+        bulk.add(client().prepareIndex("test", "t1", "2").setSource("{\"name\":\"b\"}"));
+        // update after index of the same id.
+        bulk.add(client().prepareIndex("test", "t1", "3").setSource("{\"name\":\"a\"}"));
+        bulk.add(client().prepareUpdate("test", "t1", "3").setDoc("{\"name\":\"c\"}"));
+        // index after delete of the same id.
+        bulk.add(client().prepareDelete("test", "t1", "4"));
+        bulk.add(client().prepareIndex("test", "t1", "4").setSource("{\"name\":\"d\"}"));
+        BulkResponse rsp = bulk.get();
+        assertThat(rsp.buildFailureMessage(), rsp.hasFailures(), equalTo(false));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(name("run" + i), equalTo("r" + i));
+        }
+        assertThat(name("1"), nullValue());
+        assertThat(name("2"), equalTo("b"));
+        assertThat(name("3"), equalTo("c"));
+        assertThat(name("4"), equalTo("d"));
+    }
+}
@@ -0,0 +1,34 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.indices.breaker.AllCircuitBreakerStats;
+import org.elasticsearch.indices.breaker.CircuitBreakerStats;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class CassandraCircuitBreakerTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testMemtablesAccountedInParent() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test").get());
+        ensureGreen("test");
+        for (int i = 0; i < 100; i++)
+            client().prepareIndex("test", "t1", Integer.toString(i)).setSource("{\"name\":\"name" + i + "\"}").get();
+        assertThat(process(ConsistencyLevel.ONE, "SELECT * FROM test.t1").size(), equalTo(100));
+
+        AllCircuitBreakerStats stats = client().admin().cluster().prepareNodesStats().setBreaker(true).get().getNodes()[0].getBreaker();
+        CircuitBreakerStats cassandra = stats.getStats(CircuitBreaker.CASSANDRA);
+        assertThat(cassandra, notNullValue());
+        assertThat(cassandra.getLimit(), equalTo(-1L));
+        assertThat(cassandra.getTrippedCount(), equalTo(0L));
+        assertThat(cassandra.getEstimated(), greaterThan(0L));
+        assertThat(stats.getStats(CircuitBreaker.PARENT).getEstimated(), greaterThanOrEqualTo(cassandra.getEstimated()));
+    }
+}
@@ -0,0 +1,83 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Map;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class DocValuesFetchTests extends ESSingleNodeTestCase {
+
+    private void createTestIndex() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .setSettings(Settings.builder().put(IndexMetaData.SETTING_FETCH_FROM_DOC_VALUES, true).build())
+                .addMapping("t1", XContentFactory.jsonBuilder().startObject().startObject("t1").startObject("properties")
+                        .startObject("price").field("type", "float").field("cql_collection", "singleton").endObject()
+                        .startObject("count").field("type", "long").field("cql_collection", "singleton").endObject()
+                        .startObject("name").field("type", "string").field("index", "not_analyzed").field("cql_collection", "singleton")
+                            .startObject("fields").startObject("raw").field("type", "string").field("index", "not_analyzed").endObject().endObject()
+                        .endObject()
+                        .startObject("obj").field("type", "object").field("cql_collection", "singleton").field("cql_struct", "udt")
+                            .startObject("properties")
+                                .startObject("code").field("type", "string").field("index", "not_analyzed").field("cql_collection", "singleton").endObject()
+                            .endObject()
+                        .endObject()
+                        .endObject().endObject().endObject())
+                .get());
+        ensureGreen("test");
+        client().prepareIndex("test", "t1", "1").setSource("{\"price\":0.1,\"count\":3,\"name\":\"bob\",\"obj\":{\"code\":\"x\"}}").get();
+        client().admin().indices().prepareRefresh("test").get();
+    }
+
+    @Test
+    public void testFloatSource() throws Exception {
+        createTestIndex();
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t1").setFetchSource(new String[] { "price", "count" }, null).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(1L));
+        Map<String, Object> source = rsp.getHits().getAt(0).getSource();
+        // float doc values are doubles, narrowed back to float.
+        assertThat(((Number) source.get("price")).doubleValue(), equalTo(0.1d));
+        assertThat(((Number) source.get("count")).longValue(), equalTo(3L));
+
+        rsp = client().prepareSearch("test").setTypes("t1").addField("price").get();
+        assertThat(((Number) rsp.getHits().getAt(0).field("price").getValue()).floatValue(), equalTo(0.1f));
+        assertThat(rsp.getHits().getAt(0).field("price").getValue().toString(), equalTo("0.1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testObjectAndMultiFields() throws Exception {
+        createTestIndex();
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t1").setFetchSource(new String[] { "name", "name.raw", "obj.code" }, null).get();
+        SearchHit hit = rsp.getHits().getAt(0);
+        Map<String, Object> source = hit.getSource();
+        // multi-fields are not part of the source
+        assertThat(source.get("name"), equalTo((Object) "bob"));
+        assertThat(source.get("name.raw"), nullValue());
+        // sub-fields of objects are rebuilt as objects
+        assertThat(source.get("obj"), instanceOf(Map.class));
+        assertThat(((Map<String, Object>) source.get("obj")).get("code"), equalTo((Object) "x"));
+    }
+
+    @Test
+    public void testDynamicSetting() throws Exception {
+        createTestIndex();
+        assertAcked(client().admin().indices().prepareUpdateSettings("test")
+                .setSettings(Settings.builder().put(IndexMetaData.SETTING_FETCH_FROM_DOC_VALUES, false).build()).get());
+        assertThat(client().admin().indices().prepareGetSettings("test").get().getSetting("test", IndexMetaData.SETTING_FETCH_FROM_DOC_VALUES), equalTo("false"));
+        // fetched from cassandra
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t1").setFetchSource(new String[] { "price" }, null).get();
+        assertThat(rsp.getHits().getAt(0).getSource(), notNullValue());
+        assertThat(((Number) rsp.getHits().getAt(0).getSource().get("price")).doubleValue(), equalTo(0.1d));
+    }
+}
@@ -0,0 +1,75 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+
+import org.elassandra.index.ElasticSecondaryIndexStats;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class GroupRefreshTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testConcurrentWritersShareRefresh() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .setSettings(Settings.builder()
+                        .put("index.refresh_interval", -1)
+                        .put(IndexMetaData.SETTING_SYNCHRONOUS_REFRESH, true)
+                        .put(IndexMetaData.SETTING_SYNCHRONOUS_REFRESH_DELAY, "500ms")
+                        .build())
+                .get());
+        ensureGreen("test");
+        // create the table and its mapping before measuring.
+        client().prepareIndex("test", "t1", "0").setSource("{\"name\":\"name0\"}").get();
+        long refreshBefore = refreshCount("test.t1");
+
+        final int writers = 8;
+        final CyclicBarrier barrier = new CyclicBarrier(writers);
+        final CopyOnWriteArrayList<Throwable> failures = new CopyOnWriteArrayList<>();
+        Thread[] threads = new Thread[writers];
+        for (int i = 0; i < writers; i++) {
+            final String id = Integer.toString(i + 1);
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        barrier.await();
+                        client().prepareIndex("test", "t1", id).setSource("{\"name\":\"name" + id + "\"}").get();
+                        // no explicit refresh, the document is visible once the write returns.
+                        long hits = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.idsQuery("t1").ids(id)).get().getHits().getTotalHits();
+                        if (hits != 1L)
+                            throw new AssertionError("document [" + id + "] not visible after write, hits=" + hits);
+                    } catch (Throwable t) {
+                        failures.add(t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertThat(failures.toString(), failures.size(), equalTo(0));
+
+        long refreshes = refreshCount("test.t1") - refreshBefore;
+        assertThat(refreshes, greaterThan(0L));
+        assertThat(refreshes, lessThan((long) writers));
+        assertThat(client().prepareSearch("test").setTypes("t1").get().getHits().getTotalHits(), equalTo((long) writers + 1));
+    }
+
+    private long refreshCount(String table) {
+        ElasticSecondaryIndexStats stats = client().admin().cluster().prepareNodesStats().clear().setSecondaryIndex(true).get()
+                .getNodes()[0].getSecondaryIndex();
+        for (ElasticSecondaryIndexStats.TableStats tableStats : stats.getTables())
+            if (tableStats.getName().equals(table))
+                return tableStats.getRefresh().getCount();
+        return 0L;
+    }
+}
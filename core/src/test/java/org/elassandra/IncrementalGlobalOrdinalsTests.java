@@ -0,0 +1,60 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsBuilder;
+import org.elasticsearch.index.shard.MergePolicyConfig;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class IncrementalGlobalOrdinalsTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testTermsAggregationAfterRefresh() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .setSettings(Settings.builder()
+                        .put(MergePolicyConfig.INDEX_MERGE_ENABLED, false)
+                        .put(GlobalOrdinalsBuilder.INCREMENTAL_MAX_RATIO, 0.5f)
+                        .put("index.refresh_interval", -1))
+                .addMapping("t1", XContentFactory.jsonBuilder().startObject().startObject("t1").startObject("properties")
+                        .startObject("name").field("type", "string").field("index", "not_analyzed").field("cql_collection", "singleton").endObject()
+                        .endObject().endObject().endObject())
+                .get());
+        ensureGreen("test");
+
+        // two segments, global ordinals are fully built
+        for (int i = 0; i < 40; i++) {
+            client().prepareIndex("test", "t1", Integer.toString(i)).setSource("{\"name\":\"name" + (i % 20) + "\"}").get();
+            if (i == 19)
+                client().admin().indices().prepareRefresh("test").get();
+        }
+        client().admin().indices().prepareRefresh("test").get();
+        assertTerms(20, "name0", 2);
+
+        // small segments, global ordinals are updated from the previous reader
+        for (int i = 40; i < 45; i++) {
+            client().prepareIndex("test", "t1", Integer.toString(i)).setSource("{\"name\":\"" + (i % 2 == 0 ? "name0" : "other" + i) + "\"}").get();
+            client().admin().indices().prepareRefresh("test").get();
+            assertTerms(20 + (i - 39) / 2, "name0", 2 + (i - 38) / 2);
+        }
+
+        // a large segment, global ordinals are rebuilt
+        for (int i = 45; i < 100; i++)
+            client().prepareIndex("test", "t1", Integer.toString(i)).setSource("{\"name\":\"new" + i + "\"}").get();
+        client().admin().indices().prepareRefresh("test").get();
+        assertTerms(77, "name0", 5);
+    }
+
+    private void assertTerms(int buckets, String term, long count) {
+        Terms terms = client().prepareSearch("test").setTypes("t1").setSize(0)
+                .addAggregation(AggregationBuilders.terms("names").field("name").size(0))
+                .get().getAggregations().get("names");
+        assertThat(terms.getBuckets().size(), equalTo(buckets));
+        assertThat(terms.getBucketByKey(term).getDocCount(), equalTo(count));
+    }
+}
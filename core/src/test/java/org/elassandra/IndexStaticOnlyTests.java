@@ -0,0 +1,46 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class IndexStaticOnlyTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testIndexStaticOnly() throws Exception {
+        createIndex("static_only");
+        ensureGreen("static_only");
+
+        process(ConsistencyLevel.ONE,"CREATE TABLE IF NOT EXISTS static_only.t1 ( a text, b text, c bigint, s1 text static, primary key ((a),b) )");
+        assertAcked(client().admin().indices().preparePutMapping("static_only").setType("t1")
+                .setSource("{ \"t1\" : { \"discover\" : \".*\", \"_meta\" : { \"index_static_only\" : true } }}").get());
+
+        process(ConsistencyLevel.ONE,"INSERT INTO static_only.t1 (a,b,c,s1) VALUES ('a','b1',1,'x')");
+        process(ConsistencyLevel.ONE,"INSERT INTO static_only.t1 (a,b,c) VALUES ('a','b2',2)");
+        process(ConsistencyLevel.ONE,"INSERT INTO static_only.t1 (a,b,c,s1) VALUES ('b','b1',3,'z')");
+
+        // one document per partition, regular rows are not indexed.
+        assertThat(client().prepareSearch().setIndices("static_only").setTypes("t1").get().getHits().getTotalHits(), equalTo(2L));
+        assertThat(client().prepareSearch().setIndices("static_only").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("s1:x")).get().getHits().getTotalHits(), equalTo(1L));
+
+        // writing regular columns only does not touch the static documents.
+        process(ConsistencyLevel.ONE,"UPDATE static_only.t1 SET c = 4 WHERE a='a' AND b='b1'");
+        assertThat(client().prepareSearch().setIndices("static_only").setTypes("t1").get().getHits().getTotalHits(), equalTo(2L));
+        assertThat(client().prepareSearch().setIndices("static_only").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("s1:x")).get().getHits().getTotalHits(), equalTo(1L));
+
+        // static columns updates are indexed.
+        process(ConsistencyLevel.ONE,"UPDATE static_only.t1 SET s1 = 'y' WHERE a='a'");
+        assertThat(client().prepareSearch().setIndices("static_only").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("s1:y")).get().getHits().getTotalHits(), equalTo(1L));
+        assertThat(client().prepareSearch().setIndices("static_only").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("s1:x")).get().getHits().getTotalHits(), equalTo(0L));
+
+        // deleting a regular row keeps the static document, deleting the partition removes it.
+        process(ConsistencyLevel.ONE,"DELETE FROM static_only.t1 WHERE a='a' AND b='b2'");
+        assertThat(client().prepareSearch().setIndices("static_only").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("s1:y")).get().getHits().getTotalHits(), equalTo(1L));
+        process(ConsistencyLevel.ONE,"DELETE FROM static_only.t1 WHERE a='a'");
+        assertThat(client().prepareSearch().setIndices("static_only").setTypes("t1").get().getHits().getTotalHits(), equalTo(1L));
+    }
+}
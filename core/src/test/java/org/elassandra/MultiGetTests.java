@@ -0,0 +1,45 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.elasticsearch.action.get.MultiGetRequestBuilder;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class MultiGetTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testMultiGetLocalReads() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test").get());
+        assertAcked(client().admin().indices().prepareCreate("test2").get());
+        ensureGreen("test", "test2");
+        for (int i = 0; i < 50; i++)
+            client().prepareIndex("test", "t1", Integer.toString(i)).setSource("{\"name\":\"name" + i + "\"}").get();
+        client().prepareIndex("test2", "t1", "0").setSource("{\"name\":\"other\"}").get();
+
+        MultiGetRequestBuilder builder = client().prepareMultiGet();
+        for (int i = 0; i < 50; i++) {
+            builder.add("test", "t1", Integer.toString(i));
+            if (i == 25) {
+                builder.add("test", "t1", "missing");
+                builder.add("test2", "t1", "0");
+            }
+        }
+        MultiGetResponse response = builder.get();
+        assertThat(response.getResponses().length, equalTo(52));
+        for (int i = 0, j = 0; i < 52; i++) {
+            if (i == 26) {
+                assertThat(response.getResponses()[i].getResponse().isExists(), equalTo(false));
+            } else if (i == 27) {
+                assertThat(response.getResponses()[i].getIndex(), equalTo("test2"));
+                assertThat(response.getResponses()[i].getResponse().getSourceAsMap().get("name"), equalTo((Object) "other"));
+            } else {
+                assertThat(response.getResponses()[i].getId(), equalTo(Integer.toString(j)));
+                assertThat(response.getResponses()[i].getResponse().getSourceAsMap().get("name"), equalTo((Object) ("name" + j)));
+                j++;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Map;
+
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class PartialUpdateTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testDocAsUpsert() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .addMapping("t1", XContentFactory.jsonBuilder().startObject().startObject("t1").startObject("properties")
+                        .startObject("name").field("type", "string").field("index", "not_analyzed").field("cql_collection", "singleton").endObject()
+                        .startObject("count").field("type", "long").field("cql_collection", "singleton").endObject()
+                        .endObject().endObject().endObject())
+                .get());
+        ensureGreen("test");
+
+        assertThat(client().prepareIndex("test", "t1", "1").setSource("{\"name\":\"bob\",\"count\":1}").get().isCreated(), equalTo(true));
+
+        // partial documents upserted without script are written without reading the document.
+        client().prepareUpdate("test", "t1", "1").setDoc("{\"count\":2}").setDocAsUpsert(true).get();
+        client().prepareUpdate("test", "t1", "2").setDoc("{\"name\":\"alice\"}").setDocAsUpsert(true).get();
+
+        GetResponse response = client().prepareGet("test", "t1", "1").get();
+        Map<String, Object> source = response.getSourceAsMap();
+        assertThat(source.get("name"), equalTo((Object) "bob"));
+        assertThat(((Number) source.get("count")).longValue(), equalTo(2L));
+
+        response = client().prepareGet("test", "t1", "2").get();
+        assertThat(response.isExists(), equalTo(true));
+        assertThat(response.getSourceAsMap().get("name"), equalTo((Object) "alice"));
+
+        assertThat(client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.termQuery("count", 2)).get().getHits().getTotalHits(), equalTo(1L));
+        assertThat(client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.termQuery("name", "bob")).get().getHits().getTotalHits(), equalTo(1L));
+    }
+}
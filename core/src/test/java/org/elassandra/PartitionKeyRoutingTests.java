@@ -0,0 +1,92 @@
+package org.elassandra;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.elassandra.cluster.routing.PartitionKeyRouting;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+public class PartitionKeyRoutingTests extends ESTestCase {
+
+    private static Map<String, Set<String>> constraints(String query) {
+        return PartitionKeyRouting.keyConstraints(XContentHelper.convertToMap(new BytesArray(query), false).v2());
+    }
+
+    @Test
+    public void testTermAndIds() throws Exception {
+        assertThat(constraints("{\"term\":{\"name\":\"bob\"}}").get("name"), containsInAnyOrder("bob"));
+        assertThat(constraints("{\"term\":{\"name\":{\"value\":\"bob\",\"boost\":2.0}}}").get("name"), containsInAnyOrder("bob"));
+        assertThat(constraints("{\"ids\":{\"values\":[\"1\",\"2\"]}}").get("_id"), containsInAnyOrder("1", "2"));
+        assertThat(constraints("{\"match\":{\"name\":\"bob\"}}").isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testConjunctions() throws Exception {
+        Map<String, Set<String>> constraints = constraints(
+                "{\"bool\":{\"must\":{\"term\":{\"a\":\"1\"}},\"filter\":[{\"term\":{\"b\":\"2\"}},{\"match\":{\"c\":\"x\"}}],\"should\":{\"term\":{\"d\":\"3\"}}}}");
+        assertThat(constraints.keySet(), containsInAnyOrder("a", "b"));
+
+        constraints = constraints("{\"filtered\":{\"query\":{\"ids\":{\"values\":[\"1\",\"2\"]}},\"filter\":{\"constant_score\":{\"filter\":{\"ids\":{\"values\":[\"2\",\"3\"]}}}}}}");
+        assertThat(constraints.get("_id"), containsInAnyOrder("2"));
+    }
+
+    @Test
+    public void testTermsAndDisjunctions() throws Exception {
+        assertThat(constraints("{\"terms\":{\"tenant\":[\"a\",\"b\",\"c\"]}}").get("tenant"), containsInAnyOrder("a", "b", "c"));
+        assertThat(constraints("{\"terms\":{\"tenant\":{\"index\":\"i\",\"type\":\"t\",\"id\":\"1\",\"path\":\"p\"}}}").isEmpty(), equalTo(true));
+
+        // fields constrained in all the should clauses are kept with the union of their values.
+        Map<String, Set<String>> constraints = constraints(
+                "{\"bool\":{\"should\":[{\"bool\":{\"filter\":[{\"term\":{\"a\":\"1\"}},{\"term\":{\"b\":\"2\"}}]}},{\"bool\":{\"filter\":[{\"term\":{\"a\":\"3\"}},{\"terms\":{\"b\":[\"4\",\"5\"]}}]}},{\"term\":{\"a\":\"6\"}}]}}");
+        assertThat(constraints.keySet(), containsInAnyOrder("a"));
+        assertThat(constraints.get("a"), containsInAnyOrder("1", "3", "6"));
+
+        // optional should clauses do not restrict the query.
+        assertThat(constraints("{\"bool\":{\"should\":{\"term\":{\"a\":\"1\"}},\"minimum_should_match\":0}}").isEmpty(), equalTo(true));
+        assertThat(constraints("{\"bool\":{\"must\":{\"match_all\":{}},\"should\":{\"term\":{\"a\":\"1\"}}}}").isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testAggregationsAndSuggestions() throws Exception {
+        assertThat(PartitionKeyRouting.query(new SearchRequest().source("{\"query\":{\"ids\":{\"values\":[\"1\"]}}}")), notNullValue());
+        // global aggregations and suggestions ignore the query.
+        assertThat(PartitionKeyRouting.query(new SearchRequest().source(
+                "{\"query\":{\"ids\":{\"values\":[\"1\"]}},\"aggs\":{\"all\":{\"global\":{}}}}")), nullValue());
+        assertThat(PartitionKeyRouting.query(new SearchRequest().source(
+                "{\"query\":{\"ids\":{\"values\":[\"1\"]}},\"aggregations\":{\"n\":{\"value_count\":{\"field\":\"_id\"}}}}")), nullValue());
+        assertThat(PartitionKeyRouting.query(new SearchRequest().source(
+                "{\"query\":{\"ids\":{\"values\":[\"1\"]}},\"suggest\":{\"s\":{\"text\":\"bob\",\"term\":{\"field\":\"name\"}}}}")), nullValue());
+        assertThat(PartitionKeyRouting.query(new SearchRequest().source("{\"query\":{\"ids\":{\"values\":[\"1\"]}}}")
+                .extraSource("{\"aggs\":{\"all\":{\"global\":{}}}}")), nullValue());
+    }
+
+    @Test
+    public void testTermsAndShouldWithAggregations() throws Exception {
+        assertThat(PartitionKeyRouting.query(new SearchRequest().source(
+                "{\"query\":{\"terms\":{\"_id\":[\"1\",\"2\"]}},\"aggs\":{\"all\":{\"global\":{}}}}")), nullValue());
+        assertThat(PartitionKeyRouting.query(new SearchRequest().source(
+                "{\"query\":{\"bool\":{\"should\":[{\"term\":{\"_id\":\"1\"}},{\"term\":{\"_id\":\"2\"}}]}},\"suggest\":{\"s\":{\"text\":\"bob\",\"term\":{\"field\":\"name\"}}}}")), nullValue());
+    }
+
+    @Test
+    public void testQueryStreaming() throws Exception {
+        // other fields of the source are skipped, the query is found before or after them.
+        Object query = PartitionKeyRouting.query(new SearchRequest().source(
+                "{\"size\":10,\"sort\":[{\"name\":{\"order\":\"asc\"}}],\"_source\":[\"name\"],\"query\":{\"ids\":{\"values\":[\"1\"]}},\"highlight\":{\"fields\":{\"name\":{}}}}"));
+        assertThat(PartitionKeyRouting.keyConstraints(query).get("_id"), containsInAnyOrder("1"));
+        // the query of the extra source overrides the query of the source.
+        query = PartitionKeyRouting.query(new SearchRequest().source("{\"query\":{\"ids\":{\"values\":[\"1\"]}}}")
+                .extraSource("{\"from\":0,\"query\":{\"ids\":{\"values\":[\"2\"]}}}"));
+        assertThat(PartitionKeyRouting.keyConstraints(query).get("_id"), containsInAnyOrder("2"));
+        assertThat(PartitionKeyRouting.query(new SearchRequest().source("{\"size\":0}")), nullValue());
+    }
+}
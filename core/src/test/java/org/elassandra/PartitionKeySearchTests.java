@@ -0,0 +1,75 @@
+package org.elassandra;
+
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.idsQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Collections;
+
+import org.apache.cassandra.dht.Murmur3Partitioner.LongToken;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.global.Global;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class PartitionKeySearchTests extends ESSingleNodeTestCase {
+
+    private void createTestIndex() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .addMapping("t1", "{\"t1\":{\"properties\":{\"name\":{\"type\":\"string\",\"index\":\"not_analyzed\",\"cql_collection\":\"singleton\"}}}}")
+                .get());
+        ensureGreen("test");
+        for (int i = 0; i < 10; i++) {
+            client().prepareIndex("test", "t1", Integer.toString(i)).setSource("{\"name\":\"name" + i + "\"}").get();
+        }
+        client().admin().indices().prepareRefresh("test").get();
+    }
+
+    @Test
+    public void testGlobalAggregation() throws Exception {
+        createTestIndex();
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t1").setQuery(idsQuery("t1").ids("1")).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(1L));
+
+        // the global aggregation counts all the documents, not only those of the selected partition key.
+        rsp = client().prepareSearch("test").setTypes("t1").setQuery(idsQuery("t1").ids("1"))
+                .addAggregation(AggregationBuilders.global("all")).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(1L));
+        Global all = rsp.getAggregations().get("all");
+        assertThat(all.getDocCount(), equalTo(10L));
+    }
+
+    @Test
+    public void testTermsAndShouldWithGlobalAggregation() throws Exception {
+        createTestIndex();
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t1").setQuery(termsQuery("_id", "1", "2"))
+                .addAggregation(AggregationBuilders.global("all")).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(2L));
+        assertThat(((Global) rsp.getAggregations().get("all")).getDocCount(), equalTo(10L));
+
+        rsp = client().prepareSearch("test").setTypes("t1")
+                .setQuery(boolQuery().should(termQuery("_id", "1")).should(termQuery("_id", "2")))
+                .addAggregation(AggregationBuilders.global("all")).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(2L));
+        assertThat(((Global) rsp.getAggregations().get("all")).getDocCount(), equalTo(10L));
+    }
+
+    @Test
+    public void testTokenRangesWithGlobalAggregation() throws Exception {
+        createTestIndex();
+        // keys are intersected with the requested token ranges, but the global aggregation still covers them all.
+        SearchRequest request = client().prepareSearch("test").setTypes("t1").setQuery(termsQuery("_id", "1", "2"))
+                .addAggregation(AggregationBuilders.global("all")).request();
+        request.tokenRanges(Collections.singletonList(new Range<Token>(new LongToken(Long.MIN_VALUE), new LongToken(Long.MAX_VALUE))));
+        SearchResponse rsp = client().search(request).actionGet();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(2L));
+        assertThat(((Global) rsp.getAggregations().get("all")).getDocCount(), equalTo(10L));
+    }
+}
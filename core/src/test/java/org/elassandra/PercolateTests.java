@@ -7,7 +7,9 @@ import org.apache.cassandra.db.ConsistencyLevel;
 import org.elasticsearch.action.percolate.PercolateResponse;
 import org.elasticsearch.action.percolate.PercolateSourceBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
 
 /*
  curl -XPUT "localhost:9200/my_index" -d '{
@@ -100,4 +102,38 @@ public class PercolateTests extends ESSingleNodeTestCase {
         assertThat(rsp2.getMatches().length, equalTo(1L) );
     
     }
+
+    @Test
+    public void testCandidateQueries() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .addMapping("my_type", "{ \"my_type\" :{ \"properties\": { \"message\": { \"type\": \"string\" },  \"created_at\" : { \"type\": \"date\" } } }")
+                .get());
+        ensureGreen("test");
+
+        client().prepareIndex("test", ".percolator", "1").setSource("{ \"query\" : { \"match\" : { \"message\" : \"bonsai tree\" } } }").get();
+        client().prepareIndex("test", ".percolator", "2").setSource("{ \"query\" : { \"bool\" : { \"must\" : [ { \"term\" : { \"message\" : \"garden\" } }, { \"term\" : { \"message\" : \"bonsai\" } } ] } } }").get();
+        client().prepareIndex("test", ".percolator", "3").setSource("{ \"query\" : { \"range\" : { \"created_at\" : { \"gte\" : \"2010-01-01T00:00:00\", \"lte\" : \"2011-01-01T00:00:00\" } } } }").get();
+        client().prepareIndex("test", ".percolator", "4").setSource("{ \"query\" : { \"match\" : { \"message\" : \"maple\" } } }").get();
+
+        // only the range query has no extracted terms
+        assertThat(getInstanceFromNode(IndicesService.class).indexServiceSafe("test").shardSafe(0).percolateRegistry().extractedTermsIndex().unextractableCount(), equalTo(1));
+
+        PercolateResponse response = client().preparePercolate().setIndices("test").setDocumentType("my_type")
+                .setSource("{ \"doc\" : { \"message\" : \"A new bonsai tree in the office\", \"created_at\" : \"2010-06-01T00:00:00\" } }").get();
+        assertThat(response.getCount(), equalTo(2L));
+
+        response = client().preparePercolate().setIndices("test").setDocumentType("my_type")
+                .setSource("{ \"doc\" : { \"message\" : \"bonsai garden\" } }").get();
+        assertThat(response.getCount(), equalTo(2L));
+
+        response = client().preparePercolate().setIndices("test").setDocumentType("my_type")
+                .setSource("{ \"doc\" : { \"message\" : \"nothing to match\" } }").get();
+        assertThat(response.getCount(), equalTo(0L));
+
+        // deleted queries are removed from the terms index
+        client().prepareDelete("test", ".percolator", "1").get();
+        response = client().preparePercolate().setIndices("test").setDocumentType("my_type")
+                .setSource("{ \"doc\" : { \"message\" : \"bonsai tree\" } }").get();
+        assertThat(response.getCount(), equalTo(0L));
+    }
 }
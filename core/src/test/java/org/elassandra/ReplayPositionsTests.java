@@ -0,0 +1,108 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+import org.apache.cassandra.config.Schema;
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.db.Keyspace;
+import org.apache.cassandra.db.Mutation;
+import org.apache.cassandra.db.RowUpdateBuilder;
+import org.apache.cassandra.db.commitlog.CommitLog;
+import org.apache.cassandra.db.commitlog.CommitLogReplayer;
+import org.apache.cassandra.db.commitlog.ReplayPosition;
+import org.apache.cassandra.utils.FBUtilities;
+import org.apache.cassandra.utils.concurrent.OpOrder;
+import org.elassandra.index.ReplayPositions;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.engine.CommitStats;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class ReplayPositionsTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testParse() throws Exception {
+        ReplayPosition position = new ReplayPosition(1234L, 56);
+        assertThat(ReplayPositions.parse(ReplayPositions.toString(position)), equalTo(position));
+        assertThat(ReplayPositions.parse(null), equalTo(ReplayPosition.NONE));
+        assertThat(ReplayPositions.parse("invalid"), equalTo(ReplayPosition.NONE));
+        assertThat(ReplayPositions.parse("12:x"), equalTo(ReplayPosition.NONE));
+    }
+
+    @Test
+    public void testIndexedDoesNotWaitForWrites() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test").get());
+        ensureGreen("test");
+
+        // an in-flight write holding the write order open.
+        OpOrder.Group group = Keyspace.writeOrder.start();
+        ReplayPosition started = CommitLog.instance.getContext();
+        try {
+            client().prepareIndex("test", "t1", "1").setSource("{\"name\":\"a\"}").get();
+            ReplayPosition written = CommitLog.instance.getContext();
+            assertThat(written.compareTo(started), greaterThanOrEqualTo(0));
+            // returns at once, with a position below the in-flight write.
+            for (int i = 0; i < 3; i++) {
+                ReplayPosition indexed = ReplayPositions.indexed();
+                if (indexed != null)
+                    assertThat(indexed.compareTo(started), lessThanOrEqualTo(0));
+            }
+        } finally {
+            group.close();
+        }
+
+        final ReplayPosition written = CommitLog.instance.getContext();
+        assertBusy(new Runnable() {
+            @Override
+            public void run() {
+                ReplayPosition indexed = ReplayPositions.indexed();
+                assertThat(indexed, notNullValue());
+                assertThat(indexed.compareTo(written), greaterThanOrEqualTo(0));
+            }
+        });
+    }
+
+    @Test
+    public void testSkipReplayedMutations() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .addMapping("t1", XContentFactory.jsonBuilder().startObject().startObject("t1").startObject("properties")
+                        .startObject("name").field("type", "string").field("index", "not_analyzed").field("cql_collection", "singleton").endObject()
+                        .endObject().endObject().endObject())
+                .get());
+        ensureGreen("test");
+        client().prepareIndex("test", "t1", "1").setSource("{\"name\":\"a\"}").get();
+
+        // flush until the lucene commit records a commitlog position.
+        assertBusy(new Runnable() {
+            @Override
+            public void run() {
+                client().admin().indices().prepareFlush("test").setForce(true).setWaitIfOngoing(true).get();
+                CommitStats commitStats = client().admin().indices().prepareStats("test").get().getShards()[0].getCommitStats();
+                assertThat(commitStats.getUserData().get(ReplayPositions.COMMIT_KEY), notNullValue());
+            }
+        });
+        CommitStats commitStats = client().admin().indices().prepareStats("test").get().getShards()[0].getCommitStats();
+        ReplayPosition committed = ReplayPositions.parse(commitStats.getUserData().get(ReplayPositions.COMMIT_KEY));
+        assertThat(committed, not(equalTo(ReplayPosition.NONE)));
+
+        // a replayed mutation already in the lucene commit is not indexed again.
+        Mutation mutation = new RowUpdateBuilder(Schema.instance.getCFMetaData("test", "t1"), FBUtilities.timestampMicros(), "1").add("name", "b").build();
+        CommitLogReplayer.applyReplayed(mutation, committed);
+        assertThat(process(ConsistencyLevel.ONE, "SELECT name FROM test.t1 WHERE \"_id\" = '1'").one().getString("name"), equalTo("b"));
+        client().admin().indices().prepareRefresh("test").get();
+        assertThat(client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.termQuery("name", "b")).get().getHits().getTotalHits(), equalTo(0L));
+        assertThat(client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.termQuery("name", "a")).get().getHits().getTotalHits(), equalTo(1L));
+
+        // a replayed mutation after the commit is indexed.
+        mutation = new RowUpdateBuilder(Schema.instance.getCFMetaData("test", "t1"), FBUtilities.timestampMicros(), "1").add("name", "c").build();
+        CommitLogReplayer.applyReplayed(mutation, new ReplayPosition(committed.segment + 1, 0));
+        client().admin().indices().prepareRefresh("test").get();
+        assertThat(client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.termQuery("name", "c")).get().getHits().getTotalHits(), equalTo(1L));
+    }
+}
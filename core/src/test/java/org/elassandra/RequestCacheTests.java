@@ -0,0 +1,118 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.cassandra.dht.Murmur3Partitioner.LongToken;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.service.StorageService;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.cache.request.RequestCacheStats;
+import org.elasticsearch.indices.cache.request.IndicesRequestCache;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class RequestCacheTests extends ESSingleNodeTestCase {
+
+    private void createTestIndex() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .setSettings(Settings.builder()
+                        .put(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED, true)
+                        .put(IndicesRequestCache.INDEX_CACHE_REQUEST_TOKEN_RANGES, true)
+                        .build())
+                .addMapping("t1", "{\"t1\":{\"properties\":{\"tag\":{\"type\":\"string\",\"index\":\"not_analyzed\",\"cql_collection\":\"singleton\"}}}}")
+                .addMapping("t2", "{\"t2\":{\"properties\":{\"tag\":{\"type\":\"string\",\"index\":\"not_analyzed\",\"cql_collection\":\"singleton\"}}}}")
+                .get());
+        ensureGreen("test");
+        for (int i = 0; i < 20; i++) {
+            client().prepareIndex("test", "t1", Integer.toString(i)).setSource("{\"tag\":\"" + (i % 2 == 0 ? "even" : "odd") + "\"}").get();
+        }
+        for (int i = 0; i < 5; i++) {
+            client().prepareIndex("test", "t2", Integer.toString(i)).setSource("{\"tag\":\"even\"}").get();
+        }
+        client().admin().indices().prepareRefresh("test").get();
+    }
+
+    private SearchResponse search(Collection<Range<Token>> tokenRanges) {
+        SearchRequest request = client().prepareSearch("test").setTypes("t1").setSize(0)
+                .setSearchType(SearchType.QUERY_THEN_FETCH)
+                .addAggregation(AggregationBuilders.terms("tags").field("tag"))
+                .request();
+        request.tokenRanges(tokenRanges);
+        return client().search(request).actionGet();
+    }
+
+    private RequestCacheStats stats() {
+        return client().admin().indices().prepareStats("test").setRequestCache(true).get().getTotal().getRequestCache();
+    }
+
+    private static List<Range<Token>> vnodeRanges() {
+        List<Range<Token>> ranges = new ArrayList<>();
+        Token previous = new LongToken(Long.MIN_VALUE);
+        for (Token token : StorageService.instance.getTokenMetadata().sortedTokens()) {
+            ranges.add(new Range<Token>(previous, token));
+            previous = token;
+        }
+        ranges.add(new Range<Token>(previous, new LongToken(Long.MAX_VALUE)));
+        return ranges;
+    }
+
+    private static void assertTags(SearchResponse rsp) {
+        // only t1 documents, the type filter applies to each token range.
+        assertThat(rsp.getHits().getTotalHits(), equalTo(20L));
+        Terms tags = rsp.getAggregations().get("tags");
+        assertThat(tags.getBucketByKey("even").getDocCount(), equalTo(10L));
+        assertThat(tags.getBucketByKey("odd").getDocCount(), equalTo(10L));
+    }
+
+    @Test
+    public void testCacheKeysOnVnodeRanges() throws Exception {
+        createTestIndex();
+        List<Range<Token>> vnodeRanges = vnodeRanges();
+
+        assertTags(search(vnodeRanges));
+        RequestCacheStats stats = stats();
+        assertThat(stats.getMissCount(), equalTo((long) vnodeRanges.size()));
+        assertThat(stats.getHitCount(), equalTo(0L));
+
+        // the merged full ring range reuses the cached vnode ranges.
+        assertTags(search(Collections.singletonList(new Range<Token>(new LongToken(Long.MIN_VALUE), new LongToken(Long.MAX_VALUE)))));
+        RequestCacheStats stats2 = stats();
+        assertThat(stats2.getMissCount(), equalTo(stats.getMissCount()));
+        assertThat(stats2.getHitCount(), equalTo((long) vnodeRanges.size()));
+
+        assertTags(search(vnodeRanges));
+        assertThat(stats().getHitCount(), greaterThan(stats2.getHitCount()));
+    }
+
+    @Test
+    public void testTypeFilterPerTokenRange() throws Exception {
+        createTestIndex();
+        SearchResponse rsp = search(vnodeRanges());
+        assertTags(rsp);
+
+        SearchRequest request = client().prepareSearch("test").setTypes("t2").setSize(0)
+                .setSearchType(SearchType.QUERY_THEN_FETCH)
+                .addAggregation(AggregationBuilders.terms("tags").field("tag"))
+                .request();
+        request.tokenRanges(vnodeRanges());
+        rsp = client().search(request).actionGet();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(5L));
+        Terms tags = rsp.getAggregations().get("tags");
+        assertThat(tags.getBucketByKey("even").getDocCount(), equalTo(5L));
+        assertThat(tags.getBucketByKey("odd"), nullValue());
+    }
+}
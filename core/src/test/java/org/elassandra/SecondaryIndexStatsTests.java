@@ -0,0 +1,66 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.elassandra.index.ElasticSecondaryIndexStats;
+import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsResponse;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class SecondaryIndexStatsTests extends ESSingleNodeTestCase {
+
+    private ElasticSecondaryIndexStats.TableStats tableStats(String name) {
+        NodesStatsResponse response = client().admin().cluster().prepareNodesStats().clear().setSecondaryIndex(true).get();
+        ElasticSecondaryIndexStats stats = response.getNodes()[0].getSecondaryIndex();
+        assertThat(stats, notNullValue());
+        for (ElasticSecondaryIndexStats.TableStats table : stats.getTables())
+            if (table.getName().equals(name))
+                return table;
+        return null;
+    }
+
+    @Test
+    public void testWritePathStats() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test").get());
+        ensureGreen("test");
+        for (int i = 0; i < 10; i++)
+            client().prepareIndex("test", "t1", Integer.toString(i)).setSource("{\"name\":\"name" + i + "\"}").get();
+        // an update of an existing row through CQL
+        process(ConsistencyLevel.ONE, "UPDATE test.t1 SET name = ['updated'] WHERE \"_id\" = '0'");
+        process(ConsistencyLevel.ONE, "DELETE FROM test.t1 WHERE \"_id\" = '1'");
+
+        ElasticSecondaryIndexStats.TableStats table = tableStats("test.t1");
+        assertThat(table, notNullValue());
+        assertThat(table.getDocumentsIndexed(), greaterThanOrEqualTo(11L));
+        assertThat(table.getInsertRow().getCount() + table.getUpdateRow().getCount(), greaterThanOrEqualTo(11L));
+        assertThat(table.getPartitionDelete().getCount(), equalTo(1L));
+        assertThat(table.getMappingLockWait().getCount(), greaterThanOrEqualTo(1L));
+    }
+
+    @Test
+    public void testStatsSerialization() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test").get());
+        ensureGreen("test");
+        client().prepareIndex("test", "t1", "1").setSource("{\"name\":\"name\"}").get();
+
+        ElasticSecondaryIndexStats stats = client().admin().cluster().prepareNodesStats().clear().setSecondaryIndex(true).get()
+                .getNodes()[0].getSecondaryIndex();
+        BytesStreamOutput out = new BytesStreamOutput();
+        stats.writeTo(out);
+        StreamInput in = StreamInput.wrap(out.bytes());
+        ElasticSecondaryIndexStats copy = new ElasticSecondaryIndexStats();
+        copy.readFrom(in);
+        assertThat(copy.getTables().size(), equalTo(stats.getTables().size()));
+        for (int i = 0; i < stats.getTables().size(); i++) {
+            assertThat(copy.getTables().get(i).getName(), equalTo(stats.getTables().get(i).getName()));
+            assertThat(copy.getTables().get(i).getDocumentsIndexed(), equalTo(stats.getTables().get(i).getDocumentsIndexed()));
+            assertThat(copy.getTables().get(i).getInsertRow().getCount(), equalTo(stats.getTables().get(i).getInsertRow().getCount()));
+        }
+    }
+}
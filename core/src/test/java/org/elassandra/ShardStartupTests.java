@@ -0,0 +1,71 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cassandra.service.StorageService;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.discovery.DiscoveryService;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesLifecycle;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class ShardStartupTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testOpenManyIndices() throws Exception {
+        final int count = 6;
+        String[] indices = new String[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = "test" + i;
+            assertAcked(client().admin().indices().prepareCreate(indices[i]).get());
+        }
+        ensureGreen(indices);
+        for (int i = 0; i < count; i++)
+            client().prepareIndex(indices[i], "t1", "1").setSource("{\"name\":\"name" + i + "\"}").get();
+        assertAcked(client().admin().indices().prepareClose(indices).get());
+
+        // shards between their creation and their start, bounded by the startup concurrency.
+        final AtomicInteger recovering = new AtomicInteger();
+        final AtomicInteger maxRecovering = new AtomicInteger();
+        IndicesLifecycle.Listener listener = new IndicesLifecycle.Listener() {
+            @Override
+            public void beforeIndexShardCreated(ShardId shardId, Settings indexSettings) {
+                int n = recovering.incrementAndGet();
+                int max;
+                while ((max = maxRecovering.get()) < n && !maxRecovering.compareAndSet(max, n));
+            }
+
+            @Override
+            public void afterIndexShardStarted(IndexShard indexShard) {
+                recovering.decrementAndGet();
+            }
+        };
+        IndicesLifecycle indicesLifecycle = getInstanceFromNode(IndicesLifecycle.class);
+        indicesLifecycle.addListener(listener);
+        try {
+            // all indices are opened in one cluster state, like on startup.
+            assertAcked(client().admin().indices().prepareOpen(indices).get());
+            ensureGreen(indices);
+        } finally {
+            indicesLifecycle.removeListener(listener);
+        }
+        assertThat(recovering.get(), equalTo(0));
+        assertThat(maxRecovering.get(), lessThanOrEqualTo(Math.max(1, EsExecutors.boundedNumberOfProcessors(Settings.EMPTY))));
+
+        // started shards are published in gossip, and documents are available.
+        DiscoveryService discoveryService = getInstanceFromNode(DiscoveryService.class);
+        for (int i = 0; i < count; i++) {
+            assertThat(discoveryService.getShardRoutingStates(indices[i]).get(StorageService.instance.getLocalHostUUID()), equalTo(ShardRoutingState.STARTED));
+            assertThat(client().prepareGet(indices[i], "t1", "1").get().isExists(), equalTo(true));
+            assertThat(client().prepareSearch(indices[i]).setTypes("t1").get().getHits().getTotalHits(), equalTo(1L));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.elassandra;
+
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.elassandra.threadpool.SharedPoolExecutor;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.threadpool.ThreadPoolStats;
+import org.junit.Test;
+
+public class SharedPoolExecutorTests extends ESTestCase {
+
+    @Test
+    public void testQueueLimit() throws Exception {
+        SharedPoolExecutor executor = new SharedPoolExecutor("test_queue_limit", 1, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        };
+        try {
+            executor.execute(task);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            executor.execute(task);
+            try {
+                executor.execute(task);
+                fail("expected a rejection when the queue is full");
+            } catch (EsRejectedExecutionException e) {
+                // expected
+            }
+            // an abstract runnable is notified of its rejection instead.
+            final AtomicReference<Throwable> rejection = new AtomicReference<>();
+            final AtomicBoolean after = new AtomicBoolean();
+            executor.execute(new AbstractRunnable() {
+                @Override
+                public void onFailure(Throwable t) {
+                    fail("unexpected failure " + t);
+                }
+
+                @Override
+                public void onRejection(Throwable t) {
+                    rejection.set(t);
+                }
+
+                @Override
+                public void onAfter() {
+                    after.set(true);
+                }
+
+                @Override
+                protected void doRun() throws Exception {
+                    fail("should have been rejected");
+                }
+            });
+            assertTrue(rejection.get() instanceof EsRejectedExecutionException);
+            assertTrue(after.get());
+            assertThat(executor.getActiveCount(), equalTo(1));
+            assertThat(executor.getQueueSize(), equalTo(1));
+            assertThat(executor.getRejectedCount(), equalTo(2L));
+
+            release.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertBusy(new Runnable() {
+                @Override
+                public void run() {
+                    assertThat(executor.getCompletedTaskCount(), equalTo(2L));
+                }
+            });
+            assertThat(executor.getLargestActiveCount(), equalTo(1));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSharedThreadPool() throws Exception {
+        ThreadPool threadPool = new ThreadPool(Settings.builder()
+                .put("name", "testSharedThreadPool")
+                .put("threadpool." + ThreadPool.Names.SEARCH + ".shared", true)
+                .put("threadpool." + ThreadPool.Names.SEARCH + ".size", 2)
+                .build());
+        try {
+            assertTrue(threadPool.executor(ThreadPool.Names.SEARCH) instanceof SharedPoolExecutor);
+            assertThat(threadPool.info(ThreadPool.Names.SEARCH).getMax(), equalTo(2));
+
+            final CountDownLatch latch = new CountDownLatch(1);
+            threadPool.executor(ThreadPool.Names.SEARCH).execute(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertBusy(new Runnable() {
+                @Override
+                public void run() {
+                    for (ThreadPoolStats.Stats stats : threadPool.stats()) {
+                        if (ThreadPool.Names.SEARCH.equals(stats.getName()))
+                            assertThat(stats.getCompleted(), equalTo(1L));
+                    }
+                }
+            });
+        } finally {
+            terminate(threadPool);
+        }
+    }
+}
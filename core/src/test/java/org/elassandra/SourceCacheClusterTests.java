@@ -0,0 +1,98 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.notNullValue;
+
+import org.elassandra.cluster.routing.PartitionKeyRouting;
+import org.elassandra.indices.cache.SourceCache;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESIntegTestCase;
+import org.junit.Test;
+
+/**
+ * The source cache of a node must not serve documents written on other nodes without going through this node.
+ */
+public class SourceCacheClusterTests extends ESIntegTestCase {
+
+    @Override
+    public Settings settings() {
+        return Settings.builder().put(SourceCache.INDICES_SOURCE_CACHE_SIZE, "1mb").build();
+    }
+
+    private String name(String id) {
+        return (String) client().prepareGet("test", "t1", id).get().getSource().get("name");
+    }
+
+    // an id owned or not by this node, RF=1.
+    private String id(boolean local) {
+        for (int i = 0; i < 1000; i++) {
+            if (PartitionKeyRouting.isLocalReplica(clusterService(), "test", "test", "t1", Integer.toString(i)) == local)
+                return Integer.toString(i);
+        }
+        return null;
+    }
+
+    @Test
+    public void testWriteThenGetOnAnotherNode() throws Exception {
+        internalCluster().ensureAtLeastNumDataNodes(2);
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .setSettings(Settings.builder().put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0).build())
+                .addMapping("t1", "{\"t1\":{\"properties\":{\"name\":{\"type\":\"string\",\"index\":\"not_analyzed\",\"cql_collection\":\"singleton\"}}}}")
+                .get());
+        ensureGreen("test");
+        SourceCache sourceCache = getInstanceFromNode(SourceCache.class);
+
+        // the document is only written on the other node, and never invalidated here.
+        String remoteId = id(false);
+        assertThat(remoteId, notNullValue());
+        client().prepareIndex("test", "t1", remoteId).setSource("{\"name\":\"v1\"}").get();
+        assertThat(name(remoteId), equalTo("v1"));
+        long hits = sourceCache.hitCount();
+        client().prepareIndex("test", "t1", remoteId).setSource("{\"name\":\"v2\"}").get();
+        assertThat(name(remoteId), equalTo("v2"));
+        assertThat(sourceCache.hitCount(), equalTo(hits));
+
+        // documents of this node are cached, and invalidated by the local writes.
+        String localId = id(true);
+        assertThat(localId, notNullValue());
+        client().prepareIndex("test", "t1", localId).setSource("{\"name\":\"v1\"}").get();
+        assertThat(name(localId), equalTo("v1"));
+        assertThat(name(localId), equalTo("v1"));
+        assertThat(sourceCache.hitCount(), greaterThan(hits));
+        client().prepareIndex("test", "t1", localId).setSource("{\"name\":\"v2\"}").get();
+        assertThat(name(localId), equalTo("v2"));
+    }
+
+    @Test
+    public void testDeleteInvalidatesOnlyItsDocument() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .setSettings(Settings.builder().put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0).build())
+                .addMapping("t1", "{\"t1\":{\"properties\":{\"name\":{\"type\":\"string\",\"index\":\"not_analyzed\",\"cql_collection\":\"singleton\"}}}}")
+                .get());
+        ensureGreen("test");
+        SourceCache sourceCache = getInstanceFromNode(SourceCache.class);
+
+        String deletedId = id(true);
+        assertThat(deletedId, notNullValue());
+        client().prepareIndex("test", "t1", deletedId).setSource("{\"name\":\"v1\"}").get();
+        assertThat(name(deletedId), equalTo("v1"));
+        String keptId = null;
+        for (int i = Integer.parseInt(deletedId) + 1; keptId == null && i < 1000; i++) {
+            if (PartitionKeyRouting.isLocalReplica(clusterService(), "test", "test", "t1", Integer.toString(i)))
+                keptId = Integer.toString(i);
+        }
+        assertThat(keptId, notNullValue());
+        client().prepareIndex("test", "t1", keptId).setSource("{\"name\":\"v2\"}").get();
+        assertThat(name(keptId), equalTo("v2"));
+
+        // t1 has no clustering columns, so deleting a partition only evicts its own document.
+        client().prepareDelete("test", "t1", deletedId).get();
+        assertThat(client().prepareGet("test", "t1", deletedId).get().isExists(), equalTo(false));
+        long hits = sourceCache.hitCount();
+        assertThat(name(keptId), equalTo("v2"));
+        assertThat(sourceCache.hitCount(), equalTo(hits + 1));
+    }
+}
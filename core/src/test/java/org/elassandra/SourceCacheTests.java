@@ -0,0 +1,92 @@
+package org.elassandra;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.elassandra.indices.cache.SourceCache;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+public class SourceCacheTests extends ESTestCase {
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        SourceCache cache = new SourceCache(Settings.EMPTY);
+        assertFalse(cache.enabled());
+        cache.invalidate("test", "t1", "1");
+        cache.invalidate("test", "t1");
+        cache.close();
+    }
+
+    @Test
+    public void testPutGetInvalidate() throws Exception {
+        SourceCache cache = new SourceCache(Settings.builder().put(SourceCache.INDICES_SOURCE_CACHE_SIZE, "1mb").build());
+        try {
+            assertTrue(cache.enabled());
+            assertThat(cache.get("test", "t1", "1"), nullValue());
+            
+            cache.put("test", "t1", "1", new BytesArray("{\"name\":\"bob\"}"), cache.stamp("test", "t1", "1"));
+            cache.put("test", "t1", "2", new BytesArray("{\"name\":\"alice\"}"), cache.stamp("test", "t1", "2"));
+            cache.put("test", "t2", "1", new BytesArray("{\"name\":\"joe\"}"), cache.stamp("test", "t2", "1"));
+            assertThat(cache.get("test", "t1", "1").toUtf8(), equalTo("{\"name\":\"bob\"}"));
+            assertThat(cache.sizeInBytes(), greaterThan(0L));
+            assertThat(cache.hitCount(), equalTo(1L));
+            assertThat(cache.missCount(), equalTo(1L));
+            
+            cache.invalidate("test", "t1", "1");
+            assertThat(cache.get("test", "t1", "1"), nullValue());
+            assertThat(cache.get("test", "t1", "2").toUtf8(), equalTo("{\"name\":\"alice\"}"));
+            
+            cache.invalidate("test", "t1");
+            assertThat(cache.get("test", "t1", "2"), nullValue());
+            assertThat(cache.get("test", "t2", "1").toUtf8(), equalTo("{\"name\":\"joe\"}"));
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testInvalidatedWhileFetching() throws Exception {
+        SourceCache cache = new SourceCache(Settings.builder().put(SourceCache.INDICES_SOURCE_CACHE_SIZE, "1mb").build());
+        try {
+            long stamp = cache.stamp("test", "t1", "1");
+            // a write is applied between the read of the row and the put.
+            cache.invalidate("test", "t1", "1");
+            cache.put("test", "t1", "1", new BytesArray("{\"name\":\"stale\"}"), stamp);
+            assertThat(cache.get("test", "t1", "1"), nullValue());
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        SourceCache cache = new SourceCache(Settings.builder()
+                .put(SourceCache.INDICES_SOURCE_CACHE_SIZE, "1mb")
+                .put(SourceCache.INDICES_SOURCE_CACHE_EXPIRE, "1ms")
+                .build());
+        try {
+            cache.put("test", "t1", "1", new BytesArray("{\"name\":\"bob\"}"), cache.stamp("test", "t1", "1"));
+            Thread.sleep(10);
+            assertThat(cache.get("test", "t1", "1"), nullValue());
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testBoundedExpire() throws Exception {
+        try {
+            new SourceCache(Settings.builder()
+                    .put(SourceCache.INDICES_SOURCE_CACHE_SIZE, "1mb")
+                    .put(SourceCache.INDICES_SOURCE_CACHE_EXPIRE, "-1")
+                    .build());
+            fail("the expiry must be bounded");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.elassandra;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cassandra.dht.Murmur3Partitioner.LongToken;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.elassandra.cluster.routing.TokenRanges;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+public class TokenRangesTests extends ESTestCase {
+
+    @Test
+    public void testSerialization() throws Exception {
+        List<Range<Token>> ranges = new ArrayList<>();
+        ranges.add(new Range<Token>(new LongToken(100), new LongToken(Long.MAX_VALUE)));
+        ranges.add(new Range<Token>(new LongToken(Long.MIN_VALUE), new LongToken(-5)));
+        ranges.add(new Range<Token>(new LongToken(-5), new LongToken(100)));
+        TokenRanges tokenRanges = TokenRanges.of(ranges);
+        assertThat(tokenRanges.size(), equalTo(3));
+        // sorted by left bound
+        assertThat(tokenRanges.left(0), equalTo(Long.MIN_VALUE));
+        assertThat(tokenRanges.right(2), equalTo(Long.MAX_VALUE));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        tokenRanges.writeTo(out);
+        // 1 + 8 bytes for the first bound, small deltas take 1 or 2 bytes, the overflowing ones at most 10.
+        assertThat(out.bytes().length(), lessThan(40));
+        TokenRanges read = TokenRanges.readFrom(out.bytes().streamInput());
+        assertThat(read, equalTo(tokenRanges));
+        assertThat(new ArrayList<>(read).get(1), equalTo(new Range<Token>(new LongToken(-5), new LongToken(100))));
+
+        out = new BytesStreamOutput();
+        TokenRanges.EMPTY.writeTo(out);
+        assertThat(TokenRanges.readFrom(out.bytes().streamInput()).isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testOptionalSerialization() throws Exception {
+        List<Range<Token>> ranges = new ArrayList<>();
+        ranges.add(new Range<Token>(new LongToken(-5), new LongToken(100)));
+        TokenRanges tokenRanges = TokenRanges.of(ranges);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        TokenRanges.writeOptionalTo(tokenRanges, out);
+        TokenRanges.writeOptionalTo(null, out);
+        StreamInput in = out.bytes().streamInput();
+        assertThat(TokenRanges.readOptionalFrom(in), equalTo(tokenRanges));
+        assertThat(TokenRanges.readOptionalFrom(in), nullValue());
+
+        // older nodes always read a generic array of tokens, empty meaning no token filter.
+        out = new BytesStreamOutput();
+        out.setVersion(Version.V_2_4_2);
+        TokenRanges.writeOptionalTo(null, out);
+        assertThat(out.bytes().length(), equalTo(2));
+        in = out.bytes().streamInput();
+        in.setVersion(Version.V_2_4_2);
+        assertThat(TokenRanges.readOptionalFrom(in).isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        long[] ringTokens = new long[] { -100, 0, 100 };
+
+        // merged ranges are split at the ring tokens they contain.
+        List<Range<Token>> ranges = new ArrayList<>();
+        ranges.add(new Range<Token>(new LongToken(-200), new LongToken(50)));
+        List<Range<Token>> split = new ArrayList<>(TokenRanges.of(ranges).split(ringTokens));
+        assertThat(split.size(), equalTo(3));
+        assertThat(split.get(0), equalTo(new Range<Token>(new LongToken(-200), new LongToken(-100))));
+        assertThat(split.get(1), equalTo(new Range<Token>(new LongToken(-100), new LongToken(0))));
+        assertThat(split.get(2), equalTo(new Range<Token>(new LongToken(0), new LongToken(50))));
+
+        // the same vnode sub-ranges whatever the merged ranges of the routing.
+        ranges.clear();
+        ranges.add(new Range<Token>(new LongToken(-200), new LongToken(-100)));
+        ranges.add(new Range<Token>(new LongToken(-100), new LongToken(50)));
+        assertThat(new ArrayList<>(TokenRanges.of(ranges).split(ringTokens)), equalTo(split));
+
+        // ring tokens on a bound don't split.
+        ranges.clear();
+        ranges.add(new Range<Token>(new LongToken(-100), new LongToken(0)));
+        TokenRanges vnode = TokenRanges.of(ranges);
+        assertThat(vnode.split(ringTokens) == vnode, equalTo(true));
+
+        // a wrapping range is split up to the end of the ring, then from its start.
+        ranges.clear();
+        ranges.add(new Range<Token>(new LongToken(50), new LongToken(-50)));
+        split = new ArrayList<>(TokenRanges.of(ranges).split(ringTokens));
+        assertThat(split.size(), equalTo(3));
+        assertThat(split.get(0), equalTo(new Range<Token>(new LongToken(-100), new LongToken(-50))));
+        assertThat(split.get(1), equalTo(new Range<Token>(new LongToken(50), new LongToken(100))));
+        assertThat(split.get(2), equalTo(new Range<Token>(new LongToken(100), new LongToken(-100))));
+
+        // the full ring is split at every ring token.
+        ranges.clear();
+        ranges.add(new Range<Token>(new LongToken(Long.MIN_VALUE), new LongToken(Long.MAX_VALUE)));
+        assertThat(TokenRanges.of(ranges).split(ringTokens).size(), equalTo(4));
+    }
+}
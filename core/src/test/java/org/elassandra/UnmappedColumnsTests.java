@@ -0,0 +1,40 @@
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class UnmappedColumnsTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testWriteUnmappedColumnsOnly() throws Exception {
+        createIndex("unmapped");
+        ensureGreen("unmapped");
+
+        process(ConsistencyLevel.ONE,"CREATE TABLE IF NOT EXISTS unmapped.t1 ( a text, b text, c bigint, u text, primary key ((a),b) )");
+        // u is not mapped
+        assertAcked(client().admin().indices().preparePutMapping("unmapped").setType("t1").setSource("{ \"t1\" : { \"discover\" : \"a|b|c\" }}").get());
+
+        // new rows writing only unmapped columns still get their primary key document.
+        process(ConsistencyLevel.ONE,"INSERT INTO unmapped.t1 (a,b,u) VALUES ('a','b1','x')");
+        process(ConsistencyLevel.ONE,"UPDATE unmapped.t1 SET u = 'y' WHERE a='a' AND b='b2'");
+        assertThat(client().prepareGet().setIndex("unmapped").setType("t1").setId("[\"a\",\"b1\"]").get().isExists(), equalTo(true));
+        assertThat(client().prepareGet().setIndex("unmapped").setType("t1").setId("[\"a\",\"b2\"]").get().isExists(), equalTo(true));
+        assertThat(client().prepareSearch().setIndices("unmapped").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("a:a")).get().getHits().getTotalHits(), equalTo(2L));
+
+        // updates of existing rows keep their indexed columns.
+        process(ConsistencyLevel.ONE,"UPDATE unmapped.t1 SET c = 1 WHERE a='a' AND b='b1'");
+        process(ConsistencyLevel.ONE,"UPDATE unmapped.t1 SET u = 'z' WHERE a='a' AND b='b1'");
+        assertThat(client().prepareSearch().setIndices("unmapped").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("c:1")).get().getHits().getTotalHits(), equalTo(1L));
+
+        // a row deleted then written again with unmapped columns only is indexed again.
+        process(ConsistencyLevel.ONE,"DELETE FROM unmapped.t1 WHERE a='a' AND b='b2'");
+        assertThat(client().prepareSearch().setIndices("unmapped").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("a:a")).get().getHits().getTotalHits(), equalTo(1L));
+        process(ConsistencyLevel.ONE,"UPDATE unmapped.t1 SET u = 'w' WHERE a='a' AND b='b2'");
+        assertThat(client().prepareSearch().setIndices("unmapped").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("a:a")).get().getHits().getTotalHits(), equalTo(2L));
+    }
+}
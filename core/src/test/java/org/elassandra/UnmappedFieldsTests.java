@@ -0,0 +1,70 @@
+package org.elassandra;
+
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Map;
+
+import org.elassandra.cluster.InternalCassandraClusterService;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+public class UnmappedFieldsTests extends ESSingleNodeTestCase {
+
+    private static DocumentMapper mapper(IndexService indexService, String type, String mapping) throws Exception {
+        return indexService.mapperService().documentMapperParser().parse(type, new CompressedXContent(mapping));
+    }
+
+    private static boolean unmapped(DocumentMapper docMapper, String source) {
+        Map<String, Object> sourceMap = XContentHelper.convertToMap(new BytesArray(source), true).v2();
+        return InternalCassandraClusterService.hasUnmappedFields(docMapper, null, sourceMap);
+    }
+
+    @Test
+    public void testNestedObjects() throws Exception {
+        DocumentMapper docMapper = mapper(createIndex("test"), "t1",
+                "{\"t1\":{\"properties\":{\"n\":{\"type\":\"nested\",\"properties\":{\"a\":{\"type\":\"string\"},"
+                + "\"o\":{\"type\":\"object\",\"properties\":{\"b\":{\"type\":\"long\"}}}}},"
+                + "\"d\":{\"type\":\"object\",\"enabled\":false}}}}");
+        assertThat(unmapped(docMapper, "{\"n\":[{\"a\":\"x\"},{\"a\":\"y\",\"o\":{\"b\":1}}]}"), equalTo(false));
+        assertThat(unmapped(docMapper, "{\"n\":{\"a\":\"x\",\"o\":{\"c\":1}}}"), equalTo(true));
+        assertThat(unmapped(docMapper, "{\"n\":[{\"a\":\"x\"},{\"z\":\"y\"}]}"), equalTo(true));
+        // disabled objects are never mapped, null values don't update the mapping.
+        assertThat(unmapped(docMapper, "{\"d\":{\"any\":\"x\"},\"n\":{\"z\":null}}"), equalTo(false));
+    }
+
+    @Test
+    public void testDynamicTemplates() throws Exception {
+        DocumentMapper docMapper = mapper(createIndex("test"), "t1",
+                "{\"t1\":{\"dynamic_templates\":[{\"strings\":{\"match\":\"s_*\",\"mapping\":{\"type\":\"string\",\"index\":\"not_analyzed\"}}}],"
+                + "\"properties\":{\"a\":{\"type\":\"string\"},\"s_known\":{\"type\":\"string\",\"index\":\"not_analyzed\"}}}}");
+        assertThat(unmapped(docMapper, "{\"a\":\"x\",\"s_known\":\"y\"}"), equalTo(false));
+        // a field matching a dynamic template still requires a mapping update.
+        assertThat(unmapped(docMapper, "{\"a\":\"x\",\"s_new\":\"y\"}"), equalTo(true));
+    }
+
+    @Test
+    public void testParent() throws Exception {
+        IndexService indexService = createIndex("test");
+        mapper(indexService, "p", "{\"p\":{\"properties\":{\"name\":{\"type\":\"string\"}}}}");
+        DocumentMapper docMapper = mapper(indexService, "c",
+                "{\"c\":{\"_parent\":{\"type\":\"p\"},\"properties\":{\"a\":{\"type\":\"string\"}}}}");
+        assertThat(unmapped(docMapper, "{\"a\":\"x\"}"), equalTo(false));
+        assertThat(unmapped(docMapper, "{\"a\":\"x\",\"b\":\"y\"}"), equalTo(true));
+    }
+
+    @Test
+    public void testCopyTo() throws Exception {
+        DocumentMapper docMapper = mapper(createIndex("test"), "t1",
+                "{\"t1\":{\"properties\":{\"a\":{\"type\":\"string\",\"copy_to\":\"all\"},"
+                + "\"b\":{\"type\":\"string\",\"copy_to\":\"c\"},\"c\":{\"type\":\"string\"}}}}");
+        assertThat(unmapped(docMapper, "{\"b\":\"x\"}"), equalTo(false));
+        // the missing copy_to target is dynamically mapped.
+        assertThat(unmapped(docMapper, "{\"a\":\"x\"}"), equalTo(true));
+        assertThat(unmapped(docMapper, "{\"a\":null}"), equalTo(false));
+    }
+}
@@ -0,0 +1,62 @@
+package org.elassandra.index;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+// in the org.elassandra.index package to check the mapping info of the secondary indices.
+public class MappingUpdateTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testMappingUpdateOnOneTable() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test1").get());
+        assertAcked(client().admin().indices().prepareCreate("test2").get());
+        ensureGreen("test1", "test2");
+
+        client().prepareIndex("test1", "t1", "1").setSource("{\"name\":\"a\"}").get();
+        client().prepareIndex("test2", "t2", "1").setSource("{\"name\":\"b\"}").get();
+
+        ElasticSecondaryIndex esi1 = ElasticSecondaryIndex.elasticSecondayIndices.get("test1.t1");
+        ElasticSecondaryIndex esi2 = ElasticSecondaryIndex.elasticSecondayIndices.get("test2.t2");
+        assertThat(esi1, notNullValue());
+        assertThat(esi2, notNullValue());
+        ElasticSecondaryIndex.MappingInfo mappingInfo1 = esi1.mappingInfo;
+        ElasticSecondaryIndex.MappingInfo mappingInfo2 = esi2.mappingInfo;
+        ClusterState previousState = clusterService().state();
+
+        // only the secondary index of test1.t1 is updated, test2.t2 keeps indexing.
+        assertAcked(client().admin().indices().preparePutMapping("test1").setType("t1")
+                .setSource(XContentFactory.jsonBuilder().startObject().startObject("t1").startObject("properties")
+                        .startObject("status").field("type", "string").field("index", "not_analyzed").field("cql_collection", "singleton").endObject()
+                        .endObject().endObject().endObject())
+                .get());
+        ClusterState state = clusterService().state();
+        assertThat(esi1.mappingInfo, not(sameInstance(mappingInfo1)));
+        assertThat(esi2.mappingInfo, sameInstance(mappingInfo2));
+        client().prepareIndex("test2", "t2", "2").setSource("{\"name\":\"c\"}").get();
+
+        // new column indexed through CQL once the mapping is applied.
+        process(ConsistencyLevel.ONE, "INSERT INTO test1.t1 (\"_id\", name, status) VALUES ('2', ['d'], 'active')");
+        client().admin().indices().prepareRefresh("test1", "test2").get();
+
+        assertThat(client().prepareSearch("test1").setTypes("t1").setQuery(QueryBuilders.termQuery("status", "active")).get().getHits().getTotalHits(), equalTo(1L));
+        assertThat(client().prepareSearch("test1").setTypes("t1").get().getHits().getTotalHits(), equalTo(2L));
+        assertThat(client().prepareSearch("test2").setTypes("t2").get().getHits().getTotalHits(), equalTo(2L));
+        assertThat(esi2.mappingInfo, sameInstance(mappingInfo2));
+
+        // the put mapping only affects the changed table.
+        ElasticSecondaryIndicesUpdater updater = new ElasticSecondaryIndicesUpdater(null);
+        assertThat(updater.affectedIndices(new ClusterChangedEvent("test", state, previousState)), contains(esi1));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class TransportSearchActionTests extends ESTestCase {
+
+    @Test
+    public void testIsAggregationOnly() {
+        SearchRequest searchRequest = new SearchRequest("index").source(new SearchSourceBuilder().size(0));
+        assertThat(TransportSearchAction.isAggregationOnly(searchRequest), equalTo(true));
+
+        searchRequest = new SearchRequest("index").source("{\"query\":{\"match_all\":{}},\"aggs\":{\"size\":{\"max\":{\"field\":\"size\"}}},\"size\":0}");
+        assertThat(TransportSearchAction.isAggregationOnly(searchRequest), equalTo(true));
+
+        searchRequest = new SearchRequest("index").source(new SearchSourceBuilder().size(10));
+        assertThat(TransportSearchAction.isAggregationOnly(searchRequest), equalTo(false));
+
+        searchRequest = new SearchRequest("index").source(new SearchSourceBuilder());
+        assertThat(TransportSearchAction.isAggregationOnly(searchRequest), equalTo(false));
+
+        // extra source overrides the source
+        searchRequest = new SearchRequest("index").source(new SearchSourceBuilder().size(10)).extraSource(new SearchSourceBuilder().size(0));
+        assertThat(TransportSearchAction.isAggregationOnly(searchRequest), equalTo(true));
+
+        searchRequest = new SearchRequest("index").source(new SearchSourceBuilder().size(0)).scroll("1m");
+        assertThat(TransportSearchAction.isAggregationOnly(searchRequest), equalTo(false));
+
+        searchRequest = new SearchRequest("index").source(new SearchSourceBuilder().size(0)).searchType(SearchType.DFS_QUERY_THEN_FETCH);
+        assertThat(TransportSearchAction.isAggregationOnly(searchRequest), equalTo(false));
+    }
+}
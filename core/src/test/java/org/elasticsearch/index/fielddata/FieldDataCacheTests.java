@@ -114,6 +114,11 @@ public class FieldDataCacheTests extends ESTestCase {
         @Override
         public void clear(String fieldName) {
         }
+
+        @Override
+        public boolean hasGlobalOrdinals(ShardId shardId) {
+            return false;
+        }
     }
 
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.search.controller;
+
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SortField;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class SearchPhaseControllerTests extends ESTestCase {
+
+    @Test
+    public void testMergeTopDocsByScore() {
+        List<ScoreDoc[]> docs = new ArrayList<>();
+        docs.add(new ScoreDoc[] { new ScoreDoc(1, 5f, 0), new ScoreDoc(2, 1f, 0) });
+        docs.add(new ScoreDoc[] { new ScoreDoc(3, 4f, 1), new ScoreDoc(4, 1f, 1) });
+        docs.add(new ScoreDoc[0]);
+        ScoreDoc[] merged = SearchPhaseController.mergeTopDocs(docs, null, 3);
+        assertThat(merged.length, equalTo(3));
+        assertThat(merged[0].doc, equalTo(1));
+        assertThat(merged[1].doc, equalTo(3));
+        // ties are broken by shard index
+        assertThat(merged[2].doc, equalTo(2));
+
+        // merging already merged docs keeps their shard index
+        docs = new ArrayList<>();
+        docs.add(merged);
+        docs.add(new ScoreDoc[] { new ScoreDoc(5, 4.5f, 2) });
+        merged = SearchPhaseController.mergeTopDocs(docs, null, 10);
+        assertThat(merged.length, equalTo(4));
+        assertThat(merged[1].doc, equalTo(5));
+        assertThat(merged[1].shardIndex, equalTo(2));
+        assertThat(merged[2].shardIndex, equalTo(1));
+    }
+
+    @Test
+    public void testMergeTopDocsByField() {
+        SortField[] sortFields = new SortField[] { new SortField("field", SortField.Type.LONG, true) };
+        List<ScoreDoc[]> docs = new ArrayList<>();
+        docs.add(new ScoreDoc[] { new FieldDoc(1, Float.NaN, new Object[] { 10L }, 0), new FieldDoc(2, Float.NaN, new Object[] { 2L }, 0) });
+        docs.add(new ScoreDoc[] { new FieldDoc(3, Float.NaN, new Object[] { 7L }, 1) });
+        ScoreDoc[] merged = SearchPhaseController.mergeTopDocs(docs, sortFields, 10);
+        int[] mergedDocs = new int[merged.length];
+        for (int i = 0; i < merged.length; i++) {
+            mergedDocs[i] = merged[i].doc;
+        }
+        assertThat(Arrays.toString(mergedDocs), equalTo("[1, 3, 2]"));
+    }
+}
@@ -53,8 +53,10 @@ import org.elassandra.cluster.routing.AbstractSearchStrategy.Router;
 import org.elassandra.cluster.routing.PrimaryFirstSearchStrategy.PrimaryFirstRouter;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionWriteResponse.ShardInfo;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterService;
@@ -522,6 +524,12 @@ public class TestClusterService implements ClusterService {
         return false;
     }
 
+    @Override
+    public Token getToken(String index, String type, Object[] partitionKeyValues) throws IOException {
+        // TODO Auto-generated method stub
+        return null;
+    }
+
     @Override
     public boolean tokenRangesContains(Collection<Range<Token>> shardTokenRanges, Token token) {
         // TODO Auto-generated method stub
@@ -654,6 +662,19 @@ public class TestClusterService implements ClusterService {
         
     }
 
+    @Override
+    public void insertDocument(IndicesService indicesService, IndexRequest request, IndexMetaData indexMetaData,
+            ActionListener<Void> listener) throws Exception {
+        // never leave the caller waiting on the listener.
+        listener.onFailure(new UnsupportedOperationException("insertDocument is not supported by " + getClass().getSimpleName()));
+    }
+
+    @Override
+    public boolean updateDocumentColumns(IndicesService indicesService, UpdateRequest request, ConsistencyLevel cl,
+            ActionListener<Void> listener) throws Exception {
+        return false;
+    }
+
     @Override
     public void addPost(ClusterStateListener listener) {
         // TODO Auto-generated method stub
@@ -692,6 +713,16 @@ public class TestClusterService implements ClusterService {
         
     }
 
+    @Override
+    public void deferShardStatesPublication(Collection<String> indices) {
+        // no gossip to publish shard states to
+    }
+
+    @Override
+    public void publishDeferredShardStates(Collection<String> indices) {
+        // no gossip to publish shard states to
+    }
+
     @Override
     public void dropSecondaryIndex(CFMetaData cfMetaData) throws RequestExecutionException {
         // TODO Auto-generated method stub
@@ -758,4 +789,16 @@ public class TestClusterService implements ClusterService {
         // TODO Auto-generated method stub
         return null;
     }
+
+    @Override
+    public UntypedResultSet fetchTokenRangeInternal(String ksName, String index, String type, String[] columns,
+            Range<Token> range, int pageSize, Map<String, ColumnDefinition> columnDefs)
+            throws ConfigurationException, IOException {
+        throw new UnsupportedOperationException("fetchTokenRangeInternal is not supported by " + getClass().getSimpleName());
+    }
+
+    @Override
+    public String elasticId(String ksName, String type, Row row) throws IOException {
+        throw new UnsupportedOperationException("elasticId is not supported by " + getClass().getSimpleName());
+    }
 }
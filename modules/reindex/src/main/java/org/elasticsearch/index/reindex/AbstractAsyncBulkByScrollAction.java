@@ -132,7 +132,7 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
                                 : firstSearchRequest.types());
             }
             // Copy firstSearchRequest to give it mainRequest's context
-            client.search(new SearchRequest(firstSearchRequest, mainRequest), new ActionListener<SearchResponse>() {
+            doSearch(new SearchRequest(firstSearchRequest, mainRequest), new ActionListener<SearchResponse>() {
                 @Override
                 public void onResponse(SearchResponse response) {
                     logger.debug("[{}] documents match query", response.getHits().getTotalHits());
@@ -149,6 +149,20 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
         }
     }
 
+    /**
+     * Execute the initial search. Subclasses may override this to read documents from somewhere other than a search scroll.
+     */
+    protected void doSearch(SearchRequest request, ActionListener<SearchResponse> listener) {
+        client.search(request, listener);
+    }
+
+    /**
+     * Fetch the next batch of documents. Subclasses may override this to read documents from somewhere other than a search scroll.
+     */
+    protected void doScroll(SearchScrollRequest request, ActionListener<SearchResponse> listener) {
+        client.searchScroll(request, listener);
+    }
+
     /**
      * Process a scroll response.
      * @param delay how long to delay processesing the response. This delay is how throttling is applied to the action.
@@ -322,7 +336,7 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
         SearchScrollRequest request = new SearchScrollRequest(mainRequest);
         // Add the wait time into the scroll timeout so it won't timeout while we wait for throttling
         request.scrollId(scroll.get()).scroll(timeValueNanos(firstSearchRequest.scroll().keepAlive().nanos() + waitTime));
-        client.searchScroll(request, new ActionListener<SearchResponse>() {
+        doScroll(request, new ActionListener<SearchResponse>() {
             @Override
             public void onResponse(SearchResponse response) {
                 onScrollResponse(timeValueNanos(max(0, earliestNextBatchStartTime - System.nanoTime())), response);
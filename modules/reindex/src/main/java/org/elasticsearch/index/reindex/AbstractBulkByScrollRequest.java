@@ -37,6 +37,7 @@ import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -108,6 +109,17 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
      */
     private float requestsPerSecond = Float.POSITIVE_INFINITY;
 
+    /**
+     * Should each data node of the local datacenter process its primary token ranges by reading its local Cassandra data? Defaults to
+     * false, meaning the coordinating node scrolls over the whole search result.
+     */
+    private boolean distributed = false;
+
+    /**
+     * The coordinating task of a distributed request, set on the sub-requests sent to the data nodes so that cancelling it cancels them.
+     */
+    private TaskId parentTaskId = TaskId.EMPTY_TASK_ID;
+
     public AbstractBulkByScrollRequest() {
     }
 
@@ -310,9 +322,40 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         return self();
     }
 
+    /**
+     * Should each data node of the local datacenter process its primary token ranges by reading its local Cassandra data?
+     */
+    public boolean isDistributed() {
+        return distributed;
+    }
+
+    /**
+     * Should each data node of the local datacenter process its primary token ranges by reading its local Cassandra data? This only
+     * applies to match_all requests over indices sharing the same keyspace.
+     */
+    public Self setDistributed(boolean distributed) {
+        this.distributed = distributed;
+        return self();
+    }
+
+    /**
+     * The coordinating task of a distributed request, unset unless this is the sub-request of a data node.
+     */
+    public TaskId getParentTask() {
+        return parentTaskId;
+    }
+
+    /**
+     * Set the coordinating task of the sub-request of a data node.
+     */
+    public Self setParentTask(String parentTaskNode, long parentTaskId) {
+        this.parentTaskId = new TaskId(parentTaskNode, parentTaskId);
+        return self();
+    }
+
     @Override
     public Task createTask(long id, String type, String action) {
-        return new BulkByScrollTask(id, type, action, getDescription(), requestsPerSecond);
+        return new BulkByScrollTask(id, type, action, getDescription(), parentTaskId, requestsPerSecond);
     }
 
     @Override
@@ -330,6 +373,10 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         if (in.getVersion().onOrAfter(Version.V_2_4_0)) {
             requestsPerSecond = in.readFloat();
         }
+        if (in.getVersion().onOrAfter(Version.V_2_4_3)) {
+            distributed = in.readBoolean();
+            parentTaskId = new TaskId(in);
+        }
     }
 
     @Override
@@ -346,6 +393,10 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         if (out.getVersion().onOrAfter(Version.V_2_4_0)) {
             out.writeFloat(requestsPerSecond);
         }
+        if (out.getVersion().onOrAfter(Version.V_2_4_3)) {
+            out.writeBoolean(distributed);
+            parentTaskId.writeTo(out);
+        }
     }
 
     /**
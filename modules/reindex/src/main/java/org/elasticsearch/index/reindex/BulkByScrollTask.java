@@ -30,6 +30,7 @@ import org.elasticsearch.common.util.concurrent.FutureUtils;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.tasks.CancellableTask;
 import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
@@ -72,7 +73,11 @@ public class BulkByScrollTask extends CancellableTask {
     private final AtomicReference<DelayedPrepareBulkRequest> delayedPrepareBulkRequestReference = new AtomicReference<>();
 
     public BulkByScrollTask(long id, String type, String action, String description, float requestsPerSecond) {
-        super(id, type, action, description);
+        this(id, type, action, description, TaskId.EMPTY_TASK_ID, requestsPerSecond);
+    }
+
+    public BulkByScrollTask(long id, String type, String action, String description, TaskId parentTaskId, float requestsPerSecond) {
+        super(id, type, action, description, parentTaskId);
         setRequestsPerSecond(requestsPerSecond);
     }
 
@@ -386,6 +391,21 @@ public class BulkByScrollTask extends CancellableTask {
         retries.incrementAndGet();
     }
 
+    /**
+     * Add the counters of a sub-request, typically a node processing its local token ranges of a distributed request, to this task.
+     */
+    void countSubRequest(Status status) {
+        total.addAndGet(status.getTotal());
+        updated.addAndGet(status.getUpdated());
+        created.addAndGet(status.getCreated());
+        deleted.addAndGet(status.getDeleted());
+        noops.addAndGet(status.getNoops());
+        batch.addAndGet(status.getBatches());
+        versionConflicts.addAndGet(status.getVersionConflicts());
+        retries.addAndGet(status.getRetries());
+        throttledNanos.addAndGet(status.getThrottled().nanos());
+    }
+
     float getRequestsPerSecond() {
         return requestsPerSecond;
     }
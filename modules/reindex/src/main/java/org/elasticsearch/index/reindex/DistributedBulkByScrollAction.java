@@ -0,0 +1,276 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.service.StorageService;
+import org.apache.cassandra.utils.FBUtilities;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse.Failure;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.BaseTransportResponseHandler;
+import org.elasticsearch.transport.TransportChannel;
+import org.elasticsearch.transport.TransportException;
+import org.elasticsearch.transport.TransportResponse;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Collections.synchronizedList;
+import static org.elasticsearch.common.unit.TimeValue.timeValueNanos;
+
+/**
+ * Runs a bulk-by-scroll request on every data node of the local datacenter. Each node processes its primary token ranges by reading its
+ * local Cassandra data with a {@link LocalTokenRangeScroll} rather than scrolling through a search context, and the per-node results are
+ * merged into the coordinating task. The size and the throttle of the request are divided among the nodes, whose sub-requests are
+ * children of the coordinating task, and failed nodes are reported as search failures of the merged response. Only match_all requests
+ * over indices sharing the same keyspace can be distributed this way.
+ */
+abstract class DistributedBulkByScrollAction<Request extends AbstractBulkByScrollRequest<Request>,
+        Response extends BulkIndexByScrollResponse> {
+    private final ESLogger logger;
+    private final ClusterService clusterService;
+    private final TransportService transportService;
+    private final IndexNameExpressionResolver indexNameExpressionResolver;
+    private final String nodeAction;
+
+    DistributedBulkByScrollAction(ESLogger logger, ClusterService clusterService, TransportService transportService,
+            IndexNameExpressionResolver indexNameExpressionResolver, String nodeAction) {
+        this.logger = logger;
+        this.clusterService = clusterService;
+        this.transportService = transportService;
+        this.indexNameExpressionResolver = indexNameExpressionResolver;
+        this.nodeAction = nodeAction;
+    }
+
+    /**
+     * Build an empty request to copy the main request into.
+     */
+    protected abstract Request newRequest();
+
+    /**
+     * Build an empty response to read a node response into.
+     */
+    protected abstract Response newResponse();
+
+    protected abstract Response buildResponse(TimeValue took, BulkByScrollTask.Status status, List<Failure> indexingFailures,
+            List<ShardSearchFailure> searchFailures, boolean timedOut);
+
+    /**
+     * Send the request to the data nodes of the local datacenter, each with its primary token ranges, and merge their responses.
+     */
+    void execute(final BulkByScrollTask task, Request request, final ActionListener<Response> listener) {
+        final long startTime = System.nanoTime();
+        ClusterState state = clusterService.state();
+        String ksName = keyspace(state, indexNameExpressionResolver.concreteIndices(state, request.getSearchRequest()));
+        validateQuery(request.getSearchRequest());
+
+        String localDc = DatabaseDescriptor.getEndpointSnitch().getDatacenter(FBUtilities.getBroadcastAddress());
+        Map<DiscoveryNode, Collection<Range<Token>>> nodeRanges = new LinkedHashMap<>();
+        for (ObjectCursor<DiscoveryNode> cursor : state.nodes().dataNodes().values()) {
+            InetAddress address = cursor.value.getInetAddress();
+            if (localDc.equals(DatabaseDescriptor.getEndpointSnitch().getDatacenter(address))) {
+                Collection<Range<Token>> ranges = StorageService.instance.getPrimaryRangeForEndpointWithinDC(ksName, address);
+                if (ranges.isEmpty() == false) {
+                    nodeRanges.put(cursor.value, ranges);
+                }
+            }
+        }
+        // size and throttle are shared by the nodes, their sub-requests are children of the coordinating task.
+        final Map<DiscoveryNode, Request> nodeRequests = new LinkedHashMap<>();
+        int i = 0;
+        for (Map.Entry<DiscoveryNode, Collection<Range<Token>>> entry : nodeRanges.entrySet()) {
+            int nodeSize = nodeSize(request.getSize(), i++, nodeRanges.size());
+            if (nodeSize == 0) {
+                continue;
+            }
+            Request nodeRequest;
+            try {
+                nodeRequest = copy(request);
+            } catch (IOException e) {
+                listener.onFailure(e);
+                return;
+            }
+            nodeRequest.setSize(nodeSize);
+            nodeRequest.setParentTask(clusterService.localNode().id(), task.getId());
+            nodeRequest.getSearchRequest().tokenRanges(entry.getValue());
+            nodeRequests.put(entry.getKey(), nodeRequest);
+        }
+        if (nodeRequests.isEmpty()) {
+            listener.onResponse(buildResponse(timeValueNanos(System.nanoTime() - startTime), task.getStatus(),
+                    new ArrayList<Failure>(), new ArrayList<ShardSearchFailure>(), false));
+            return;
+        }
+        // nodes without a share of the size don't get a request, nor a share of the throttle.
+        for (Request nodeRequest : nodeRequests.values()) {
+            nodeRequest.setRequestsPerSecond(request.getRequestsPerSecond() / nodeRequests.size());
+        }
+
+        final CountDown countDown = new CountDown(nodeRequests.size());
+        final List<Failure> indexingFailures = synchronizedList(new ArrayList<Failure>());
+        final List<ShardSearchFailure> searchFailures = synchronizedList(new ArrayList<ShardSearchFailure>());
+        final AtomicBoolean timedOut = new AtomicBoolean(false);
+        for (Map.Entry<DiscoveryNode, Request> entry : nodeRequests.entrySet()) {
+            final DiscoveryNode node = entry.getKey();
+            logger.debug("sending [{}] token ranges of [{}] to node [{}]", nodeRanges.get(node).size(), ksName, node);
+            transportService.getTaskManager().registerChildTask(task, node.id());
+            transportService.sendRequest(node, nodeAction, entry.getValue(), new BaseTransportResponseHandler<Response>() {
+                @Override
+                public Response newInstance() {
+                    return newResponse();
+                }
+
+                @Override
+                public void handleResponse(Response response) {
+                    task.countSubRequest(response.getStatus());
+                    indexingFailures.addAll(response.getIndexingFailures());
+                    searchFailures.addAll(response.getSearchFailures());
+                    if (response.isTimedOut()) {
+                        timedOut.set(true);
+                    }
+                    onNodeDone();
+                }
+
+                @Override
+                public void handleException(TransportException exp) {
+                    // the other nodes go on, the failure of this node is reported with theirs.
+                    logger.warn("failed to execute [{}] on node [{}]", exp, nodeAction, node);
+                    searchFailures.add(new ShardSearchFailure(exp));
+                    onNodeDone();
+                }
+
+                @Override
+                public String executor() {
+                    return ThreadPool.Names.SAME;
+                }
+
+                private void onNodeDone() {
+                    if (countDown.countDown()) {
+                        listener.onResponse(buildResponse(timeValueNanos(System.nanoTime() - startTime), task.getStatus(),
+                                indexingFailures, searchFailures, timedOut.get()));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the share of the size of the node i among the provided number of nodes, the first nodes taking the remainder.
+     * The quota of a node matching fewer documents than its share is not given to the other nodes, so the request may
+     * process fewer documents than its size even though more documents match.
+     */
+    static int nodeSize(int size, int i, int nodes) {
+        if (size == AbstractBulkByScrollRequest.SIZE_ALL_MATCHES) {
+            return size;
+        }
+        return size / nodes + (i < size % nodes ? 1 : 0);
+    }
+
+    private Request copy(Request request) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        request.writeTo(out);
+        Request copy = newRequest();
+        copy.readFrom(StreamInput.wrap(out.bytes()));
+        return copy;
+    }
+
+    /**
+     * All the indices must be backed by the same keyspace because token ranges are computed for one keyspace.
+     */
+    private static String keyspace(ClusterState state, String[] indices) {
+        String ksName = null;
+        for (String index : indices) {
+            String indexKeyspace = state.metaData().index(index).keyspace();
+            if (ksName == null) {
+                ksName = indexKeyspace;
+            } else if (ksName.equals(indexKeyspace) == false) {
+                throw new IllegalArgumentException("distributed requests require all indices to be in the same keyspace but found ["
+                        + ksName + "] and [" + indexKeyspace + "]");
+            }
+        }
+        if (ksName == null) {
+            throw new IllegalArgumentException("distributed requests require at least one index");
+        }
+        return ksName;
+    }
+
+    /**
+     * Local token range reads don't filter documents so only match_all can be distributed.
+     */
+    private static void validateQuery(SearchRequest searchRequest) {
+        if (searchRequest.source() == null) {
+            return;
+        }
+        Object query = XContentHelper.convertToMap(searchRequest.source(), false).v2().get("query");
+        if (query != null && (query instanceof Map == false || ((Map<?, ?>) query).size() != 1
+                || ((Map<?, ?>) query).containsKey("match_all") == false)) {
+            throw new IllegalArgumentException("distributed requests only support the match_all query");
+        }
+    }
+
+    /**
+     * Listener sending the response of a node request back to the coordinating node.
+     */
+    static <R extends TransportResponse> ActionListener<R> channelListener(final ESLogger logger, final String action,
+            final TransportChannel channel) {
+        return new ActionListener<R>() {
+            @Override
+            public void onResponse(R response) {
+                try {
+                    channel.sendResponse(response);
+                } catch (Throwable e) {
+                    onFailure(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                try {
+                    channel.sendResponse(e);
+                } catch (Exception e1) {
+                    logger.warn("Failed to send error response for action [{}]", e1, action);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.cql3.UntypedResultSet;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.search.SearchHitField;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.internal.InternalSearchHit;
+import org.elasticsearch.search.internal.InternalSearchHits;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the documents of some indices from the local Cassandra storage, one token range at a time, and returns them as pages of
+ * {@link SearchResponse} so they can be consumed like a search scroll by {@link AbstractAsyncBulkByScrollAction}. Token ranges must be
+ * owned by the local node, no search context is ever opened and the returned scroll id is always null. Not thread safe, pages must be
+ * requested one after the other.
+ */
+class LocalTokenRangeScroll {
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private final ClusterService clusterService;
+    private final ThreadPool threadPool;
+    private final String localNodeId;
+    private final int pageSize;
+    private final Iterator<Source> sources;
+
+    private Source source;
+    private Iterator<UntypedResultSet.Row> rows;
+    private long total = 0;
+
+    /**
+     * Build a scroll over the token ranges of searchRequest for the provided concrete indices. The page size is the size of the search
+     * source.
+     */
+    LocalTokenRangeScroll(ClusterService clusterService, ThreadPool threadPool, String[] indices, SearchRequest searchRequest) {
+        if (searchRequest.tokenRanges() == null) {
+            throw new IllegalArgumentException("local token range scroll requires token ranges");
+        }
+        this.clusterService = clusterService;
+        this.threadPool = threadPool;
+        this.localNodeId = clusterService.localNode().id();
+        this.pageSize = pageSize(searchRequest);
+        String[] types = searchRequest.types();
+        List<Source> sources = new ArrayList<>();
+        for (String index : indices) {
+            MapperService mapperService = clusterService.indexServiceSafe(index).mapperService();
+            Collection<String> indexTypes = (types == null || types.length == 0) ? mapperService.types() : Arrays.asList(types);
+            for (String type : indexTypes) {
+                if (type.startsWith("_") || mapperService.documentMapper(type) == null) {
+                    continue;
+                }
+                for (Range<Token> range : searchRequest.tokenRanges()) {
+                    for (Range<Token> unwrapped : range.unwrap()) {
+                        sources.add(new Source(index, type, unwrapped));
+                    }
+                }
+            }
+        }
+        this.sources = sources.iterator();
+    }
+
+    private static int pageSize(SearchRequest searchRequest) {
+        if (searchRequest.source() == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        Object size = XContentHelper.convertToMap(searchRequest.source(), false).v2().get("size");
+        return size instanceof Number && ((Number) size).intValue() > 0 ? ((Number) size).intValue() : DEFAULT_PAGE_SIZE;
+    }
+
+    /**
+     * Read the next page of documents on the generic thread pool because reading local data blocks.
+     */
+    void nextPage(final ActionListener<SearchResponse> listener) {
+        threadPool.generic().execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() throws Exception {
+                listener.onResponse(nextPage());
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                listener.onFailure(t);
+            }
+        });
+    }
+
+    /**
+     * Read the next page of documents. An empty page means all token ranges have been read.
+     */
+    SearchResponse nextPage() throws IOException {
+        List<InternalSearchHit> hits = new ArrayList<>(pageSize);
+        while (hits.size() < pageSize) {
+            if (rows == null || rows.hasNext() == false) {
+                if (sources.hasNext() == false) {
+                    break;
+                }
+                source = sources.next();
+                rows = source.open().iterator();
+                continue;
+            }
+            hits.add(source.hit(rows.next()));
+        }
+        total += hits.size();
+        InternalSearchHits searchHits = new InternalSearchHits(hits.toArray(new InternalSearchHit[hits.size()]), total, 0);
+        InternalSearchResponse internalResponse = new InternalSearchResponse(searchHits, null, null, null, false, null);
+        return new SearchResponse(internalResponse, null, 1, 1, 0, ShardSearchFailure.EMPTY_ARRAY);
+    }
+
+    /**
+     * A token range of a type to read.
+     */
+    private class Source {
+        private final String index;
+        private final String type;
+        private final Range<Token> range;
+        private final SearchShardTarget shardTarget;
+
+        Source(String index, String type, Range<Token> range) {
+            this.index = index;
+            this.type = type;
+            this.range = range;
+            this.shardTarget = new SearchShardTarget(localNodeId, index, 0);
+        }
+
+        UntypedResultSet open() throws IOException {
+            DocumentMapper docMapper = clusterService.indexServiceSafe(index).mapperService().documentMapper(type);
+            Map<String, ColumnDefinition> columnDefs = docMapper.getColumnDefinitions();
+            String ksName = clusterService.state().metaData().index(index).keyspace();
+            return clusterService.fetchTokenRangeInternal(ksName, index, type, columnDefs.keySet().toArray(new String[columnDefs.size()]),
+                    range, pageSize, columnDefs);
+        }
+
+        InternalSearchHit hit(UntypedResultSet.Row row) throws IOException {
+            String ksName = clusterService.state().metaData().index(index).keyspace();
+            Map<String, Object> sourceMap = clusterService.rowAsMap(index, type, row);
+            InternalSearchHit hit = new InternalSearchHit(0, clusterService.elasticId(ksName, type, row), new Text(type),
+                    Collections.<String, SearchHitField>emptyMap());
+            hit.shard(shardTarget);
+            hit.version(Versions.MATCH_ANY);
+            hit.sourceRef(XContentFactory.contentBuilder(XContentType.JSON).map(sourceMap).bytes());
+            return hit;
+        }
+    }
+}
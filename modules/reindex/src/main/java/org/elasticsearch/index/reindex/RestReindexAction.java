@@ -196,6 +196,7 @@ public class RestReindexAction extends AbstractBaseReindexRestHandler<ReindexReq
 
     public static void parseCommon(AbstractBulkByScrollRequest<?> internalRequest, RestRequest request) {
         internalRequest.setRefresh(request.paramAsBoolean("refresh", internalRequest.isRefresh()));
+        internalRequest.setDistributed(request.paramAsBoolean("distributed", internalRequest.isDistributed()));
         internalRequest.setTimeout(request.paramAsTime("timeout", internalRequest.getTimeout()));
         String consistency = request.param("consistency");
         if (consistency != null) {
@@ -25,6 +25,8 @@ import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.bulk.BulkItemResponse.Failure;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
 import org.elasticsearch.action.search.ShardSearchFailure;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.AutoCreateIndex;
@@ -44,6 +46,8 @@ import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportChannel;
+import org.elasticsearch.transport.TransportRequestHandler;
 import org.elasticsearch.transport.TransportService;
 
 import java.util.List;
@@ -53,10 +57,13 @@ import static java.util.Objects.requireNonNull;
 import static org.elasticsearch.index.VersionType.INTERNAL;
 
 public class TransportReindexAction extends HandledTransportAction<ReindexRequest, ReindexResponse> {
+    public static final String NODE_ACTION = ReindexAction.NAME + "[n]";
+
     private final ClusterService clusterService;
     private final ScriptService scriptService;
     private final AutoCreateIndex autoCreateIndex;
     private final Client client;
+    private final DistributedBulkByScrollAction<ReindexRequest, ReindexResponse> distributedAction;
 
     @Inject
     public TransportReindexAction(Settings settings, ThreadPool threadPool, ActionFilters actionFilters,
@@ -68,16 +75,70 @@ public class TransportReindexAction extends HandledTransportAction<ReindexReques
         this.scriptService = scriptService;
         this.autoCreateIndex = autoCreateIndex;
         this.client = client;
+        this.distributedAction = new DistributedBulkByScrollAction<ReindexRequest, ReindexResponse>(logger, clusterService,
+                transportService, indexNameExpressionResolver, NODE_ACTION) {
+            @Override
+            protected ReindexRequest newRequest() {
+                return new ReindexRequest();
+            }
+
+            @Override
+            protected ReindexResponse newResponse() {
+                return new ReindexResponse();
+            }
+
+            @Override
+            protected ReindexResponse buildResponse(TimeValue took, BulkByScrollTask.Status status, List<Failure> indexingFailures,
+                    List<ShardSearchFailure> searchFailures, boolean timedOut) {
+                return new ReindexResponse(took, status, indexingFailures, searchFailures, timedOut);
+            }
+        };
+        transportService.registerRequestHandler(NODE_ACTION, ReindexRequest.class, ThreadPool.Names.GENERIC, new NodeTransportHandler());
     }
 
     @Override
     protected void doExecute(Task task, ReindexRequest request, ActionListener<ReindexResponse> listener) {
         validateAgainstAliases(request.getSearchRequest(), request.getDestination(), indexNameExpressionResolver, autoCreateIndex,
                 clusterService.state());
+        if (request.isDistributed()) {
+            distributedAction.execute((BulkByScrollTask) task, request, listener);
+            return;
+        }
         new AsyncIndexBySearchAction((BulkByScrollTask) task, logger, scriptService, client, threadPool,
                 clusterService.state().nodes().smallestNonClientNodeVersion(), request, listener).start();
     }
 
+    /**
+     * Reindex the local primary token ranges of a distributed request.
+     */
+    class NodeTransportHandler extends TransportRequestHandler<ReindexRequest> {
+        @Override
+        public void messageReceived(ReindexRequest request, TransportChannel channel, Task task) throws Exception {
+            new AsyncIndexBySearchAction((BulkByScrollTask) task, logger, scriptService, client, threadPool,
+                    clusterService.state().nodes().smallestNonClientNodeVersion(), request,
+                    DistributedBulkByScrollAction.<ReindexResponse>channelListener(logger, NODE_ACTION, channel)) {
+                private LocalTokenRangeScroll localScroll;
+
+                @Override
+                protected void doSearch(SearchRequest searchRequest, ActionListener<SearchResponse> listener) {
+                    localScroll = new LocalTokenRangeScroll(clusterService, threadPool,
+                            indexNameExpressionResolver.concreteIndices(clusterService.state(), searchRequest), searchRequest);
+                    localScroll.nextPage(listener);
+                }
+
+                @Override
+                protected void doScroll(SearchScrollRequest scrollRequest, ActionListener<SearchResponse> listener) {
+                    localScroll.nextPage(listener);
+                }
+            }.start();
+        }
+
+        @Override
+        public void messageReceived(ReindexRequest request, TransportChannel channel) throws Exception {
+            throw new UnsupportedOperationException("task required");
+        }
+    }
+
     @Override
     protected void doExecute(ReindexRequest request, ActionListener<ReindexResponse> listener) {
         throw new UnsupportedOperationException("task required");
@@ -23,6 +23,9 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BulkItemResponse.Failure;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
 import org.elasticsearch.action.search.ShardSearchFailure;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.HandledTransportAction;
@@ -45,14 +48,19 @@ import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportChannel;
+import org.elasticsearch.transport.TransportRequestHandler;
 import org.elasticsearch.transport.TransportService;
 
 import java.util.List;
 
 public class TransportUpdateByQueryAction extends HandledTransportAction<UpdateByQueryRequest, BulkIndexByScrollResponse> {
+    public static final String NODE_ACTION = UpdateByQueryAction.NAME + "[n]";
+
     private final ClusterService clusterService;
     private final Client client;
     private final ScriptService scriptService;
+    private final DistributedBulkByScrollAction<UpdateByQueryRequest, BulkIndexByScrollResponse> distributedAction;
 
     @Inject
     public TransportUpdateByQueryAction(Settings settings, ThreadPool threadPool, ActionFilters actionFilters,
@@ -63,15 +71,70 @@ public class TransportUpdateByQueryAction extends HandledTransportAction<UpdateB
         this.clusterService = clusterService;
         this.client = client;
         this.scriptService = scriptService;
+        this.distributedAction = new DistributedBulkByScrollAction<UpdateByQueryRequest, BulkIndexByScrollResponse>(logger,
+                clusterService, transportService, indexNameExpressionResolver, NODE_ACTION) {
+            @Override
+            protected UpdateByQueryRequest newRequest() {
+                return new UpdateByQueryRequest();
+            }
+
+            @Override
+            protected BulkIndexByScrollResponse newResponse() {
+                return new BulkIndexByScrollResponse();
+            }
+
+            @Override
+            protected BulkIndexByScrollResponse buildResponse(TimeValue took, BulkByScrollTask.Status status,
+                    List<Failure> indexingFailures, List<ShardSearchFailure> searchFailures, boolean timedOut) {
+                return new BulkIndexByScrollResponse(took, status, indexingFailures, searchFailures, timedOut);
+            }
+        };
+        transportService.registerRequestHandler(NODE_ACTION, UpdateByQueryRequest.class, ThreadPool.Names.GENERIC,
+                new NodeTransportHandler());
     }
 
     @Override
     protected void doExecute(Task task, UpdateByQueryRequest request,
             ActionListener<BulkIndexByScrollResponse> listener) {
+        if (request.isDistributed()) {
+            distributedAction.execute((BulkByScrollTask) task, request, listener);
+            return;
+        }
         new AsyncIndexBySearchAction((BulkByScrollTask) task, logger, scriptService, client, threadPool,
                 clusterService.state().nodes().smallestNonClientNodeVersion(), request, listener).start();
     }
 
+    /**
+     * Update the documents of the local primary token ranges of a distributed request.
+     */
+    class NodeTransportHandler extends TransportRequestHandler<UpdateByQueryRequest> {
+        @Override
+        public void messageReceived(UpdateByQueryRequest request, TransportChannel channel, Task task) throws Exception {
+            new AsyncIndexBySearchAction((BulkByScrollTask) task, logger, scriptService, client, threadPool,
+                    clusterService.state().nodes().smallestNonClientNodeVersion(), request,
+                    DistributedBulkByScrollAction.<BulkIndexByScrollResponse>channelListener(logger, NODE_ACTION, channel)) {
+                private LocalTokenRangeScroll localScroll;
+
+                @Override
+                protected void doSearch(SearchRequest searchRequest, ActionListener<SearchResponse> listener) {
+                    localScroll = new LocalTokenRangeScroll(clusterService, threadPool,
+                            indexNameExpressionResolver.concreteIndices(clusterService.state(), searchRequest), searchRequest);
+                    localScroll.nextPage(listener);
+                }
+
+                @Override
+                protected void doScroll(SearchScrollRequest scrollRequest, ActionListener<SearchResponse> listener) {
+                    localScroll.nextPage(listener);
+                }
+            }.start();
+        }
+
+        @Override
+        public void messageReceived(UpdateByQueryRequest request, TransportChannel channel) throws Exception {
+            throw new UnsupportedOperationException("task required");
+        }
+    }
+
     @Override
     protected void doExecute(UpdateByQueryRequest request, ActionListener<BulkIndexByScrollResponse> listener) {
         throw new UnsupportedOperationException("task required");
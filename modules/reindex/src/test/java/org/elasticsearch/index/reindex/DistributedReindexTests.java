@@ -0,0 +1,69 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.elasticsearch.action.index.IndexRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Distributed reindex over the primary token ranges of two data nodes.
+ */
+public class DistributedReindexTests extends ReindexTestCase {
+
+    public void testNodeSize() {
+        assertEquals(4, DistributedBulkByScrollAction.nodeSize(10, 0, 3));
+        assertEquals(3, DistributedBulkByScrollAction.nodeSize(10, 1, 3));
+        assertEquals(3, DistributedBulkByScrollAction.nodeSize(10, 2, 3));
+        assertEquals(1, DistributedBulkByScrollAction.nodeSize(1, 0, 2));
+        assertEquals(0, DistributedBulkByScrollAction.nodeSize(1, 1, 2));
+        assertEquals(AbstractBulkByScrollRequest.SIZE_ALL_MATCHES,
+                DistributedBulkByScrollAction.nodeSize(AbstractBulkByScrollRequest.SIZE_ALL_MATCHES, 1, 2));
+    }
+
+    public void testDistributedCopy() throws Exception {
+        internalCluster().ensureAtLeastNumDataNodes(2);
+        List<IndexRequestBuilder> docs = new ArrayList<>();
+        int max = 200;
+        for (int i = 0; i < max; i++) {
+            docs.add(client().prepareIndex("source", "test", Integer.toString(i)).setSource("foo", "a"));
+        }
+        indexRandom(true, docs);
+        assertHitCount(client().prepareSearch("source").setSize(0).get(), max);
+
+        // responses of both nodes are merged.
+        ReindexRequestBuilder copy = reindex().source("source").destination("dest", "all").refresh(true);
+        copy.request().setDistributed(true);
+        ReindexResponse response = copy.get();
+        assertThat(response, reindexResponseMatcher().created(max));
+        assertThat(response.getSearchFailures(), empty());
+        assertHitCount(client().prepareSearch("dest").setTypes("all").setSize(0).get(), max);
+
+        // the size is shared by the nodes, not applied by each of them.
+        copy = reindex().source("source").destination("dest", "some").size(10).refresh(true);
+        copy.request().setDistributed(true).setRequestsPerSecond(1000);
+        assertThat(copy.get(), reindexResponseMatcher().created(10));
+        assertHitCount(client().prepareSearch("dest").setTypes("some").setSize(0).get(), 10);
+    }
+}
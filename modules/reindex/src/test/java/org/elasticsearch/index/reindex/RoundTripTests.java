@@ -92,6 +92,10 @@ public class RoundTripTests extends ESTestCase {
         request.setConsistency(randomFrom(WriteConsistencyLevel.values()));
         request.setScript(random().nextBoolean() ? null : randomScript());
         request.setRequestsPerSecond(between(0, Integer.MAX_VALUE));
+        request.setDistributed(random().nextBoolean());
+        if (random().nextBoolean()) {
+            request.setParentTask(randomAsciiOfLength(5), randomPositiveLong());
+        }
     }
 
     private void assertRequestEquals(AbstractBulkIndexByScrollRequest<?> request,
@@ -110,6 +114,14 @@ public class RoundTripTests extends ESTestCase {
         } else {
             assertEquals(Float.POSITIVE_INFINITY, tripped.getRequestsPerSecond(), 0d);
         }
+        if (version.onOrAfter(Version.V_2_4_3)) {
+            assertEquals(request.isDistributed(), tripped.isDistributed());
+            assertEquals(request.getParentTask(), tripped.getParentTask());
+            assertEquals(request.getParentTask(), tripped.createTask(1, "test", "test").getParentTaskId());
+        } else {
+            assertFalse(tripped.isDistributed());
+            assertEquals(TaskId.EMPTY_TASK_ID, tripped.getParentTask());
+        }
     }
 
     public void testBulkByTaskStatus() throws IOException {